@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,7 +22,8 @@ public enum CircusTrainTableParameter {
   REPLICATION_EVENT("com.hotels.bdp.circustrain.replication.event"),
   LAST_REPLICATED("com.hotels.bdp.circustrain.last.replicated"),
   PARTITION_CHECKSUM("com.hotels.bdp.circustrain.partition.checksum"),
-  REPLICATION_MODE("com.hotels.bdp.circustrain.replication.mode");
+  REPLICATION_MODE("com.hotels.bdp.circustrain.replication.mode"),
+  SOURCE_NOTIFICATION_EVENT("com.hotels.bdp.circustrain.source.notification.event");
 
   private final String parameterName;
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,24 +13,22 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.hotels.bdp.circustrain.s3s3copier;
+package com.hotels.bdp.circustrain.api.conf;
 
-import com.amazonaws.services.s3.transfer.Copy;
+public class Checkpoints {
 
-public class CopyJob {
-  private Copy copy;
-  private CopyJobRequest copyJobRequest;
+  private String directory;
 
-  public CopyJob(Copy copy, CopyJobRequest copyJobRequest) {
-    this.copy = copy;
-    this.copyJobRequest = copyJobRequest;
+  /**
+   * @return the local directory where replication checkpoint journals are kept, or {@code null} if replications are
+   *         not checkpointed.
+   */
+  public String getDirectory() {
+    return directory;
   }
 
-  public Copy getCopy() {
-    return copy;
+  public void setDirectory(String directory) {
+    this.directory = directory;
   }
 
-  public CopyJobRequest getCopyJobRequest() {
-    return copyJobRequest;
-  }
 }
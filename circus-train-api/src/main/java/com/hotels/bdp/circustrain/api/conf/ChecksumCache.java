@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.conf;
+
+import javax.validation.constraints.Min;
+
+public class ChecksumCache {
+
+  private String file;
+  private @Min(0) int maxEntries = 100000;
+
+  /**
+   * @return the local file where the checksums of source files are kept between runs, or {@code null} if checksums are
+   *         only cached for the duration of the process.
+   */
+  public String getFile() {
+    return file;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  /**
+   * @return the maximum number of file checksums cached, the least recently used being evicted first. {@code 0}
+   *         disables the cache.
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.conf;
+
+import javax.validation.constraints.Min;
+
+public class Daemon {
+
+  private String cron;
+  private @Min(1) Long fixedDelay;
+  private boolean reloadConfiguration = true;
+  private @Min(0) long shutdownTimeout = 60000L;
+
+  /**
+   * @return {@code true} if Circus Train should keep running and replicate the configured tables on a schedule instead
+   *         of replicating them once and exiting.
+   */
+  public boolean isEnabled() {
+    return cron != null || fixedDelay != null;
+  }
+
+  /**
+   * @return a cron expression, as supported by Spring's {@code CronSequenceGenerator}, for the start times of
+   *         scheduled runs, or {@code null}.
+   */
+  public String getCron() {
+    return cron;
+  }
+
+  public void setCron(String cron) {
+    this.cron = cron;
+  }
+
+  /**
+   * @return the time in milliseconds between the end of a scheduled run and the start of the next one, or
+   *         {@code null}. Ignored if a {@link #getCron() cron} expression is set.
+   */
+  public Long getFixedDelay() {
+    return fixedDelay;
+  }
+
+  public void setFixedDelay(Long fixedDelay) {
+    this.fixedDelay = fixedDelay;
+  }
+
+  /**
+   * @return {@code true} if changes to the table replications in the configuration files are picked up at the start of
+   *         each scheduled run.
+   */
+  public boolean isReloadConfiguration() {
+    return reloadConfiguration;
+  }
+
+  public void setReloadConfiguration(boolean reloadConfiguration) {
+    this.reloadConfiguration = reloadConfiguration;
+  }
+
+  /**
+   * @return the maximum time in milliseconds that the application waits on shut down for a run in progress to finish.
+   */
+  public long getShutdownTimeout() {
+    return shutdownTimeout;
+  }
+
+  public void setShutdownTimeout(long shutdownTimeout) {
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.conf;
+
+import javax.validation.constraints.Min;
+
+public class MetastoreClientPool {
+
+  private boolean enabled = true;
+  private @Min(0) int minIdle = 1;
+  private @Min(1) int maxTotal = 8;
+  private @Min(0) long maxWaitMillis = 60000L;
+  private @Min(0) long idleTimeoutMillis = 300000L;
+  private boolean testOnBorrow = true;
+
+  /**
+   * @return whether metastore clients are kept open and reused; when {@code false} a new connection is opened every
+   *         time a client is requested.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * @return the number of idle clients per metastore that are never evicted.
+   */
+  public int getMinIdle() {
+    return minIdle;
+  }
+
+  public void setMinIdle(int minIdle) {
+    this.minIdle = minIdle;
+  }
+
+  /**
+   * @return the maximum number of clients, borrowed or idle, per metastore.
+   */
+  public int getMaxTotal() {
+    return maxTotal;
+  }
+
+  public void setMaxTotal(int maxTotal) {
+    this.maxTotal = maxTotal;
+  }
+
+  /**
+   * @return how long to wait for a client when all {@link #getMaxTotal()} clients are in use.
+   */
+  public long getMaxWaitMillis() {
+    return maxWaitMillis;
+  }
+
+  public void setMaxWaitMillis(long maxWaitMillis) {
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  /**
+   * @return how long a client may stay idle before it is closed, {@code 0} disables eviction.
+   */
+  public long getIdleTimeoutMillis() {
+    return idleTimeoutMillis;
+  }
+
+  public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  /**
+   * @return whether an idle client is checked to still be connected before it is handed out again.
+   */
+  public boolean isTestOnBorrow() {
+    return testOnBorrow;
+  }
+
+  public void setTestOnBorrow(boolean testOnBorrow) {
+    this.testOnBorrow = testOnBorrow;
+  }
+
+}
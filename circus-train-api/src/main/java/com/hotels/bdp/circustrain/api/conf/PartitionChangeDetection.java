@@ -0,0 +1,27 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.conf;
+
+/**
+ * How a generated partition filter decides whether the data of a source partition has changed since it was replicated.
+ */
+public enum PartitionChangeDetection {
+
+  /** Compares a digest of the checksums of the partition's files. */
+  CHECKSUM,
+  /** Compares the number, total length, latest modification time and names of the partition's files. */
+  FILE_LISTING;
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import java.util.Locale;
 
 import javax.annotation.Nullable;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 
 import org.hibernate.validator.constraints.NotBlank;
 
@@ -30,6 +31,8 @@ public class SourceTable {
   private String partitionFilter;
   private @Nullable @Min(1) Short partitionLimit;
   private boolean generatePartitionFilter = false;
+  private boolean generatePartitionFilterFromNotifications = false;
+  private @NotNull PartitionChangeDetection partitionChangeDetection = PartitionChangeDetection.CHECKSUM;
 
   public String getDatabaseName() {
     return databaseName;
@@ -82,4 +85,27 @@ public class SourceTable {
   public void setGeneratePartitionFilter(boolean generatePartitionFilter) {
     this.generatePartitionFilter = generatePartitionFilter;
   }
+
+  /**
+   * @return whether only the partitions changed since the previous replication, according to the source metastore
+   *         notification log, are replicated.
+   */
+  public boolean isGeneratePartitionFilterFromNotifications() {
+    return generatePartitionFilterFromNotifications;
+  }
+
+  public void setGeneratePartitionFilterFromNotifications(boolean generatePartitionFilterFromNotifications) {
+    this.generatePartitionFilterFromNotifications = generatePartitionFilterFromNotifications;
+  }
+
+  /**
+   * @return how the generated partition filter decides whether the data of a partition has changed.
+   */
+  public PartitionChangeDetection getPartitionChangeDetection() {
+    return partitionChangeDetection;
+  }
+
+  public void setPartitionChangeDetection(PartitionChangeDetection partitionChangeDetection) {
+    this.partitionChangeDetection = partitionChangeDetection;
+  }
 }
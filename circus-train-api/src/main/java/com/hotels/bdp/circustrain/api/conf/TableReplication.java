@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import com.google.common.collect.ImmutableMap;
@@ -35,6 +36,12 @@ public class TableReplication {
   private Map<String, Object> transformOptions = new HashMap<>();
   private short partitionIteratorBatchSize = (short) 1000;
   private short partitionFetcherBufferSize = (short) 1000;
+  private @Min(1) int partitionWriteBatchSize = 1000;
+  private @Min(1) int partitionWriteConcurrency = 1;
+  private boolean pipelinedCommit = false;
+  private @Min(1) int pipelinedCommitBatchSize = 100;
+  private @Min(1) int partitionChecksumConcurrency = 1;
+  private boolean partitionDiffMergeJoin = false;
   private @NotNull ReplicationMode replicationMode = ReplicationMode.FULL;
   private @NotNull ReplicationStrategy replicationStrategy = ReplicationStrategy.UPSERT;
   private @NotNull OrphanedDataStrategy orphanedDataStrategy = OrphanedDataStrategy.HOUSEKEEPING;
@@ -126,6 +133,75 @@ public class TableReplication {
     this.partitionFetcherBufferSize = partitionFetcherBufferSize;
   }
 
+  /**
+   * @return the maximum number of partitions, or partition statistics, written to the replica metastore in one call.
+   *         Smaller batches are used when the metastore is slow to respond.
+   */
+  public int getPartitionWriteBatchSize() {
+    return partitionWriteBatchSize;
+  }
+
+  public void setPartitionWriteBatchSize(int partitionWriteBatchSize) {
+    this.partitionWriteBatchSize = partitionWriteBatchSize;
+  }
+
+  /**
+   * @return the number of partition batches written to the replica metastore at the same time.
+   */
+  public int getPartitionWriteConcurrency() {
+    return partitionWriteConcurrency;
+  }
+
+  public void setPartitionWriteConcurrency(int partitionWriteConcurrency) {
+    this.partitionWriteConcurrency = partitionWriteConcurrency;
+  }
+
+  /**
+   * @return whether replica partitions are committed as soon as the copier reports that their data has been copied,
+   *         rather than all at once when the whole copy has finished.
+   */
+  public boolean isPipelinedCommit() {
+    return pipelinedCommit;
+  }
+
+  public void setPipelinedCommit(boolean pipelinedCommit) {
+    this.pipelinedCommit = pipelinedCommit;
+  }
+
+  /**
+   * @return the maximum number of copied partitions committed together when {@link #isPipelinedCommit()} is enabled.
+   */
+  public int getPipelinedCommitBatchSize() {
+    return pipelinedCommitBatchSize;
+  }
+
+  public void setPipelinedCommitBatchSize(int pipelinedCommitBatchSize) {
+    this.pipelinedCommitBatchSize = pipelinedCommitBatchSize;
+  }
+
+  /**
+   * @return the number of source partition checksums computed at the same time when the partition filter is generated.
+   */
+  public int getPartitionChecksumConcurrency() {
+    return partitionChecksumConcurrency;
+  }
+
+  public void setPartitionChecksumConcurrency(int partitionChecksumConcurrency) {
+    this.partitionChecksumConcurrency = partitionChecksumConcurrency;
+  }
+
+  /**
+   * @return whether the partition filter is generated by merge-joining the source and replica partitions sorted by
+   *         name, rather than by fetching the replica partition of each source partition.
+   */
+  public boolean isPartitionDiffMergeJoin() {
+    return partitionDiffMergeJoin;
+  }
+
+  public void setPartitionDiffMergeJoin(boolean partitionDiffMergeJoin) {
+    this.partitionDiffMergeJoin = partitionDiffMergeJoin;
+  }
+
   public ReplicationMode getReplicationMode() {
     return replicationMode;
   }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,12 +18,14 @@ package com.hotels.bdp.circustrain.api.conf;
 import java.util.List;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 
 import org.hibernate.validator.constraints.NotEmpty;
 
 public class TableReplications {
 
   private @Valid @NotEmpty List<TableReplication> tableReplications;
+  private @Min(1) int tableReplicationConcurrency = 1;
 
   public List<TableReplication> getTableReplications() {
     return tableReplications;
@@ -33,4 +35,16 @@ public class TableReplications {
     this.tableReplications = tableReplications;
   }
 
+  /**
+   * @return the maximum number of table replications that will be executed at the same time. The default of {@code 1}
+   *         replicates tables one after the other.
+   */
+  public int getTableReplicationConcurrency() {
+    return tableReplicationConcurrency;
+  }
+
+  public void setTableReplicationConcurrency(int tableReplicationConcurrency) {
+    this.tableReplicationConcurrency = tableReplicationConcurrency;
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -94,7 +94,8 @@ public class CompositeCopierFactory implements CopierFactory {
 
       CopierContext delegateContext = new CopierContext(copierContext.getTableReplication(), copierContext.getEventId(),
           newSourceBaseLocation, copierContext.getSourceSubLocations(), newReplicaLocation,
-          copierContext.getCopierOptions(), copierContext.getSourceTable(), copierContext.getSourcePartitions());
+          copierContext.getCopierOptions(), copierContext.getSourceTable(), copierContext.getSourcePartitions(),
+          copierContext.getExistingReplicaLocations());
       Copier copier = delegate.newInstance(delegateContext);
       copiers.add(copier);
     }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,4 +22,16 @@ public interface Copier {
 
   Metrics copy() throws CircusTrainException;
 
+  /**
+   * Copies the data like {@link #copy()} and calls {@code progressListener} for every source sub-location as soon as all
+   * of its data has been copied, which lets the replica partitions be committed while the rest of the copy is still
+   * running. Copiers that cannot track sub-locations don't need to override this method: nothing is reported and all
+   * partitions are committed once the copy has finished.
+   *
+   * @param progressListener Might be called from any thread, at most once per sub-location.
+   */
+  default Metrics copy(CopierProgressListener progressListener) throws CircusTrainException {
+    return copy();
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,8 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -38,6 +40,7 @@ public final class CopierContext {
   private TableReplication tableReplication;
   private Table sourceTable;
   private List<Partition> sourcePartitions;
+  private Supplier<Map<Path, Path>> existingReplicaLocations;
 
   public CopierContext(
       TableReplication tableReplication,
@@ -47,7 +50,8 @@ public final class CopierContext {
       Path replicaLocation,
       Map<String, Object> copierOptions,
       Table sourceTable,
-      List<Partition> sourcePartitions) {
+      List<Partition> sourcePartitions,
+      Supplier<Map<Path, Path>> existingReplicaLocations) {
     this.tableReplication = tableReplication;
     this.eventId = eventId;
     this.sourceBaseLocation = sourceBaseLocation;
@@ -58,6 +62,20 @@ public final class CopierContext {
     this.copierOptions = ImmutableMap.copyOf(copierOptions);
     this.sourceTable = sourceTable;
     this.sourcePartitions = sourcePartitions;
+    this.existingReplicaLocations = Suppliers.memoize(existingReplicaLocations);
+  }
+
+  public CopierContext(
+      TableReplication tableReplication,
+      String eventId,
+      Path sourceBaseLocation,
+      List<Path> sourceSubLocations,
+      Path replicaLocation,
+      Map<String, Object> copierOptions,
+      Table sourceTable,
+      List<Partition> sourcePartitions) {
+    this(tableReplication, eventId, sourceBaseLocation, sourceSubLocations, replicaLocation, copierOptions, sourceTable,
+        sourcePartitions, Suppliers.ofInstance(Collections.<Path, Path>emptyMap()));
   }
 
   public CopierContext(
@@ -124,7 +142,21 @@ public final class CopierContext {
     return sourceTable;
   }
 
+  /**
+   * The source partitions whose data is copied. Only their values and location are set, so that the partitions of a
+   * large table do not all have to be held in memory in full during the copy.
+   */
   public List<Partition> getSourcePartitions() {
     return sourcePartitions;
   }
+
+  /**
+   * Data locations already held by the replica, keyed by the source location they were replicated from: the source
+   * sub-location of each existing partition, or the source base location of an existing unpartitioned table. Copiers
+   * can use these to avoid re-reading data that is already present in the replica. The locations are only looked up
+   * when first requested.
+   */
+  public Supplier<Map<Path, Path>> getExistingReplicaLocations() {
+    return existingReplicaLocations;
+  }
 }
@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.copier;
+
+import org.apache.hadoop.fs.Path;
+
+public interface CopierProgressListener {
+
+  public static final CopierProgressListener NULL = new CopierProgressListener() {
+    @Override
+    public void subLocationCopied(Path sourceSubLocation) {}
+  };
+
+  /**
+   * Called once all the data under one of the {@link CopierContext#getSourceSubLocations() source sub-locations} has
+   * been copied.
+   *
+   * @param sourceSubLocation One of the source sub-locations, as given to the copier.
+   */
+  void subLocationCopied(Path sourceSubLocation);
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,7 +29,11 @@ public class LoggingScheduledReporterFactory implements ScheduledReporterFactory
 
   @Override
   public ScheduledReporter newInstance(String qualifiedReplicaName) {
-    return Slf4jReporter.forRegistry(runningMetricRegistry).prefixedWith(qualifiedReplicaName).build();
+    // Running metric names are already qualified by the replica table
+    return Slf4jReporter
+        .forRegistry(runningMetricRegistry)
+        .filter(QualifiedRunningMetrics.filter(qualifiedReplicaName))
+        .build();
   }
 
 }
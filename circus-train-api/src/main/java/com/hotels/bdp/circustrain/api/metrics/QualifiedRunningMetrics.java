@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.metrics;
+
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Running metrics are registered in one registry shared by the table replications that run concurrently. Their names
+ * are qualified by the replica table they belong to so that replications do not replace each other's metrics and each
+ * {@link ScheduledReporterFactory running metrics reporter} only reports those of its own table.
+ */
+public final class QualifiedRunningMetrics {
+
+  private QualifiedRunningMetrics() {}
+
+  /**
+   * @param qualifiedReplicaName e.g. 'databaseName.tableName', can be {@code null} outside of a table replication.
+   */
+  public static String name(String qualifiedReplicaName, String metricName) {
+    if (qualifiedReplicaName == null) {
+      return metricName;
+    }
+    return MetricRegistry.name(qualifiedReplicaName, metricName);
+  }
+
+  /**
+   * @return a filter that only matches the running metrics of the replica table {@code qualifiedReplicaName}.
+   */
+  public static MetricFilter filter(String qualifiedReplicaName) {
+    final String prefix = qualifiedReplicaName + ".";
+    return new MetricFilter() {
+      @Override
+      public boolean matches(String name, Metric metric) {
+        return name.startsWith(prefix);
+      }
+    };
+  }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.api.metrics;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import com.codahale.metrics.MetricFilter;
+
+public class QualifiedRunningMetricsTest {
+
+  @Test
+  public void nameIsQualifiedByReplicaTable() {
+    assertThat(QualifiedRunningMetrics.name("db.table", "BYTES_REPLICATED"), is("db.table.BYTES_REPLICATED"));
+  }
+
+  @Test
+  public void nameIsNotQualifiedOutsideOfATableReplication() {
+    assertThat(QualifiedRunningMetrics.name(null, "BYTES_REPLICATED"), is("BYTES_REPLICATED"));
+  }
+
+  @Test
+  public void filterOnlyMatchesMetricsOfTheReplicaTable() {
+    MetricFilter filter = QualifiedRunningMetrics.filter("db.table");
+    assertThat(filter.matches("db.table.BYTES_REPLICATED", null), is(true));
+    assertThat(filter.matches("db.table2.BYTES_REPLICATED", null), is(false));
+    assertThat(filter.matches("db.other.BYTES_REPLICATED", null), is(false));
+    assertThat(filter.matches("BYTES_REPLICATED", null), is(false));
+  }
+
+}
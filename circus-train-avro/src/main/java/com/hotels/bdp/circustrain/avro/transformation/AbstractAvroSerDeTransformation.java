@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -31,11 +31,21 @@ import com.hotels.bdp.circustrain.avro.conf.AvroSerDeConfig;
 
 public abstract class AbstractAvroSerDeTransformation implements TableReplicationListener {
 
+  private static class ReplicationState {
+    String eventId;
+    String tableLocation;
+    Map<String, Object> avroSerdeConfigOverride = Collections.emptyMap();
+    EventTableReplication tableReplication;
+  }
+
   private final AvroSerDeConfig avroSerDeConfig = new AvroSerDeConfig();
-  private String eventId;
-  private String tableLocation;
-  private Map<String, Object> avroSerdeConfigOverride = Collections.emptyMap();
-  private EventTableReplication tableReplication;
+  /* Event, location and Avro SerDe overrides of the table being replicated by the current thread. */
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
   static final String AVRO_SCHEMA_URL_PARAMETER = "avro.schema.url";
 
   protected AbstractAvroSerDeTransformation(TransformOptions transformOptions) {
@@ -50,15 +60,15 @@ public abstract class AbstractAvroSerDeTransformation implements TableReplicatio
   }
 
   protected String getEventId() {
-    return eventId;
+    return replicationState.get().eventId;
   }
 
   protected EventTableReplication getTableReplication() {
-    return tableReplication;
+    return replicationState.get().tableReplication;
   }
 
   protected String getTableLocation() {
-    return tableLocation;
+    return replicationState.get().tableLocation;
   }
 
   protected boolean avroTransformationSpecified() {
@@ -66,28 +76,30 @@ public abstract class AbstractAvroSerDeTransformation implements TableReplicatio
   }
 
   protected String getAvroSchemaDestinationFolder() {
-    Object urlOverride = avroSerdeConfigOverride.get(BASE_URL);
+    ReplicationState state = replicationState.get();
+    Object urlOverride = state.avroSerdeConfigOverride.get(BASE_URL);
     if (urlOverride != null && StringUtils.isNotBlank(urlOverride.toString())) {
       return urlOverride.toString();
     } else if (avroSerDeConfig.getBaseUrl() != null && StringUtils.isNotBlank(avroSerDeConfig.getBaseUrl())) {
       return avroSerDeConfig.getBaseUrl();
     } else {
-      return tableLocation;
+      return state.tableLocation;
     }
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    this.eventId = eventId;
-    this.tableReplication = tableReplication;
-    tableLocation = tableReplication.getReplicaTable().getTableLocation();
-    avroSerdeConfigOverride = Collections.emptyMap();
+    ReplicationState state = new ReplicationState();
+    state.eventId = eventId;
+    state.tableReplication = tableReplication;
+    state.tableLocation = tableReplication.getReplicaTable().getTableLocation();
     Map<String, Object> transformOptions = tableReplication.getTransformOptions();
     Object avroSerDeOverride = transformOptions.get(AVRO_SERDE_OPTIONS);
     if (avroSerDeOverride != null && avroSerDeOverride instanceof Map) {
-      avroSerdeConfigOverride = (Map<String, Object>) avroSerDeOverride;
+      state.avroSerdeConfigOverride = (Map<String, Object>) avroSerDeOverride;
     }
+    replicationState.set(state);
   }
 
   @Override
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -68,13 +68,25 @@ public class SnsListener implements LocomotiveListener, SourceCatalogListener, R
   private final ObjectWriter startWriter;
   private final Clock clock;
 
-  private Metrics metrics;
-  private List<EventPartition> partitionsToCreate;
-  private List<EventPartition> partitionsToAlter;
-  private String startTime;
+  private static class ReplicationState {
+    Metrics metrics;
+    List<EventPartition> partitionsToCreate;
+    List<EventPartition> partitionsToAlter;
+    int modifiedPartitionsLength;
+    boolean modifiedPartitionsTruncated;
+    String startTime;
+    LinkedHashMap<String, String> partitionKeyTypes;
+  }
+
+  /* Message details of the table being replicated by the current thread. */
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
   private EventSourceCatalog sourceCatalog;
   private EventReplicaCatalog replicaCatalog;
-  private LinkedHashMap<String, String> partitionKeyTypes;
 
   @Autowired
   public SnsListener(AmazonSNSAsync sns, ListenerConfig config) {
@@ -101,30 +113,33 @@ public class SnsListener implements LocomotiveListener, SourceCatalogListener, R
 
   @Override
   public void copierEnd(Metrics metrics) {
-    this.metrics = metrics;
+    replicationState.get().metrics = metrics;
   }
 
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    startTime = clock.getTime();
+    ReplicationState state = replicationState.get();
+    state.startTime = clock.getTime();
     EventReplicaTable replicaTable = tableReplication.getReplicaTable();
-    SnsMessage message = new SnsMessage(SnsMessageType.START, config.getHeaders(), startTime, null, eventId,
+    SnsMessage message = new SnsMessage(SnsMessageType.START, config.getHeaders(), state.startTime, null, eventId,
         sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
         tableReplication.getSourceTable().getQualifiedName(), tableReplication.getQualifiedReplicaName(),
-        replicaTable.getTableLocation(), partitionKeyTypes, null, null, null);
+        replicaTable.getTableLocation(), state.partitionKeyTypes, null, null, null);
     publish(config.getStartTopic(), message);
   }
 
   @Override
   public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {
     try {
+      ReplicationState state = replicationState.get();
       String endTime = clock.getTime();
       EventReplicaTable replicaTable = tableReplication.getReplicaTable();
-      SnsMessage message = new SnsMessage(SnsMessageType.SUCCESS, config.getHeaders(), startTime, endTime, eventId,
-          sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
+      SnsMessage message = new SnsMessage(SnsMessageType.SUCCESS, config.getHeaders(), state.startTime, endTime,
+          eventId, sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
           tableReplication.getSourceTable().getQualifiedName(), tableReplication.getQualifiedReplicaName(),
-          replicaTable.getTableLocation(), partitionKeyTypes,
-          getModifiedPartitions(partitionsToAlter, partitionsToCreate), getBytesReplicated(), null);
+          replicaTable.getTableLocation(), state.partitionKeyTypes, getModifiedPartitions(state),
+          getBytesReplicated(state), null);
+      setMessageTruncated(state, message);
       publish(config.getSuccessTopic(), message);
     } finally {
       resetState();
@@ -134,51 +149,112 @@ public class SnsListener implements LocomotiveListener, SourceCatalogListener, R
   @Override
   public void tableReplicationFailure(EventTableReplication tableReplication, String eventId, Throwable t) {
     try {
-      if (startTime == null) {
-        startTime = clock.getTime();
+      ReplicationState state = replicationState.get();
+      if (state.startTime == null) {
+        state.startTime = clock.getTime();
       }
       String endTime = clock.getTime();
       EventReplicaTable replicaTable = tableReplication.getReplicaTable();
-      SnsMessage message = new SnsMessage(SnsMessageType.FAILURE, config.getHeaders(), startTime, endTime, eventId,
-          sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
+      SnsMessage message = new SnsMessage(SnsMessageType.FAILURE, config.getHeaders(), state.startTime, endTime,
+          eventId, sourceCatalog.getName(), replicaCatalog.getName(), replicaCatalog.getHiveMetastoreUris(),
           tableReplication.getSourceTable().getQualifiedName(), tableReplication.getQualifiedReplicaName(),
-          replicaTable.getTableLocation(), partitionKeyTypes,
-          getModifiedPartitions(partitionsToAlter, partitionsToCreate), getBytesReplicated(), t.getMessage());
+          replicaTable.getTableLocation(), state.partitionKeyTypes, getModifiedPartitions(state),
+          getBytesReplicated(state), t.getMessage());
+      setMessageTruncated(state, message);
       publish(config.getFailTopic(), message);
     } finally {
       resetState();
     }
   }
 
-  private Long getBytesReplicated() {
-    if (metrics != null) {
-      return metrics.getBytesReplicated();
+  private static Long getBytesReplicated(ReplicationState state) {
+    if (state.metrics != null) {
+      return state.metrics.getBytesReplicated();
     }
     return 0L;
   }
 
   private void resetState() {
-    partitionsToCreate = null;
-    partitionsToAlter = null;
-    partitionKeyTypes = null;
-    startTime = null;
+    ReplicationState state = replicationState.get();
+    state.partitionsToCreate = null;
+    state.partitionsToAlter = null;
+    state.modifiedPartitionsLength = 0;
+    state.modifiedPartitionsTruncated = false;
+    state.partitionKeyTypes = null;
+    state.startTime = null;
   }
 
   @Override
   public void partitionsToCreate(EventPartitions eventPartitions) {
-    partitionsToCreate = eventPartitions.getEventPartitions();
+    ReplicationState state = replicationState.get();
+    if (keepModifiedPartitions(state, eventPartitions.getEventPartitions())) {
+      state.partitionsToCreate = append(state.partitionsToCreate, eventPartitions.getEventPartitions());
+    }
     setPartitionKeyTypes(eventPartitions.getPartitionKeyTypes());
   }
 
   @Override
   public void partitionsToAlter(EventPartitions eventPartitions) {
-    partitionsToAlter = eventPartitions.getEventPartitions();
+    ReplicationState state = replicationState.get();
+    if (keepModifiedPartitions(state, eventPartitions.getEventPartitions())) {
+      state.partitionsToAlter = append(state.partitionsToAlter, eventPartitions.getEventPartitions());
+    }
     setPartitionKeyTypes(eventPartitions.getPartitionKeyTypes());
   }
 
+  /**
+   * Partitions are reported a page at a time during a single table replication. Once the values of the partitions
+   * reported so far cannot fit in an SNS message they are dropped, rather than held until the replication ends, as the
+   * message would be sent without them anyway.
+   */
+  private static boolean keepModifiedPartitions(ReplicationState state, List<EventPartition> page) {
+    if (state.modifiedPartitionsTruncated) {
+      return false;
+    }
+    for (EventPartition partition : page) {
+      // At least the length of the values as a JSON array, e.g. ["a","b"],
+      state.modifiedPartitionsLength += 3;
+      for (String value : partition.getValues()) {
+        state.modifiedPartitionsLength += value.length() + 3;
+      }
+    }
+    if (state.modifiedPartitionsLength > SNS_MESSAGE_SIZE_LIMIT) {
+      LOG
+          .warn("Modified partitions exceed SNS limit ({} bytes), dropping partition info", SNS_MESSAGE_SIZE_LIMIT);
+      state.partitionsToCreate = null;
+      state.partitionsToAlter = null;
+      state.modifiedPartitionsTruncated = true;
+      return false;
+    }
+    return true;
+  }
+
+  private static List<List<String>> getModifiedPartitions(ReplicationState state) {
+    if (state.modifiedPartitionsTruncated) {
+      return new ArrayList<>();
+    }
+    return getModifiedPartitions(state.partitionsToAlter, state.partitionsToCreate);
+  }
+
+  private static void setMessageTruncated(ReplicationState state, SnsMessage message) {
+    if (state.modifiedPartitionsTruncated) {
+      message.setMessageTruncated(true);
+    }
+  }
+
+  private static List<EventPartition> append(List<EventPartition> partitions, List<EventPartition> page) {
+    if (partitions == null) {
+      return page;
+    }
+    List<EventPartition> appended = new ArrayList<>(partitions.size() + page.size());
+    appended.addAll(partitions);
+    appended.addAll(page);
+    return appended;
+  }
+
   private void setPartitionKeyTypes(LinkedHashMap<String, String> partitionKeyTypes) {
     if (partitionKeyTypes != null) {
-      this.partitionKeyTypes = partitionKeyTypes;
+      replicationState.get().partitionKeyTypes = partitionKeyTypes;
     }
   }
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package com.hotels.bdp.circustrain.aws.sns.event;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -323,6 +324,33 @@ public class SnsListenerTest {
             + "\"messageTruncated\":true}"));
   }
 
+  @Test
+  public void partitionsReportedInPagesAreDroppedOnceTheyExceedMessageSize() throws Exception {
+    SnsListener listener = new SnsListener(client, config, clock);
+    listener.circusTrainStartUp(new String[] {}, sourceCatalog, replicaCatalog);
+    listener.tableReplicationStart(tableReplication, EVENT_ID);
+
+    // Each page fits in a message on its own, all of them do not
+    for (int page = 0; page < 3; page++) {
+      EventPartitions alteredPartitions = new EventPartitions(partitionKeyTypes);
+      for (int i = 0; i < 5000; i++) {
+        alteredPartitions.add(new EventPartition(Arrays.asList("2019-01-01", page + "_" + i), new URI("location")));
+      }
+      listener.partitionsToAlter(alteredPartitions);
+    }
+    EventPartitions createdPartitions = new EventPartitions(partitionKeyTypes);
+    createdPartitions.add(new EventPartition(Arrays.asList("2019-01-02", "0"), new URI("location")));
+    listener.partitionsToCreate(createdPartitions);
+
+    listener.copierEnd(metrics);
+    listener.tableReplicationSuccess(tableReplication, EVENT_ID);
+
+    verify(client, times(2)).publish(requestCaptor.capture());
+    String message = requestCaptor.getAllValues().get(1).getMessage();
+    assertThat(message, containsString("\"modifiedPartitions\":[]"));
+    assertThat(message, containsString("\"messageTruncated\":true"));
+  }
+
   @Test
   public void partitionedAndUnpartitionedReplication() {
     SnsListener listener = new SnsListener(client, config, clock);
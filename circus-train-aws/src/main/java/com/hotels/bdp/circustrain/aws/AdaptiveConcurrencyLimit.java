@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.aws;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.SdkBaseException;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.RetryUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+
+/**
+ * Additive-increase/multiplicative-decrease limit on the number of concurrent S3 operations.
+ * <p>
+ * The limit grows by one after as many consecutive successful operations as the current limit (i.e. roughly once per
+ * "round" of concurrent operations) and halves, down to the minimum, when S3 throttles a request. Throttling signals
+ * arriving within {@link #DECREASE_INTERVAL_MILLIS} of the previous decrease are counted but don't decrease the limit
+ * again, so a burst of concurrently throttled operations only halves the limit once.
+ */
+public class AdaptiveConcurrencyLimit {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveConcurrencyLimit.class);
+
+  static final long DECREASE_INTERVAL_MILLIS = 1000L;
+
+  private static final HandlerContextKey<Boolean> PERMIT_ACQUIRED = new HandlerContextKey<>(
+      AdaptiveConcurrencyLimit.class.getName() + ".permitAcquired");
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final Ticker ticker;
+  private int limit;
+  private int inFlight;
+  private int successesSinceIncrease;
+  private long throttleCount;
+  private boolean decreased;
+  private long lastDecreaseNanos;
+
+  public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+    this(initialLimit, minLimit, maxLimit, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Ticker ticker) {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException(
+          "Concurrency limits must satisfy 1 <= minLimit <= maxLimit but were " + minLimit + " and " + maxLimit);
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.ticker = ticker;
+    limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Blocks until the number of operations in flight is below the current limit and takes a permit for one more.
+   */
+  public synchronized void acquire() throws InterruptedException {
+    while (inFlight >= limit) {
+      wait();
+    }
+    inFlight++;
+  }
+
+  /**
+   * @return {@code true} if a permit was taken, {@code false} if the current limit is already in flight
+   */
+  public synchronized boolean tryAcquire() {
+    if (inFlight >= limit) {
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  public synchronized void release() {
+    if (inFlight > 0) {
+      inFlight--;
+    }
+    notifyAll();
+  }
+
+  public synchronized void onSuccess() {
+    successesSinceIncrease++;
+    if (successesSinceIncrease >= limit && limit < maxLimit) {
+      limit++;
+      successesSinceIncrease = 0;
+      LOG.debug("Increased S3 concurrency limit to {}", limit);
+      notifyAll();
+    }
+  }
+
+  /**
+   * Records a failure that isn't throttling: it doesn't decrease the limit but restarts the count of successes needed to
+   * increase it.
+   */
+  public synchronized void onFailure() {
+    successesSinceIncrease = 0;
+  }
+
+  public synchronized void onThrottled() {
+    throttleCount++;
+    successesSinceIncrease = 0;
+    long now = ticker.read();
+    if (decreased && now - lastDecreaseNanos < TimeUnit.MILLISECONDS.toNanos(DECREASE_INTERVAL_MILLIS)) {
+      return;
+    }
+    decreased = true;
+    lastDecreaseNanos = now;
+    int newLimit = Math.max(minLimit, limit / 2);
+    if (newLimit != limit) {
+      LOG.info("S3 is throttling requests, decreasing S3 concurrency limit from {} to {}", limit, newLimit);
+      limit = newLimit;
+    }
+  }
+
+  public synchronized int getLimit() {
+    return limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  public synchronized long getThrottleCount() {
+    return throttleCount;
+  }
+
+  /**
+   * @return a request handler for an S3 client which holds a permit for the duration of each request, including the
+   *         client's own retries, and reports the outcome of every attempt to this limit
+   */
+  public RequestHandler2 newRequestHandler() {
+    return new RequestHandler2() {
+
+      @Override
+      public void beforeRequest(Request<?> request) {
+        try {
+          acquire();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new AbortedException("Interrupted waiting for S3 concurrency permit", e);
+        }
+        request.addHandlerContext(PERMIT_ACQUIRED, Boolean.TRUE);
+      }
+
+      @Override
+      public void afterAttempt(HandlerAfterAttemptContext context) {
+        if (isThrottlingException(context.getException())) {
+          onThrottled();
+        }
+      }
+
+      @Override
+      public void afterResponse(Request<?> request, Response<?> response) {
+        if (releasePermit(request)) {
+          onSuccess();
+        }
+      }
+
+      @Override
+      public void afterError(Request<?> request, Response<?> response, Exception e) {
+        // Throttled attempts have already been reported by afterAttempt
+        if (releasePermit(request) && !isThrottlingException(e)) {
+          onFailure();
+        }
+      }
+
+      private boolean releasePermit(Request<?> request) {
+        if (request.getHandlerContext(PERMIT_ACQUIRED) == null) {
+          return false;
+        }
+        request.addHandlerContext(PERMIT_ACQUIRED, null);
+        release();
+        return true;
+      }
+    };
+  }
+
+  /**
+   * @return a request handler for an S3 client which only reports the throttled attempts of each request, including the
+   *         client's own retries, to this limit. For clients whose requests are already covered by a permit held
+   *         elsewhere, e.g. for the whole of a copy, as they would otherwise wait for permits of their own.
+   */
+  public RequestHandler2 newThrottlingRequestHandler() {
+    return new RequestHandler2() {
+
+      @Override
+      public void afterAttempt(HandlerAfterAttemptContext context) {
+        if (isThrottlingException(context.getException())) {
+          onThrottled();
+        }
+      }
+    };
+  }
+
+  /**
+   * @param throwable can be null
+   * @return {@code true} if the throwable, or any of its causes, is an S3 throttling error (e.g. 503 Slow Down)
+   */
+  public static boolean isThrottlingException(Throwable throwable) {
+    if (throwable == null) {
+      return false;
+    }
+    for (Throwable cause : Throwables.getCausalChain(throwable)) {
+      if (cause instanceof SdkBaseException && RetryUtils.isThrottlingException((SdkBaseException) cause)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
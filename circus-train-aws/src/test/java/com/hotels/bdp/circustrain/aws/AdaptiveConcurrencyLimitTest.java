@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.aws;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.RequestHandler2;
+import com.google.common.base.Ticker;
+
+public class AdaptiveConcurrencyLimitTest {
+
+  private static class ManualTicker extends Ticker {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advanceMillis(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+
+  private final ManualTicker ticker = new ManualTicker();
+
+  @Test
+  public void initialLimitIsBounded() {
+    assertThat(new AdaptiveConcurrencyLimit(0, 2, 8, ticker).getLimit(), is(2));
+    assertThat(new AdaptiveConcurrencyLimit(20, 2, 8, ticker).getLimit(), is(8));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidLimits() {
+    new AdaptiveConcurrencyLimit(1, 4, 2, ticker);
+  }
+
+  @Test
+  public void tryAcquireUpToLimit() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 8, ticker);
+    assertThat(limit.tryAcquire(), is(true));
+    assertThat(limit.tryAcquire(), is(true));
+    assertThat(limit.tryAcquire(), is(false));
+    limit.release();
+    assertThat(limit.getInFlight(), is(1));
+    assertThat(limit.tryAcquire(), is(true));
+  }
+
+  @Test
+  public void limitIncreasesAdditivelyOnSuccess() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 3, ticker);
+    limit.onSuccess();
+    assertThat(limit.getLimit(), is(2));
+    limit.onSuccess();
+    assertThat(limit.getLimit(), is(3));
+    for (int i = 0; i < 10; i++) {
+      limit.onSuccess();
+    }
+    assertThat(limit.getLimit(), is(3));
+  }
+
+  @Test
+  public void failureRestartsIncrease() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 8, ticker);
+    limit.onSuccess();
+    limit.onFailure();
+    limit.onSuccess();
+    assertThat(limit.getLimit(), is(2));
+    limit.onSuccess();
+    assertThat(limit.getLimit(), is(3));
+  }
+
+  @Test
+  public void limitHalvesOnThrottlingOncePerInterval() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 8, ticker);
+    limit.onThrottled();
+    limit.onThrottled();
+    assertThat(limit.getLimit(), is(4));
+    ticker.advanceMillis(AdaptiveConcurrencyLimit.DECREASE_INTERVAL_MILLIS);
+    limit.onThrottled();
+    assertThat(limit.getLimit(), is(2));
+    ticker.advanceMillis(AdaptiveConcurrencyLimit.DECREASE_INTERVAL_MILLIS);
+    limit.onThrottled();
+    ticker.advanceMillis(AdaptiveConcurrencyLimit.DECREASE_INTERVAL_MILLIS);
+    limit.onThrottled();
+    assertThat(limit.getLimit(), is(1));
+    assertThat(limit.getThrottleCount(), is(5L));
+  }
+
+  @Test
+  public void throttlingExceptions() {
+    assertThat(AdaptiveConcurrencyLimit.isThrottlingException(null), is(false));
+    assertThat(AdaptiveConcurrencyLimit.isThrottlingException(new RuntimeException("foo")), is(false));
+    assertThat(AdaptiveConcurrencyLimit.isThrottlingException(serviceException(500, "InternalError")), is(false));
+    assertThat(AdaptiveConcurrencyLimit.isThrottlingException(serviceException(503, "SlowDown")), is(true));
+    assertThat(
+        AdaptiveConcurrencyLimit.isThrottlingException(new RuntimeException(serviceException(503, "SlowDown"))),
+        is(true));
+  }
+
+  @Test
+  public void requestHandlerHoldsPermitForRequest() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 8, ticker);
+    RequestHandler2 handler = limit.newRequestHandler();
+    Request<?> request = new DefaultRequest<>("s3");
+
+    handler.beforeRequest(request);
+    assertThat(limit.getInFlight(), is(1));
+    handler.afterAttempt(HandlerAfterAttemptContext.builder()
+        .withRequest(request)
+        .withException(serviceException(503, "SlowDown"))
+        .build());
+    handler.afterResponse(request, null);
+    assertThat(limit.getInFlight(), is(0));
+    assertThat(limit.getThrottleCount(), is(1L));
+    assertThat(limit.getLimit(), is(2));
+  }
+
+  @Test
+  public void requestHandlerReleasesPermitOnError() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 8, ticker);
+    RequestHandler2 handler = limit.newRequestHandler();
+    Request<?> request = new DefaultRequest<>("s3");
+
+    handler.beforeRequest(request);
+    handler.afterError(request, null, new SdkClientException("foo"));
+    handler.afterError(request, null, new SdkClientException("foo"));
+    assertThat(limit.getInFlight(), is(0));
+    assertThat(limit.getLimit(), is(4));
+  }
+
+  @Test
+  public void throttlingRequestHandlerOnlyReportsThrottling() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 8, ticker);
+    RequestHandler2 handler = limit.newThrottlingRequestHandler();
+    Request<?> request = new DefaultRequest<>("s3");
+
+    handler.beforeRequest(request);
+    assertThat(limit.getInFlight(), is(0));
+    handler.afterAttempt(HandlerAfterAttemptContext.builder()
+        .withRequest(request)
+        .withException(serviceException(503, "SlowDown"))
+        .build());
+    handler.afterError(request, null, serviceException(503, "SlowDown"));
+    assertThat(limit.getThrottleCount(), is(1L));
+    assertThat(limit.getLimit(), is(2));
+    assertThat(limit.getInFlight(), is(0));
+  }
+
+  private static AmazonServiceException serviceException(int statusCode, String errorCode) {
+    AmazonServiceException exception = new AmazonServiceException("error");
+    exception.setStatusCode(statusCode);
+    exception.setErrorCode(errorCode);
+    return exception;
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,4 +37,18 @@ public interface DiffListener {
 
   void onDataChanged(String partitionName, Partition partition);
 
+  /**
+   * Called before {@link #onDataChanged(String, Partition)} with the checksum of the source partition when it was
+   * computed with the configured, rather than a legacy, checksum function, so that it need not be computed again.
+   */
+  default void onSourcePartitionChecksum(String partitionName, String checksum) {}
+
+  /**
+   * Called for replica partitions that no longer exist in the source, only when the differences are computed by
+   * merge-joining sorted source and replica partitions. Only reported for now: the replication itself does not act on
+   * it, partitions deleted from the source are dropped by the {@code PROPAGATE_DELETES} strategy, which still lists
+   * the replica partitions on its own.
+   */
+  default void onDeletedPartition(String partitionName, Partition replicaPartition) {}
+
 }
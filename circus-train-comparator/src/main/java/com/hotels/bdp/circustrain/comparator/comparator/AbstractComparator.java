@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,8 +17,11 @@ package com.hotels.bdp.circustrain.comparator.comparator;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import com.google.common.collect.ImmutableList;
+
 import com.hotels.bdp.circustrain.comparator.ComparatorRegistry;
 import com.hotels.bdp.circustrain.comparator.api.Comparator;
 import com.hotels.bdp.circustrain.comparator.api.ComparatorType;
@@ -43,8 +46,37 @@ public abstract class AbstractComparator<T, D> implements Comparator<T, D> {
     return comparatorType;
   }
 
+  /**
+   * @param diffs the differences found so far, {@code null} if there are none
+   */
   protected boolean carryOn(List<Diff<Object, Object>> diffs) {
-    return comparatorType.isFullComparison() || diffs.size() == 0;
+    return diffs == null || comparatorType.isFullComparison() || diffs.size() == 0;
+  }
+
+  /**
+   * Adds a difference to a list that is only allocated once there is a difference.
+   */
+  protected List<Diff<Object, Object>> add(List<Diff<Object, Object>> diffs, Diff<Object, Object> diff) {
+    if (diffs == null) {
+      diffs = new ArrayList<>();
+    }
+    diffs.add(diff);
+    return diffs;
+  }
+
+  protected List<Diff<Object, Object>> addAll(List<Diff<Object, Object>> diffs, List<Diff<Object, Object>> newDiffs) {
+    if (newDiffs.isEmpty()) {
+      return diffs;
+    }
+    if (diffs == null) {
+      diffs = new ArrayList<>(newDiffs.size());
+    }
+    diffs.addAll(newDiffs);
+    return diffs;
+  }
+
+  protected List<Diff<Object, Object>> toImmutableList(List<Diff<Object, Object>> diffs) {
+    return diffs == null ? ImmutableList.<Diff<Object, Object>> of() : ImmutableList.copyOf(diffs);
   }
 
   protected boolean checkForInequality(Object left, Object right) {
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,7 +15,6 @@
  */
 package com.hotels.bdp.circustrain.comparator.comparator;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -69,9 +68,9 @@ public class CollectionComparator extends AbstractComparator<Collection<?>, Obje
       return ImmutableList.of(diff);
     }
 
-    List<Diff<Object, Object>> diffs = new ArrayList<>();
+    List<Diff<Object, Object>> diffs = null;
     if (left.size() != right.size()) {
-      diffs.add(new BaseDiff<Object, Object>("Collection "
+      diffs = add(diffs, new BaseDiff<Object, Object>("Collection "
           + property
           + " of class "
           + left.getClass().getName()
@@ -90,7 +89,7 @@ public class CollectionComparator extends AbstractComparator<Collection<?>, Obje
           Object bVal = bIterator.next();
           List<Diff<Object, Object>> valDiffs = comparator.compare(aVal, bVal);
           for (Diff<Object, Object> diff : valDiffs) {
-            diffs.add(new BaseDiff<>("Element "
+            diffs = add(diffs, new BaseDiff<Object, Object>("Element "
                 + i
                 + " of collection "
                 + property
@@ -102,11 +101,11 @@ public class CollectionComparator extends AbstractComparator<Collection<?>, Obje
           ++i;
         }
       } else if (checkForInequality(left, right)) {
-        diffs.add(new BaseDiff<Object, Object>(
+        diffs = add(diffs, new BaseDiff<Object, Object>(
             "Collection " + property + " of class " + left.getClass().getName() + " is different", left, right));
       }
     }
-    return ImmutableList.copyOf(diffs);
+    return toImmutableList(diffs);
   }
 
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.comparator;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Reads a dot separated property path, e.g. {@code partition.sd.cols}, directly from the fields of an object. The field
+ * of each path element is resolved once per class and then read through a cached {@link MethodHandle}.
+ */
+class PropertyAccessor {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static class FieldGetter extends ClassValue<MethodHandle> {
+
+    private final String fieldName;
+
+    private FieldGetter(String fieldName) {
+      this.fieldName = fieldName;
+    }
+
+    @Override
+    protected MethodHandle computeValue(Class<?> type) {
+      Field field = ReflectionUtils.findField(type, fieldName);
+      if (field == null) {
+        throw new IllegalArgumentException("Unknown property '" + fieldName + "' of class " + type.getName());
+      }
+      ReflectionUtils.makeAccessible(field);
+      try {
+        return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+      } catch (IllegalAccessException e) {
+        throw new IllegalArgumentException("Property '" + fieldName + "' of class " + type.getName() + " is not readable",
+            e);
+      }
+    }
+  }
+
+  private final String propertyPath;
+  private final String[] fieldNames;
+  private final FieldGetter[] getters;
+
+  PropertyAccessor(String propertyPath) {
+    this.propertyPath = propertyPath;
+    fieldNames = propertyPath.split("\\.");
+    getters = new FieldGetter[fieldNames.length];
+    for (int i = 0; i < fieldNames.length; i++) {
+      getters[i] = new FieldGetter(fieldNames[i]);
+    }
+  }
+
+  String getPropertyPath() {
+    return propertyPath;
+  }
+
+  Object get(Object object) {
+    Object value = object;
+    for (int i = 0; i < getters.length; i++) {
+      value = read(getters[i].get(value.getClass()), value);
+      if (value == null) {
+        if (i == getters.length - 1) {
+          return null;
+        }
+        throw new IllegalArgumentException("Intermediate property '" + fieldNames[i] + "' is null");
+      }
+    }
+    return value;
+  }
+
+  private static Object read(MethodHandle getter, Object object) {
+    try {
+      return (Object) getter.invokeExact(object);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+}
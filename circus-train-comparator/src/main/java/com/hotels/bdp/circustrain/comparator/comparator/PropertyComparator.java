@@ -22,11 +22,8 @@ package com.hotels.bdp.circustrain.comparator.comparator;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
-import org.springframework.beans.DirectFieldAccessor;
-
 import com.google.common.collect.ImmutableList;
 
 import com.hotels.bdp.circustrain.comparator.ComparatorRegistry;
@@ -35,9 +32,15 @@ import com.hotels.bdp.circustrain.comparator.api.Comparator;
 import com.hotels.bdp.circustrain.comparator.api.ComparatorType;
 import com.hotels.bdp.circustrain.comparator.api.Diff;
 
+/**
+ * Compares the given properties of two objects. The property accessors and the comparators of collection properties are
+ * created once per instance so that instances can be reused for many comparisons, and no diff list is allocated unless
+ * there are differences.
+ */
 public class PropertyComparator<T> extends AbstractComparator<T, Object> {
 
-  private final List<String> properties;
+  private final List<PropertyAccessor> accessors;
+  private final List<CollectionComparator> collectionComparators;
 
   public PropertyComparator(ComparatorType comparatorType, List<String> properties) {
     this(null, comparatorType, properties);
@@ -48,7 +51,12 @@ public class PropertyComparator<T> extends AbstractComparator<T, Object> {
       ComparatorType comparatorType,
       List<String> properties) {
     super(comparatorRegistry, comparatorType);
-    this.properties = properties;
+    accessors = new ArrayList<>(properties.size());
+    collectionComparators = new ArrayList<>(properties.size());
+    for (String property : properties) {
+      accessors.add(new PropertyAccessor(property));
+      collectionComparators.add(new CollectionComparator(comparatorRegistry, comparatorType, property));
+    }
   }
 
   @Override
@@ -69,33 +77,33 @@ public class PropertyComparator<T> extends AbstractComparator<T, Object> {
       return ImmutableList.of(diff);
     }
 
-    List<Diff<Object, Object>> diffs = new ArrayList<>(properties.size() + 1);
-    Iterator<String> propertyIterator = properties.iterator();
-    while (carryOn(diffs) && propertyIterator.hasNext()) {
-      String property = propertyIterator.next();
-      Object aVal = get(left, property);
-      Object bVal = get(right, property);
+    List<Diff<Object, Object>> diffs = null;
+    for (int i = 0; i < accessors.size() && carryOn(diffs); i++) {
+      PropertyAccessor accessor = accessors.get(i);
+      Object aVal = accessor.get(left);
+      Object bVal = accessor.get(right);
       if (areCollections(aVal, bVal)) {
-        CollectionComparator collectionComparator = new CollectionComparator(comparatorRegistry(), comparatorType(),
-            property);
-        diffs.addAll(collectionComparator.compare((Collection<?>) aVal, (Collection<?>) bVal));
+        diffs = addAll(diffs, collectionComparators.get(i).compare((Collection<?>) aVal, (Collection<?>) bVal));
       } else {
         Comparator<Object, Object> comparator = null;
         if (aVal != null) {
           comparator = comparator(aVal.getClass());
         }
         if (comparator != null) {
-          diffs.addAll(comparator.compare(aVal, bVal));
+          diffs = addAll(diffs, comparator.compare(aVal, bVal));
         } else {
           if (checkForInequality(aVal, bVal)) {
-            diffs.add(new BaseDiff<>(
-                "Property " + property + " of class " + left.getClass().getName() + " is different", aVal, bVal));
+            diffs = add(diffs, new BaseDiff<>("Property "
+                + accessor.getPropertyPath()
+                + " of class "
+                + left.getClass().getName()
+                + " is different", aVal, bVal));
           }
         }
       }
     }
 
-    return ImmutableList.copyOf(diffs);
+    return toImmutableList(diffs);
   }
 
   private boolean areCollections(Object aVal, Object bVal) {
@@ -105,21 +113,4 @@ public class PropertyComparator<T> extends AbstractComparator<T, Object> {
         && Iterable.class.isAssignableFrom(bVal.getClass());
   }
 
-  private Object get(T object, String propertyPath) {
-    Object value = null;
-    DirectFieldAccessor accessor = new DirectFieldAccessor(object);
-    String[] tokens = propertyPath.split("\\.");
-    for (int i = 0; i < tokens.length; i++) {
-      value = accessor.getPropertyValue(tokens[i]);
-      if (value != null) {
-        accessor = new DirectFieldAccessor(value);
-      } else if (i == tokens.length - 1) {
-        return null;
-      } else {
-        throw new IllegalArgumentException("Intermediate property '" + tokens[i] + "' is null");
-      }
-    }
-    return value;
-  }
-
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,8 +20,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.hotels.bdp.circustrain.api.CircusTrainTableParameter.SOURCE_LOCATION;
 import static com.hotels.bdp.circustrain.api.CircusTrainTableParameter.SOURCE_TABLE;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -34,6 +41,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.CircusTrainTableParameter;
@@ -44,7 +53,9 @@ import com.hotels.bdp.circustrain.comparator.api.DiffListener;
 import com.hotels.bdp.circustrain.comparator.hive.functions.CleanPartitionFunction;
 import com.hotels.bdp.circustrain.comparator.hive.functions.CleanTableFunction;
 import com.hotels.bdp.circustrain.comparator.hive.functions.PathDigest;
+import com.hotels.bdp.circustrain.comparator.hive.functions.PathListingDigest;
 import com.hotels.bdp.circustrain.comparator.hive.functions.PathToPathMetadata;
+import com.hotels.bdp.circustrain.comparator.hive.functions.StreamingPathDigest;
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.PartitionAndMetadata;
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.TableAndMetadata;
 import com.hotels.bdp.circustrain.hive.fetcher.PartitionFetcher;
@@ -95,8 +106,12 @@ public class HiveDifferences {
     private Iterator<Partition> sourcePartitionIterator;
     private Optional<Table> replicaTable;
     private Optional<? extends PartitionFetcher> replicaPartitionFetcher;
+    private Iterator<Partition> sortedReplicaPartitionIterator;
+    private boolean descending;
     private Function<Path, String> checksumFunction;
+    private Function<Path, String> legacyChecksumFunction;
     private int partitionLimit = UNLIMITED;
+    private int checksumConcurrency = 1;
 
     private Builder(DiffListener diffListener) {
       this.diffListener = diffListener;
@@ -120,6 +135,24 @@ public class HiveDifferences {
     public Builder replica(Optional<Table> replicaTable, Optional<? extends PartitionFetcher> replicaPartitionFetcher) {
       this.replicaTable = replicaTable;
       this.replicaPartitionFetcher = replicaPartitionFetcher;
+      sortedReplicaPartitionIterator = null;
+      return this;
+    }
+
+    /**
+     * Merge-joins the source partitions with the replica partitions in a single pass instead of fetching the replica
+     * partition of each source partition by name. Both the source and the replica iterators must return partitions in
+     * partition name order, ascending unless {@code descending}. Replica partitions that no longer exist in the source
+     * are notified to {@link DiffListener#onDeletedPartition(String, Partition)}.
+     */
+    public Builder replica(
+        Optional<Table> replicaTable,
+        Iterator<Partition> sortedReplicaPartitionIterator,
+        boolean descending) {
+      this.replicaTable = replicaTable;
+      this.sortedReplicaPartitionIterator = sortedReplicaPartitionIterator;
+      this.descending = descending;
+      replicaPartitionFetcher = Optional.absent();
       return this;
     }
 
@@ -128,25 +161,52 @@ public class HiveDifferences {
       return this;
     }
 
+    /**
+     * Sets the function used to compute the checksum of source partitions whose replica was stamped with an unversioned
+     * checksum, i.e. neither a {@link StreamingPathDigest} nor a {@link PathListingDigest}. The default is a
+     * {@link PathDigest} of the {@link PathToPathMetadata path metadata}.
+     */
+    public Builder legacyChecksumFunction(Function<Path, String> legacyChecksumFunction) {
+      this.legacyChecksumFunction = legacyChecksumFunction;
+      return this;
+    }
+
     public Builder partitionLimit(int partitionLimit) {
       this.partitionLimit = partitionLimit;
       return this;
     }
 
+    /**
+     * Sets the number of partition checksums computed at the same time. Partitions are still notified to the
+     * {@link DiffListener} in source order. The default is {@code 1}, i.e. checksums are computed one at a time on the
+     * calling thread.
+     */
+    public Builder checksumConcurrency(int checksumConcurrency) {
+      this.checksumConcurrency = checksumConcurrency;
+      return this;
+    }
+
     public HiveDifferences build() {
       checkNotNull(diffListener, "diffListener is required");
       checkNotNull(comparatorRegistry, "comparatorRegistry is required");
       checkNotNull(sourceConfiguration, "sourceConfiguration is required");
       checkNotNull(sourceTable, "sourceTable is required");
       checkNotNull(sourcePartitionIterator, "sourcePartitionIterable is required");
-      if (replicaTable.isPresent() && !replicaPartitionFetcher.isPresent()) {
+      if (replicaTable.isPresent() && !replicaPartitionFetcher.isPresent() && sortedReplicaPartitionIterator == null) {
         throw new IllegalStateException("replicaPartitionFetcher is required if replicaTable exists");
       }
+      if (checksumConcurrency < 1) {
+        throw new IllegalStateException("checksumConcurrency must be greater than zero");
+      }
       if (checksumFunction == null) {
-        checksumFunction = Functions.compose(new PathDigest(), new PathToPathMetadata(sourceConfiguration));
+        checksumFunction = new StreamingPathDigest(sourceConfiguration);
+      }
+      if (legacyChecksumFunction == null) {
+        legacyChecksumFunction = Functions.compose(new PathDigest(), new PathToPathMetadata(sourceConfiguration));
       }
       return new HiveDifferences(comparatorRegistry, diffListener, sourceTable, sourcePartitionIterator, replicaTable,
-          replicaPartitionFetcher, checksumFunction, partitionLimit);
+          replicaPartitionFetcher, sortedReplicaPartitionIterator, descending, checksumFunction, legacyChecksumFunction,
+          partitionLimit, checksumConcurrency);
     }
 
   }
@@ -161,8 +221,12 @@ public class HiveDifferences {
   private final Iterator<Partition> sourcePartitionIterator;
   private final Optional<Table> replicaTable;
   private final Optional<? extends PartitionFetcher> replicaPartitionFetcher;
+  private final Iterator<Partition> sortedReplicaPartitionIterator;
+  private final boolean descending;
   private final Function<Path, String> checksumFunction;
+  private final Function<Path, String> legacyChecksumFunction;
   private final int partitionLimit;
+  private final int checksumConcurrency;
 
   private HiveDifferences(
       ComparatorRegistry comparatorRegistry,
@@ -171,16 +235,24 @@ public class HiveDifferences {
       Iterator<Partition> sourcePartitionIterator,
       Optional<Table> replicaTable,
       Optional<? extends PartitionFetcher> replicaPartitionFetcher,
+      Iterator<Partition> sortedReplicaPartitionIterator,
+      boolean descending,
       Function<Path, String> checksumFunction,
-      int partitionLimit) {
+      Function<Path, String> legacyChecksumFunction,
+      int partitionLimit,
+      int checksumConcurrency) {
     this.diffListener = diffListener;
     this.comparatorRegistry = comparatorRegistry;
     this.sourceTable = sourceTable;
     this.sourcePartitionIterator = sourcePartitionIterator;
     this.replicaTable = replicaTable;
     this.replicaPartitionFetcher = replicaPartitionFetcher;
+    this.sortedReplicaPartitionIterator = sortedReplicaPartitionIterator;
+    this.descending = descending;
     this.checksumFunction = checksumFunction;
+    this.legacyChecksumFunction = legacyChecksumFunction;
     this.partitionLimit = partitionLimit < 0 ? UNLIMITED : partitionLimit;
+    this.checksumConcurrency = checksumConcurrency;
   }
 
   @SuppressWarnings("unchecked")
@@ -192,6 +264,12 @@ public class HiveDifferences {
     return comparator;
   }
 
+  private static boolean isLegacyChecksum(String checksum) {
+    return checksum != null
+        && !StreamingPathDigest.isStreamingDigest(checksum)
+        && !checksum.startsWith(PathListingDigest.VERSION_PREFIX);
+  }
+
   private static String partitionName(Table table, Partition partition) {
     try {
       return Warehouse.makePartName(table.getPartitionKeys(), partition.getValues());
@@ -204,7 +282,6 @@ public class HiveDifferences {
   }
 
   public void run() {
-    int partitionsChanged = 0;
     TableAndMetadata source = CLEAN_TABLE_FUNCTION.apply(sourceTableToTableAndMetadata(sourceTable));
     Optional<TableAndMetadata> replica = Optional.absent();
     if (replicaTable.isPresent()) {
@@ -216,13 +293,83 @@ public class HiveDifferences {
       diffListener.onChangedTable(tableDiffs);
     }
 
-    while (sourcePartitionIterator.hasNext() && partitionsChanged < partitionLimit) {
-      Partition sourcePartition = sourcePartitionIterator.next();
-      String sourcePartitionName = partitionName(source.getTable(), sourcePartition);
-      PartitionAndMetadata sourcePartitionAndMetadata = CLEAN_PARTITION_FUNCTION
-          .apply(sourcePartitionToPartitionAndMetadata(sourcePartition));
+    ExecutorService checksumExecutor = newChecksumExecutor();
+    try {
+      runPartitions(source, replica, checksumExecutor);
+    } finally {
+      checksumExecutor.shutdownNow();
+    }
+    diffListener.onDiffEnd();
+  }
+
+  private ExecutorService newChecksumExecutor() {
+    if (checksumConcurrency == 1) {
+      return MoreExecutors.newDirectExecutorService();
+    }
+    return Executors
+        .newFixedThreadPool(checksumConcurrency,
+            new ThreadFactoryBuilder().setNameFormat("partition-checksum-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Up to {@code checksumConcurrency} partitions are compared at the same time. The head of the queue is only notified
+   * once its checksum is known so that the {@link DiffListener} sees the partitions in source order, and no more
+   * partitions than the limit are ever notified.
+   */
+  private void runPartitions(
+      TableAndMetadata source,
+      Optional<TableAndMetadata> replica,
+      ExecutorService checksumExecutor) {
+    int partitionsChanged = 0;
+    Deque<PendingPartition> pendingPartitions = new ArrayDeque<>();
+    SortedReplicaPartitions sortedReplicaPartitions = null;
+    if (replica.isPresent() && sortedReplicaPartitionIterator != null) {
+      sortedReplicaPartitions = new SortedReplicaPartitions();
+    }
+    try {
+      while (partitionsChanged < partitionLimit) {
+        if (pendingPartitions.size() < checksumConcurrency && sourcePartitionIterator.hasNext()) {
+          Partition sourcePartition = sourcePartitionIterator.next();
+          comparePartition(source, replica, sortedReplicaPartitions, sourcePartition, checksumExecutor,
+              pendingPartitions);
+          while (partitionsChanged < partitionLimit
+              && !pendingPartitions.isEmpty()
+              && pendingPartitions.peekFirst().isDone()) {
+            if (pendingPartitions.removeFirst().notifyListener()) {
+              partitionsChanged++;
+            }
+          }
+        } else if (pendingPartitions.isEmpty()) {
+          if (sortedReplicaPartitions != null) {
+            sortedReplicaPartitions.notifyRemainingDeleted();
+          }
+          break;
+        } else if (pendingPartitions.removeFirst().notifyListener()) {
+          partitionsChanged++;
+        }
+      }
+    } finally {
+      for (PendingPartition pendingPartition : pendingPartitions) {
+        pendingPartition.cancel();
+      }
+    }
+  }
 
-      Partition replicaPartition = null;
+  private void comparePartition(
+      TableAndMetadata source,
+      Optional<TableAndMetadata> replica,
+      SortedReplicaPartitions sortedReplicaPartitions,
+      Partition sourcePartition,
+      ExecutorService checksumExecutor,
+      Deque<PendingPartition> pendingPartitions) {
+    String sourcePartitionName = partitionName(source.getTable(), sourcePartition);
+    final PartitionAndMetadata sourcePartitionAndMetadata = CLEAN_PARTITION_FUNCTION
+        .apply(sourcePartitionToPartitionAndMetadata(sourcePartition));
+
+    Partition replicaPartition = null;
+    if (sortedReplicaPartitions != null) {
+      replicaPartition = sortedReplicaPartitions.seek(sourcePartitionName, pendingPartitions);
+    } else {
       try {
         if (replica.isPresent()) {
           replicaPartition = replicaPartitionFetcher.get().fetch(sourcePartitionName);
@@ -230,34 +377,172 @@ public class HiveDifferences {
       } catch (PartitionNotFoundException e) {
         // Ignore ...
       }
-      if (replicaPartition == null) {
-        diffListener.onNewPartition(sourcePartitionName, sourcePartition);
-        partitionsChanged++;
-        continue;
+    }
+    if (replicaPartition == null) {
+      pendingPartitions.addLast(new PendingPartition(sourcePartitionName, sourcePartition, null, null, null));
+      return;
+    }
+
+    PartitionAndMetadata replicaPartitionAndMetadata = CLEAN_PARTITION_FUNCTION
+        .apply(replicaPartitionToPartitionAndMetadata(replicaPartition));
+    List<Diff<Object, Object>> partitionDiffs = comparator(PartitionAndMetadata.class)
+        .compare(sourcePartitionAndMetadata, replicaPartitionAndMetadata);
+    if (!partitionDiffs.isEmpty()) {
+      pendingPartitions.addLast(new PendingPartition(sourcePartitionName, sourcePartition, partitionDiffs, null, null));
+      return;
+    }
+
+    String replicaChecksum = replicaPartition
+        .getParameters()
+        .get(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName());
+    // Replicas stamped before versioned digests were introduced are compared using the digest they were stamped with
+    final Function<Path, String> sourceChecksumFunction = isLegacyChecksum(replicaChecksum) ? legacyChecksumFunction
+        : checksumFunction;
+    Future<String> sourceChecksum = checksumExecutor.submit(new Callable<String>() {
+      @Override
+      public String call() {
+        return sourceChecksumFunction.apply(new Path(sourcePartitionAndMetadata.getSourceLocation()));
       }
+    });
+    pendingPartitions.addLast(new PendingPartition(sourcePartitionName, sourcePartition, partitionDiffs,
+        sourceChecksum, replicaChecksum));
+  }
 
-      PartitionAndMetadata replicaPartitionAndMetadata = CLEAN_PARTITION_FUNCTION
-          .apply(replicaPartitionToPartitionAndMetadata(replicaPartition));
-      List<Diff<Object, Object>> partitionDiffs = comparator(PartitionAndMetadata.class)
-          .compare(sourcePartitionAndMetadata, replicaPartitionAndMetadata);
+  /**
+   * The head of the sorted replica partitions, which is advanced as source partitions are compared.
+   */
+  private class SortedReplicaPartitions {
+    private Partition partition;
+    private String partitionName;
+
+    private SortedReplicaPartitions() {
+      advance();
+    }
+
+    private void advance() {
+      if (sortedReplicaPartitionIterator.hasNext()) {
+        partition = sortedReplicaPartitionIterator.next();
+        partitionName = partitionName(replicaTable.get(), partition);
+      } else {
+        partition = null;
+        partitionName = null;
+      }
+    }
+
+    private boolean isBefore(String sourcePartitionName) {
+      int comparison = partitionName.compareTo(sourcePartitionName);
+      return descending ? comparison > 0 : comparison < 0;
+    }
+
+    /**
+     * @return the replica partition with the given name, or {@code null} if there is none. Replica partitions skipped
+     *         on the way are queued as deleted.
+     */
+    private Partition seek(String sourcePartitionName, Deque<PendingPartition> pendingPartitions) {
+      while (partition != null && isBefore(sourcePartitionName)) {
+        pendingPartitions.addLast(new PendingPartition(partitionName, partition));
+        advance();
+      }
+      if (partition != null && partitionName.equals(sourcePartitionName)) {
+        Partition replicaPartition = partition;
+        advance();
+        return replicaPartition;
+      }
+      return null;
+    }
+
+    private void notifyRemainingDeleted() {
+      while (partition != null) {
+        diffListener.onDeletedPartition(partitionName, partition);
+        advance();
+      }
+    }
+  }
+
+  private class PendingPartition {
+    private final String sourcePartitionName;
+    private final Partition sourcePartition;
+    // null if the partition does not exist in the replica
+    private final List<Diff<Object, Object>> partitionDiffs;
+    // null unless the partition metadata are unchanged
+    private final Future<String> sourceChecksum;
+    private final String replicaChecksum;
+    private final Partition deletedReplicaPartition;
+
+    private PendingPartition(String replicaPartitionName, Partition deletedReplicaPartition) {
+      sourcePartitionName = replicaPartitionName;
+      sourcePartition = null;
+      partitionDiffs = null;
+      sourceChecksum = null;
+      replicaChecksum = null;
+      this.deletedReplicaPartition = deletedReplicaPartition;
+    }
+
+    private PendingPartition(
+        String sourcePartitionName,
+        Partition sourcePartition,
+        List<Diff<Object, Object>> partitionDiffs,
+        Future<String> sourceChecksum,
+        String replicaChecksum) {
+      this.sourcePartitionName = sourcePartitionName;
+      this.sourcePartition = sourcePartition;
+      this.partitionDiffs = partitionDiffs;
+      this.sourceChecksum = sourceChecksum;
+      this.replicaChecksum = replicaChecksum;
+      deletedReplicaPartition = null;
+    }
+
+    private boolean isDone() {
+      return sourceChecksum == null || sourceChecksum.isDone();
+    }
+
+    private void cancel() {
+      if (sourceChecksum != null) {
+        sourceChecksum.cancel(true);
+      }
+    }
+
+    /**
+     * @return {@code true} if the source partition has changed, waiting for its checksum if required.
+     */
+    private boolean notifyListener() {
+      if (deletedReplicaPartition != null) {
+        diffListener.onDeletedPartition(sourcePartitionName, deletedReplicaPartition);
+        return false;
+      }
+      if (partitionDiffs == null) {
+        diffListener.onNewPartition(sourcePartitionName, sourcePartition);
+        return true;
+      }
       if (!partitionDiffs.isEmpty()) {
         diffListener.onChangedPartition(sourcePartitionName, sourcePartition, partitionDiffs);
-        partitionsChanged++;
-        continue;
+        return true;
       }
-
-      String sourceChecksum = checksumFunction.apply(new Path(sourcePartitionAndMetadata.getSourceLocation()));
-      String replicaChecksum = replicaPartition
-          .getParameters()
-          .get(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName());
-      if (replicaChecksum == null || !sourceChecksum.equals(replicaChecksum)) {
+      String checksum = checksum();
+      if (replicaChecksum == null || !checksum.equals(replicaChecksum)) {
+        if (!isLegacyChecksum(replicaChecksum)) {
+          diffListener.onSourcePartitionChecksum(sourcePartitionName, checksum);
+        }
         diffListener.onDataChanged(sourcePartitionName, sourcePartition);
-        partitionsChanged++;
+        return true;
       }
-
       // Partition remains unchanged
+      return false;
+    }
+
+    private String checksum() {
+      try {
+        return sourceChecksum.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CircusTrainException("Interrupted while computing checksum of partition " + sourcePartitionName, e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new CircusTrainException("Unable to compute checksum of partition " + sourcePartitionName, e.getCause());
+      }
     }
-    diffListener.onDiffEnd();
   }
 
 }
@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.hive.functions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+
+/**
+ * Caches the {@link FileChecksum} of files keyed on their path, length and modification time so that
+ * {@link FileSystem#getFileChecksum(Path)} is only called for new or modified files.
+ * <p>
+ * The cache holds at most {@code maxEntries} entries, the least recently used entries being evicted first. When a file
+ * is given the cache is loaded from it when created and written back to it, in least recently used order, by
+ * {@link #flush()}.
+ * </p>
+ */
+public class FileChecksumCache implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileChecksumCache.class);
+
+  private static final int MAGIC = 0x43544643;
+  private static final int FORMAT_VERSION = 1;
+
+  public static FileChecksumCache noCache() {
+    return new FileChecksumCache(null, 0);
+  }
+
+  private final File file;
+  private final int maxEntries;
+  private final Map<Key, Optional<FileChecksum>> entries;
+  private boolean dirty = false;
+  private long hits = 0;
+  private long misses = 0;
+
+  public FileChecksumCache(File file, final int maxEntries) {
+    if (maxEntries < 0) {
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    }
+    this.file = file;
+    this.maxEntries = maxEntries;
+    entries = new LinkedHashMap<Key, Optional<FileChecksum>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Entry<Key, Optional<FileChecksum>> eldest) {
+        return size() > maxEntries;
+      }
+    };
+    if (file != null && file.exists() && maxEntries > 0) {
+      load();
+    }
+  }
+
+  /**
+   * @param location the file location
+   * @param fileStatus the status of the file, whose length and modification time are part of the key
+   */
+  public FileChecksum getFileChecksum(FileSystem fs, Path location, FileStatus fileStatus) throws IOException {
+    if (maxEntries == 0) {
+      return fs.getFileChecksum(location);
+    }
+    Key key = new Key(location.toUri().toString(), fileStatus.getLen(), fileStatus.getModificationTime());
+    synchronized (entries) {
+      Optional<FileChecksum> checksum = entries.get(key);
+      if (checksum != null) {
+        hits++;
+        return checksum.orNull();
+      }
+      misses++;
+    }
+    FileChecksum checksum = fs.getFileChecksum(location);
+    synchronized (entries) {
+      entries.put(key, checksum == null ? Optional.<FileChecksum> absent()
+          : Optional.<FileChecksum> of(new CachedFileChecksum(checksum)));
+      dirty = true;
+    }
+    return checksum;
+  }
+
+  @VisibleForTesting
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Writes the cache to its file if it has changed since it was loaded or last flushed. Failures are logged but not
+   * thrown.
+   */
+  public void flush() {
+    if (file == null) {
+      return;
+    }
+    synchronized (entries) {
+      if (!dirty) {
+        return;
+      }
+      LOG.info("Writing {} file checksums to {} ({} hits, {} misses)", entries.size(), file, hits, misses);
+      File parent = file.getAbsoluteFile().getParentFile();
+      parent.mkdirs();
+      try {
+        File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+          out.writeInt(MAGIC);
+          out.writeInt(FORMAT_VERSION);
+          out.writeInt(entries.size());
+          for (Entry<Key, Optional<FileChecksum>> entry : entries.entrySet()) {
+            entry.getKey().write(out);
+            write(out, entry.getValue());
+          }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+      } catch (IOException e) {
+        // The checksums will be fetched again by the next run
+        LOG.warn("Unable to write file checksum cache {}", file, e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    flush();
+  }
+
+  private void load() {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        LOG.warn("Ignoring file checksum cache {} written in an unknown format", file);
+        return;
+      }
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        entries.put(Key.read(in), read(in));
+      }
+      LOG.info("Loaded {} file checksums from {}", entries.size(), file);
+    } catch (IOException e) {
+      LOG.warn("Ignoring file checksum cache {} as it could not be read", file, e);
+      entries.clear();
+    }
+  }
+
+  private static void write(DataOutput out, Optional<FileChecksum> checksum) throws IOException {
+    out.writeBoolean(checksum.isPresent());
+    if (checksum.isPresent()) {
+      checksum.get().write(out);
+    }
+  }
+
+  private static Optional<FileChecksum> read(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return Optional.absent();
+    }
+    CachedFileChecksum checksum = new CachedFileChecksum();
+    checksum.readFields(in);
+    return Optional.<FileChecksum> of(checksum);
+  }
+
+  private static final class Key {
+    private final String path;
+    private final long length;
+    private final long modificationTime;
+
+    private Key(String path, long length, long modificationTime) {
+      this.path = path;
+      this.length = length;
+      this.modificationTime = modificationTime;
+    }
+
+    private void write(DataOutput out) throws IOException {
+      out.writeUTF(path);
+      out.writeLong(length);
+      out.writeLong(modificationTime);
+    }
+
+    private static Key read(DataInput in) throws IOException {
+      return new Key(in.readUTF(), in.readLong(), in.readLong());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(path, length, modificationTime);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return length == other.length && modificationTime == other.modificationTime && path.equals(other.path);
+    }
+  }
+
+  /**
+   * Holds the algorithm name, length and bytes of a checksum, which is all that the digests use.
+   */
+  private static final class CachedFileChecksum extends FileChecksum {
+    private String algorithmName;
+    private int length;
+    private byte[] bytes;
+
+    private CachedFileChecksum() {}
+
+    private CachedFileChecksum(FileChecksum checksum) {
+      algorithmName = checksum.getAlgorithmName();
+      length = checksum.getLength();
+      bytes = checksum.getBytes();
+    }
+
+    @Override
+    public String getAlgorithmName() {
+      return algorithmName;
+    }
+
+    @Override
+    public int getLength() {
+      return length;
+    }
+
+    @Override
+    public byte[] getBytes() {
+      return bytes;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+      out.writeUTF(algorithmName);
+      out.writeInt(length);
+      out.writeInt(bytes == null ? -1 : bytes.length);
+      if (bytes != null) {
+        out.write(bytes);
+      }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+      algorithmName = in.readUTF();
+      length = in.readInt();
+      int size = in.readInt();
+      if (size < 0) {
+        bytes = null;
+      } else {
+        bytes = new byte[size];
+        in.readFully(bytes);
+      }
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,11 +30,15 @@ import com.google.common.base.Strings;
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.PathMetadata;
 
+/**
+ * Computes the digest of a Java serialised {@link PathMetadata} tree. Superseded by {@link StreamingPathDigest}, it is
+ * still used to compare source partitions with replica partitions stamped with this format.
+ */
 public class PathDigest implements Function<PathMetadata, String> {
 
   public static final String DEFAULT_MESSAGE_DIGEST_ALGORITHM = "MD5";
 
-  private final MessageDigest messageDigest;
+  private final String algorithm;
 
   public PathDigest() {
     this(null);
@@ -45,8 +49,14 @@ public class PathDigest implements Function<PathMetadata, String> {
       algorithm = DEFAULT_MESSAGE_DIGEST_ALGORITHM;
     }
 
+    this.algorithm = algorithm;
+    messageDigest();
+  }
+
+  // MessageDigest is not thread-safe and the digest may be computed concurrently
+  private MessageDigest messageDigest() {
     try {
-      messageDigest = MessageDigest.getInstance(algorithm);
+      return MessageDigest.getInstance(algorithm);
     } catch (NoSuchAlgorithmException e) {
       throw new CircusTrainException("Unable to find MessageDigest algorithm " + algorithm, e);
     }
@@ -54,7 +64,7 @@ public class PathDigest implements Function<PathMetadata, String> {
 
   @Override
   public String apply(PathMetadata pathDescriptor) {
-    byte[] checksum = messageDigest.digest(serialize(pathDescriptor));
+    byte[] checksum = messageDigest().digest(serialize(pathDescriptor));
     return Base64.encodeBase64String(checksum);
   }
 
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.hive.functions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import com.google.common.base.Function;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+
+/**
+ * Describes the files below a location from a single recursive listing: their number, total length, latest
+ * modification time and a digest of their names relative to the location. No file checksums are fetched, which makes
+ * it much cheaper than {@link StreamingPathDigest} on HDFS and usable on file systems that do not support checksums,
+ * at the cost of not detecting files rewritten with the same name, length and modification time.
+ * <p>
+ * Results have the form {@code l1:<file count>:<total length>:<latest modification time>:<names digest>}.
+ * </p>
+ */
+public class PathListingDigest implements Function<Path, String> {
+
+  public static final String VERSION_PREFIX = "l1:";
+
+  private final Configuration conf;
+
+  public PathListingDigest(Configuration conf) {
+    this.conf = new Configuration(conf);
+  }
+
+  @Override
+  public String apply(@Nonnull Path location) {
+    try {
+      FileSystem fs = location.getFileSystem(conf);
+      Path qualifiedLocation = fs.makeQualified(location);
+      String prefix = qualifiedLocation.toUri().getPath();
+      if (!prefix.endsWith(Path.SEPARATOR)) {
+        prefix += Path.SEPARATOR;
+      }
+      long totalLength = 0;
+      long latestModificationTime = 0;
+      List<String> names = new ArrayList<>();
+      RemoteIterator<LocatedFileStatus> files = fs.listFiles(qualifiedLocation, true);
+      while (files.hasNext()) {
+        LocatedFileStatus file = files.next();
+        totalLength += file.getLen();
+        latestModificationTime = Math.max(latestModificationTime, file.getModificationTime());
+        String path = file.getPath().toUri().getPath();
+        names.add(path.startsWith(prefix) ? path.substring(prefix.length()) : path);
+      }
+      // Listings are not guaranteed to be ordered by every file system
+      Collections.sort(names);
+      MessageDigest digest = MessageDigest.getInstance(PathDigest.DEFAULT_MESSAGE_DIGEST_ALGORITHM);
+      for (String name : names) {
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+      }
+      return VERSION_PREFIX
+          + names.size()
+          + ":"
+          + totalLength
+          + ":"
+          + latestModificationTime
+          + ":"
+          + Base64.encodeBase64String(digest.digest());
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to list location " + location.toString(), e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new CircusTrainException("Unable to find MessageDigest algorithm "
+          + PathDigest.DEFAULT_MESSAGE_DIGEST_ALGORITHM, e);
+    }
+  }
+
+}
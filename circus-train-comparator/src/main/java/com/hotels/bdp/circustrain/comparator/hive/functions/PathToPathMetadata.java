@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,9 +35,15 @@ import com.hotels.bdp.circustrain.comparator.hive.wrappers.PathMetadata;
 public class PathToPathMetadata implements Function<Path, PathMetadata> {
 
   private final Configuration conf;
+  private final FileChecksumCache fileChecksumCache;
 
   public PathToPathMetadata(Configuration conf) {
+    this(conf, FileChecksumCache.noCache());
+  }
+
+  public PathToPathMetadata(Configuration conf, FileChecksumCache fileChecksumCache) {
     this.conf = new Configuration(conf);
+    this.fileChecksumCache = fileChecksumCache;
   }
 
   @Override
@@ -47,7 +53,7 @@ public class PathToPathMetadata implements Function<Path, PathMetadata> {
       FileStatus fileStatus = fs.getFileStatus(location);
       FileChecksum checksum = null;
       if (fileStatus.isFile()) {
-        checksum = fs.getFileChecksum(location);
+        checksum = fileChecksumCache.getFileChecksum(fs, location, fileStatus);
       }
 
       long modificationTime = 0;
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.hive.functions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.google.common.base.Function;
+import com.google.common.base.Strings;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+
+/**
+ * Computes the digest of a location by feeding the location, modification time and checksum of the location and of
+ * every file and directory below it straight into a {@link MessageDigest} while the file system tree is walked.
+ * <p>
+ * Digests are prefixed with {@link #VERSION_PREFIX} so that they can be told apart from those computed by
+ * {@link PathDigest} over a serialised {@link PathToPathMetadata path metadata} tree.
+ * </p>
+ */
+public class StreamingPathDigest implements Function<Path, String> {
+
+  public static final String VERSION_PREFIX = "v2:";
+
+  private static final byte DIRECTORY = 'D';
+  private static final byte FILE = 'F';
+
+  public static boolean isStreamingDigest(String digest) {
+    return digest != null && digest.startsWith(VERSION_PREFIX);
+  }
+
+  private final Configuration conf;
+  private final String algorithm;
+  private final FileChecksumCache fileChecksumCache;
+  private final AtomicLong bytesDigested = new AtomicLong();
+
+  public StreamingPathDigest(Configuration conf) {
+    this(conf, FileChecksumCache.noCache());
+  }
+
+  public StreamingPathDigest(Configuration conf, FileChecksumCache fileChecksumCache) {
+    this(conf, null, fileChecksumCache);
+  }
+
+  public StreamingPathDigest(Configuration conf, String algorithm, FileChecksumCache fileChecksumCache) {
+    this.conf = new Configuration(conf);
+    this.algorithm = Strings.isNullOrEmpty(algorithm) ? PathDigest.DEFAULT_MESSAGE_DIGEST_ALGORITHM : algorithm;
+    this.fileChecksumCache = fileChecksumCache;
+    messageDigest();
+  }
+
+  // MessageDigest is not thread-safe and the digest may be computed concurrently
+  private MessageDigest messageDigest() {
+    try {
+      return MessageDigest.getInstance(algorithm);
+    } catch (NoSuchAlgorithmException e) {
+      throw new CircusTrainException("Unable to find MessageDigest algorithm " + algorithm, e);
+    }
+  }
+
+  @Override
+  public String apply(@Nonnull Path location) {
+    try {
+      FileSystem fs = location.getFileSystem(conf);
+      DigestWriter writer = new DigestWriter(messageDigest());
+      update(fs, fs.getFileStatus(location), location, writer);
+      return VERSION_PREFIX + Base64.encodeBase64String(writer.digest.digest());
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to compute digest for location " + location.toString(), e);
+    }
+  }
+
+  private void update(FileSystem fs, FileStatus fileStatus, Path location, DigestWriter writer) throws IOException {
+    writer.writeString(location.toUri().toString());
+    if (fileStatus.isDirectory()) {
+      FileStatus[] childStatuses = fs.listStatus(location);
+      // Listings are not guaranteed to be ordered by every file system
+      Arrays.sort(childStatuses);
+      writer.writeByte(DIRECTORY);
+      writer.writeInt(childStatuses.length);
+      for (FileStatus childStatus : childStatuses) {
+        update(fs, childStatus, childStatus.getPath(), writer);
+      }
+    } else {
+      writer.writeByte(FILE);
+      writer.writeLong(fileStatus.getModificationTime());
+      writer.writeChecksum(fileChecksumCache.getFileChecksum(fs, location, fileStatus));
+      bytesDigested.addAndGet(fileStatus.getLen());
+    }
+  }
+
+  /**
+   * @return the total length of the files whose checksums have been digested so far
+   */
+  public long getBytesDigested() {
+    return bytesDigested.get();
+  }
+
+  /**
+   * Writes length-prefixed fields into the digest so that different trees cannot produce the same byte sequence.
+   */
+  private static class DigestWriter {
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[8];
+
+    private DigestWriter(MessageDigest digest) {
+      this.digest = digest;
+    }
+
+    private void writeByte(byte value) {
+      digest.update(value);
+    }
+
+    private void writeInt(int value) {
+      for (int i = 0; i < 4; i++) {
+        buffer[i] = (byte) (value >>> (24 - 8 * i));
+      }
+      digest.update(buffer, 0, 4);
+    }
+
+    private void writeLong(long value) {
+      for (int i = 0; i < 8; i++) {
+        buffer[i] = (byte) (value >>> (56 - 8 * i));
+      }
+      digest.update(buffer, 0, 8);
+    }
+
+    private void writeBytes(byte[] value) {
+      if (value == null) {
+        writeInt(-1);
+      } else {
+        writeInt(value.length);
+        digest.update(value);
+      }
+    }
+
+    private void writeString(String value) {
+      writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeChecksum(FileChecksum checksum) {
+      if (checksum == null) {
+        writeString(null);
+      } else {
+        writeString(checksum.getAlgorithmName());
+        writeInt(checksum.getLength());
+        writeBytes(checksum.getBytes());
+      }
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 package com.hotels.bdp.circustrain.comparator.listener;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -23,7 +25,9 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,10 +35,15 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 
+import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.comparator.api.Diff;
 import com.hotels.bdp.circustrain.comparator.api.DiffListener;
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.TableAndMetadata;
 
+/**
+ * Collects the source partitions that differ from the replica to build the partition filter of a replication. Replica
+ * partitions that no longer exist in the source are ignored.
+ */
 public class PartitionSpecCreatingDiffListener implements DiffListener {
 
   private final static Logger LOG = LoggerFactory.getLogger(PartitionSpecCreatingDiffListener.class);
@@ -42,6 +51,7 @@ public class PartitionSpecCreatingDiffListener implements DiffListener {
   private static final String HIVE_STRING_TYPE = "string";
 
   private final Set<List<String>> partitionValues = new LinkedHashSet<>();
+  private final Map<String, String> partitionChecksums = new HashMap<>();
   private List<FieldSchema> partitionKeys;
 
   private final String hiveDefaultPartitionName;
@@ -71,6 +81,11 @@ public class PartitionSpecCreatingDiffListener implements DiffListener {
     addPartition(partition);
   }
 
+  @Override
+  public void onSourcePartitionChecksum(String partitionName, String checksum) {
+    partitionChecksums.put(partitionName, checksum);
+  }
+
   @Override
   public void onDataChanged(String partitionName, Partition partition) {
     addPartition(partition);
@@ -83,6 +98,32 @@ public class PartitionSpecCreatingDiffListener implements DiffListener {
     partitionValues.add(partition.getValues());
   }
 
+  /**
+   * @return the names of the detected partitions, in the order they were detected
+   */
+  public List<String> getPartitionNames() {
+    List<String> partitionNames = new ArrayList<>(partitionValues.size());
+    for (List<String> values : partitionValues) {
+      if (!values.contains(hiveDefaultPartitionName)) {
+        try {
+          partitionNames.add(Warehouse.makePartName(partitionKeys, values));
+        } catch (MetaException e) {
+          throw new CircusTrainException("Unable to create name of partition with values " + values, e);
+        }
+      } else {
+        LOG.warn("Can't replicate partition with these values {}, will skip them.", values);
+      }
+    }
+    return partitionNames;
+  }
+
+  /**
+   * @return the source partition checksums computed while detecting the partitions, keyed by partition name
+   */
+  public Map<String, String> getPartitionChecksums() {
+    return Collections.unmodifiableMap(partitionChecksums);
+  }
+
   public String getPartitionSpecFilter() {
     LOG.info("Creating partition spec from '{}' detected partitions.", partitionValues.size());
     List<String> filterPartitions = new ArrayList<>();
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.comparator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.junit.Test;
+
+public class PropertyAccessorTest {
+
+  private static Partition newPartition(String location) {
+    Partition partition = new Partition();
+    partition.setValues(Arrays.asList("01"));
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setLocation(location);
+    partition.setSd(sd);
+    return partition;
+  }
+
+  @Test
+  public void nestedProperty() {
+    PropertyAccessor accessor = new PropertyAccessor("sd.location");
+    assertThat(accessor.get(newPartition("location_a")), is((Object) "location_a"));
+    assertThat(accessor.get(newPartition("location_b")), is((Object) "location_b"));
+  }
+
+  @Test
+  public void nullProperty() {
+    assertThat(new PropertyAccessor("sd.location").get(newPartition(null)), is(nullValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullIntermediateProperty() {
+    Partition partition = newPartition("location");
+    partition.setSd(null);
+    new PropertyAccessor("sd.location").get(partition);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownProperty() {
+    new PropertyAccessor("sd.unknown").get(newPartition("location"));
+  }
+
+}
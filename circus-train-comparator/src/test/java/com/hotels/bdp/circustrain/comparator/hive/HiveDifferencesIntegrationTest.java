@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -62,6 +62,7 @@ import com.hotels.bdp.circustrain.comparator.ComparatorRegistry;
 import com.hotels.bdp.circustrain.comparator.api.BaseDiff;
 import com.hotels.bdp.circustrain.comparator.api.Diff;
 import com.hotels.bdp.circustrain.comparator.api.DiffListener;
+import com.hotels.bdp.circustrain.comparator.hive.functions.StreamingPathDigest;
 import com.hotels.bdp.circustrain.hive.fetcher.BufferedPartitionFetcher;
 import com.hotels.beeju.ThriftHiveMetaStoreJUnitRule;
 import com.hotels.hcommon.hive.metastore.iterator.PartitionIterator;
@@ -102,7 +103,7 @@ public class HiveDifferencesIntegrationTest {
       @Override
       public String answer(InvocationOnMock invocation) throws Throwable {
         Path path = (Path) invocation.getArguments()[0];
-        return path.getName();
+        return StreamingPathDigest.VERSION_PREFIX + path.getName();
       }
     });
 
@@ -199,7 +200,8 @@ public class HiveDifferencesIntegrationTest {
       partition.getParameters().put(CircusTrainTableParameter.SOURCE_LOCATION.parameterName(), sourceLocation);
     }
     if (addChecksum) {
-      partition.getParameters().put(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName(), location.getName());
+      partition.getParameters().put(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName(),
+          StreamingPathDigest.VERSION_PREFIX + location.getName());
     }
     return partition;
   }
@@ -299,9 +301,9 @@ public class HiveDifferencesIntegrationTest {
       public String answer(InvocationOnMock invocation) throws Throwable {
         Path path = (Path) invocation.getArguments()[0];
         if ("part=0".equals(path.getName())) {
-          return "new part=0 checksum";
+          return StreamingPathDigest.VERSION_PREFIX + "new part=0 checksum";
         }
-        return path.getName();
+        return StreamingPathDigest.VERSION_PREFIX + path.getName();
       }
     });
 
@@ -351,9 +353,9 @@ public class HiveDifferencesIntegrationTest {
       public String answer(InvocationOnMock invocation) throws Throwable {
         Path path = (Path) invocation.getArguments()[0];
         if ("part=0".equals(path.getName())) {
-          return "new part=0 checksum";
+          return StreamingPathDigest.VERSION_PREFIX + "new part=0 checksum";
         }
-        return path.getName();
+        return StreamingPathDigest.VERSION_PREFIX + path.getName();
       }
     });
 
@@ -496,9 +498,9 @@ public class HiveDifferencesIntegrationTest {
       public String answer(InvocationOnMock invocation) throws Throwable {
         Path path = (Path) invocation.getArguments()[0];
         if ("part=1".equals(path.getName())) {
-          return "new part=1 checksum";
+          return StreamingPathDigest.VERSION_PREFIX + "new part=1 checksum";
         }
-        return path.getName();
+        return StreamingPathDigest.VERSION_PREFIX + path.getName();
       }
     });
 
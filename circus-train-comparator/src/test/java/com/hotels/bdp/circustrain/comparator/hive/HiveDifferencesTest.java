@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,12 +26,15 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -56,6 +59,8 @@ import com.hotels.bdp.circustrain.comparator.api.BaseDiff;
 import com.hotels.bdp.circustrain.comparator.api.Comparator;
 import com.hotels.bdp.circustrain.comparator.api.Diff;
 import com.hotels.bdp.circustrain.comparator.api.DiffListener;
+import com.hotels.bdp.circustrain.comparator.hive.functions.PathListingDigest;
+import com.hotels.bdp.circustrain.comparator.hive.functions.StreamingPathDigest;
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.PartitionAndMetadata;
 import com.hotels.bdp.circustrain.comparator.hive.wrappers.TableAndMetadata;
 import com.hotels.bdp.circustrain.hive.fetcher.PartitionFetcher;
@@ -71,6 +76,8 @@ public class HiveDifferencesTest {
   private static final String REPLICA_TABLE = "replica";
   private static final String REPLICA_TABLE_LOCATION = "replica_location";
   private static final String REPLICA_PARTITION_LOCATION = REPLICA_TABLE_LOCATION + "/a=01/";
+  private static final String CHECKSUM = StreamingPathDigest.VERSION_PREFIX + "checksum";
+  private static final String NEW_CHECKSUM = StreamingPathDigest.VERSION_PREFIX + "new checksum";
 
   private final Configuration sourceConfiguration = new Configuration();
   private @Mock DiffListener diffListener;
@@ -87,6 +94,7 @@ public class HiveDifferencesTest {
   private @Mock Comparator<TableAndMetadata, Object> tableAndMetadataComparator;
   private @Mock Comparator<PartitionAndMetadata, Object> partitionAndMetadataComparator;
   private @Mock Function<Path, String> checksumFunction;
+  private @Mock Function<Path, String> legacyChecksumFunction;
 
   private HiveDifferences hiveDifferences;
 
@@ -135,10 +143,10 @@ public class HiveDifferencesTest {
         DATABASE + "." + SOURCE_TABLE);
     replicaTable.getParameters().put(CircusTrainTableParameter.SOURCE_LOCATION.parameterName(), SOURCE_TABLE);
     replica01 = newPartition(DATABASE, REPLICA_TABLE, REPLICA_PARTITION_LOCATION);
-    replica01.getParameters().put(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName(), "checksum");
+    replica01.getParameters().put(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName(), CHECKSUM);
     when(replicaPartitionFetcher.fetch("a=01")).thenReturn(replica01);
 
-    when(checksumFunction.apply(new Path(SOURCE_PARTITION_LOCATION))).thenReturn("checksum");
+    when(checksumFunction.apply(new Path(SOURCE_PARTITION_LOCATION))).thenReturn(CHECKSUM);
 
     when(tableAndMetadataComparator.compare(any(TableAndMetadata.class), any(TableAndMetadata.class)))
         .thenReturn(Collections.<Diff<Object, Object>> emptyList());
@@ -218,7 +226,7 @@ public class HiveDifferencesTest {
   @Test
   public void partitionDataHaveChanged() {
     reset(checksumFunction);
-    when(checksumFunction.apply(new Path(SOURCE_PARTITION_LOCATION))).thenReturn("new checksum");
+    when(checksumFunction.apply(new Path(SOURCE_PARTITION_LOCATION))).thenReturn(NEW_CHECKSUM);
 
     hiveDifferences.run();
     InOrder inOrder = inOrder(diffListener);
@@ -226,10 +234,52 @@ public class HiveDifferencesTest {
     verify(diffListener, never()).onChangedTable(anyList());
     verify(diffListener, never()).onNewPartition(anyString(), any(Partition.class));
     verify(diffListener, never()).onChangedPartition(anyString(), any(Partition.class), anyList());
+    inOrder.verify(diffListener, times(1)).onSourcePartitionChecksum("a=01", NEW_CHECKSUM);
     inOrder.verify(diffListener, times(1)).onDataChanged("a=01", source01);
     inOrder.verify(diffListener).onDiffEnd();
   }
 
+  @Test
+  public void legacyReplicaChecksumIsComparedWithLegacyChecksum() {
+    reset(checksumFunction);
+    replica01.getParameters().put(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName(), "legacy checksum");
+    when(legacyChecksumFunction.apply(new Path(SOURCE_PARTITION_LOCATION))).thenReturn("legacy checksum");
+    hiveDifferences = HiveDifferences
+        .builder(diffListener)
+        .comparatorRegistry(comparatorRegistry)
+        .source(sourceConfiguration, sourceTable, sourcePartitionIterable)
+        .replica(Optional.of(replicaTable), Optional.of(replicaPartitionFetcher))
+        .checksumFunction(checksumFunction)
+        .legacyChecksumFunction(legacyChecksumFunction)
+        .build();
+
+    hiveDifferences.run();
+    verify(checksumFunction, never()).apply(any(Path.class));
+    verify(diffListener, never()).onDataChanged(anyString(), any(Partition.class));
+    verify(diffListener).onDiffEnd();
+  }
+
+  @Test
+  public void listingReplicaChecksumIsNotComparedWithLegacyChecksum() {
+    reset(checksumFunction);
+    String listingChecksum = PathListingDigest.VERSION_PREFIX + "1:2:3:names";
+    replica01.getParameters().put(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName(), listingChecksum);
+    when(checksumFunction.apply(new Path(SOURCE_PARTITION_LOCATION))).thenReturn(listingChecksum);
+    hiveDifferences = HiveDifferences
+        .builder(diffListener)
+        .comparatorRegistry(comparatorRegistry)
+        .source(sourceConfiguration, sourceTable, sourcePartitionIterable)
+        .replica(Optional.of(replicaTable), Optional.of(replicaPartitionFetcher))
+        .checksumFunction(checksumFunction)
+        .legacyChecksumFunction(legacyChecksumFunction)
+        .build();
+
+    hiveDifferences.run();
+    verify(legacyChecksumFunction, never()).apply(any(Path.class));
+    verify(diffListener, never()).onDataChanged(anyString(), any(Partition.class));
+    verify(diffListener).onDiffEnd();
+  }
+
   @Test
   public void sourceTableToTableAndMetadata() {
     Table sourceTable = TestUtils.newTable("sourceDB", "sourceTable");
@@ -306,4 +356,163 @@ public class HiveDifferencesTest {
     verify(diffListener, never()).onDataChanged(anyString(), any(Partition.class));
     inOrder.verify(diffListener).onDiffEnd();
   }
+
+  @Test
+  public void concurrentChecksumsAreNotifiedInSourceOrder() {
+    List<Partition> sourcePartitions = newSourcePartitions(6);
+    hiveDifferences = newConcurrentHiveDifferences(sourcePartitions, 3, -1);
+
+    hiveDifferences.run();
+    InOrder inOrder = inOrder(diffListener);
+    inOrder.verify(diffListener).onDiffStart(any(TableAndMetadata.class), any(Optional.class));
+    inOrder.verify(diffListener).onDataChanged("a=00", sourcePartitions.get(0));
+    inOrder.verify(diffListener).onDataChanged("a=02", sourcePartitions.get(2));
+    inOrder.verify(diffListener).onDataChanged("a=04", sourcePartitions.get(4));
+    inOrder.verify(diffListener).onDiffEnd();
+    verify(diffListener, times(3)).onDataChanged(anyString(), any(Partition.class));
+  }
+
+  @Test
+  public void concurrentChecksumsHonourPartitionLimit() {
+    List<Partition> sourcePartitions = newSourcePartitions(6);
+    hiveDifferences = newConcurrentHiveDifferences(sourcePartitions, 4, 2);
+
+    hiveDifferences.run();
+    InOrder inOrder = inOrder(diffListener);
+    inOrder.verify(diffListener).onDataChanged("a=00", sourcePartitions.get(0));
+    inOrder.verify(diffListener).onDataChanged("a=02", sourcePartitions.get(2));
+    inOrder.verify(diffListener).onDiffEnd();
+    verify(diffListener, times(2)).onDataChanged(anyString(), any(Partition.class));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void invalidChecksumConcurrency() {
+    HiveDifferences
+        .builder(diffListener)
+        .comparatorRegistry(comparatorRegistry)
+        .source(sourceConfiguration, sourceTable, sourcePartitionIterable)
+        .replica(Optional.of(replicaTable), Optional.of(replicaPartitionFetcher))
+        .checksumFunction(checksumFunction)
+        .checksumConcurrency(0)
+        .build();
+  }
+
+  @Test
+  public void mergeJoinDescending() {
+    Partition source04 = newSourcePartition("04");
+    Partition source03 = newSourcePartition("03");
+    Partition source01 = newSourcePartition("01");
+    Partition replica05 = newReplicaPartition("05");
+    Partition replica03 = newReplicaPartition("03");
+    Partition replica02 = newReplicaPartition("02");
+    Partition replica01 = newReplicaPartition("01");
+    Partition replica00 = newReplicaPartition("00");
+    when(checksumFunction.apply(any(Path.class))).thenReturn(CHECKSUM);
+
+    HiveDifferences
+        .builder(diffListener)
+        .comparatorRegistry(comparatorRegistry)
+        .source(sourceConfiguration, sourceTable, Arrays.asList(source04, source03, source01).iterator())
+        .replica(Optional.of(replicaTable),
+            Arrays.asList(replica05, replica03, replica02, replica01, replica00).iterator(), true)
+        .checksumFunction(checksumFunction)
+        .build()
+        .run();
+
+    InOrder inOrder = inOrder(diffListener);
+    inOrder.verify(diffListener).onDiffStart(any(TableAndMetadata.class), any(Optional.class));
+    inOrder.verify(diffListener).onDeletedPartition("a=05", replica05);
+    inOrder.verify(diffListener).onNewPartition("a=04", source04);
+    inOrder.verify(diffListener).onDeletedPartition("a=02", replica02);
+    inOrder.verify(diffListener).onDeletedPartition("a=00", replica00);
+    inOrder.verify(diffListener).onDiffEnd();
+    verify(diffListener, never()).onChangedPartition(anyString(), any(Partition.class), anyList());
+    verify(diffListener, never()).onDataChanged(anyString(), any(Partition.class));
+    verifyZeroInteractions(replicaPartitionFetcher);
+  }
+
+  @Test
+  public void mergeJoinAscendingWithPartitionLimit() {
+    Partition source01 = newSourcePartition("01");
+    Partition source02 = newSourcePartition("02");
+    Partition source03 = newSourcePartition("03");
+    Partition replica00 = newReplicaPartition("00");
+    Partition replica02 = newReplicaPartition("02");
+    Partition replica04 = newReplicaPartition("04");
+    when(checksumFunction.apply(any(Path.class))).thenReturn(NEW_CHECKSUM);
+
+    HiveDifferences
+        .builder(diffListener)
+        .comparatorRegistry(comparatorRegistry)
+        .source(sourceConfiguration, sourceTable, Arrays.asList(source01, source02, source03).iterator())
+        .replica(Optional.of(replicaTable), Arrays.asList(replica00, replica02, replica04).iterator(), false)
+        .checksumFunction(checksumFunction)
+        .partitionLimit(2)
+        .build()
+        .run();
+
+    InOrder inOrder = inOrder(diffListener);
+    inOrder.verify(diffListener).onDeletedPartition("a=00", replica00);
+    inOrder.verify(diffListener).onNewPartition("a=01", source01);
+    inOrder.verify(diffListener).onDataChanged("a=02", source02);
+    inOrder.verify(diffListener).onDiffEnd();
+    verify(diffListener, never()).onNewPartition("a=03", source03);
+    verify(diffListener, never()).onDeletedPartition("a=04", replica04);
+  }
+
+  private Partition newSourcePartition(String value) {
+    Partition partition = newPartition(DATABASE, SOURCE_TABLE, SOURCE_TABLE_LOCATION + "/a=" + value + "/");
+    partition.setValues(Arrays.asList(value));
+    return partition;
+  }
+
+  private Partition newReplicaPartition(String value) {
+    Partition partition = newPartition(DATABASE, REPLICA_TABLE, REPLICA_TABLE_LOCATION + "/a=" + value + "/");
+    partition.setValues(Arrays.asList(value));
+    partition.getParameters().put(CircusTrainTableParameter.PARTITION_CHECKSUM.parameterName(), CHECKSUM);
+    return partition;
+  }
+
+  private List<Partition> newSourcePartitions(int count) {
+    List<Partition> sourcePartitions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Partition partition = newPartition(DATABASE, SOURCE_TABLE, SOURCE_TABLE_LOCATION + "/a=0" + i + "/");
+      partition.setValues(Arrays.asList("0" + i));
+      sourcePartitions.add(partition);
+    }
+    reset(replicaPartitionFetcher);
+    when(replicaPartitionFetcher.fetch(anyString())).thenReturn(replica01);
+    return sourcePartitions;
+  }
+
+  /**
+   * Even partitions have changed data. Earlier partitions take longer to checksum so that their checksums are the last
+   * to complete.
+   */
+  private HiveDifferences newConcurrentHiveDifferences(
+      final List<Partition> sourcePartitions,
+      int checksumConcurrency,
+      int partitionLimit) {
+    Function<Path, String> slowChecksumFunction = new Function<Path, String>() {
+      @Override
+      public String apply(Path path) {
+        int index = Integer.parseInt(path.getName().substring("a=".length()));
+        try {
+          Thread.sleep((sourcePartitions.size() - index) * 20L);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return index % 2 == 0 ? NEW_CHECKSUM : CHECKSUM;
+      }
+    };
+    return HiveDifferences
+        .builder(diffListener)
+        .comparatorRegistry(comparatorRegistry)
+        .source(sourceConfiguration, sourceTable, sourcePartitions.iterator())
+        .replica(Optional.of(replicaTable), Optional.of(replicaPartitionFetcher))
+        .checksumFunction(slowChecksumFunction)
+        .checksumConcurrency(checksumConcurrency)
+        .partitionLimit(partitionLimit)
+        .build();
+  }
 }
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.hive.functions;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.MD5MD5CRC32FileChecksum;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.MD5Hash;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.io.Files;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FileChecksumCacheTest {
+
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private @Mock FileSystem fs;
+
+  private final Path path1 = new Path("hdfs://cluster/table/a=1/file1");
+  private final Path path2 = new Path("hdfs://cluster/table/a=1/file2");
+  private final Path path3 = new Path("hdfs://cluster/table/a=1/file3");
+  private final FileChecksum checksum = new MD5MD5CRC32FileChecksum(512, 1, MD5Hash.digest("abc"));
+  private File file;
+
+  @Before
+  public void init() throws IOException {
+    file = new File(temporaryFolder.getRoot(), "checksums/cache");
+    when(fs.getFileChecksum(path1)).thenReturn(checksum);
+  }
+
+  private static FileStatus status(Path path, long modificationTime) {
+    return new FileStatus(10L, false, 1, 128L, modificationTime, path);
+  }
+
+  @Test
+  public void unchangedFileIsNotChecksummedAgain() throws IOException {
+    FileChecksumCache cache = new FileChecksumCache(file, 10);
+
+    assertThat(cache.getFileChecksum(fs, path1, status(path1, 1L)), is(checksum));
+    assertThat(cache.getFileChecksum(fs, path1, status(path1, 1L)), is(checksum));
+    verify(fs, times(1)).getFileChecksum(path1);
+  }
+
+  @Test
+  public void modifiedFileIsChecksummedAgain() throws IOException {
+    FileChecksumCache cache = new FileChecksumCache(file, 10);
+
+    cache.getFileChecksum(fs, path1, status(path1, 1L));
+    cache.getFileChecksum(fs, path1, status(path1, 2L));
+    verify(fs, times(2)).getFileChecksum(path1);
+  }
+
+  @Test
+  public void missingChecksumIsCached() throws IOException {
+    FileChecksumCache cache = new FileChecksumCache(file, 10);
+
+    assertThat(cache.getFileChecksum(fs, path2, status(path2, 1L)), is(nullValue()));
+    assertThat(cache.getFileChecksum(fs, path2, status(path2, 1L)), is(nullValue()));
+    verify(fs, times(1)).getFileChecksum(path2);
+  }
+
+  @Test
+  public void leastRecentlyUsedChecksumsAreEvicted() throws IOException {
+    FileChecksumCache cache = new FileChecksumCache(file, 2);
+
+    cache.getFileChecksum(fs, path1, status(path1, 1L));
+    cache.getFileChecksum(fs, path2, status(path2, 1L));
+    cache.getFileChecksum(fs, path1, status(path1, 1L));
+    cache.getFileChecksum(fs, path3, status(path3, 1L));
+    assertThat(cache.size(), is(2));
+
+    cache.getFileChecksum(fs, path1, status(path1, 1L));
+    cache.getFileChecksum(fs, path2, status(path2, 1L));
+    verify(fs, times(1)).getFileChecksum(path1);
+    verify(fs, times(2)).getFileChecksum(path2);
+  }
+
+  @Test
+  public void checksumsArePersisted() throws IOException {
+    FileChecksumCache cache = new FileChecksumCache(file, 10);
+    cache.getFileChecksum(fs, path1, status(path1, 1L));
+    cache.getFileChecksum(fs, path2, status(path2, 1L));
+    cache.close();
+
+    FileChecksumCache reloaded = new FileChecksumCache(file, 10);
+    assertThat(reloaded.size(), is(2));
+    assertThat(reloaded.getFileChecksum(fs, path1, status(path1, 1L)), is(checksum));
+    assertThat(reloaded.getFileChecksum(fs, path2, status(path2, 1L)), is(nullValue()));
+    verify(fs, times(1)).getFileChecksum(path1);
+    verify(fs, times(1)).getFileChecksum(path2);
+  }
+
+  @Test
+  public void unreadableCacheFileIsIgnored() throws IOException {
+    file.getParentFile().mkdirs();
+    Files.write("not a cache", file, StandardCharsets.UTF_8);
+
+    FileChecksumCache cache = new FileChecksumCache(file, 10);
+    assertThat(cache.size(), is(0));
+    assertThat(cache.getFileChecksum(fs, path1, status(path1, 1L)), is(checksum));
+  }
+
+  @Test
+  public void noCache() throws IOException {
+    FileChecksumCache cache = FileChecksumCache.noCache();
+
+    cache.getFileChecksum(fs, path1, status(path1, 1L));
+    cache.getFileChecksum(fs, path1, status(path1, 1L));
+    cache.close();
+    assertThat(cache.size(), is(0));
+    verify(fs, times(2)).getFileChecksum(path1);
+  }
+
+}
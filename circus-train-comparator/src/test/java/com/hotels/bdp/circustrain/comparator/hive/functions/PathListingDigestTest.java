@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.hive.functions;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+
+public class PathListingDigestTest {
+
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final PathListingDigest function = new PathListingDigest(new Configuration());
+  private File partition;
+  private File file1;
+
+  @Before
+  public void init() throws IOException {
+    partition = temporaryFolder.newFolder("partition");
+    file1 = newFile(partition, "file1", "abc", 1000000L);
+    newFile(new File(partition, "sub"), "file2", "defg", 3000000L);
+  }
+
+  private static File newFile(File parent, String name, String content, long modificationTime) throws IOException {
+    parent.mkdirs();
+    File file = new File(parent, name);
+    Files.write(content, file, StandardCharsets.UTF_8);
+    file.setLastModified(modificationTime);
+    return file;
+  }
+
+  private String digest() {
+    return function.apply(new Path(partition.toURI()));
+  }
+
+  @Test
+  public void typical() {
+    String digest = digest();
+    assertThat(digest, startsWith(PathListingDigest.VERSION_PREFIX + "2:7:3000000:"));
+    assertThat(StreamingPathDigest.isStreamingDigest(digest), is(false));
+    assertThat(digest, is(digest()));
+  }
+
+  @Test
+  public void sameListingAtAnotherLocation() throws IOException {
+    File copy = temporaryFolder.newFolder("copy");
+    newFile(copy, "file1", "abc", 1000000L);
+    newFile(new File(copy, "sub"), "file2", "defg", 3000000L);
+    assertThat(function.apply(new Path(copy.toURI())), is(digest()));
+  }
+
+  @Test
+  public void fileRenamed() throws IOException {
+    String digest = digest();
+    file1.renameTo(new File(partition, "file3"));
+    assertThat(digest(), is(not(digest)));
+  }
+
+  @Test
+  public void fileModified() throws IOException {
+    String digest = digest();
+    file1.setLastModified(4000000L);
+    assertThat(digest(), is(not(digest)));
+  }
+
+  @Test(expected = CircusTrainException.class)
+  public void missingLocation() {
+    function.apply(new Path(new File(partition, "missing").toURI()));
+  }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.comparator.hive.functions;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.io.Files;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+
+public class StreamingPathDigestTest {
+
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final StreamingPathDigest function = new StreamingPathDigest(new Configuration());
+  private File partition;
+  private File file1;
+
+  @Before
+  public void init() throws IOException {
+    partition = temporaryFolder.newFolder("partition");
+    file1 = newFile(partition, "file1", "abc");
+    newFile(new File(partition, "sub"), "file2", "def");
+  }
+
+  private static File newFile(File parent, String name, String content) throws IOException {
+    parent.mkdirs();
+    File file = new File(parent, name);
+    Files.write(content, file, StandardCharsets.UTF_8);
+    file.setLastModified(1000000L);
+    return file;
+  }
+
+  private String digest() {
+    return function.apply(new Path(partition.toURI()));
+  }
+
+  @Test
+  public void typical() {
+    String digest = digest();
+    assertThat(StreamingPathDigest.isStreamingDigest(digest), is(true));
+    assertThat(digest, is(digest()));
+  }
+
+  @Test
+  public void modificationTimeChanged() {
+    String digest = digest();
+    file1.setLastModified(2000000L);
+    assertThat(digest(), is(not(digest)));
+  }
+
+  @Test
+  public void fileAdded() throws IOException {
+    String digest = digest();
+    newFile(new File(partition, "sub"), "file3", "ghi");
+    assertThat(digest(), is(not(digest)));
+  }
+
+  @Test
+  public void legacyDigestIsNotStreamingDigest() {
+    String legacyDigest = new PathDigest().apply(new PathToPathMetadata(new Configuration()).apply(new Path(partition
+        .toURI())));
+    assertThat(StreamingPathDigest.isStreamingDigest(legacyDigest), is(false));
+    assertThat(StreamingPathDigest.isStreamingDigest(null), is(false));
+  }
+
+  @Test
+  public void bytesDigested() {
+    digest();
+    assertThat(function.getBytesDigested(), is(6L));
+    digest();
+    assertThat(function.getBytesDigested(), is(12L));
+  }
+
+  @Test(expected = CircusTrainException.class)
+  public void missingLocation() {
+    function.apply(new Path(new File(partition, "missing").toURI()));
+  }
+
+  @Test(expected = CircusTrainException.class)
+  public void unknownAlgorithm() {
+    new StreamingPathDigest(new Configuration(), "ABCBCBC", FileChecksumCache.noCache());
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
@@ -101,6 +102,13 @@ public class PartitionSpecCreatingDiffListenerTest {
     assertThat(listener.getPartitionSpecFilter(), is("(p1='val1' AND p2=val2) OR (p1='val11' AND p2=val22)"));
   }
 
+  @Test
+  public void onSourcePartitionChecksum() throws Exception {
+    listener.onDiffStart(source, replica);
+    listener.onSourcePartitionChecksum("p1=val1/p2=val2", "checksum");
+    assertThat(listener.getPartitionChecksums(), is(Collections.singletonMap("p1=val1/p2=val2", "checksum")));
+  }
+
   @Test
   public void onChangedDataNewPartitionAndChangedPartition() throws Exception {
     Partition partition1 = new Partition(Lists.newArrayList("val1", "val2"), DB, TABLE, 1, 1, null, null);
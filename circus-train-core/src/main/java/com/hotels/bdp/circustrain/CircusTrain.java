@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package com.hotels.bdp.circustrain;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.List;
 
@@ -32,6 +33,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.validation.BindException;
 import org.springframework.validation.ObjectError;
@@ -40,9 +42,12 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
+import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.Checkpoints;
+import com.hotels.bdp.circustrain.api.conf.ChecksumCache;
 import com.hotels.bdp.circustrain.api.copier.CopierFactoryManager;
 import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.data.DataManipulatorFactoryManager;
@@ -58,13 +63,20 @@ import com.hotels.bdp.circustrain.api.metadata.TableTransformation;
 import com.hotels.bdp.circustrain.api.metrics.LoggingScheduledReporterFactory;
 import com.hotels.bdp.circustrain.api.metrics.MetricSender;
 import com.hotels.bdp.circustrain.api.metrics.ScheduledReporterFactory;
+import com.hotels.bdp.circustrain.comparator.hive.functions.FileChecksumCache;
 import com.hotels.bdp.circustrain.comparator.hive.functions.PathDigest;
+import com.hotels.bdp.circustrain.comparator.hive.functions.PathListingDigest;
 import com.hotels.bdp.circustrain.comparator.hive.functions.PathToPathMetadata;
+import com.hotels.bdp.circustrain.comparator.hive.functions.StreamingPathDigest;
 import com.hotels.bdp.circustrain.core.PartitionPredicateFactory;
 import com.hotels.bdp.circustrain.core.ReplicationFactory;
 import com.hotels.bdp.circustrain.core.ReplicationFactoryImpl;
 import com.hotels.bdp.circustrain.core.StrategyBasedReplicationFactory;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
+import com.hotels.bdp.circustrain.core.TableMetadataPrefetcher;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournalFactory;
 import com.hotels.bdp.circustrain.core.conf.SpringExpressionParser;
+import com.hotels.bdp.circustrain.core.daemon.TableReplicationsReloader;
 import com.hotels.bdp.circustrain.core.event.CompositeCopierListener;
 import com.hotels.bdp.circustrain.core.event.CompositeLocomotiveListener;
 import com.hotels.bdp.circustrain.core.event.CompositeReplicaCatalogListener;
@@ -244,26 +256,80 @@ public class CircusTrain {
       Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier,
       HousekeepingListener housekeepingListener,
       ReplicaCatalogListener replicaCatalogListener,
-      DataManipulatorFactoryManager dataManipulatorFactoryManager) {
+      DataManipulatorFactoryManager dataManipulatorFactoryManager,
+      Checkpoints checkpoints) {
     ReplicationFactoryImpl upsertReplicationFactory = new ReplicationFactoryImpl(sourceFactory, replicaFactory,
-        copierFactoryManager, copierListener, partitionPredicateFactory, copierOptions, dataManipulatorFactoryManager);
+        copierFactoryManager, copierListener, partitionPredicateFactory, copierOptions, dataManipulatorFactoryManager,
+        new CheckpointJournalFactory(checkpoints));
     return new StrategyBasedReplicationFactory(upsertReplicationFactory, sourceMetaStoreClientSupplier,
         replicaMetaStoreClientSupplier, housekeepingListener, replicaCatalogListener);
   }
 
+  @Profile({ Modules.REPLICATION })
+  @Bean
+  TableMetadataCache sourceTableMetadataCache(
+      @Value("#{sourceMetaStoreClientSupplier}") Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier) {
+    return new TableMetadataCache(sourceMetaStoreClientSupplier);
+  }
+
+  @Profile({ Modules.REPLICATION })
+  @Bean
+  TableMetadataCache replicaTableMetadataCache(
+      @Value("#{replicaMetaStoreClientSupplier}") Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier) {
+    return new TableMetadataCache(replicaMetaStoreClientSupplier);
+  }
+
+  @Profile({ Modules.REPLICATION })
+  @Bean
+  TableMetadataPrefetcher tableMetadataPrefetcher(
+      @Value("#{sourceTableMetadataCache}") TableMetadataCache sourceTableMetadataCache,
+      @Value("#{replicaTableMetadataCache}") TableMetadataCache replicaTableMetadataCache) {
+    return new TableMetadataPrefetcher(sourceTableMetadataCache, replicaTableMetadataCache);
+  }
+
+  @Profile({ Modules.REPLICATION })
+  @Bean
+  TableReplicationsReloader tableReplicationsReloader(
+      ConfigurableEnvironment environment,
+      @Value("${spring.config.location:}") String configLocations) {
+    return new TableReplicationsReloader(environment, configLocations);
+  }
+
   @Profile({ Modules.REPLICATION })
   @Bean
   PartitionPredicateFactory partitionPredicateFactory(
       SourceFactory sourceFactory,
       ReplicaFactory replicaFactory,
       SpringExpressionParser expressionParser,
-      @Value("#{checksumFunction}") Function<Path, String> checksumFunction) {
-    return new PartitionPredicateFactory(sourceFactory, replicaFactory, expressionParser, checksumFunction);
+      @Value("#{checksumFunction}") Function<Path, String> checksumFunction,
+      @Value("#{legacyChecksumFunction}") Function<Path, String> legacyChecksumFunction,
+      @Value("#{listingChecksumFunction}") Function<Path, String> listingChecksumFunction) {
+    return new PartitionPredicateFactory(sourceFactory, replicaFactory, expressionParser, checksumFunction,
+        legacyChecksumFunction, listingChecksumFunction);
+  }
+
+  @Profile({ Modules.REPLICATION })
+  @Bean
+  FileChecksumCache fileChecksumCache(ChecksumCache checksumCache) {
+    File file = Strings.isNullOrEmpty(checksumCache.getFile()) ? null : new File(checksumCache.getFile());
+    return new FileChecksumCache(file, checksumCache.getMaxEntries());
+  }
+
+  @Profile({ Modules.REPLICATION })
+  @Bean
+  Function<Path, String> checksumFunction(HiveConf sourceHiveConf, FileChecksumCache fileChecksumCache) {
+    return new StreamingPathDigest(sourceHiveConf, fileChecksumCache);
+  }
+
+  @Profile({ Modules.REPLICATION })
+  @Bean
+  Function<Path, String> legacyChecksumFunction(HiveConf sourceHiveConf, FileChecksumCache fileChecksumCache) {
+    return Functions.compose(new PathDigest(), new PathToPathMetadata(sourceHiveConf, fileChecksumCache));
   }
 
   @Profile({ Modules.REPLICATION })
   @Bean
-  Function<Path, String> checksumFunction(HiveConf sourceHiveConf) {
-    return Functions.compose(new PathDigest(), new PathToPathMetadata(sourceHiveConf));
+  Function<Path, String> listingChecksumFunction(HiveConf sourceHiveConf) {
+    return new PathListingDigest(sourceHiveConf);
   }
 }
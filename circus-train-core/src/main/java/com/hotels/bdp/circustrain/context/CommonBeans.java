@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -38,10 +38,14 @@ import org.springframework.core.annotation.Order;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.MetastoreClientPool;
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.Security;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
+import com.hotels.bdp.circustrain.api.conf.TableReplications;
 import com.hotels.bdp.circustrain.api.conf.TunnelMetastoreCatalog;
+import com.hotels.bdp.circustrain.core.metastore.MetastoreClientPoolSizing;
+import com.hotels.bdp.circustrain.core.metastore.PooledMetaStoreClientSupplier;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.client.api.ConditionalMetaStoreClientFactory;
 import com.hotels.hcommon.hive.metastore.client.api.MetaStoreClientFactory;
@@ -128,7 +132,12 @@ public class CommonBeans {
   Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier(
       SourceCatalog sourceCatalog,
       @Value("#{sourceHiveConf}") HiveConf sourceHiveConf,
-      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager) {
+      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager,
+      MetastoreClientPool metastoreClientPool,
+      TableReplications tableReplications) {
+    MetastoreClientPoolSizing
+        .checkMaxTotal(sourceCatalog.getName(), metastoreClientPool,
+            MetastoreClientPoolSizing.sourceClientsRequired(tableReplications));
     String metaStoreUris = sourceCatalog.getHiveMetastoreUris();
     if (metaStoreUris == null) {
       // Default to Thrift is not specified - optional attribute in SourceCatalog
@@ -137,7 +146,7 @@ public class CommonBeans {
     MetaStoreClientFactory sourceMetaStoreClientFactory = conditionalMetaStoreClientFactoryManager
         .factoryForUri(metaStoreUris);
     return metaStoreClientSupplier(sourceHiveConf, sourceCatalog.getName(), sourceCatalog.getMetastoreTunnel(),
-        sourceMetaStoreClientFactory);
+        sourceMetaStoreClientFactory, metastoreClientPool);
   }
 
   @Profile({ Modules.REPLICATION })
@@ -145,7 +154,12 @@ public class CommonBeans {
   Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier(
       ReplicaCatalog replicaCatalog,
       @Value("#{replicaHiveConf}") HiveConf replicaHiveConf,
-      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager) {
+      ConditionalMetaStoreClientFactoryManager conditionalMetaStoreClientFactoryManager,
+      MetastoreClientPool metastoreClientPool,
+      TableReplications tableReplications) {
+    MetastoreClientPoolSizing
+        .checkMaxTotal(replicaCatalog.getName(), metastoreClientPool,
+            MetastoreClientPoolSizing.replicaClientsRequired(tableReplications));
     String metaStoreUris = replicaCatalog.getHiveMetastoreUris();
     if (metaStoreUris == null) {
       // Default to Thrift is not specified - optional attribute in ReplicaCatalog
@@ -154,7 +168,21 @@ public class CommonBeans {
     MetaStoreClientFactory replicaMetaStoreClientFactory = conditionalMetaStoreClientFactoryManager
         .factoryForUri(metaStoreUris);
     return metaStoreClientSupplier(replicaHiveConf, replicaCatalog.getName(), replicaCatalog.getMetastoreTunnel(),
-        replicaMetaStoreClientFactory);
+        replicaMetaStoreClientFactory, metastoreClientPool);
+  }
+
+  private Supplier<CloseableMetaStoreClient> metaStoreClientSupplier(
+      HiveConf hiveConf,
+      String name,
+      MetastoreTunnel metastoreTunnel,
+      MetaStoreClientFactory metaStoreClientFactory,
+      MetastoreClientPool metastoreClientPool) {
+    Supplier<CloseableMetaStoreClient> supplier = metaStoreClientSupplier(hiveConf, name, metastoreTunnel,
+        metaStoreClientFactory);
+    if (metastoreClientPool.isEnabled()) {
+      return new PooledMetaStoreClientSupplier(name, supplier, metastoreClientPool);
+    }
+    return supplier;
   }
 
   private Supplier<CloseableMetaStoreClient> metaStoreClientSupplier(
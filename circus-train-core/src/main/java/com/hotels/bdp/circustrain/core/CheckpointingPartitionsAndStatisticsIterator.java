@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.Iterator;
+
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournal;
+
+/**
+ * Records each page of partitions as committed in a {@link CheckpointJournal} once the replica asks for the next one,
+ * as it only does so after the previous page has been written.
+ */
+class CheckpointingPartitionsAndStatisticsIterator implements Iterator<PartitionsAndStatistics> {
+
+  private final Iterator<PartitionsAndStatistics> delegate;
+  private final CheckpointJournal checkpointJournal;
+  private PartitionsAndStatistics uncheckpointed;
+
+  CheckpointingPartitionsAndStatisticsIterator(
+      Iterator<PartitionsAndStatistics> delegate,
+      CheckpointJournal checkpointJournal) {
+    this.delegate = delegate;
+    this.checkpointJournal = checkpointJournal;
+  }
+
+  @Override
+  public boolean hasNext() {
+    checkpoint();
+    return delegate.hasNext();
+  }
+
+  @Override
+  public PartitionsAndStatistics next() {
+    checkpoint();
+    uncheckpointed = delegate.next();
+    return uncheckpointed;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("remove");
+  }
+
+  private void checkpoint() {
+    if (uncheckpointed != null) {
+      checkpointJournal.partitionsCommitted(uncheckpointed.getPartitions());
+      uncheckpointed = null;
+    }
+  }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournal;
+
+/**
+ * Journals the replica locations to clean up along with the partitions that replace them. The locations journaled by
+ * an interrupted run are handed back to the delegate when the replication is resumed, as the partitions that replaced
+ * them are skipped and would otherwise leave their old data behind.
+ */
+class CheckpointingReplicaLocationManager implements ReplicaLocationManager {
+
+  private final ReplicaLocationManager delegate;
+  private final CheckpointJournal checkpointJournal;
+
+  CheckpointingReplicaLocationManager(ReplicaLocationManager delegate, CheckpointJournal checkpointJournal) {
+    this.delegate = delegate;
+    this.checkpointJournal = checkpointJournal;
+    for (Map.Entry<Path, String> cleanUpLocation : checkpointJournal.getCleanUpLocations().entrySet()) {
+      delegate.addCleanUpLocation(cleanUpLocation.getValue(), cleanUpLocation.getKey());
+    }
+  }
+
+  @Override
+  public Path getTableLocation() {
+    return delegate.getTableLocation();
+  }
+
+  @Override
+  public void cleanUpLocations() {
+    delegate.cleanUpLocations();
+  }
+
+  @Override
+  public Path getPartitionBaseLocation() {
+    return delegate.getPartitionBaseLocation();
+  }
+
+  @Override
+  public void addCleanUpLocation(String pathEventId, Path location) {
+    checkpointJournal.cleanUpLocationAdded(pathEventId, location);
+    delegate.addCleanUpLocation(pathEventId, location);
+  }
+
+  @Override
+  public Path getPartitionLocation(Partition sourcePartition) {
+    return delegate.getPartitionLocation(sourcePartition);
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,15 +15,19 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
 import javax.annotation.Nonnull;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.base.Strings;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
@@ -32,7 +36,7 @@ import com.hotels.bdp.circustrain.comparator.api.ComparatorType;
 import com.hotels.bdp.circustrain.comparator.hive.HiveDifferences;
 import com.hotels.bdp.circustrain.comparator.listener.PartitionSpecCreatingDiffListener;
 import com.hotels.bdp.circustrain.hive.fetcher.BufferedPartitionFetcher;
-import com.hotels.bdp.circustrain.hive.fetcher.PartitionFetcher;
+import com.hotels.bdp.circustrain.hive.iterator.SortedPartitionIterator;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.iterator.PartitionIterator;
 import com.hotels.hcommon.hive.metastore.iterator.PartitionIterator.Ordering;
@@ -44,8 +48,10 @@ public class DiffGeneratedPartitionPredicate implements PartitionPredicate {
   private final HiveEndpoint replica;
 
   private final Function<Path, String> checksumFunction;
+  private final Function<Path, String> legacyChecksumFunction;
+  private PartitionSpecCreatingDiffListener diffListener;
+  private List<String> partitionNames;
   private String partitionPredicate;
-  private boolean generated = false;
   private Short partitionLimit = -1;
 
   public DiffGeneratedPartitionPredicate(
@@ -53,39 +59,77 @@ public class DiffGeneratedPartitionPredicate implements PartitionPredicate {
       @Nonnull HiveEndpoint replica,
       TableReplication tableReplication,
       Function<Path, String> checksumFunction) {
+    this(source, replica, tableReplication, checksumFunction, null);
+  }
+
+  /**
+   * @param legacyChecksumFunction used for replica partitions stamped with a legacy checksum, or {@code null} to use
+   *          the {@link HiveDifferences} default.
+   */
+  public DiffGeneratedPartitionPredicate(
+      @Nonnull HiveEndpoint source,
+      @Nonnull HiveEndpoint replica,
+      TableReplication tableReplication,
+      Function<Path, String> checksumFunction,
+      Function<Path, String> legacyChecksumFunction) {
     this.source = source;
     this.replica = replica;
     this.tableReplication = tableReplication;
     this.checksumFunction = checksumFunction;
+    this.legacyChecksumFunction = legacyChecksumFunction;
     if (tableReplication.getSourceTable().getPartitionLimit() != null) {
       partitionLimit = tableReplication.getSourceTable().getPartitionLimit();
     }
   }
 
-  private String generate() {
+  private PartitionSpecCreatingDiffListener generate() {
+    // Fetched before borrowing the clients below as the endpoints may borrow a client of their own to do so
+    Table sourceTable = source.getTableAndStatistics(tableReplication).getTable();
+    Optional<Table> replicaTable = getReplicaTable(tableReplication);
     try (CloseableMetaStoreClient sourceMetastore = source.getMetaStoreClientSupplier().get()) {
       try (CloseableMetaStoreClient replicaMetastore = replica.getMetaStoreClientSupplier().get()) {
-        Table sourceTable = source.getTableAndStatistics(tableReplication).getTable();
-        PartitionIterator partitionIterator = new PartitionIterator(sourceMetastore, sourceTable,
-            tableReplication.getPartitionIteratorBatchSize(), Ordering.REVERSE);
-        Optional<Table> replicaTable = getReplicaTable(tableReplication);
-        Optional<? extends PartitionFetcher> replicaPartitionFetcher = Optional.absent();
-        if (replicaTable.isPresent()) {
-          replicaPartitionFetcher = Optional
-              .of(new BufferedPartitionFetcher(replicaMetastore, replicaTable.get(),
-                  tableReplication.getPartitionFetcherBufferSize()));
+        Iterator<Partition> partitionIterator;
+        Optional<BufferedPartitionFetcher> replicaPartitionFetcher = Optional.absent();
+        Iterator<Partition> sortedReplicaPartitionIterator = null;
+        if (tableReplication.isPartitionDiffMergeJoin()) {
+          partitionIterator = new SortedPartitionIterator(sourceMetastore, sourceTable,
+              tableReplication.getPartitionIteratorBatchSize(), true);
+          if (replicaTable.isPresent()) {
+            sortedReplicaPartitionIterator = new SortedPartitionIterator(replicaMetastore, replicaTable.get(),
+                tableReplication.getPartitionFetcherBufferSize(), true);
+          }
+        } else {
+          partitionIterator = new PartitionIterator(sourceMetastore, sourceTable,
+              tableReplication.getPartitionIteratorBatchSize(), Ordering.REVERSE);
+          if (replicaTable.isPresent()) {
+            replicaPartitionFetcher = Optional
+                .of(new BufferedPartitionFetcher(replicaMetastore, replicaTable.get(),
+                    tableReplication.getPartitionFetcherBufferSize()));
+          }
+        }
+        try {
+          PartitionSpecCreatingDiffListener diffListener = new PartitionSpecCreatingDiffListener(
+              source.getHiveConf());
+          HiveDifferences.Builder builder = HiveDifferences
+              .builder(diffListener)
+              .checksumFunction(checksumFunction)
+              .legacyChecksumFunction(legacyChecksumFunction)
+              .comparatorRegistry(comparatorRegistry())
+              .source(source.getHiveConf(), sourceTable, partitionIterator)
+              .partitionLimit(partitionLimit)
+              .checksumConcurrency(tableReplication.getPartitionChecksumConcurrency());
+          if (sortedReplicaPartitionIterator != null) {
+            builder.replica(replicaTable, sortedReplicaPartitionIterator, true);
+          } else {
+            builder.replica(replicaTable, replicaPartitionFetcher);
+          }
+          builder.build().run();
+          return diffListener;
+        } finally {
+          if (replicaPartitionFetcher.isPresent()) {
+            replicaPartitionFetcher.get().close();
+          }
         }
-        PartitionSpecCreatingDiffListener diffListener = new PartitionSpecCreatingDiffListener(source.getHiveConf());
-        HiveDifferences diffs = HiveDifferences
-            .builder(diffListener)
-            .checksumFunction(checksumFunction)
-            .comparatorRegistry(comparatorRegistry())
-            .source(source.getHiveConf(), sourceTable, partitionIterator)
-            .replica(replicaTable, replicaPartitionFetcher)
-            .partitionLimit(partitionLimit)
-            .build();
-        diffs.run();
-        return diffListener.getPartitionSpecFilter();
       } catch (TException e) {
         throw new CircusTrainException("Cannot auto generate partition filter, error: ", e);
       }
@@ -105,21 +149,49 @@ public class DiffGeneratedPartitionPredicate implements PartitionPredicate {
     return new ComparatorRegistry(ComparatorType.SHORT_CIRCUIT);
   }
 
+  private PartitionSpecCreatingDiffListener diffListener() {
+    if (diffListener == null) {
+      diffListener = generate();
+    }
+    return diffListener;
+  }
+
+  private List<String> partitionNames() {
+    if (partitionNames == null) {
+      partitionNames = diffListener().getPartitionNames();
+    }
+    return partitionNames;
+  }
+
   @Override
   public String getPartitionPredicate() {
-    if (!generated) {
-      partitionPredicate = generate();
-      generated = true;
+    if (partitionPredicate == null) {
+      partitionPredicate = diffListener().getPartitionSpecFilter();
     }
     return partitionPredicate;
+  }
 
+  /**
+   * @return the changed partitions by name so that they are fetched in batches rather than with a filter that has a
+   *         clause per partition
+   */
+  @Override
+  public PartitionSelection getPartitionSelection() {
+    return PartitionSelection.byNames(partitionNames());
+  }
+
+  /**
+   * @return the source checksums of the partitions whose data changed, as computed while comparing them with the replica
+   */
+  @Override
+  public Map<String, String> getPartitionChecksums() {
+    return diffListener().getPartitionChecksums();
   }
 
   @Override
   public short getPartitionPredicateLimit() {
-    if (Strings.isNullOrEmpty(getPartitionPredicate())) {
-      // if the generated partition predicate has no meaningful value cut the limit to 0 as no partitions should be
-      // fetched.
+    if (partitionNames().isEmpty()) {
+      // if no partition has changed cut the limit to 0 as no partitions should be fetched.
       return 0;
     }
     return partitionLimit;
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package com.hotels.bdp.circustrain.core;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -37,8 +38,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.google.common.base.Optional;
-import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
@@ -47,17 +48,30 @@ import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
 
 public abstract class HiveEndpoint {
 
+  private static final short NO_LIMIT = (short) -1;
+  private static final int PARTITION_NAMES_PAGE_SIZE = 1000;
+
   private final Logger log = LoggerFactory.getLogger(getClass());
 
   private final String name;
   private final HiveConf hiveConf;
   private final Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private final TableMetadataCache tableMetadataCache;
 
   @Autowired
   public HiveEndpoint(String name, HiveConf hiveConf, Supplier<CloseableMetaStoreClient> metaStoreClientSupplier) {
+    this(name, hiveConf, metaStoreClientSupplier, new TableMetadataCache(metaStoreClientSupplier));
+  }
+
+  public HiveEndpoint(
+      String name,
+      HiveConf hiveConf,
+      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      TableMetadataCache tableMetadataCache) {
     this.name = name;
     this.hiveConf = hiveConf;
     this.metaStoreClientSupplier = metaStoreClientSupplier;
+    this.tableMetadataCache = tableMetadataCache;
   }
 
   public String getName() {
@@ -90,10 +104,15 @@ public abstract class HiveEndpoint {
   }
 
   /**
-   * @return Hive table from the metastore if not found returns {@link Optional#absent()}
+   * @return Hive table from the metastore, or from the {@link TableMetadataCache} if it was prefetched, if not found
+   *         returns {@link Optional#absent()}
    */
   public Optional<Table> getTable(CloseableMetaStoreClient client, String database, String table) {
-    Table oldReplicaTable = null;
+    Table oldReplicaTable = tableMetadataCache.getTable(database, table);
+    if (oldReplicaTable != null) {
+      log.debug("Existing table {}.{} found in cache.", database, table);
+      return Optional.of(oldReplicaTable);
+    }
     try {
       log.debug("Checking for existing table {}.{}", database, table);
       oldReplicaTable = client.getTable(database, table);
@@ -109,9 +128,17 @@ public abstract class HiveEndpoint {
   }
 
   public TableAndStatistics getTableAndStatistics(String database, String tableName) {
+    TableAndStatistics cached = tableMetadataCache.getTableAndStatistics(database, tableName);
+    if (cached != null) {
+      log.debug("Using cached table metadata for '{}.{}'", database, tableName);
+      return cached;
+    }
     log.info("Retrieving table metadata for '{}.{}'", database, tableName);
     try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
-      Table table = client.getTable(database, tableName);
+      Table table = tableMetadataCache.getTable(database, tableName);
+      if (table == null) {
+        table = client.getTable(database, tableName);
+      }
       List<String> columnNames = getColumnNames(table);
       List<ColumnStatisticsObj> statisticsObj = client.getTableColumnStatistics(database, tableName, columnNames);
       ColumnStatistics statistics = null;
@@ -123,7 +150,9 @@ public abstract class HiveEndpoint {
       } else {
         log.debug("No table column stats retrieved for table {}.{}", table.getDbName(), table.getTableName());
       }
-      return new TableAndStatistics(table, statistics);
+      TableAndStatistics tableAndStatistics = new TableAndStatistics(table, statistics);
+      tableMetadataCache.put(tableAndStatistics);
+      return tableAndStatistics;
     } catch (NoSuchObjectException e) {
       String message = String.format("Table '%s.%s' not found", database, tableName);
       throw new CircusTrainException(message, e);
@@ -135,6 +164,13 @@ public abstract class HiveEndpoint {
 
   abstract public TableAndStatistics getTableAndStatistics(TableReplication tableReplication);
 
+  /**
+   * Must be called whenever a table of this endpoint is changed so that later reads see the change.
+   */
+  protected void invalidateTable(String database, String tableName) {
+    tableMetadataCache.invalidate(database, tableName);
+  }
+
   private List<String> getColumnNames(Table table) {
     List<FieldSchema> fields = table.getSd().getCols();
     List<String> columnNames = new ArrayList<>(fields.size());
@@ -146,14 +182,28 @@ public abstract class HiveEndpoint {
 
   public PartitionsAndStatistics getPartitions(Table table, String partitionPredicate, int maxPartitions)
     throws TException {
+    return getPartitions(table, PartitionSelection.byFilter(partitionPredicate), maxPartitions);
+  }
+
+  /**
+   * @return the selected partitions and their column statistics. Partitions selected by name are fetched in pages of
+   *         {@value #PARTITION_NAMES_PAGE_SIZE}.
+   */
+  public PartitionsAndStatistics getPartitions(Table table, PartitionSelection selection, int maxPartitions)
+    throws TException {
+    List<Partition> partitions = null;
+    if (selection.isByNames()) {
+      partitions = drain(new PartitionPagesIterator(metaStoreClientSupplier, table,
+          limit(selection.getPartitionNames(), maxPartitions), PARTITION_NAMES_PAGE_SIZE));
+    }
     try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
-      List<Partition> partitions = null;
-      if (Strings.isNullOrEmpty(partitionPredicate)) {
-        partitions = client.listPartitions(table.getDbName(), table.getTableName(), (short) maxPartitions);
-      } else {
-        partitions = client.listPartitionsByFilter(table.getDbName(), table.getTableName(), partitionPredicate,
-            (short) maxPartitions);
+      if (selection.isAll()) {
+        partitions = client.listPartitions(table.getDbName(), table.getTableName(), toShortLimit(maxPartitions));
+      } else if (!selection.isByNames()) {
+        partitions = client.listPartitionsByFilter(table.getDbName(), table.getTableName(), selection.getFilter(),
+            toShortLimit(maxPartitions));
       }
+      partitions = limit(partitions, maxPartitions);
 
       // Generate a list of partition names
       List<String> partitionNames = getPartitionNames(table.getPartitionKeys(), partitions);
@@ -173,6 +223,96 @@ public abstract class HiveEndpoint {
     }
   }
 
+  public List<Partition> listPartitions(Table table, String partitionPredicate, int maxPartitions, int pageSize)
+    throws TException {
+    return listPartitions(table, PartitionSelection.byFilter(partitionPredicate), maxPartitions, pageSize);
+  }
+
+  /**
+   * Lists the selected partitions without their column statistics, see {@link #listPartitionPages(Table,
+   * PartitionSelection, int, int)}.
+   */
+  public List<Partition> listPartitions(Table table, PartitionSelection selection, int maxPartitions, int pageSize)
+    throws TException {
+    return drain(partitionPages(table, selection, maxPartitions, pageSize));
+  }
+
+  /**
+   * Lists the selected partitions without their column statistics in pages of {@code pageSize}. Partitions selected by
+   * name, or every partition when there is no selection, are fetched by name only when their page is iterated over, so
+   * no single metastore call has to return every partition of the table. Partitions selected by a filter are returned
+   * by a single metastore call as the metastore cannot page them.
+   */
+  public Iterator<List<Partition>> listPartitionPages(
+      Table table,
+      PartitionSelection selection,
+      int maxPartitions,
+      int pageSize)
+    throws TException {
+    return partitionPages(table, selection, maxPartitions, pageSize);
+  }
+
+  private Iterator<List<Partition>> partitionPages(
+      Table table,
+      PartitionSelection selection,
+      int maxPartitions,
+      int pageSize)
+    throws TException {
+    if (selection.isByNames()) {
+      return new PartitionPagesIterator(metaStoreClientSupplier, table,
+          limit(selection.getPartitionNames(), maxPartitions), pageSize);
+    }
+    List<String> partitionNames;
+    try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
+      if (!selection.isAll()) {
+        List<Partition> partitions = limit(client.listPartitionsByFilter(table.getDbName(), table.getTableName(),
+            selection.getFilter(), toShortLimit(maxPartitions)), maxPartitions);
+        return Lists.partition(partitions, pageSize).iterator();
+      }
+      partitionNames = limit(
+          client.listPartitionNames(table.getDbName(), table.getTableName(), toShortLimit(maxPartitions)),
+          maxPartitions);
+    }
+    return new PartitionPagesIterator(metaStoreClientSupplier, table, partitionNames, pageSize);
+  }
+
+  private static List<Partition> drain(Iterator<List<Partition>> pages) {
+    List<Partition> partitions = new ArrayList<>();
+    while (pages.hasNext()) {
+      partitions.addAll(pages.next());
+    }
+    return partitions;
+  }
+
+  /**
+   * @return the given partitions and their column statistics in pages of {@code pageSize}, both are only fetched from
+   *         the metastore when the page is iterated over, see {@link PartitionsAndStatisticsIterator}.
+   */
+  public Iterator<PartitionsAndStatistics> getPartitionsAndStatistics(
+      Table table,
+      List<Partition> partitions,
+      int pageSize) {
+    return new PartitionsAndStatisticsIterator(metaStoreClientSupplier, table, partitions, pageSize);
+  }
+
+  /**
+   * The metastore API takes a {@code short} limit: anything that does not fit is requested without a limit and
+   * truncated afterwards.
+   */
+  private static short toShortLimit(int maxPartitions) {
+    if (maxPartitions < 0 || maxPartitions > Short.MAX_VALUE) {
+      return NO_LIMIT;
+    }
+    return (short) maxPartitions;
+  }
+
+  private static <T> List<T> limit(List<T> list, int maxPartitions) {
+    if (maxPartitions >= 0 && list.size() > maxPartitions) {
+      return list.subList(0, maxPartitions);
+    }
+    return list;
+  }
+
   private List<String> getPartitionNames(List<FieldSchema> partitionKeys, List<Partition> partitions)
     throws MetaException {
     List<String> partitionNames = new ArrayList<>(partitions.size());
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,15 +15,26 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -32,10 +43,12 @@ import org.springframework.stereotype.Component;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.api.CompletionCode;
 import com.hotels.bdp.circustrain.api.Modules;
 import com.hotels.bdp.circustrain.api.Replication;
+import com.hotels.bdp.circustrain.api.conf.Daemon;
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.Security;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
@@ -44,27 +57,39 @@ import com.hotels.bdp.circustrain.api.conf.TableReplications;
 import com.hotels.bdp.circustrain.api.event.LocomotiveListener;
 import com.hotels.bdp.circustrain.api.event.TableReplicationListener;
 import com.hotels.bdp.circustrain.api.metrics.MetricSender;
+import com.hotels.bdp.circustrain.core.daemon.RunSchedule;
+import com.hotels.bdp.circustrain.core.daemon.TableReplicationsReloader;
 import com.hotels.bdp.circustrain.core.event.EventUtils;
 
 /**
  * This class is in charge of configuring replications and executing them.
  * <p>
- * This has to be of the highest precedence because <b>Circus Train</b> is not multithread at the moment and each
- * application runner is executed in sequence:
+ * This has to be of the highest precedence because each application runner is executed in sequence:
  * <ol>
  * <li>Do replication</li>
  * <li>Remove paths left by old replications (housekeeping)</li>
  * </ol>
  * </p>
+ * <p>
+ * Table replications are executed one after the other unless {@code table-replication-concurrency} is greater than
+ * {@code 1}, in which case up to that many tables are replicated at the same time. Each table replication runs
+ * entirely on one worker thread, from the creation of the {@link Replication} to the final listener callback, so
+ * listeners that keep per-table state can do so per thread.
+ * </p>
+ * <p>
+ * When a {@link Daemon daemon} schedule is configured the table replications are executed again and again on that
+ * schedule until the application is shut down, reusing the same beans, metastore connections and file systems. Each
+ * run notifies the {@link LocomotiveListener} and sends its own metrics, and the exit code is that of the last run.
+ * </p>
  */
 @Profile({ Modules.REPLICATION })
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
-class Locomotive implements ApplicationRunner, ExitCodeGenerator {
+@ConditionalOnProperty(name = "plan", havingValue = "false", matchIfMissing = true)
+class Locomotive implements ApplicationRunner, ExitCodeGenerator, DisposableBean {
 
   private static final Logger LOG = LoggerFactory.getLogger(Locomotive.class);
 
-  private final List<TableReplication> tableReplications;
   private final ReplicationFactory replicationFactory;
   private final MetricSender metricSender;
   private final SourceCatalog sourceCatalog;
@@ -72,9 +97,16 @@ class Locomotive implements ApplicationRunner, ExitCodeGenerator {
   private final Security security;
   private final LocomotiveListener locomotiveListener;
   private final TableReplicationListener tableReplicationListener;
-  private long replicationFailures;
+  private final Daemon daemon;
+  private final RunSchedule runSchedule;
+  private final TableReplicationsReloader tableReplicationsReloader;
+  private final TableMetadataPrefetcher tableMetadataPrefetcher;
+  private final CountDownLatch stopped = new CountDownLatch(1);
+  private final CountDownLatch finished = new CountDownLatch(1);
+  private volatile boolean running;
+  private TableReplications tableReplications;
+  private volatile int exitCode;
 
-  @Autowired
   Locomotive(
       SourceCatalog sourceCatalog,
       ReplicaCatalog replicaCatalog,
@@ -84,57 +116,147 @@ class Locomotive implements ApplicationRunner, ExitCodeGenerator {
       MetricSender metricSender,
       LocomotiveListener locomotiveListener,
       TableReplicationListener tableReplicationListener) {
+    this(sourceCatalog, replicaCatalog, security, tableReplications, replicationFactory, metricSender,
+        locomotiveListener, tableReplicationListener, new Daemon(), null, null);
+  }
+
+  @Autowired
+  Locomotive(
+      SourceCatalog sourceCatalog,
+      ReplicaCatalog replicaCatalog,
+      Security security,
+      TableReplications tableReplications,
+      ReplicationFactory replicationFactory,
+      MetricSender metricSender,
+      LocomotiveListener locomotiveListener,
+      TableReplicationListener tableReplicationListener,
+      Daemon daemon,
+      TableReplicationsReloader tableReplicationsReloader,
+      TableMetadataPrefetcher tableMetadataPrefetcher) {
     this.sourceCatalog = sourceCatalog;
     this.replicaCatalog = replicaCatalog;
     this.security = security;
     this.locomotiveListener = locomotiveListener;
     this.tableReplicationListener = tableReplicationListener;
-    this.tableReplications = tableReplications.getTableReplications();
+    this.tableReplications = tableReplications;
     this.replicationFactory = replicationFactory;
     this.metricSender = metricSender;
+    this.daemon = daemon;
+    runSchedule = daemon.isEnabled() ? RunSchedule.forDaemon(daemon) : null;
+    this.tableReplicationsReloader = tableReplicationsReloader;
+    this.tableMetadataPrefetcher = tableMetadataPrefetcher;
   }
 
   @Override
   public void run(ApplicationArguments args) {
+    if (runSchedule == null) {
+      exitCode = replicate(args, tableReplications);
+      return;
+    }
+    LOG.info("Running as a daemon with a {}.", runSchedule);
+    running = true;
+    int run = 0;
+    try {
+      long nextRunStart;
+      do {
+        if (daemon.isReloadConfiguration() && tableReplicationsReloader != null) {
+          tableReplications = tableReplicationsReloader.reload(tableReplications);
+        }
+        run++;
+        long runStart = System.currentTimeMillis();
+        exitCode = replicate(args, tableReplications);
+        long runEnd = System.currentTimeMillis();
+        nextRunStart = runSchedule.nextRunStart(runStart, runEnd);
+        LOG
+            .info("Run {} finished in {}ms with exit code {}, next run at {}.", run, runEnd - runStart, exitCode,
+                new Date(nextRunStart));
+      } while (!awaitStop(nextRunStart - System.currentTimeMillis()));
+      LOG.info("Daemon stopped after {} runs.", run);
+    } finally {
+      running = false;
+      finished.countDown();
+    }
+  }
+
+  private boolean awaitStop(long timeoutMillis) {
+    try {
+      return stopped.await(Math.max(0L, timeoutMillis), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return true;
+    }
+  }
+
+  /**
+   * Stops a daemon once its current run, if any, has finished.
+   */
+  void stop() {
+    stopped.countDown();
+  }
+
+  /**
+   * Stops a daemon and waits, for up to {@code daemon.shutdown-timeout} milliseconds, for its current run to finish so
+   * that the beans it uses are not destroyed while tables are being replicated.
+   */
+  @Override
+  public void destroy() {
+    stop();
+    if (!running) {
+      return;
+    }
+    LOG.info("Waiting up to {}ms for the current daemon run to finish.", daemon.getShutdownTimeout());
+    try {
+      if (!finished.await(daemon.getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+        LOG.warn("Daemon run still in progress after {}ms, shutting down anyway.", daemon.getShutdownTimeout());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private int replicate(ApplicationArguments args, TableReplications tableReplications) {
+    List<TableReplication> replications = tableReplications.getTableReplications();
+    int tableReplicationConcurrency = Math.max(1, tableReplications.getTableReplicationConcurrency());
     locomotiveListener.circusTrainStartUp(args.getSourceArgs(), EventUtils.toEventSourceCatalog(sourceCatalog),
         EventUtils.toEventReplicaCatalog(replicaCatalog, security));
-    CompletionCode completionCode = CompletionCode.SUCCESS;
     Builder<String, Long> metrics = ImmutableMap.builder();
-    replicationFailures = 0;
-    long replicated = 0;
 
-    LOG.info("{} tables to replicate.", tableReplications.size());
-    for (TableReplication tableReplication : tableReplications) {
-      String summary = getReplicationSummary(tableReplication);
-      LOG.info("Replicating {} replication mode '{}', strategy '{}'.", summary, tableReplication.getReplicationMode(), tableReplication.getReplicationStrategy());
-      try {
-        Replication replication = replicationFactory.newInstance(tableReplication);
-        tableReplicationListener.tableReplicationStart(EventUtils.toEventTableReplication(tableReplication),
-            replication.getEventId());
-        replication.replicate();
-        LOG.info("Completed replicating: {}.", summary);
-        tableReplicationListener.tableReplicationSuccess(EventUtils.toEventTableReplication(tableReplication),
-            replication.getEventId());
-      } catch (Throwable t) {
+    LOG.info("{} tables to replicate.", replications.size());
+    if (tableMetadataPrefetcher != null) {
+      tableMetadataPrefetcher.prefetch(replications);
+    }
+    List<Boolean> results;
+    try {
+      if (tableReplicationConcurrency > 1 && replications.size() > 1) {
+        results = replicateConcurrently(replications, tableReplicationConcurrency);
+      } else {
+        results = new ArrayList<>(replications.size());
+        for (TableReplication tableReplication : replications) {
+          results.add(replicate(tableReplication));
+        }
+      }
+    } finally {
+      if (tableMetadataPrefetcher != null) {
+        tableMetadataPrefetcher.clear();
+      }
+    }
+    long replicationFailures = 0;
+    long replicated = 0;
+    for (Boolean success : results) {
+      if (!success) {
         replicationFailures++;
-        completionCode = CompletionCode.FAILURE;
-        LOG.error("Failed to replicate: {}.", summary, t);
-        tableReplicationListener.tableReplicationFailure(EventUtils.toEventTableReplication(tableReplication),
-            EventUtils.EVENT_ID_UNAVAILABLE, t);
       }
       replicated++;
     }
+    CompletionCode completionCode = replicationFailures > 0 ? CompletionCode.FAILURE : CompletionCode.SUCCESS;
 
     metrics.put("tables_replicated", replicated);
     metrics.put(completionCode.getMetricName(), completionCode.getCode());
     Map<String, Long> metricsMap = metrics.build();
     metricSender.send(metricsMap);
     locomotiveListener.circusTrainShutDown(completionCode, metricsMap);
-  }
 
-  @Override
-  public int getExitCode() {
-    if (replicationFailures == tableReplications.size()) {
+    if (replicationFailures == replications.size()) {
       return -1;
     }
     if (replicationFailures > 0) {
@@ -143,6 +265,74 @@ class Locomotive implements ApplicationRunner, ExitCodeGenerator {
     return 0;
   }
 
+  private List<Boolean> replicateConcurrently(
+      List<TableReplication> tableReplications,
+      int tableReplicationConcurrency) {
+    int poolSize = Math.min(tableReplicationConcurrency, tableReplications.size());
+    LOG.info("Replicating up to {} tables concurrently.", poolSize);
+    ExecutorService executor = Executors
+        .newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setNameFormat("table-replication-%d").build());
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>(tableReplications.size());
+      for (final TableReplication tableReplication : tableReplications) {
+        futures.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() {
+            return replicate(tableReplication);
+          }
+        }));
+      }
+      List<Boolean> results = new ArrayList<>(futures.size());
+      for (Future<Boolean> future : futures) {
+        results.add(waitFor(future));
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static boolean waitFor(Future<Boolean> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.error("Interrupted while waiting for table replication to complete.", e);
+    } catch (ExecutionException e) {
+      // replicate(TableReplication) catches everything so this is not expected
+      LOG.error("Unexpected table replication error.", e.getCause());
+    }
+    return false;
+  }
+
+  private boolean replicate(TableReplication tableReplication) {
+    String summary = getReplicationSummary(tableReplication);
+    LOG
+        .info("Replicating {} replication mode '{}', strategy '{}'.", summary, tableReplication.getReplicationMode(),
+            tableReplication.getReplicationStrategy());
+    try {
+      Replication replication = replicationFactory.newInstance(tableReplication);
+      tableReplicationListener
+          .tableReplicationStart(EventUtils.toEventTableReplication(tableReplication), replication.getEventId());
+      replication.replicate();
+      LOG.info("Completed replicating: {}.", summary);
+      tableReplicationListener
+          .tableReplicationSuccess(EventUtils.toEventTableReplication(tableReplication), replication.getEventId());
+      return true;
+    } catch (Throwable t) {
+      LOG.error("Failed to replicate: {}.", summary, t);
+      tableReplicationListener
+          .tableReplicationFailure(EventUtils.toEventTableReplication(tableReplication), EventUtils.EVENT_ID_UNAVAILABLE,
+              t);
+      return false;
+    }
+  }
+
+  @Override
+  public int getExitCode() {
+    return exitCode;
+  }
+
   @VisibleForTesting
   String getReplicationSummary(TableReplication tableReplication) {
     return String.format("%s:%s to %s:%s", sourceCatalog.getName(),
@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import static com.hotels.bdp.circustrain.api.CircusTrainTableParameter.SOURCE_NOTIFICATION_EVENT;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.conf.ReplicationStrategy;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.comparator.hive.wrappers.TableAndMetadata;
+import com.hotels.bdp.circustrain.comparator.listener.PartitionSpecCreatingDiffListener;
+import com.hotels.bdp.circustrain.core.notification.NotificationEventReader;
+import com.hotels.bdp.circustrain.core.notification.TableChanges;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+/**
+ * Selects the partitions that were added or altered since the previous replication by reading the source metastore
+ * notification log from the event id recorded on the replica table. Falls back to another predicate when the changes
+ * cannot be worked out from the log, e.g. on the first replication or when the log has been purged.
+ */
+public class NotificationPartitionPredicate implements PartitionPredicate {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NotificationPartitionPredicate.class);
+
+  private final HiveEndpoint source;
+  private final HiveEndpoint replica;
+  private final TableReplication tableReplication;
+  private final PartitionPredicate configuredPredicate;
+  private final PartitionPredicate fullReplicationPredicate;
+  private final NotificationEventReader notificationEventReader;
+
+  private boolean generated = false;
+  private boolean incremental = false;
+  private String partitionPredicate;
+  private List<String> changedPartitionNames;
+  private Long currentEventId;
+
+  /**
+   * @param configuredPredicate the user supplied partition filter, combined with the changed partitions
+   * @param fullReplicationPredicate used when the changed partitions cannot be worked out
+   */
+  public NotificationPartitionPredicate(
+      @Nonnull HiveEndpoint source,
+      @Nonnull HiveEndpoint replica,
+      TableReplication tableReplication,
+      PartitionPredicate configuredPredicate,
+      PartitionPredicate fullReplicationPredicate,
+      NotificationEventReader notificationEventReader) {
+    this.source = source;
+    this.replica = replica;
+    this.tableReplication = tableReplication;
+    this.configuredPredicate = configuredPredicate;
+    this.fullReplicationPredicate = fullReplicationPredicate;
+    this.notificationEventReader = notificationEventReader;
+  }
+
+  private void generate() {
+    if (generated) {
+      return;
+    }
+    generated = true;
+    try (CloseableMetaStoreClient sourceMetastore = source.getMetaStoreClientSupplier().get()) {
+      // Read before anything else so that changes made while replicating are picked up by the next replication
+      long eventId = sourceMetastore.getCurrentNotificationEventId().getEventId();
+      if (eventId <= 0) {
+        LOG
+            .warn("Source metastore has no notification events, is DbNotificationListener configured? "
+                + "Replicating table {} without them.", tableReplication.getSourceTable().getQualifiedName());
+        return;
+      }
+      currentEventId = eventId;
+      Long lastEventId = getLastReplicatedEventId();
+      if (lastEventId == null) {
+        LOG
+            .info("No notification event recorded on replica table {}, replicating all selected partitions",
+                tableReplication.getQualifiedReplicaName());
+        return;
+      }
+      Table sourceTable = source.getTableAndStatistics(tableReplication).getTable();
+      TableChanges changes = notificationEventReader.read(sourceMetastore, sourceTable, lastEventId, eventId);
+      if (changes.isFullReplicationRequired()) {
+        LOG
+            .info("Replicating all selected partitions of table {}: {}",
+                tableReplication.getSourceTable().getQualifiedName(), changes.getFullReplicationReason());
+        return;
+      }
+      LOG
+          .info("Notification events {} to {} of table {}: {} partitions changed, {} partitions dropped", lastEventId,
+              eventId, tableReplication.getSourceTable().getQualifiedName(), changes.getChangedPartitions().size(),
+              changes.getDroppedPartitions().size());
+      checkDroppedPartitions(changes, lastEventId, eventId);
+      PartitionSpecCreatingDiffListener changedPartitions = changedPartitions(sourceTable, changes);
+      String configuredFilter = configuredPredicate.getPartitionPredicate();
+      partitionPredicate = combine(configuredFilter, changedPartitions.getPartitionSpecFilter());
+      if (Strings.isNullOrEmpty(configuredFilter)) {
+        changedPartitionNames = changedPartitions.getPartitionNames();
+      }
+      incremental = true;
+    } catch (TException e) {
+      throw new CircusTrainException("Cannot read the notification log of the source metastore", e);
+    }
+  }
+
+  /**
+   * Dropped and renamed source partitions are only removed from the replica by the {@code PROPAGATE_DELETES} strategy,
+   * which compares all source and replica partitions before replicating. Any other strategy would silently leave them
+   * in the replica so the replication is rejected until the replica is resynchronised.
+   */
+  private void checkDroppedPartitions(TableChanges changes, long lastEventId, long eventId) {
+    if (changes.getDroppedPartitions().isEmpty()
+        || tableReplication.getReplicationStrategy() == ReplicationStrategy.PROPAGATE_DELETES) {
+      return;
+    }
+    throw new CircusTrainException("Partitions "
+        + changes.getDroppedPartitions()
+        + " of source table "
+        + tableReplication.getSourceTable().getQualifiedName()
+        + " were dropped or renamed by notification events "
+        + lastEventId
+        + " to "
+        + eventId
+        + " and cannot be dropped from replica table "
+        + tableReplication.getQualifiedReplicaName()
+        + " with replication strategy "
+        + tableReplication.getReplicationStrategy()
+        + ". Use replication strategy "
+        + ReplicationStrategy.PROPAGATE_DELETES
+        + " or replicate the table once without generate-partition-filter-from-notifications to resynchronise it.");
+  }
+
+  private Long getLastReplicatedEventId() {
+    Table replicaTable;
+    try {
+      replicaTable = replica.getTableAndStatistics(tableReplication).getTable();
+    } catch (CircusTrainException e) {
+      // replica doesn't exist
+      return null;
+    }
+    Map<String, String> parameters = replicaTable.getParameters();
+    String eventId = parameters == null ? null : parameters.get(SOURCE_NOTIFICATION_EVENT.parameterName());
+    if (Strings.isNullOrEmpty(eventId)) {
+      return null;
+    }
+    try {
+      return Long.valueOf(eventId);
+    } catch (NumberFormatException e) {
+      LOG.warn("Ignoring invalid notification event id '{}' on replica table", eventId);
+      return null;
+    }
+  }
+
+  private PartitionSpecCreatingDiffListener changedPartitions(Table sourceTable, TableChanges changes) {
+    PartitionSpecCreatingDiffListener diffListener = new PartitionSpecCreatingDiffListener(source.getHiveConf());
+    diffListener
+        .onDiffStart(new TableAndMetadata(tableReplication.getSourceTable().getQualifiedName(),
+            sourceTable.getSd() == null ? null : sourceTable.getSd().getLocation(), sourceTable),
+            Optional.<TableAndMetadata> absent());
+    for (List<String> partitionValues : changes.getChangedPartitions()) {
+      Partition partition = new Partition();
+      partition.setValues(partitionValues);
+      diffListener.onNewPartition(null, partition);
+    }
+    diffListener.onDiffEnd();
+    return diffListener;
+  }
+
+  private static String combine(String configuredFilter, String changedPartitionsFilter) {
+    if (Strings.isNullOrEmpty(changedPartitionsFilter) || Strings.isNullOrEmpty(configuredFilter)) {
+      return changedPartitionsFilter;
+    }
+    return "(" + configuredFilter + ") AND (" + changedPartitionsFilter + ")";
+  }
+
+  @Override
+  public String getPartitionPredicate() {
+    generate();
+    if (!incremental) {
+      return fullReplicationPredicate.getPartitionPredicate();
+    }
+    return partitionPredicate;
+  }
+
+  /**
+   * @return the changed partitions by name, unless they have to be combined with a configured partition filter
+   */
+  @Override
+  public PartitionSelection getPartitionSelection() {
+    generate();
+    if (!incremental) {
+      return fullReplicationPredicate.getPartitionSelection();
+    }
+    if (changedPartitionNames != null) {
+      return PartitionSelection.byNames(changedPartitionNames);
+    }
+    return PartitionSelection.byFilter(partitionPredicate);
+  }
+
+  @Override
+  public short getPartitionPredicateLimit() {
+    generate();
+    if (!incremental) {
+      return fullReplicationPredicate.getPartitionPredicateLimit();
+    }
+    if (Strings.isNullOrEmpty(partitionPredicate)) {
+      // Nothing changed so no partitions should be fetched
+      return 0;
+    }
+    return configuredPredicate.getPartitionPredicateLimit();
+  }
+
+  @Override
+  public Map<String, String> getReplicaTableParameters() {
+    generate();
+    if (currentEventId == null) {
+      return Collections.emptyMap();
+    }
+    return Collections.singletonMap(SOURCE_NOTIFICATION_EVENT.parameterName(), currentEventId.toString());
+  }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
+
+/**
+ * Splits a list of partition names into pages and fetches the partitions of each page only when the page is requested,
+ * so that the partitions of a table are never requested, nor held in memory, all at once.
+ */
+public class PartitionPagesIterator implements Iterator<List<Partition>> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionPagesIterator.class);
+
+  private final Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private final Table table;
+  private final Iterator<List<String>> pages;
+
+  public PartitionPagesIterator(
+      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      Table table,
+      List<String> partitionNames,
+      int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("pageSize must be greater than 0 but was " + pageSize);
+    }
+    this.metaStoreClientSupplier = metaStoreClientSupplier;
+    this.table = table;
+    LOG
+        .debug("Fetching {} partitions of table {}.{} in pages of {}", partitionNames.size(), table.getDbName(),
+            table.getTableName(), pageSize);
+    pages = Lists.partition(partitionNames, pageSize).iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return pages.hasNext();
+  }
+
+  @Override
+  public List<Partition> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    List<String> partitionNames = pages.next();
+    try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
+      return client.getPartitionsByNames(table.getDbName(), table.getTableName(), partitionNames);
+    } catch (TException e) {
+      throw new MetaStoreClientException("Unable to fetch partitions of table " + Warehouse.getQualifiedName(table),
+          e);
+    }
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("remove");
+  }
+
+}
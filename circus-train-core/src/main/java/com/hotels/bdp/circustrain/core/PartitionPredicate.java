@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,9 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 
 public interface PartitionPredicate {
@@ -30,4 +33,27 @@ public interface PartitionPredicate {
    */
   short getPartitionPredicateLimit();
 
+  /**
+   * @return the partitions to fetch from the source, by default the partitions matching {@link #getPartitionPredicate()}
+   */
+  default PartitionSelection getPartitionSelection() {
+    return PartitionSelection.byFilter(getPartitionPredicate());
+  }
+
+  /**
+   * @return source partition data checksums that are already known, keyed by partition name, so that they need not be
+   *         computed again when stamping the replica partitions
+   */
+  default Map<String, String> getPartitionChecksums() {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * @return parameters to record on the replica table once the selected partitions have been replicated, so that the
+   *         next replication can pick up from there
+   */
+  default Map<String, String> getReplicaTableParameters() {
+    return Collections.emptyMap();
+  }
+
 }
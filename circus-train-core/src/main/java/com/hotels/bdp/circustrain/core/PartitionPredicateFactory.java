@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,38 +15,74 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import static com.hotels.bdp.circustrain.api.conf.PartitionChangeDetection.FILE_LISTING;
+
 import org.apache.hadoop.fs.Path;
 
 import com.google.common.base.Function;
 
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.core.conf.SpringExpressionParser;
+import com.hotels.bdp.circustrain.core.notification.NotificationEventReader;
 
 public class PartitionPredicateFactory {
 
+  private static final int NOTIFICATION_BATCH_SIZE = 1000;
+
   private final SpringExpressionParser expressionParser;
   private final HiveEndpointFactory<? extends HiveEndpoint> sourceFactory;
   private final HiveEndpointFactory<? extends HiveEndpoint> replicaFactory;
   private final Function<Path, String> checksumFunction;
+  private final Function<Path, String> legacyChecksumFunction;
+  private final Function<Path, String> listingChecksumFunction;
 
   public PartitionPredicateFactory(
       HiveEndpointFactory<? extends HiveEndpoint> sourceFactory,
       HiveEndpointFactory<? extends HiveEndpoint> replicaFactory,
       SpringExpressionParser expressionParser,
       Function<Path, String> checksumFunction) {
+    this(sourceFactory, replicaFactory, expressionParser, checksumFunction, null, null);
+  }
+
+  public PartitionPredicateFactory(
+      HiveEndpointFactory<? extends HiveEndpoint> sourceFactory,
+      HiveEndpointFactory<? extends HiveEndpoint> replicaFactory,
+      SpringExpressionParser expressionParser,
+      Function<Path, String> checksumFunction,
+      Function<Path, String> legacyChecksumFunction,
+      Function<Path, String> listingChecksumFunction) {
     this.sourceFactory = sourceFactory;
     this.replicaFactory = replicaFactory;
     this.expressionParser = expressionParser;
     this.checksumFunction = checksumFunction;
+    this.legacyChecksumFunction = legacyChecksumFunction;
+    this.listingChecksumFunction = listingChecksumFunction;
   }
 
   public PartitionPredicate newInstance(TableReplication tableReplication) {
+    PartitionPredicate partitionPredicate;
+    SpelParsedPartitionPredicate configuredPredicate = new SpelParsedPartitionPredicate(expressionParser,
+        tableReplication);
     if (tableReplication.getSourceTable().isGeneratePartitionFilter()) {
-      return new DiffGeneratedPartitionPredicate(sourceFactory.newInstance(tableReplication),
-          replicaFactory.newInstance(tableReplication), tableReplication, checksumFunction);
+      if (tableReplication.getSourceTable().getPartitionChangeDetection() == FILE_LISTING) {
+        // Replica partitions stamped with any other digest are seen as changed, and stamped again, once
+        partitionPredicate = new DiffGeneratedPartitionPredicate(sourceFactory.newInstance(tableReplication),
+            replicaFactory.newInstance(tableReplication), tableReplication, listingChecksumFunction,
+            listingChecksumFunction);
+      } else {
+        partitionPredicate = new DiffGeneratedPartitionPredicate(sourceFactory.newInstance(tableReplication),
+            replicaFactory.newInstance(tableReplication), tableReplication, checksumFunction,
+            legacyChecksumFunction);
+      }
     } else {
-      return new SpelParsedPartitionPredicate(expressionParser, tableReplication);
+      partitionPredicate = configuredPredicate;
+    }
+    if (tableReplication.getSourceTable().isGeneratePartitionFilterFromNotifications()) {
+      partitionPredicate = new NotificationPartitionPredicate(sourceFactory.newInstance(tableReplication),
+          replicaFactory.newInstance(tableReplication), tableReplication, configuredPredicate, partitionPredicate,
+          new NotificationEventReader(NOTIFICATION_BATCH_SIZE));
     }
+    return partitionPredicate;
   }
 
 }
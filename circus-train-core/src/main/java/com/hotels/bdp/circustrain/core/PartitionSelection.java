@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The source partitions to replicate: either the partitions matching a filter, as accepted by
+ * {@link IMetaStoreClient#listPartitionsByFilter(String, String, String, short)}, or the partitions with the given
+ * names, which are fetched in batches with {@link IMetaStoreClient#getPartitionsByNames(String, String, List)}.
+ * Selecting partitions by name spares the metastore from parsing a filter with one clause per partition.
+ */
+public final class PartitionSelection {
+
+  private static final PartitionSelection ALL = new PartitionSelection(null, null);
+
+  /**
+   * @param filter a partition filter, every partition is selected if it is {@code null} or empty
+   */
+  public static PartitionSelection byFilter(String filter) {
+    if (Strings.isNullOrEmpty(filter)) {
+      return ALL;
+    }
+    return new PartitionSelection(filter, null);
+  }
+
+  public static PartitionSelection byNames(List<String> partitionNames) {
+    return new PartitionSelection(null, ImmutableList.copyOf(partitionNames));
+  }
+
+  private final String filter;
+  private final List<String> partitionNames;
+
+  private PartitionSelection(String filter, List<String> partitionNames) {
+    this.filter = filter;
+    this.partitionNames = partitionNames;
+  }
+
+  public boolean isByNames() {
+    return partitionNames != null;
+  }
+
+  /**
+   * @return {@code true} if every partition of the table is selected
+   */
+  public boolean isAll() {
+    return filter == null && partitionNames == null;
+  }
+
+  /**
+   * @return the partition filter, {@code null} if every partition is selected or partitions are selected by name
+   */
+  public String getFilter() {
+    return filter;
+  }
+
+  /**
+   * @return the names of the selected partitions, empty unless partitions are selected by name
+   */
+  public List<String> getPartitionNames() {
+    return partitionNames == null ? Collections.<String> emptyList() : partitionNames;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(filter, partitionNames);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    PartitionSelection other = (PartitionSelection) obj;
+    return Objects.equal(filter, other.filter) && Objects.equal(partitionNames, other.partitionNames);
+  }
+
+  @Override
+  public String toString() {
+    if (isByNames()) {
+      return partitionNames.size() + " partitions selected by name";
+    }
+    return isAll() ? "all partitions" : filter;
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -72,7 +72,7 @@ class PartitionedTableMetadataMirrorReplication implements Replication {
       Table sourceTable = sourceTableAndStatistics.getTable();
 
       PartitionsAndStatistics sourcePartitionsAndStatistics = source
-          .getPartitions(sourceTable, partitionPredicate.getPartitionPredicate(),
+          .getPartitions(sourceTable, partitionPredicate.getPartitionSelection(),
               partitionPredicate.getPartitionPredicateLimit());
       List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,19 +15,31 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import static com.hotels.hcommon.hive.metastore.util.LocationUtils.locationAsPath;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Supplier;
+
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
 import com.hotels.bdp.circustrain.api.Replication;
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierContext;
@@ -39,14 +51,26 @@ import com.hotels.bdp.circustrain.api.data.DataManipulatorFactoryManager;
 import com.hotels.bdp.circustrain.api.event.CopierListener;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.api.util.DotJoiner;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournal;
 import com.hotels.bdp.circustrain.core.replica.Replica;
 import com.hotels.bdp.circustrain.core.replica.TableType;
 import com.hotels.bdp.circustrain.core.source.Source;
+import com.hotels.hcommon.hive.metastore.util.LocationUtils;
 
 class PartitionedTableReplication implements Replication {
 
   private static final Logger LOG = LoggerFactory.getLogger(PartitionedTableReplication.class);
 
+  /**
+   * Stands in for the copier when a resumed replication has no data left to copy.
+   */
+  private static class CopiedByPreviousRun implements Copier {
+    @Override
+    public Metrics copy() throws CircusTrainException {
+      return Metrics.NULL_VALUE;
+    }
+  }
+
   private final String database;
   private final String table;
   private final Source source;
@@ -58,6 +82,7 @@ class PartitionedTableReplication implements Replication {
   private final Map<String, Object> copierOptions;
   private final CopierListener copierListener;
   private final DataManipulatorFactoryManager dataManipulatorFactoryManager;
+  private final CheckpointJournal checkpointJournal;
 
   private TableReplication tableReplication;
 
@@ -71,6 +96,21 @@ class PartitionedTableReplication implements Replication {
       Map<String, Object> copierOptions,
       CopierListener copierListener,
       DataManipulatorFactoryManager dataManipulatorFactoryManager) {
+    this(tableReplication, partitionPredicate, source, replica, copierFactoryManager, eventIdFactory, copierOptions,
+        copierListener, dataManipulatorFactoryManager, CheckpointJournal.NULL);
+  }
+
+  PartitionedTableReplication(
+      TableReplication tableReplication,
+      PartitionPredicate partitionPredicate,
+      Source source,
+      Replica replica,
+      CopierFactoryManager copierFactoryManager,
+      EventIdFactory eventIdFactory,
+      Map<String, Object> copierOptions,
+      CopierListener copierListener,
+      DataManipulatorFactoryManager dataManipulatorFactoryManager,
+      CheckpointJournal checkpointJournal) {
     this.tableReplication = tableReplication;
     this.database = tableReplication.getSourceTable().getDatabaseName();
     this.table = tableReplication.getSourceTable().getTableName();
@@ -81,22 +121,31 @@ class PartitionedTableReplication implements Replication {
     this.copierOptions = copierOptions;
     this.copierListener = copierListener;
     this.dataManipulatorFactoryManager = dataManipulatorFactoryManager;
-    eventId = eventIdFactory.newEventId(EventIdPrefix.CIRCUS_TRAIN_PARTITIONED_TABLE.getPrefix());
+    this.checkpointJournal = checkpointJournal;
+    String resumedEventId = checkpointJournal.getEventId();
+    if (resumedEventId != null) {
+      LOG.info("Resuming replication of table {}.{} with event id {}", database, table, resumedEventId);
+      eventId = resumedEventId;
+    } else {
+      eventId = eventIdFactory.newEventId(EventIdPrefix.CIRCUS_TRAIN_PARTITIONED_TABLE.getPrefix());
+    }
   }
 
   @Override
   public void replicate() throws CircusTrainException {
     try {
+      checkpointJournal.started(eventId);
       String replicaDatabaseName = tableReplication.getReplicaDatabaseName();
       String replicaTableName = tableReplication.getReplicaTableName();
 
       TableAndStatistics sourceTableAndStatistics = source.getTableAndStatistics(database, table);
       Table sourceTable = sourceTableAndStatistics.getTable();
 
-      PartitionsAndStatistics sourcePartitionsAndStatistics = source
-          .getPartitions(sourceTable, partitionPredicate.getPartitionPredicate(),
-              partitionPredicate.getPartitionPredicateLimit());
-      List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
+      // Partitions are fetched in full, with their statistics, page by page when the replica metadata is updated
+      int pageSize = tableReplication.getPartitionIteratorBatchSize();
+      List<Partition> sourcePartitions = listPartitionReferences(sourceTable, pageSize);
+      // Taken while the predicate still describes the partitions listed above, written once they are all committed
+      TableAndStatistics replicatedTableAndStatistics = withReplicaTableParameters(sourceTableAndStatistics);
 
       replica.validateReplicaTable(replicaDatabaseName, replicaTableName);
 
@@ -109,6 +158,9 @@ class PartitionedTableReplication implements Replication {
       ReplicaLocationManager replicaLocationManager = replica
           .getLocationManager(TableType.PARTITIONED, tableReplication.getReplicaTable().getTableLocation(), eventId,
               sourceLocationManager);
+      if (checkpointJournal != CheckpointJournal.NULL) {
+        replicaLocationManager = new CheckpointingReplicaLocationManager(replicaLocationManager, checkpointJournal);
+      }
       Path replicaPartitionBaseLocation = replicaLocationManager.getPartitionBaseLocation();
 
       DataManipulatorFactory dataManipulatorFactory = dataManipulatorFactoryManager
@@ -117,41 +169,263 @@ class PartitionedTableReplication implements Replication {
 
       if (sourcePartitions.isEmpty()) {
         LOG.debug("Update table {}.{} metadata only", database, table);
-        replica.cleanupReplicaTableIfRequired(replicaDatabaseName, replicaTableName, dataManipulator);
+        cleanupReplicaTableIfRequired(dataManipulator);
         replica
-            .updateMetadata(eventId, sourceTableAndStatistics, replicaDatabaseName, replicaTableName,
+            .updateMetadata(eventId, replicatedTableAndStatistics, replicaDatabaseName, replicaTableName,
                 replicaLocationManager);
         LOG
             .info("No matching partitions found on table {}.{} with predicate {}."
                 + " Table metadata updated, no partitions were updated.", database, table, partitionPredicate);
       } else {
-        CopierFactory copierFactory = copierFactoryManager
-            .getCopierFactory(sourceBaseLocation, replicaPartitionBaseLocation, copierOptions);
-        CopierContext copierContext = new CopierContext(tableReplication, eventId, sourceBaseLocation,
-            sourceSubLocations, replicaPartitionBaseLocation, copierOptions, sourceTable, sourcePartitions);
-        Copier copier = copierFactory.newInstance(copierContext);
-        copierListener.copierStart(copier.getClass().getName());
-        try {
-          metrics = copier.copy();
-        } finally {
-          copierListener.copierEnd(metrics);
+        List<Path> subLocationsToCopy = uncopiedSubLocations(sourceSubLocations);
+        List<Partition> partitionsToCommit = uncommittedPartitions(sourcePartitions);
+        Copier copier = new CopiedByPreviousRun();
+        if (!subLocationsToCopy.isEmpty() || sourceSubLocations.isEmpty()) {
+          CopierFactory copierFactory = copierFactoryManager
+              .getCopierFactory(sourceBaseLocation, replicaPartitionBaseLocation, copierOptions);
+          CopierContext copierContext = new CopierContext(tableReplication, eventId, sourceBaseLocation,
+              subLocationsToCopy, replicaPartitionBaseLocation, copierOptions, sourceTable, sourcePartitions,
+              existingReplicaLocations(sourceTable, sourcePartitions, sourceLocationManager, sourceBaseLocation));
+          copier = copierFactory.newInstance(copierContext);
+        } else {
+          LOG.info("All data of table {}.{} was copied by a previous run of event {}", database, table, eventId);
         }
-        sourceLocationManager.cleanUpLocations();
+        if (isPipelinedCommit()) {
+          replicateAndCommitPipelined(copier, sourceTableAndStatistics, replicatedTableAndStatistics,
+              partitionsToCommit, sourceLocationManager, sourceBaseLocation, replicaLocationManager, dataManipulator,
+              pageSize);
+        } else {
+          copierListener.copierStart(copier.getClass().getName());
+          try {
+            metrics = copy(copier, checkpointJournal);
+          } finally {
+            copierListener.copierEnd(metrics);
+          }
+          sourceLocationManager.cleanUpLocations();
 
-        replica.cleanupReplicaTableIfRequired(replicaDatabaseName, replicaTableName, dataManipulator);
-        replica
-            .updateMetadata(eventId, sourceTableAndStatistics, sourcePartitionsAndStatistics, replicaDatabaseName,
-                replicaTableName, replicaLocationManager);
+          cleanupReplicaTableIfRequired(dataManipulator);
+          Iterator<PartitionsAndStatistics> sourcePartitionsAndStatistics = PartitionsAndStatistics
+              .withPartitionChecksums(source.getPartitionsAndStatistics(sourceTable, partitionsToCommit, pageSize),
+                  partitionPredicate.getPartitionChecksums());
+          if (checkpointJournal != CheckpointJournal.NULL) {
+            sourcePartitionsAndStatistics = new CheckpointingPartitionsAndStatisticsIterator(
+                sourcePartitionsAndStatistics, checkpointJournal);
+          }
+          replica
+              .updateMetadata(eventId, sourceTableAndStatistics, sourcePartitionsAndStatistics, replicaDatabaseName,
+                  replicaTableName, replicaLocationManager);
+          recordReplicaTableParameters(sourceTableAndStatistics, replicatedTableAndStatistics,
+              replicaLocationManager);
+        }
         replicaLocationManager.cleanUpLocations();
 
         int partitionsCopied = sourcePartitions.size();
         LOG.info("Replicated {} partitions of table {}.{}.", partitionsCopied, database, table);
       }
+      checkpointJournal.completed();
     } catch (Throwable t) {
       throw new CircusTrainException("Unable to replicate", t);
     }
   }
 
+  /**
+   * Lists the source partitions a page at a time and only keeps their values and location for the rest of the
+   * replication, which is all the location managers and copiers need, so the partitions of a large table are never all
+   * held in memory in full.
+   */
+  private List<Partition> listPartitionReferences(Table sourceTable, int pageSize) throws TException {
+    Iterator<List<Partition>> pages = source
+        .listPartitionPages(sourceTable, partitionPredicate.getPartitionSelection(),
+            partitionPredicate.getPartitionPredicateLimit(), pageSize);
+    List<Partition> references = new ArrayList<>();
+    while (pages.hasNext()) {
+      for (Partition partition : pages.next()) {
+        Partition reference = new Partition();
+        reference.setValues(partition.getValues());
+        if (LocationUtils.hasLocation(partition)) {
+          StorageDescriptor sd = new StorageDescriptor();
+          sd.setLocation(partition.getSd().getLocation());
+          reference.setSd(sd);
+        }
+        references.add(reference);
+      }
+    }
+    return references;
+  }
+
+  /**
+   * Looks up, on demand, where the replica currently holds the data of each source partition that it already has, keyed
+   * by the source sub-location the partition is copied from.
+   */
+  private Supplier<Map<Path, Path>> existingReplicaLocations(
+      final Table sourceTable,
+      final List<Partition> sourcePartitions,
+      final SourceLocationManager sourceLocationManager,
+      final Path sourceBaseLocation) {
+    return new Supplier<Map<Path, Path>>() {
+      @Override
+      public Map<Path, Path> get() {
+        List<String> partitionNames = new ArrayList<>(sourcePartitions.size());
+        try {
+          for (Partition partition : sourcePartitions) {
+            partitionNames.add(Warehouse.makePartName(sourceTable.getPartitionKeys(), partition.getValues()));
+          }
+        } catch (MetaException e) {
+          throw new CircusTrainException("Unable to build partition names of table " + database + "." + table, e);
+        }
+        Map<List<String>, Path> replicaPartitionLocations = replica
+            .getExistingPartitionLocations(tableReplication.getReplicaDatabaseName(),
+                tableReplication.getReplicaTableName(), partitionNames);
+        Map<Path, Path> existingReplicaLocations = new HashMap<>();
+        for (Partition partition : sourcePartitions) {
+          Path replicaPartitionLocation = replicaPartitionLocations.get(partition.getValues());
+          if (replicaPartitionLocation == null || !LocationUtils.hasLocation(partition)) {
+            continue;
+          }
+          try {
+            Path partitionSubPath = sourceLocationManager.getPartitionSubPath(locationAsPath(partition));
+            existingReplicaLocations.put(new Path(sourceBaseLocation, partitionSubPath), replicaPartitionLocation);
+          } catch (CircusTrainException e) {
+            LOG.debug("Ignoring replica location of partition {}: {}", partition.getValues(), e.getMessage());
+          }
+        }
+        LOG
+            .info("Found {} of {} partitions of table {}.{} already in the replica", existingReplicaLocations.size(),
+                sourcePartitions.size(), database, table);
+        return existingReplicaLocations;
+      }
+    };
+  }
+
+  /**
+   * Adds the parameters the partition predicate needs on the replica table, e.g. to pick up from where this
+   * replication stopped.
+   */
+  private TableAndStatistics withReplicaTableParameters(TableAndStatistics sourceTableAndStatistics) {
+    Map<String, String> parameters = partitionPredicate.getReplicaTableParameters();
+    if (parameters.isEmpty()) {
+      return sourceTableAndStatistics;
+    }
+    Table table = new Table(sourceTableAndStatistics.getTable());
+    for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+      table.putToParameters(parameter.getKey(), parameter.getValue());
+    }
+    return new TableAndStatistics(table, sourceTableAndStatistics.getStatistics());
+  }
+
+  private List<Path> uncopiedSubLocations(List<Path> sourceSubLocations) {
+    List<Path> uncopiedSubLocations = new ArrayList<>(sourceSubLocations.size());
+    for (Path sourceSubLocation : sourceSubLocations) {
+      if (!checkpointJournal.isCopied(sourceSubLocation)) {
+        uncopiedSubLocations.add(sourceSubLocation);
+      }
+    }
+    if (uncopiedSubLocations.size() < sourceSubLocations.size()) {
+      LOG
+          .info("Skipping {} sub-locations of table {}.{} copied by a previous run of event {}",
+              sourceSubLocations.size() - uncopiedSubLocations.size(), database, table, eventId);
+    }
+    return uncopiedSubLocations;
+  }
+
+  private List<Partition> uncommittedPartitions(List<Partition> sourcePartitions) {
+    List<Partition> uncommittedPartitions = new ArrayList<>(sourcePartitions.size());
+    for (Partition sourcePartition : sourcePartitions) {
+      if (!checkpointJournal.isCommitted(sourcePartition)) {
+        uncommittedPartitions.add(sourcePartition);
+      }
+    }
+    if (uncommittedPartitions.size() < sourcePartitions.size()) {
+      LOG
+          .info("Skipping {} partitions of table {}.{} committed by a previous run of event {}",
+              sourcePartitions.size() - uncommittedPartitions.size(), database, table, eventId);
+    }
+    return uncommittedPartitions;
+  }
+
+  /**
+   * A resumed replication must not drop the replica table of a {@code FULL_OVERWRITE} again once it has committed
+   * partitions: the drop would delete them and their data, and they are not committed again.
+   */
+  private void cleanupReplicaTableIfRequired(DataManipulator dataManipulator) throws Exception {
+    if (checkpointJournal.hasCommittedPartitions()) {
+      LOG
+          .info("Replica table of {}.{} was already cleaned up by a previous run of event {}", database, table,
+              eventId);
+      return;
+    }
+    replica
+        .cleanupReplicaTableIfRequired(tableReplication.getReplicaDatabaseName(),
+            tableReplication.getReplicaTableName(), dataManipulator);
+  }
+
+  /**
+   * Only asks the copier for progress when it is checkpointed.
+   */
+  private static Metrics copy(Copier copier, CheckpointJournal checkpointJournal) {
+    if (checkpointJournal == CheckpointJournal.NULL) {
+      return copier.copy();
+    }
+    return copier.copy(checkpointJournal);
+  }
+
+  /**
+   * Overwrites drop the replica table once the data has been copied, so its partitions cannot be committed earlier.
+   */
+  private boolean isPipelinedCommit() {
+    return tableReplication.isPipelinedCommit()
+        && tableReplication.getReplicationMode() != ReplicationMode.FULL_OVERWRITE;
+  }
+
+  /**
+   * Updates the replica table first and then commits its partitions while the copier reports them as copied.
+   */
+  private void replicateAndCommitPipelined(
+      Copier copier,
+      TableAndStatistics sourceTableAndStatistics,
+      TableAndStatistics replicatedTableAndStatistics,
+      List<Partition> sourcePartitions,
+      SourceLocationManager sourceLocationManager,
+      Path sourceBaseLocation,
+      ReplicaLocationManager replicaLocationManager,
+      DataManipulator dataManipulator,
+      int pageSize)
+    throws Exception {
+    String replicaDatabaseName = tableReplication.getReplicaDatabaseName();
+    String replicaTableName = tableReplication.getReplicaTableName();
+    cleanupReplicaTableIfRequired(dataManipulator);
+    replica
+        .updateMetadata(eventId, sourceTableAndStatistics, replicaDatabaseName, replicaTableName,
+            replicaLocationManager);
+
+    PipelinedPartitionCommitter committer = new PipelinedPartitionCommitter(source, replica, eventId,
+        sourceTableAndStatistics, sourcePartitions, sourceLocationManager, sourceBaseLocation, replicaDatabaseName,
+        replicaTableName, replicaLocationManager, tableReplication.getPipelinedCommitBatchSize(), pageSize,
+        partitionPredicate.getPartitionChecksums(), checkpointJournal);
+    copierListener.copierStart(copier.getClass().getName());
+    try {
+      metrics = committer.copyAndCommit(copier);
+    } finally {
+      copierListener.copierEnd(metrics);
+    }
+    recordReplicaTableParameters(sourceTableAndStatistics, replicatedTableAndStatistics, replicaLocationManager);
+    sourceLocationManager.cleanUpLocations();
+  }
+
+  /**
+   * Only recorded once all partitions are committed so that an interrupted replication is picked up again.
+   */
+  private void recordReplicaTableParameters(
+      TableAndStatistics sourceTableAndStatistics,
+      TableAndStatistics replicatedTableAndStatistics,
+      ReplicaLocationManager replicaLocationManager) {
+    if (replicatedTableAndStatistics != sourceTableAndStatistics) {
+      replica
+          .updateMetadata(eventId, replicatedTableAndStatistics, tableReplication.getReplicaDatabaseName(),
+              tableReplication.getReplicaTableName(), replicaLocationManager);
+    }
+  }
+
   @Override
   public String name() {
     return DotJoiner.join(database, table);
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package com.hotels.bdp.circustrain.core;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,12 +32,16 @@ import org.apache.hadoop.hive.metastore.api.Partition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+
 public class PartitionsAndStatistics {
 
   private static final Logger LOG = LoggerFactory.getLogger(PartitionsAndStatistics.class);
 
   private final Map<Partition, ColumnStatistics> statisticsByPartition;
   private final List<String> partitionNames = new ArrayList<>();
+  private final Map<String, String> checksumsByPartitionName;
   private List<FieldSchema> partitionKeys;
 
   public PartitionsAndStatistics(
@@ -49,14 +54,40 @@ public class PartitionsAndStatistics {
   public PartitionsAndStatistics(
       List<FieldSchema> partitionKeys,
       Map<Partition, ColumnStatistics> statisticsByPartition) {
+    this(partitionKeys, statisticsByPartition, Collections.<String, String> emptyMap());
+  }
+
+  private PartitionsAndStatistics(
+      List<FieldSchema> partitionKeys,
+      Map<Partition, ColumnStatistics> statisticsByPartition,
+      Map<String, String> checksumsByPartitionName) {
     this.partitionKeys = partitionKeys;
     this.statisticsByPartition = statisticsByPartition;
+    this.checksumsByPartitionName = checksumsByPartitionName;
     for (Partition partition : statisticsByPartition.keySet()) {
       String partitionName = getPartitionName(partitionKeys, partition);
       partitionNames.add(partitionName);
     }
   }
 
+  /**
+   * Attaches source partition data checksums that are already known, keyed by partition name, to each page so the
+   * replica does not have to compute them again.
+   */
+  static Iterator<PartitionsAndStatistics> withPartitionChecksums(
+      Iterator<PartitionsAndStatistics> pages,
+      final Map<String, String> checksumsByPartitionName) {
+    if (checksumsByPartitionName == null || checksumsByPartitionName.isEmpty()) {
+      return pages;
+    }
+    return Iterators.transform(pages, new Function<PartitionsAndStatistics, PartitionsAndStatistics>() {
+      @Override
+      public PartitionsAndStatistics apply(PartitionsAndStatistics page) {
+        return new PartitionsAndStatistics(page.partitionKeys, page.statisticsByPartition, checksumsByPartitionName);
+      }
+    });
+  }
+
   private static Map<Partition, ColumnStatistics> createStatisticsByPartitionMap(
       List<FieldSchema> partitionKeys,
       List<Partition> partitions,
@@ -107,6 +138,19 @@ public class PartitionsAndStatistics {
     return statisticsByPartition.get(partition);
   }
 
+  /**
+   * @return the source data checksum of the partition if it is already known, {@code null} otherwise
+   */
+  public String getChecksumForPartition(Partition partition) {
+    if (partition == null) {
+      throw new IllegalArgumentException("partition == null");
+    }
+    if (checksumsByPartitionName.isEmpty()) {
+      return null;
+    }
+    return checksumsByPartitionName.get(getPartitionName(partitionKeys, partition));
+  }
+
   /**
    * @return list of partition names example: [key1=a/key2=b, key1=c/key2=d]
    */
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
+import com.hotels.hcommon.hive.metastore.util.LocationUtils;
+
+/**
+ * Splits a list of partitions into pages and fetches the partitions of each page again, in full, and their column
+ * statistics only when the page is requested, so that neither are requested, nor held in memory, for all the partitions
+ * of a table at once. The listed partitions only need their values and location: fetched partitions keep the location
+ * they were listed with, which is the location their data was copied from.
+ */
+public class PartitionsAndStatisticsIterator implements Iterator<PartitionsAndStatistics> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionsAndStatisticsIterator.class);
+
+  private final Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private final Table table;
+  private final List<String> columnNames;
+  private final Iterator<List<Partition>> pages;
+
+  public PartitionsAndStatisticsIterator(
+      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      Table table,
+      List<Partition> partitions,
+      int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("pageSize must be greater than 0 but was " + pageSize);
+    }
+    this.metaStoreClientSupplier = metaStoreClientSupplier;
+    this.table = table;
+    columnNames = getColumnNames(table);
+    pages = Lists.partition(partitions, pageSize).iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return pages.hasNext();
+  }
+
+  @Override
+  public PartitionsAndStatistics next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    List<Partition> listedPage = pages.next();
+    List<String> partitionNames = getPartitionNames(table.getPartitionKeys(), listedPage);
+    List<Partition> page;
+    Map<String, List<ColumnStatisticsObj>> statisticsByPartitionName;
+    try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
+      page = client.getPartitionsByNames(table.getDbName(), table.getTableName(), partitionNames);
+      statisticsByPartitionName = client
+          .getPartitionColumnStatistics(table.getDbName(), table.getTableName(), partitionNames, columnNames);
+    } catch (TException e) {
+      throw new MetaStoreClientException(
+          "Unable to fetch partitions and column statistics of table " + Warehouse.getQualifiedName(table), e);
+    }
+    if (page.size() < listedPage.size()) {
+      LOG
+          .info("{} of {} partitions of table {}.{} no longer exist", listedPage.size() - page.size(),
+              listedPage.size(), table.getDbName(), table.getTableName());
+    }
+    keepListedLocations(listedPage, page);
+    if (statisticsByPartitionName == null) {
+      statisticsByPartitionName = Collections.emptyMap();
+    }
+    LOG
+        .debug("Retrieved column stats entries for {} of {} partitions of table {}.{}",
+            statisticsByPartitionName.size(), page.size(), table.getDbName(), table.getTableName());
+    return new PartitionsAndStatistics(table.getPartitionKeys(), page, statisticsByPartitionName);
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("remove");
+  }
+
+  private static void keepListedLocations(List<Partition> listedPage, List<Partition> page) {
+    Map<List<String>, String> listedLocations = new HashMap<>(listedPage.size());
+    for (Partition partition : listedPage) {
+      if (LocationUtils.hasLocation(partition)) {
+        listedLocations.put(partition.getValues(), partition.getSd().getLocation());
+      }
+    }
+    for (Partition partition : page) {
+      String listedLocation = listedLocations.get(partition.getValues());
+      if (listedLocation != null && partition.isSetSd()) {
+        partition.getSd().setLocation(listedLocation);
+      }
+    }
+  }
+
+  private static List<String> getColumnNames(Table table) {
+    List<FieldSchema> fields = table.getSd().getCols();
+    List<String> columnNames = new ArrayList<>(fields.size());
+    for (FieldSchema field : fields) {
+      columnNames.add(field.getName());
+    }
+    return columnNames;
+  }
+
+  private static List<String> getPartitionNames(List<FieldSchema> partitionKeys, List<Partition> partitions) {
+    List<String> partitionNames = new ArrayList<>(partitions.size());
+    for (Partition partition : partitions) {
+      try {
+        partitionNames.add(Warehouse.makePartName(partitionKeys, partition.getValues()));
+      } catch (MetaException e) {
+        throw new MetaStoreClientException("Unable to build name of partition " + partition.getValues(), e);
+      }
+    }
+    return partitionNames;
+  }
+
+}
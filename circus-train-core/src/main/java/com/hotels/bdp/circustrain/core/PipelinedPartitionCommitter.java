@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
+import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.copier.Copier;
+import com.hotels.bdp.circustrain.api.copier.CopierProgressListener;
+import com.hotels.bdp.circustrain.api.metrics.Metrics;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournal;
+import com.hotels.bdp.circustrain.core.replica.Replica;
+import com.hotels.bdp.circustrain.core.source.Source;
+
+/**
+ * Runs a copier in the background and commits the replica partitions whose data the copier reports as copied, in
+ * batches, while the copy carries on. Partitions are committed on the calling thread, so replication listeners see them
+ * on the thread that runs the table replication. Partitions that are never reported are committed once the copy has
+ * finished.
+ */
+class PipelinedPartitionCommitter implements CopierProgressListener {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PipelinedPartitionCommitter.class);
+
+  private static final long POLL_INTERVAL_MILLIS = 1000L;
+
+  private final Source source;
+  private final Replica replica;
+  private final String eventId;
+  private final TableAndStatistics sourceTableAndStatistics;
+  private final String replicaDatabaseName;
+  private final String replicaTableName;
+  private final ReplicaLocationManager replicaLocationManager;
+  private final int commitBatchSize;
+  private final int pageSize;
+  private final Map<String, String> sourcePartitionChecksums;
+  private final String sourceBaseLocation;
+  private final CheckpointJournal checkpointJournal;
+  private final Map<String, List<Partition>> uncommittedPartitionsBySubPath = new LinkedHashMap<>();
+  private final List<Partition> untrackedPartitions = new ArrayList<>();
+  private final BlockingQueue<Path> copiedSubLocations = new LinkedBlockingQueue<>();
+  private int committedPartitions = 0;
+
+  PipelinedPartitionCommitter(
+      Source source,
+      Replica replica,
+      String eventId,
+      TableAndStatistics sourceTableAndStatistics,
+      List<Partition> sourcePartitions,
+      SourceLocationManager sourceLocationManager,
+      Path sourceBaseLocation,
+      String replicaDatabaseName,
+      String replicaTableName,
+      ReplicaLocationManager replicaLocationManager,
+      int commitBatchSize,
+      int pageSize,
+      Map<String, String> sourcePartitionChecksums,
+      CheckpointJournal checkpointJournal) {
+    this.source = source;
+    this.replica = replica;
+    this.eventId = eventId;
+    this.sourceTableAndStatistics = sourceTableAndStatistics;
+    this.replicaDatabaseName = replicaDatabaseName;
+    this.replicaTableName = replicaTableName;
+    this.replicaLocationManager = replicaLocationManager;
+    this.commitBatchSize = Math.max(1, commitBatchSize);
+    this.pageSize = pageSize;
+    this.sourcePartitionChecksums = sourcePartitionChecksums;
+    this.sourceBaseLocation = sourceBaseLocation.toString();
+    this.checkpointJournal = checkpointJournal;
+    for (Partition partition : sourcePartitions) {
+      String subPath = subPath(sourceLocationManager, partition);
+      if (subPath == null) {
+        untrackedPartitions.add(partition);
+        continue;
+      }
+      List<Partition> partitions = uncommittedPartitionsBySubPath.get(subPath);
+      if (partitions == null) {
+        partitions = new ArrayList<>(1);
+        uncommittedPartitionsBySubPath.put(subPath, partitions);
+      }
+      partitions.add(partition);
+    }
+  }
+
+  private static String subPath(SourceLocationManager sourceLocationManager, Partition partition) {
+    if (partition.getSd() == null || partition.getSd().getLocation() == null) {
+      return null;
+    }
+    try {
+      return sourceLocationManager.getPartitionSubPath(new Path(partition.getSd().getLocation())).toString();
+    } catch (CircusTrainException e) {
+      LOG.debug("Partition {} will be committed once the copy has finished", partition.getValues(), e);
+      return null;
+    }
+  }
+
+  @Override
+  public void subLocationCopied(Path sourceSubLocation) {
+    checkpointJournal.subLocationCopied(sourceSubLocation);
+    copiedSubLocations.add(sourceSubLocation);
+  }
+
+  /**
+   * Copies the data with {@code copier} and commits all the source partitions to the replica. If committing fails the
+   * copier is interrupted and this method only returns once it has stopped, so no data is written to the replica
+   * location after the failure has been reported.
+   */
+  Metrics copyAndCommit(final Copier copier) throws InterruptedException {
+    ExecutorService executor = Executors
+        .newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("pipelined-copier-%d").setDaemon(true).build());
+    try {
+      Future<Metrics> copy = executor.submit(new Callable<Metrics>() {
+        @Override
+        public Metrics call() {
+          return copier.copy(PipelinedPartitionCommitter.this);
+        }
+      });
+      List<Partition> pending = new ArrayList<>();
+      while (!copy.isDone()) {
+        Path copied = copiedSubLocations.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (copied != null) {
+          addCopiedPartitions(copied, pending);
+        }
+        // Commit full batches straight away and partial ones when the copier goes quiet
+        if (pending.size() >= commitBatchSize || (copied == null && !pending.isEmpty())) {
+          commit(pending);
+          pending = new ArrayList<>();
+        }
+      }
+      Metrics metrics = getMetrics(copy);
+      for (List<Partition> partitions : uncommittedPartitionsBySubPath.values()) {
+        pending.addAll(partitions);
+      }
+      uncommittedPartitionsBySubPath.clear();
+      pending.addAll(untrackedPartitions);
+      untrackedPartitions.clear();
+      commit(pending);
+      return metrics;
+    } finally {
+      stopCopier(executor);
+    }
+  }
+
+  private static void stopCopier(ExecutorService executor) {
+    executor.shutdownNow();
+    try {
+      // Copiers that don't respond to interruption carry on until they have finished
+      while (!executor.awaitTermination(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+        LOG.info("Waiting for the copier to stop");
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted while waiting for the copier to stop");
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  int getCommittedPartitions() {
+    return committedPartitions;
+  }
+
+  private void addCopiedPartitions(Path copied, List<Partition> pending) {
+    List<Path> copiedLocations = new ArrayList<>();
+    copiedLocations.add(copied);
+    copiedSubLocations.drainTo(copiedLocations);
+    for (Path location : copiedLocations) {
+      String subPath = StringUtils.removeStart(StringUtils.removeStart(location.toString(), sourceBaseLocation), "/");
+      List<Partition> partitions = uncommittedPartitionsBySubPath.remove(subPath);
+      if (partitions != null) {
+        pending.addAll(partitions);
+      } else {
+        LOG.debug("No uncommitted partition found for copied location {}", location);
+      }
+    }
+  }
+
+  private void commit(List<Partition> partitions) {
+    if (partitions.isEmpty()) {
+      return;
+    }
+    LOG
+        .info("Committing {} copied partitions to {}.{} ({} already committed)", partitions.size(),
+            replicaDatabaseName, replicaTableName, committedPartitions);
+    replica
+        .updatePartitionMetadata(eventId, sourceTableAndStatistics,
+            PartitionsAndStatistics
+                .withPartitionChecksums(
+                    source.getPartitionsAndStatistics(sourceTableAndStatistics.getTable(), partitions, pageSize),
+                    sourcePartitionChecksums),
+            replicaDatabaseName, replicaTableName, replicaLocationManager);
+    checkpointJournal.partitionsCommitted(partitions);
+    committedPartitions += partitions.size();
+  }
+
+  private static Metrics getMetrics(Future<Metrics> copy) throws InterruptedException {
+    try {
+      return copy.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new CircusTrainException("Copier failed", cause);
+    }
+  }
+
+}
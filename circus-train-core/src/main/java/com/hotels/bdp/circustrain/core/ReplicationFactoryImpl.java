@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,6 +30,7 @@ import com.hotels.bdp.circustrain.api.copier.CopierFactoryManager;
 import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.data.DataManipulatorFactoryManager;
 import com.hotels.bdp.circustrain.api.event.CopierListener;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournalFactory;
 import com.hotels.bdp.circustrain.core.replica.Replica;
 import com.hotels.bdp.circustrain.core.replica.ReplicaFactory;
 import com.hotels.bdp.circustrain.core.source.Source;
@@ -45,6 +46,7 @@ public class ReplicationFactoryImpl implements ReplicationFactory {
   private final PartitionPredicateFactory partitionPredicateFactory;
   private final CopierOptions copierOptions;
   private final DataManipulatorFactoryManager dataManipulatorFactoryManager;
+  private final CheckpointJournalFactory checkpointJournalFactory;
 
   public ReplicationFactoryImpl(
       SourceFactory sourceFactory,
@@ -53,7 +55,8 @@ public class ReplicationFactoryImpl implements ReplicationFactory {
       CopierListener copierListener,
       PartitionPredicateFactory partitionPredicateFactory,
       CopierOptions copierOptions,
-      DataManipulatorFactoryManager dataManipulatorFactoryManager) {
+      DataManipulatorFactoryManager dataManipulatorFactoryManager,
+      CheckpointJournalFactory checkpointJournalFactory) {
     this.sourceFactory = sourceFactory;
     this.replicaFactory = replicaFactory;
     this.copierFactoryManager = copierFactoryManager;
@@ -61,6 +64,7 @@ public class ReplicationFactoryImpl implements ReplicationFactory {
     this.partitionPredicateFactory = partitionPredicateFactory;
     this.copierOptions = copierOptions;
     this.dataManipulatorFactoryManager = dataManipulatorFactoryManager;
+    this.checkpointJournalFactory = checkpointJournalFactory;
   }
 
   /*
@@ -106,7 +110,8 @@ public class ReplicationFactoryImpl implements ReplicationFactory {
       Map<String, Object> mergedCopierOptions = tableReplication
           .getMergedCopierOptions(copierOptions.getCopierOptions());
       replication = new PartitionedTableReplication(tableReplication, partitionPredicate, source, replica,
-          copierFactoryManager, eventIdFactory, mergedCopierOptions, copierListener, dataManipulatorFactoryManager);
+          copierFactoryManager, eventIdFactory, mergedCopierOptions, copierListener, dataManipulatorFactoryManager,
+          checkpointJournalFactory.newInstance(tableReplication));
       break;
     case METADATA_UPDATE:
       replication = new PartitionedTableMetadataUpdateReplication(tableReplication.getSourceTable().getDatabaseName(),
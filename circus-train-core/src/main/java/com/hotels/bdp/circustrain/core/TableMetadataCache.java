@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+/**
+ * Holds the metadata of the tables of one metastore that are replicated in the current run, so that it is fetched with
+ * one {@code get_table_objects_by_name} call per database instead of several {@code get_table} calls per table.
+ * <p>
+ * Only prefetched tables are cached, other tables are always fetched from the metastore, and a table is evicted as
+ * soon as Circus Train changes it. Callers get their own copy of the cached metadata.
+ * </p>
+ */
+public class TableMetadataCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TableMetadataCache.class);
+
+  static final int PREFETCH_BATCH_SIZE = 500;
+
+  private final Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private final Map<String, Table> tables = new ConcurrentHashMap<>();
+  private final Map<String, TableAndStatistics> tablesAndStatistics = new ConcurrentHashMap<>();
+
+  public TableMetadataCache(Supplier<CloseableMetaStoreClient> metaStoreClientSupplier) {
+    this.metaStoreClientSupplier = metaStoreClientSupplier;
+  }
+
+  /**
+   * Fetches the metadata of the given tables of a database. Tables that do not exist are ignored.
+   */
+  public void prefetch(String database, List<String> tableNames) throws TException {
+    try (CloseableMetaStoreClient client = metaStoreClientSupplier.get()) {
+      for (List<String> batch : Lists.partition(tableNames, PREFETCH_BATCH_SIZE)) {
+        List<Table> fetched = client.getTableObjectsByName(database, batch);
+        for (Table table : fetched) {
+          tables.put(key(table.getDbName(), table.getTableName()), table);
+        }
+        LOG.debug("Prefetched {} of {} tables from database {}", fetched.size(), batch.size(), database);
+      }
+    }
+  }
+
+  /**
+   * @return a copy of the table if it was prefetched, {@code null} otherwise
+   */
+  public Table getTable(String database, String tableName) {
+    Table table = tables.get(key(database, tableName));
+    return table == null ? null : new Table(table);
+  }
+
+  /**
+   * @return a copy of the table and its statistics if these were {@link #put(TableAndStatistics) put} in the cache,
+   *         {@code null} otherwise
+   */
+  public TableAndStatistics getTableAndStatistics(String database, String tableName) {
+    TableAndStatistics tableAndStatistics = tablesAndStatistics.get(key(database, tableName));
+    return tableAndStatistics == null ? null : copy(tableAndStatistics);
+  }
+
+  /**
+   * Caches the statistics fetched for a prefetched table. Does nothing for tables that were not prefetched.
+   */
+  public void put(TableAndStatistics tableAndStatistics) {
+    Table table = tableAndStatistics.getTable();
+    String key = key(table.getDbName(), table.getTableName());
+    if (tables.containsKey(key)) {
+      tablesAndStatistics.put(key, copy(tableAndStatistics));
+    }
+  }
+
+  public void invalidate(String database, String tableName) {
+    String key = key(database, tableName);
+    tables.remove(key);
+    tablesAndStatistics.remove(key);
+  }
+
+  public void clear() {
+    tables.clear();
+    tablesAndStatistics.clear();
+  }
+
+  private static TableAndStatistics copy(TableAndStatistics tableAndStatistics) {
+    ColumnStatistics statistics = tableAndStatistics.getStatistics();
+    return new TableAndStatistics(new Table(tableAndStatistics.getTable()),
+        statistics == null ? null : new ColumnStatistics(statistics));
+  }
+
+  private static String key(String database, String tableName) {
+    return (database + "." + tableName).toLowerCase();
+  }
+
+}
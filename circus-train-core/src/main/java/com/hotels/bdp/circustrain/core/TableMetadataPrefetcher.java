@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+
+/**
+ * Fills the source and replica {@link TableMetadataCache caches} with the tables of the table replications about to be
+ * run and empties them once the run is over. Prefetching is an optimisation only: tables that could not be prefetched
+ * are fetched individually when they are needed.
+ */
+public class TableMetadataPrefetcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TableMetadataPrefetcher.class);
+
+  private final TableMetadataCache sourceTableMetadataCache;
+  private final TableMetadataCache replicaTableMetadataCache;
+
+  public TableMetadataPrefetcher(
+      TableMetadataCache sourceTableMetadataCache,
+      TableMetadataCache replicaTableMetadataCache) {
+    this.sourceTableMetadataCache = sourceTableMetadataCache;
+    this.replicaTableMetadataCache = replicaTableMetadataCache;
+  }
+
+  public void prefetch(List<TableReplication> tableReplications) {
+    Map<String, Set<String>> sourceTables = new LinkedHashMap<>();
+    Map<String, Set<String>> replicaTables = new LinkedHashMap<>();
+    for (TableReplication tableReplication : tableReplications) {
+      add(sourceTables, tableReplication.getSourceTable().getDatabaseName(),
+          tableReplication.getSourceTable().getTableName());
+      add(replicaTables, tableReplication.getReplicaDatabaseName(), tableReplication.getReplicaTableName());
+    }
+    prefetch("source", sourceTableMetadataCache, sourceTables);
+    prefetch("replica", replicaTableMetadataCache, replicaTables);
+  }
+
+  public void clear() {
+    sourceTableMetadataCache.clear();
+    replicaTableMetadataCache.clear();
+  }
+
+  private static void add(Map<String, Set<String>> tablesByDatabase, String database, String table) {
+    Set<String> tables = tablesByDatabase.get(database);
+    if (tables == null) {
+      tables = new LinkedHashSet<>();
+      tablesByDatabase.put(database, tables);
+    }
+    tables.add(table);
+  }
+
+  private static void prefetch(String name, TableMetadataCache cache, Map<String, Set<String>> tablesByDatabase) {
+    for (Entry<String, Set<String>> tables : tablesByDatabase.entrySet()) {
+      try {
+        cache.prefetch(tables.getKey(), new ArrayList<>(tables.getValue()));
+      } catch (Exception e) {
+        LOG.warn("Unable to prefetch {} tables of database {}, they will be fetched one by one.", name,
+            tables.getKey(), e);
+      }
+    }
+  }
+
+}
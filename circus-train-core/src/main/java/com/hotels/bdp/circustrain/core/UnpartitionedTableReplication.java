@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.hadoop.fs.Path;
@@ -22,6 +23,9 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
 import com.hotels.bdp.circustrain.api.Replication;
@@ -99,7 +103,7 @@ class UnpartitionedTableReplication implements Replication {
           .getCopierFactory(sourceLocation, replicaLocation, copierOptions);
 
       CopierContext copierContext = new CopierContext(tableReplication, eventId, sourceLocation, null, replicaLocation,
-          copierOptions, sourceTable, null);
+          copierOptions, sourceTable, null, existingReplicaLocations(sourceLocation));
       Copier copier = copierFactory.newInstance(copierContext);
       copierListener.copierStart(copier.getClass().getName());
       try {
@@ -124,6 +128,23 @@ class UnpartitionedTableReplication implements Replication {
     }
   }
 
+  /**
+   * Looks up, on demand, where the replica currently holds the table data, keyed by the source location.
+   */
+  private Supplier<Map<Path, Path>> existingReplicaLocations(final Path sourceLocation) {
+    return new Supplier<Map<Path, Path>>() {
+      @Override
+      public Map<Path, Path> get() {
+        Optional<Path> replicaTableLocation = replica
+            .getExistingTableLocation(tableReplication.getReplicaDatabaseName(), tableReplication.getReplicaTableName());
+        if (!replicaTableLocation.isPresent()) {
+          return Collections.<Path, Path>emptyMap();
+        }
+        return Collections.singletonMap(sourceLocation, replicaTableLocation.get());
+      }
+    };
+  }
+
   @Override
   public String name() {
     return DotJoiner.join(database, table);
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checkpoint;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+import com.hotels.bdp.circustrain.api.copier.CopierProgressListener;
+
+/**
+ * Records the progress of a table replication so that a replication which did not finish can be resumed by a later run
+ * with the same event id, skipping the source sub-locations that were fully copied and the partitions that were
+ * committed to the replica.
+ */
+public interface CheckpointJournal extends CopierProgressListener {
+
+  public static final CheckpointJournal NULL = new CheckpointJournal() {
+
+    @Override
+    public void subLocationCopied(Path sourceSubLocation) {}
+
+    @Override
+    public String getEventId() {
+      return null;
+    }
+
+    @Override
+    public void started(String eventId) {}
+
+    @Override
+    public boolean isCopied(Path sourceSubLocation) {
+      return false;
+    }
+
+    @Override
+    public boolean isCommitted(Partition partition) {
+      return false;
+    }
+
+    @Override
+    public boolean hasCommittedPartitions() {
+      return false;
+    }
+
+    @Override
+    public void partitionsCommitted(List<Partition> partitions) {}
+
+    @Override
+    public void cleanUpLocationAdded(String pathEventId, Path location) {}
+
+    @Override
+    public Map<Path, String> getCleanUpLocations() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public void completed() {}
+  };
+
+  /**
+   * @return the event id of the unfinished replication to resume, or {@code null} if there is none.
+   */
+  String getEventId();
+
+  void started(String eventId);
+
+  boolean isCopied(Path sourceSubLocation);
+
+  boolean isCommitted(Partition partition);
+
+  /**
+   * @return {@code true} if partitions of the replication being resumed were already committed to the replica.
+   */
+  boolean hasCommittedPartitions();
+
+  void partitionsCommitted(List<Partition> partitions);
+
+  /**
+   * Holds a replica location that is no longer referenced once the partitions being written are committed. It is
+   * recorded by the next call to {@link #partitionsCommitted(List)}, so that a resumed replication can clean up the
+   * locations of the partitions it skips.
+   */
+  void cleanUpLocationAdded(String pathEventId, Path location);
+
+  /**
+   * @return the replica locations to clean up, with the event id of the replication that wrote them, that were recorded
+   *         along with committed partitions.
+   */
+  Map<Path, String> getCleanUpLocations();
+
+  /**
+   * Discards the journal, the next run starts a new replication.
+   */
+  void completed();
+
+}
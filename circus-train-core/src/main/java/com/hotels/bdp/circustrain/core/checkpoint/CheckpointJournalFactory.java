@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checkpoint;
+
+import java.io.File;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.conf.Checkpoints;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+
+/**
+ * Creates one {@link CheckpointJournal} per table replication, keyed by its source and replica table names.
+ */
+public class CheckpointJournalFactory {
+
+  public static final CheckpointJournalFactory NULL = new CheckpointJournalFactory(new Checkpoints());
+
+  private final File directory;
+
+  public CheckpointJournalFactory(Checkpoints checkpoints) {
+    if (StringUtils.isBlank(checkpoints.getDirectory())) {
+      directory = null;
+    } else {
+      directory = new File(checkpoints.getDirectory());
+    }
+  }
+
+  public CheckpointJournal newInstance(TableReplication tableReplication) {
+    if (directory == null) {
+      return CheckpointJournal.NULL;
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new CircusTrainException("Unable to create checkpoint directory " + directory);
+    }
+    String fileName = tableReplication.getSourceTable().getQualifiedName()
+        + "-"
+        + tableReplication.getQualifiedReplicaName()
+        + ".journal";
+    return new FileCheckpointJournal(new File(directory, fileName));
+  }
+
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checkpoint;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.FileUtils;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+
+/**
+ * A {@link CheckpointJournal} kept in a local, append-only text file. Each line holds a record type and a value
+ * separated by a tab:
+ *
+ * <pre>
+ * event-id   ctp-20160322t061345.487z-ytmhvotf
+ * copied     hdfs://nameservice/warehouse/table/.snapshot/ctp-20160322t061345.487z-ytmhvotf/year=2016
+ * clean-up   ctp-20160321t061345.487z-abcdefgh  s3://bucket/table/ctp-20160321t061345.487z-abcdefgh/year=2016
+ * committed  2016
+ * </pre>
+ *
+ * Clean-up records hold the previous event id, which may be empty, and location of a partition. They are written just
+ * before the committed records of the page of partitions that replaced them. Records are appended as soon as they
+ * happen so a crashed run loses at most the record it was writing, which has no line terminator and is ignored when the
+ * journal is read back.
+ */
+class FileCheckpointJournal implements CheckpointJournal {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FileCheckpointJournal.class);
+
+  static final String EVENT_ID = "event-id";
+  static final String COPIED = "copied";
+  static final String COMMITTED = "committed";
+  static final String CLEAN_UP = "clean-up";
+
+  private static final char SEPARATOR = '\t';
+
+  private final File file;
+  private final Set<String> copiedSubLocations = new HashSet<>();
+  private final Set<String> committedPartitions = new HashSet<>();
+  private final Map<Path, String> cleanUpLocations = new LinkedHashMap<>();
+  private final Map<Path, String> pendingCleanUpLocations = new LinkedHashMap<>();
+  private String eventId;
+
+  FileCheckpointJournal(File file) {
+    this.file = file;
+    if (file.exists()) {
+      load();
+    }
+  }
+
+  private void load() {
+    String content;
+    try {
+      content = new String(Files.readAllBytes(file.toPath()), UTF_8);
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to read checkpoint journal " + file, e);
+    }
+    int lineStart = 0;
+    int lineEnd;
+    while ((lineEnd = content.indexOf('\n', lineStart)) >= 0) {
+      loadRecord(content.substring(lineStart, lineEnd));
+      lineStart = lineEnd + 1;
+    }
+    if (lineStart < content.length()) {
+      LOG.warn("Ignoring incomplete record '{}' in checkpoint journal {}", content.substring(lineStart), file);
+    }
+    if (eventId == null) {
+      LOG.warn("Checkpoint journal {} has no event id, it will be replaced", file);
+      copiedSubLocations.clear();
+      committedPartitions.clear();
+      cleanUpLocations.clear();
+    } else {
+      LOG
+          .info("Found checkpoint journal {} for event {}: {} sub-locations copied, {} partitions committed", file,
+              eventId, copiedSubLocations.size(), committedPartitions.size());
+    }
+  }
+
+  private void loadRecord(String line) {
+    int separator = line.indexOf(SEPARATOR);
+    if (separator < 0) {
+      LOG.warn("Ignoring incomplete record '{}' in checkpoint journal {}", line, file);
+      return;
+    }
+    String type = line.substring(0, separator);
+    String value = line.substring(separator + 1);
+    int locationSeparator = value.indexOf(SEPARATOR);
+    if (EVENT_ID.equals(type)) {
+      eventId = value;
+    } else if (COPIED.equals(type)) {
+      copiedSubLocations.add(value);
+    } else if (COMMITTED.equals(type)) {
+      committedPartitions.add(value);
+    } else if (CLEAN_UP.equals(type) && locationSeparator >= 0) {
+      String pathEventId = value.substring(0, locationSeparator);
+      cleanUpLocations
+          .put(new Path(value.substring(locationSeparator + 1)), pathEventId.isEmpty() ? null : pathEventId);
+    } else {
+      LOG.warn("Ignoring unknown record '{}' in checkpoint journal {}", line, file);
+    }
+  }
+
+  @Override
+  public synchronized String getEventId() {
+    return eventId;
+  }
+
+  @Override
+  public synchronized void started(String eventId) {
+    if (eventId.equals(this.eventId)) {
+      return;
+    }
+    this.eventId = eventId;
+    copiedSubLocations.clear();
+    committedPartitions.clear();
+    cleanUpLocations.clear();
+    pendingCleanUpLocations.clear();
+    write(record(EVENT_ID, eventId), StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  @Override
+  public synchronized boolean isCopied(Path sourceSubLocation) {
+    return copiedSubLocations.contains(sourceSubLocation.toString());
+  }
+
+  @Override
+  public synchronized void subLocationCopied(Path sourceSubLocation) {
+    if (copiedSubLocations.add(sourceSubLocation.toString())) {
+      write(record(COPIED, sourceSubLocation.toString()), StandardOpenOption.APPEND);
+    }
+  }
+
+  @Override
+  public synchronized boolean isCommitted(Partition partition) {
+    return committedPartitions.contains(partitionName(partition));
+  }
+
+  @Override
+  public synchronized boolean hasCommittedPartitions() {
+    return !committedPartitions.isEmpty();
+  }
+
+  @Override
+  public synchronized void partitionsCommitted(List<Partition> partitions) {
+    StringBuilder records = new StringBuilder();
+    // Written first: if the write is cut short the partitions are committed again, with their clean-up locations
+    for (Map.Entry<Path, String> cleanUpLocation : pendingCleanUpLocations.entrySet()) {
+      String pathEventId = cleanUpLocation.getValue() == null ? "" : cleanUpLocation.getValue();
+      records.append(record(CLEAN_UP, pathEventId + SEPARATOR + cleanUpLocation.getKey()));
+    }
+    cleanUpLocations.putAll(pendingCleanUpLocations);
+    pendingCleanUpLocations.clear();
+    for (Partition partition : partitions) {
+      String partitionName = partitionName(partition);
+      if (committedPartitions.add(partitionName)) {
+        records.append(record(COMMITTED, partitionName));
+      }
+    }
+    if (records.length() > 0) {
+      write(records.toString(), StandardOpenOption.APPEND);
+    }
+  }
+
+  @Override
+  public synchronized void cleanUpLocationAdded(String pathEventId, Path location) {
+    pendingCleanUpLocations.put(location, pathEventId);
+  }
+
+  @Override
+  public synchronized Map<Path, String> getCleanUpLocations() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(cleanUpLocations));
+  }
+
+  @Override
+  public synchronized void completed() {
+    eventId = null;
+    copiedSubLocations.clear();
+    committedPartitions.clear();
+    cleanUpLocations.clear();
+    pendingCleanUpLocations.clear();
+    if (file.exists() && !file.delete()) {
+      LOG.warn("Unable to delete checkpoint journal {}", file);
+    }
+  }
+
+  private static String partitionName(Partition partition) {
+    StringBuilder name = new StringBuilder();
+    for (String value : partition.getValues()) {
+      if (name.length() > 0) {
+        name.append('/');
+      }
+      // Escapes path separators and control characters, including the record separator
+      name.append(FileUtils.escapePathName(value));
+    }
+    return name.toString();
+  }
+
+  private static String record(String type, String value) {
+    return type + SEPARATOR + value + '\n';
+  }
+
+  private void write(String records, StandardOpenOption option) {
+    try {
+      Files.write(file.toPath(), records.getBytes(UTF_8), StandardOpenOption.CREATE, StandardOpenOption.WRITE, option);
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to write checkpoint journal " + file, e);
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.daemon;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.springframework.scheduling.support.CronSequenceGenerator;
+
+import com.hotels.bdp.circustrain.api.conf.Daemon;
+
+/**
+ * Computes when the next scheduled run of a {@link Daemon daemon} starts.
+ */
+public abstract class RunSchedule {
+
+  public static RunSchedule forDaemon(Daemon daemon) {
+    if (daemon.getCron() != null) {
+      return new CronRunSchedule(daemon.getCron());
+    }
+    if (daemon.getFixedDelay() != null) {
+      return new FixedDelayRunSchedule(daemon.getFixedDelay());
+    }
+    throw new IllegalArgumentException("Daemon has neither a cron expression nor a fixed delay");
+  }
+
+  /**
+   * @param lastRunStart start time of the last run in milliseconds since the epoch
+   * @param lastRunEnd end time of the last run in milliseconds since the epoch
+   * @return the start time of the next run in milliseconds since the epoch
+   */
+  public abstract long nextRunStart(long lastRunStart, long lastRunEnd);
+
+  private static class CronRunSchedule extends RunSchedule {
+
+    private final CronSequenceGenerator cronSequenceGenerator;
+    private final String cron;
+
+    private CronRunSchedule(String cron) {
+      this.cron = cron;
+      cronSequenceGenerator = new CronSequenceGenerator(cron, TimeZone.getDefault());
+    }
+
+    /**
+     * The next start time is taken after the end of the last run so that runs that overrun their slot never overlap;
+     * the slots they overran are skipped.
+     */
+    @Override
+    public long nextRunStart(long lastRunStart, long lastRunEnd) {
+      return cronSequenceGenerator.next(new Date(lastRunEnd)).getTime();
+    }
+
+    @Override
+    public String toString() {
+      return "cron '" + cron + "'";
+    }
+  }
+
+  private static class FixedDelayRunSchedule extends RunSchedule {
+
+    private final long fixedDelay;
+
+    private FixedDelayRunSchedule(long fixedDelay) {
+      this.fixedDelay = fixedDelay;
+    }
+
+    @Override
+    public long nextRunStart(long lastRunStart, long lastRunEnd) {
+      return lastRunEnd + fixedDelay;
+    }
+
+    @Override
+    public String toString() {
+      return "fixed delay of " + fixedDelay + "ms";
+    }
+  }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.daemon;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.validation.Validation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.bind.PropertiesConfigurationFactory;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import com.google.common.base.Splitter;
+
+import com.hotels.bdp.circustrain.api.conf.TableReplications;
+
+/**
+ * Re-reads the table replications from the configuration files when these have changed since they were last read.
+ * <p>
+ * Only the table replications are reloaded: catalogs, copier options and the like are wired into the beans that the
+ * daemon keeps warm and changes to them require a restart. Configuration files that cannot be read or that do not
+ * describe valid table replications are reported and the previous table replications are kept.
+ * </p>
+ */
+public class TableReplicationsReloader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TableReplicationsReloader.class);
+
+  private static final String CONFIG_FILE_PROPERTY_SOURCE_PREFIX = "applicationConfig";
+
+  private final ConfigurableEnvironment environment;
+  private final List<File> configFiles = new ArrayList<>();
+  private long lastModified;
+
+  public TableReplicationsReloader(ConfigurableEnvironment environment, String configLocations) {
+    this.environment = environment;
+    if (configLocations != null) {
+      for (String configLocation : Splitter.on(',').trimResults().omitEmptyStrings().split(configLocations)) {
+        configFiles.add(new File(configLocation));
+      }
+    }
+    lastModified = lastModified();
+  }
+
+  /**
+   * @param current the table replications currently in use
+   * @return the table replications in the configuration files if these have changed, {@code current} otherwise
+   */
+  public TableReplications reload(TableReplications current) {
+    long modified = lastModified();
+    if (modified == lastModified) {
+      return current;
+    }
+    lastModified = modified;
+    LOG.info("Configuration files {} have changed, reloading table replications.", configFiles);
+    try {
+      TableReplications reloaded = load();
+      LOG.info("Reloaded {} table replications.", reloaded.getTableReplications().size());
+      return reloaded;
+    } catch (Exception e) {
+      LOG.error("Unable to reload table replications from {}, keeping the previous ones.", configFiles, e);
+      return current;
+    }
+  }
+
+  private TableReplications load() throws Exception {
+    MutablePropertySources propertySources = new MutablePropertySources();
+    for (File configFile : configFiles) {
+      propertySources
+          .addFirst(loaderFor(configFile).load(configFile.getPath(), new FileSystemResource(configFile), null));
+    }
+    // command line arguments, system properties and environment variables still apply, the previously loaded
+    // configuration files don't
+    for (PropertySource<?> propertySource : environment.getPropertySources()) {
+      if (!propertySource.getName().startsWith(CONFIG_FILE_PROPERTY_SOURCE_PREFIX)) {
+        propertySources.addLast(propertySource);
+      }
+    }
+    PropertiesConfigurationFactory<TableReplications> factory = new PropertiesConfigurationFactory<>(
+        TableReplications.class);
+    factory.setPropertySources(propertySources);
+    factory.setValidator(new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator()));
+    factory.bindPropertiesToTarget();
+    return factory.getObject();
+  }
+
+  private static PropertySourceLoader loaderFor(File configFile) {
+    String name = configFile.getName();
+    if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+      return new YamlPropertySourceLoader();
+    }
+    return new PropertiesPropertySourceLoader();
+  }
+
+  private long lastModified() {
+    long modified = 0;
+    for (File configFile : configFiles) {
+      modified = Math.max(modified, configFile.lastModified());
+    }
+    return modified;
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,7 +47,13 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   private EventSourceCatalog sourceCatalog;
   private EventReplicaCatalog replicaCatalog;
-  private ReplicationState replicationState = new ReplicationState();
+  /* Partition keys and counts of the table being replicated by the current thread. */
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
 
   private static class ReplicationState {
     List<String> partitionKeys = Collections.emptyList();
@@ -57,7 +63,7 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    replicationState = new ReplicationState();
+    replicationState.set(new ReplicationState());
     if (sourceCatalog != null && replicaCatalog != null) {
       LOG
           .info("[{}] Attempting to replicate '{}:{}' to '{}:{}'", eventId, sourceCatalog.getName(),
@@ -68,12 +74,13 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   @Override
   public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {
-    String amount = transferAmount(replicationState.partitionKeys, replicationState.partitionsAltered);
+    ReplicationState state = replicationState.get();
+    String amount = transferAmount(state.partitionKeys, state.partitionsAltered);
     if (sourceCatalog != null && replicaCatalog != null) {
       LOG
           .info("[{}] Successfully replicated {} of '{}:{}' to '{}:{}' ({} bytes)", eventId, amount,
               sourceCatalog.getName(), tableReplication.getSourceTable().getQualifiedName(), replicaCatalog.getName(),
-              tableReplication.getQualifiedReplicaName(), replicationState.bytesReplicated);
+              tableReplication.getQualifiedReplicaName(), state.bytesReplicated);
     }
   }
 
@@ -100,22 +107,22 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
 
   @Override
   public void resolvedMetaStoreSourceTable(EventTable table) {
-    replicationState.partitionKeys = table.getPartitionKeys();
+    replicationState.get().partitionKeys = table.getPartitionKeys();
   }
 
   @Override
   public void partitionsToCreate(EventPartitions partitions) {
-    replicationState.partitionsAltered += partitions.getEventPartitions().size();
+    replicationState.get().partitionsAltered += partitions.getEventPartitions().size();
   }
 
   @Override
   public void partitionsToAlter(EventPartitions partitions) {
-    replicationState.partitionsAltered += partitions.getEventPartitions().size();
+    replicationState.get().partitionsAltered += partitions.getEventPartitions().size();
   }
 
   @Override
   public void copierEnd(Metrics metrics) {
-    replicationState.bytesReplicated = metrics.getBytesReplicated();
+    replicationState.get().bytesReplicated = metrics.getBytesReplicated();
   }
 
   @Override
@@ -140,15 +147,15 @@ public class LoggingListener implements TableReplicationListener, LocomotiveList
   public void copierStart(String copierImplementation) {}
 
   List<String> getPartitionKeys() {
-    return Collections.unmodifiableList(replicationState.partitionKeys);
+    return Collections.unmodifiableList(replicationState.get().partitionKeys);
   }
 
   int getPartitionsAltered() {
-    return replicationState.partitionsAltered;
+    return replicationState.get().partitionsAltered;
   }
 
   long getBytesReplicated() {
-    return replicationState.bytesReplicated;
+    return replicationState.get().bytesReplicated;
   }
 
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,9 @@
  */
 package com.hotels.bdp.circustrain.core.event;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,11 +41,21 @@ import com.hotels.bdp.circustrain.api.util.DotJoiner;
 @Component
 class MetricsListener implements TableReplicationListener, CopierListener {
 
-  private final Map<String, Long> startTimes = new HashMap<>();
+  private static class ReplicationState {
+    String qualifiedReplicaName;
+    Metrics metrics;
+    ScheduledReporter runningMetricsReporter;
+  }
+
+  private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+  /* Metrics and running metrics reporter of the table being replicated by the current thread. */
+  private final ThreadLocal<ReplicationState> replicationState = new ThreadLocal<ReplicationState>() {
+    @Override
+    protected ReplicationState initialValue() {
+      return new ReplicationState();
+    }
+  };
   private final MetricSender metricSender;
-  private String qualifiedReplicaName;
-  private Metrics metrics;
-  private ScheduledReporter runningMetricsReporter;
   private final ScheduledReporterFactory runningMetricsReporterFactory;
   private final long metricsReporterPeriod;
   private final TimeUnit metricsReporterTimeUnit;
@@ -64,30 +74,36 @@ class MetricsListener implements TableReplicationListener, CopierListener {
 
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    qualifiedReplicaName = tableReplication.getQualifiedReplicaName();
-    startTimes.put(qualifiedReplicaName, System.currentTimeMillis());
+    ReplicationState state = new ReplicationState();
+    state.qualifiedReplicaName = tableReplication.getQualifiedReplicaName();
+    replicationState.set(state);
+    startTimes.put(state.qualifiedReplicaName, System.currentTimeMillis());
   }
 
   @Override
   public void tableReplicationSuccess(EventTableReplication tableReplication, String eventId) {
+    Metrics metrics = replicationState.get().metrics;
+    replicationState.remove();
     sendMetrics(CompletionCode.SUCCESS, tableReplication.getQualifiedReplicaName(), metrics);
   }
 
   @Override
   public void tableReplicationFailure(EventTableReplication tableReplication, String eventId, Throwable t) {
+    replicationState.remove();
     sendMetrics(CompletionCode.FAILURE, tableReplication.getQualifiedReplicaName(), Metrics.NULL_VALUE);
   }
 
   @Override
   public void copierEnd(Metrics metrics) {
-    if (runningMetricsReporter == null) {
+    ReplicationState state = replicationState.get();
+    if (state.runningMetricsReporter == null) {
       throw new IllegalStateException("Metrics reporter should not be null");
     }
-    runningMetricsReporter.report();
-    runningMetricsReporter.stop();
+    state.runningMetricsReporter.report();
+    state.runningMetricsReporter.stop();
     // once stopped unusable so get rid of it
-    runningMetricsReporter = null;
-    this.metrics = metrics;
+    state.runningMetricsReporter = null;
+    state.metrics = metrics;
   }
 
   private void sendMetrics(CompletionCode completionCode, String target, Metrics metrics) {
@@ -124,9 +140,10 @@ class MetricsListener implements TableReplicationListener, CopierListener {
 
   @Override
   public void copierStart(String copierImplementation) {
-    runningMetricsReporter = runningMetricsReporterFactory.newInstance(qualifiedReplicaName);
-    runningMetricsReporter.start(metricsReporterPeriod, metricsReporterTimeUnit);
-    runningMetricsReporter.report();
+    ReplicationState state = replicationState.get();
+    state.runningMetricsReporter = runningMetricsReporterFactory.newInstance(state.qualifiedReplicaName);
+    state.runningMetricsReporter.start(metricsReporterPeriod, metricsReporterTimeUnit);
+    state.runningMetricsReporter.report();
   }
 
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.metastore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.hotels.bdp.circustrain.api.conf.MetastoreClientPool;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.api.conf.TableReplications;
+
+/**
+ * Works out how many metastore clients the configured table replications may hold at the same time so that a pool
+ * too small to serve them is rejected at startup rather than leaving replications waiting on each other. A table
+ * replication holds one client of each metastore at a time, plus one per batch sent concurrently to the replica
+ * metastore when {@code partition-write-concurrency} is greater than {@code 1}.
+ */
+public final class MetastoreClientPoolSizing {
+
+  private MetastoreClientPoolSizing() {}
+
+  public static int sourceClientsRequired(TableReplications tableReplications) {
+    return concurrentTableReplications(tableReplications);
+  }
+
+  public static int replicaClientsRequired(TableReplications tableReplications) {
+    int concurrentTableReplications = concurrentTableReplications(tableReplications);
+    if (concurrentTableReplications == 0) {
+      return 0;
+    }
+    List<Integer> clientsPerReplication = new ArrayList<>();
+    for (TableReplication tableReplication : tableReplications.getTableReplications()) {
+      int partitionWriteConcurrency = tableReplication.getPartitionWriteConcurrency();
+      clientsPerReplication.add(partitionWriteConcurrency > 1 ? 1 + partitionWriteConcurrency : 1);
+    }
+    Collections.sort(clientsPerReplication, Collections.reverseOrder());
+    int required = 0;
+    for (int clients : clientsPerReplication.subList(0, concurrentTableReplications)) {
+      required += clients;
+    }
+    return required;
+  }
+
+  /**
+   * @throws IllegalStateException if the pool is enabled and cannot hand out {@code clientsRequired} clients at once
+   */
+  public static void checkMaxTotal(String name, MetastoreClientPool metastoreClientPool, int clientsRequired) {
+    if (metastoreClientPool.isEnabled() && metastoreClientPool.getMaxTotal() < clientsRequired) {
+      throw new IllegalStateException("Metastore client pool of "
+          + name
+          + " allows "
+          + metastoreClientPool.getMaxTotal()
+          + " clients but the table replications may use up to "
+          + clientsRequired
+          + " at the same time given their table-replication-concurrency and partition-write-concurrency: set "
+          + "metastore-client-pool.max-total to at least "
+          + clientsRequired);
+    }
+  }
+
+  private static int concurrentTableReplications(TableReplications tableReplications) {
+    List<TableReplication> replications = tableReplications.getTableReplications();
+    if (replications == null || replications.isEmpty()) {
+      return 0;
+    }
+    return Math.min(Math.max(1, tableReplications.getTableReplicationConcurrency()), replications.size());
+  }
+
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.metastore;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.thrift.TApplicationException;
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.api.conf.MetastoreClientPool;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
+
+/**
+ * Keeps the clients created by another supplier open and hands them out again, so that the cost of opening a
+ * connection (and possibly an SSH tunnel) to the metastore is paid once rather than on every call. Closing a client
+ * obtained from this supplier returns it to the pool; clients that failed with a connection error are discarded
+ * instead.
+ */
+public class PooledMetaStoreClientSupplier implements Supplier<CloseableMetaStoreClient>, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PooledMetaStoreClientSupplier.class);
+
+  private final String name;
+  private final Supplier<CloseableMetaStoreClient> delegate;
+  private final int minIdle;
+  private final long maxWaitMillis;
+  private final long idleTimeoutNanos;
+  private final boolean testOnBorrow;
+  private final Ticker ticker;
+  private final Semaphore permits;
+  private final Deque<IdleClient> idleClients = new LinkedList<>();
+  private final ScheduledExecutorService evictor;
+  private volatile boolean closed = false;
+
+  public PooledMetaStoreClientSupplier(
+      String name,
+      Supplier<CloseableMetaStoreClient> delegate,
+      MetastoreClientPool metastoreClientPool) {
+    this(name, delegate, metastoreClientPool, Ticker.systemTicker(), true);
+  }
+
+  @VisibleForTesting
+  PooledMetaStoreClientSupplier(
+      String name,
+      Supplier<CloseableMetaStoreClient> delegate,
+      MetastoreClientPool metastoreClientPool,
+      Ticker ticker,
+      boolean scheduleEviction) {
+    this.name = name;
+    this.delegate = delegate;
+    this.ticker = ticker;
+    minIdle = metastoreClientPool.getMinIdle();
+    maxWaitMillis = metastoreClientPool.getMaxWaitMillis();
+    idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(metastoreClientPool.getIdleTimeoutMillis());
+    testOnBorrow = metastoreClientPool.isTestOnBorrow();
+    permits = new Semaphore(metastoreClientPool.getMaxTotal(), true);
+    if (scheduleEviction && idleTimeoutNanos > 0) {
+      evictor = Executors
+          .newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder().setNameFormat("metastore-client-evictor-" + name).setDaemon(true).build());
+      long period = metastoreClientPool.getIdleTimeoutMillis();
+      evictor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          evictIdleClients();
+        }
+      }, period, period, TimeUnit.MILLISECONDS);
+    } else {
+      evictor = null;
+    }
+  }
+
+  @Override
+  public CloseableMetaStoreClient get() {
+    if (closed) {
+      throw new IllegalStateException("Metastore client pool " + name + " has been closed");
+    }
+    acquirePermit();
+    try {
+      CloseableMetaStoreClient client = pollIdleClient();
+      if (client == null) {
+        LOG.debug("Opening new metastore client for {}", name);
+        client = delegate.get();
+      }
+      return (CloseableMetaStoreClient) Proxy
+          .newProxyInstance(CloseableMetaStoreClient.class.getClassLoader(),
+              new Class<?>[] { CloseableMetaStoreClient.class }, new PooledClientInvocationHandler(client));
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Closes all idle clients. Clients that are still borrowed are closed when they are returned.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    if (evictor != null) {
+      evictor.shutdownNow();
+    }
+    List<CloseableMetaStoreClient> toClose = new ArrayList<>();
+    synchronized (idleClients) {
+      for (IdleClient idleClient : idleClients) {
+        toClose.add(idleClient.client);
+      }
+      idleClients.clear();
+    }
+    for (CloseableMetaStoreClient client : toClose) {
+      closeQuietly(client);
+    }
+  }
+
+  @VisibleForTesting
+  int getIdleCount() {
+    synchronized (idleClients) {
+      return idleClients.size();
+    }
+  }
+
+  /**
+   * Closes the clients that have been idle for longer than the idle timeout, keeping at least {@code minIdle} of them.
+   */
+  @VisibleForTesting
+  void evictIdleClients() {
+    List<CloseableMetaStoreClient> toClose = new ArrayList<>();
+    long now = ticker.read();
+    synchronized (idleClients) {
+      // Clients are returned to the head of the deque so the tail holds the ones that have been idle the longest
+      Iterator<IdleClient> iterator = idleClients.descendingIterator();
+      while (iterator.hasNext() && idleClients.size() > minIdle) {
+        IdleClient idleClient = iterator.next();
+        if (now - idleClient.idleSince < idleTimeoutNanos) {
+          break;
+        }
+        iterator.remove();
+        toClose.add(idleClient.client);
+      }
+    }
+    if (!toClose.isEmpty()) {
+      LOG.debug("Evicting {} idle metastore clients of {}", toClose.size(), name);
+    }
+    for (CloseableMetaStoreClient client : toClose) {
+      closeQuietly(client);
+    }
+  }
+
+  private void acquirePermit() {
+    try {
+      if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+        throw new MetaStoreClientException(
+            "Timed out after " + maxWaitMillis + "ms waiting for a metastore client of " + name);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MetaStoreClientException("Interrupted while waiting for a metastore client of " + name, e);
+    }
+  }
+
+  private CloseableMetaStoreClient pollIdleClient() {
+    while (true) {
+      IdleClient idleClient;
+      synchronized (idleClients) {
+        idleClient = idleClients.pollFirst();
+      }
+      if (idleClient == null) {
+        return null;
+      }
+      if (!testOnBorrow || isHealthy(idleClient.client)) {
+        return idleClient.client;
+      }
+      LOG.debug("Discarding unhealthy metastore client of {}", name);
+      closeQuietly(idleClient.client);
+    }
+  }
+
+  private boolean isHealthy(CloseableMetaStoreClient client) {
+    try {
+      client.getAllDatabases();
+      return true;
+    } catch (Exception e) {
+      LOG.debug("Metastore client of {} failed health check", name, e);
+      return false;
+    }
+  }
+
+  private void release(CloseableMetaStoreClient client, boolean broken) {
+    try {
+      if (broken || closed) {
+        closeQuietly(client);
+      } else {
+        synchronized (idleClients) {
+          idleClients.addFirst(new IdleClient(client, ticker.read()));
+        }
+        if (closed) {
+          // The pool was closed while the client was being returned
+          close();
+        }
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void closeQuietly(CloseableMetaStoreClient client) {
+    try {
+      client.close();
+    } catch (RuntimeException e) {
+      LOG.warn("Unable to close metastore client of {}", name, e);
+    }
+  }
+
+  /**
+   * A client is only reused if the failure left the Thrift connection in a known state, i.e. the metastore returned a
+   * regular exception.
+   */
+  private static boolean isConnectionFailure(Throwable t) {
+    if (!(t instanceof TException)) {
+      return true;
+    }
+    for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+      if (cause instanceof TTransportException || cause instanceof TApplicationException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static class IdleClient {
+    private final CloseableMetaStoreClient client;
+    private final long idleSince;
+
+    private IdleClient(CloseableMetaStoreClient client, long idleSince) {
+      this.client = client;
+      this.idleSince = idleSince;
+    }
+  }
+
+  private class PooledClientInvocationHandler implements InvocationHandler {
+
+    private final CloseableMetaStoreClient client;
+    private boolean broken = false;
+    private boolean released = false;
+
+    private PooledClientInvocationHandler(CloseableMetaStoreClient client) {
+      this.client = client;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if ("close".equals(method.getName()) && method.getParameterTypes().length == 0) {
+        if (!released) {
+          released = true;
+          release(client, broken);
+        }
+        return null;
+      }
+      if (released) {
+        throw new IllegalStateException("Metastore client of " + name + " has already been returned to the pool");
+      }
+      try {
+        return method.invoke(client, args);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (isConnectionFailure(cause)) {
+          broken = true;
+        }
+        throw cause;
+      }
+    }
+  }
+
+}
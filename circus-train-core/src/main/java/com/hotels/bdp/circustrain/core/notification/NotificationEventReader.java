@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.messaging.AlterPartitionMessage;
+import org.apache.hadoop.hive.metastore.messaging.AlterTableMessage;
+import org.apache.hadoop.hive.metastore.messaging.MessageDeserializer;
+import org.apache.hadoop.hive.metastore.messaging.MessageFactory;
+import org.apache.hadoop.hive.metastore.messaging.json.JSONMessageDeserializer;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the notification log of a metastore, as written by {@code DbNotificationListener}, and works out which
+ * partitions of a table changed between two event ids.
+ */
+public class NotificationEventReader {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NotificationEventReader.class);
+
+  private static final String JSON_MESSAGE_FORMAT_PREFIX = "json";
+
+  private final MessageDeserializer deserializer = new JSONMessageDeserializer();
+  private final int batchSize;
+
+  public NotificationEventReader(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * @param fromEventId id of the last event already processed, exclusive
+   * @param toEventId id of the last event to process, inclusive
+   */
+  public TableChanges read(IMetaStoreClient client, Table table, long fromEventId, long toEventId)
+    throws TException {
+    TableChanges changes = new TableChanges();
+    changes.setLastEventId(fromEventId);
+    if (fromEventId > toEventId) {
+      changes
+          .requireFullReplication("Last processed event "
+              + fromEventId
+              + " is ahead of the current event "
+              + toEventId
+              + " of the metastore");
+      return changes;
+    }
+    long lastEventId = fromEventId;
+    while (lastEventId < toEventId) {
+      // Events are filtered here rather than by the client so that empty pages mean the end of the log
+      NotificationEventResponse response = client.getNextNotification(lastEventId, batchSize, null);
+      List<NotificationEvent> events = response.getEvents();
+      if (events == null || events.isEmpty()) {
+        break;
+      }
+      for (NotificationEvent event : events) {
+        if (lastEventId == fromEventId && event.getEventId() > fromEventId + 1) {
+          changes
+              .requireFullReplication("Events "
+                  + (fromEventId + 1)
+                  + " to "
+                  + (event.getEventId() - 1)
+                  + " are no longer in the notification log");
+          return changes;
+        }
+        if (event.getEventId() > toEventId) {
+          lastEventId = toEventId;
+          break;
+        }
+        lastEventId = event.getEventId();
+        if (isForTable(event, table)) {
+          apply(event, table, changes);
+          if (changes.isFullReplicationRequired()) {
+            changes.setLastEventId(lastEventId);
+            return changes;
+          }
+        }
+      }
+      changes.setLastEventId(lastEventId);
+    }
+    LOG
+        .debug("Read notification events {} to {} for table {}.{}", fromEventId, lastEventId, table.getDbName(),
+            table.getTableName());
+    return changes;
+  }
+
+  private static boolean isForTable(NotificationEvent event, Table table) {
+    if (!table.getDbName().equalsIgnoreCase(event.getDbName())) {
+      return false;
+    }
+    // Database events have no table name
+    return event.getTableName() == null || table.getTableName().equalsIgnoreCase(event.getTableName());
+  }
+
+  private void apply(NotificationEvent event, Table table, TableChanges changes) {
+    String format = event.getMessageFormat();
+    if (format != null && !format.startsWith(JSON_MESSAGE_FORMAT_PREFIX)) {
+      changes.requireFullReplication("Unsupported message format " + format + " of event " + event.getEventId());
+      return;
+    }
+    String message = event.getMessage();
+    try {
+      switch (event.getEventType()) {
+      case MessageFactory.ADD_PARTITION_EVENT:
+        for (Map<String, String> keyValues : deserializer.getAddPartitionMessage(message).getPartitions()) {
+          partitionChanged(event, table, keyValues, changes);
+        }
+        break;
+      case MessageFactory.ALTER_PARTITION_EVENT:
+        AlterPartitionMessage alterPartitionMessage = deserializer.getAlterPartitionMessage(message);
+        List<String> before = partitionValues(table, alterPartitionMessage.getKeyValues());
+        Partition after = alterPartitionMessage.getPtnObjAfter();
+        if (before != null && after != null && !before.equals(after.getValues())) {
+          // A renamed partition no longer exists under its previous values
+          changes.partitionDropped(before);
+          changes.partitionChanged(after.getValues());
+        } else {
+          partitionChanged(event, table, alterPartitionMessage.getKeyValues(), changes);
+        }
+        break;
+      case MessageFactory.DROP_PARTITION_EVENT:
+        for (Map<String, String> keyValues : deserializer.getDropPartitionMessage(message).getPartitions()) {
+          List<String> values = partitionValues(table, keyValues);
+          if (values == null) {
+            changes.requireFullReplication("Unknown partition " + keyValues + " in event " + event.getEventId());
+          } else {
+            changes.partitionDropped(values);
+          }
+        }
+        break;
+      case MessageFactory.INSERT_EVENT:
+        partitionChanged(event, table, deserializer.getInsertMessage(message).getPartitionKeyValues(), changes);
+        break;
+      case MessageFactory.ALTER_TABLE_EVENT:
+        AlterTableMessage alterTableMessage = deserializer.getAlterTableMessage(message);
+        if (!isOnlyParameterChange(alterTableMessage.getTableObjBefore(), alterTableMessage.getTableObjAfter())) {
+          changes.requireFullReplication("Table was altered by event " + event.getEventId());
+        }
+        break;
+      case MessageFactory.CREATE_TABLE_EVENT:
+      case MessageFactory.DROP_TABLE_EVENT:
+      case MessageFactory.DROP_DATABASE_EVENT:
+        changes.requireFullReplication("Event " + event.getEventId() + " of type " + event.getEventType());
+        break;
+      default:
+        break;
+      }
+    } catch (Exception e) {
+      LOG.warn("Unable to read notification event {}", event.getEventId(), e);
+      changes.requireFullReplication("Unreadable event " + event.getEventId() + ": " + e.getMessage());
+    }
+  }
+
+  private static void partitionChanged(
+      NotificationEvent event,
+      Table table,
+      Map<String, String> keyValues,
+      TableChanges changes) {
+    List<String> values = partitionValues(table, keyValues);
+    if (values == null) {
+      changes.requireFullReplication("Unknown partition " + keyValues + " in event " + event.getEventId());
+    } else {
+      changes.partitionChanged(values);
+    }
+  }
+
+  private static List<String> partitionValues(Table table, Map<String, String> keyValues) {
+    List<FieldSchema> partitionKeys = table.getPartitionKeys();
+    if (keyValues == null || partitionKeys == null || partitionKeys.isEmpty()) {
+      return null;
+    }
+    List<String> values = new ArrayList<>(partitionKeys.size());
+    for (FieldSchema partitionKey : partitionKeys) {
+      String value = keyValues.get(partitionKey.getName());
+      if (value == null) {
+        return null;
+      }
+      values.add(value);
+    }
+    return values;
+  }
+
+  private static boolean isOnlyParameterChange(Table before, Table after) {
+    return before != null
+        && after != null
+        && before.getTableName().equalsIgnoreCase(after.getTableName())
+        && before.getDbName().equalsIgnoreCase(after.getDbName())
+        && Objects.equals(before.getSd(), after.getSd())
+        && Objects.equals(before.getPartitionKeys(), after.getPartitionKeys());
+  }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.notification;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The partitions of a table that changed according to the source metastore notification log.
+ */
+public class TableChanges {
+
+  private final Set<List<String>> changedPartitions = new LinkedHashSet<>();
+  private final Set<List<String>> droppedPartitions = new LinkedHashSet<>();
+  private String fullReplicationReason;
+  private long lastEventId;
+
+  void partitionChanged(List<String> partitionValues) {
+    droppedPartitions.remove(partitionValues);
+    changedPartitions.add(partitionValues);
+  }
+
+  void partitionDropped(List<String> partitionValues) {
+    changedPartitions.remove(partitionValues);
+    droppedPartitions.add(partitionValues);
+  }
+
+  void requireFullReplication(String reason) {
+    if (fullReplicationReason == null) {
+      fullReplicationReason = reason;
+    }
+  }
+
+  void setLastEventId(long lastEventId) {
+    this.lastEventId = lastEventId;
+  }
+
+  /**
+   * @return values of the partitions that were added or altered, and still exist as far as the log tells.
+   */
+  public Set<List<String>> getChangedPartitions() {
+    return Collections.unmodifiableSet(changedPartitions);
+  }
+
+  /**
+   * @return values of the partitions that were dropped, or renamed to other values, and not added again.
+   */
+  public Set<List<String>> getDroppedPartitions() {
+    return Collections.unmodifiableSet(droppedPartitions);
+  }
+
+  /**
+   * @return whether the changes cannot be worked out from the log, e.g. the table was recreated or the events are no
+   *         longer available, and all partitions must be considered.
+   */
+  public boolean isFullReplicationRequired() {
+    return fullReplicationReason != null;
+  }
+
+  public String getFullReplicationReason() {
+    return fullReplicationReason;
+  }
+
+  /**
+   * @return id of the last event read from the log.
+   */
+  public long getLastEventId() {
+    return lastEventId;
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.plan;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Strings;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.api.conf.TableReplications;
+
+/**
+ * Runs instead of the replication when Circus Train is started with {@code --plan}: every configured table
+ * replication is {@link ReplicationPlanner planned} and the resulting {@link ReplicationPlan} is written as JSON to
+ * the file given with {@code --plan-output}, {@value #DEFAULT_PLAN_OUTPUT} in the working directory by default. The
+ * plan is never printed to the standard output, where it would be interleaved with the logs. Nothing is copied or
+ * written to the replica.
+ */
+@Profile({ Modules.REPLICATION })
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(PlanRunner.PLAN_PROPERTY)
+class PlanRunner implements ApplicationRunner, ExitCodeGenerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PlanRunner.class);
+
+  static final String PLAN_PROPERTY = "plan";
+  static final String DEFAULT_PLAN_OUTPUT = "circus-train-plan.json";
+
+  private final List<TableReplication> tableReplications;
+  private final ReplicationPlanner replicationPlanner;
+  private final String planOutput;
+  private int exitCode;
+
+  @Autowired
+  PlanRunner(
+      TableReplications tableReplications,
+      ReplicationPlanner replicationPlanner,
+      @Value("${plan-output:}") String planOutput) {
+    this.tableReplications = tableReplications.getTableReplications();
+    this.replicationPlanner = replicationPlanner;
+    this.planOutput = Strings.isNullOrEmpty(planOutput) ? DEFAULT_PLAN_OUTPUT : planOutput;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    LOG.info("Planning {} table replications.", tableReplications.size());
+    ReplicationPlan replicationPlan = new ReplicationPlan();
+    for (TableReplication tableReplication : tableReplications) {
+      replicationPlan.add(plan(tableReplication));
+    }
+    write(replicationPlan);
+
+    if (replicationPlan.getFailures() == tableReplications.size()) {
+      exitCode = -1;
+    } else if (replicationPlan.getFailures() > 0) {
+      exitCode = -2;
+    } else {
+      exitCode = 0;
+    }
+  }
+
+  private TablePlan plan(TableReplication tableReplication) {
+    try {
+      return replicationPlanner.plan(tableReplication);
+    } catch (Throwable t) {
+      LOG.error("Failed to plan replication of {}.", tableReplication.getSourceTable().getQualifiedName(), t);
+      TablePlan failed = new TablePlan();
+      failed.setSourceTable(tableReplication.getSourceTable().getQualifiedName());
+      failed.setReplicaTable(tableReplication.getQualifiedReplicaName());
+      failed.setReplicationMode(tableReplication.getReplicationMode().name());
+      failed.setError(String.valueOf(t.getMessage()));
+      return failed;
+    }
+  }
+
+  private void write(ReplicationPlan replicationPlan) {
+    ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
+    File planFile = new File(planOutput).getAbsoluteFile();
+    try {
+      writer.writeValue(planFile, replicationPlan);
+      LOG.info("Plan written to {}.", planFile);
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to write plan", e);
+    }
+  }
+
+  @Override
+  public int getExitCode() {
+    return exitCode;
+  }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link TablePlan plans} of all configured table replications and their totals.
+ */
+public class ReplicationPlan {
+
+  private final List<TablePlan> tables = new ArrayList<>();
+  private long partitionCount;
+  private long fileCount;
+  private long totalBytes;
+  private long estimatedMetastoreReads;
+  private long estimatedMetastoreWrites;
+  private int failures;
+
+  void add(TablePlan tablePlan) {
+    tables.add(tablePlan);
+    partitionCount += tablePlan.getPartitionCount();
+    fileCount += tablePlan.getFileCount();
+    totalBytes += tablePlan.getTotalBytes();
+    estimatedMetastoreReads += tablePlan.getEstimatedMetastoreReads();
+    estimatedMetastoreWrites += tablePlan.getEstimatedMetastoreWrites();
+    if (tablePlan.getError() != null) {
+      failures++;
+    }
+  }
+
+  public List<TablePlan> getTables() {
+    return tables;
+  }
+
+  public long getPartitionCount() {
+    return partitionCount;
+  }
+
+  public long getFileCount() {
+    return fileCount;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  public long getEstimatedMetastoreReads() {
+    return estimatedMetastoreReads;
+  }
+
+  public long getEstimatedMetastoreWrites() {
+    return estimatedMetastoreWrites;
+  }
+
+  /**
+   * @return the number of tables that could not be planned
+   */
+  public int getFailures() {
+    return failures;
+  }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.plan;
+
+import static com.hotels.bdp.circustrain.api.conf.ReplicationMode.FULL;
+import static com.hotels.bdp.circustrain.api.conf.ReplicationMode.FULL_OVERWRITE;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.MetaStoreUtils;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.api.copier.CopierFactory;
+import com.hotels.bdp.circustrain.api.copier.CopierFactoryManager;
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
+import com.hotels.bdp.circustrain.core.PartitionPredicate;
+import com.hotels.bdp.circustrain.core.PartitionPredicateFactory;
+import com.hotels.bdp.circustrain.core.source.Source;
+import com.hotels.bdp.circustrain.core.source.SourceFactory;
+
+/**
+ * Works out what replicating a table would involve without copying or writing anything: partitions are selected with
+ * the same {@link PartitionPredicate} and source locations resolved with the same {@link SourceLocationManager} as a
+ * replication would, but HDFS snapshots are never created.
+ */
+@Profile({ Modules.REPLICATION })
+@Component
+public class ReplicationPlanner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReplicationPlanner.class);
+
+  private static final String EVENT_ID = "plan";
+  // get_table and get_table_column_statistics
+  private static final long TABLE_READS = 2L;
+  // create_table or alter_table and update_table_column_statistics
+  private static final long TABLE_WRITES = 2L;
+
+  private final SourceFactory sourceFactory;
+  private final PartitionPredicateFactory partitionPredicateFactory;
+  private final CopierFactoryManager copierFactoryManager;
+  private final CopierOptions copierOptions;
+
+  @Autowired
+  public ReplicationPlanner(
+      SourceFactory sourceFactory,
+      PartitionPredicateFactory partitionPredicateFactory,
+      CopierFactoryManager copierFactoryManager,
+      CopierOptions copierOptions) {
+    this.sourceFactory = sourceFactory;
+    this.partitionPredicateFactory = partitionPredicateFactory;
+    this.copierFactoryManager = copierFactoryManager;
+    this.copierOptions = copierOptions;
+  }
+
+  public TablePlan plan(TableReplication tableReplication) throws TException, IOException {
+    TablePlan plan = new TablePlan();
+    plan.setSourceTable(tableReplication.getSourceTable().getQualifiedName());
+    plan.setReplicaTable(tableReplication.getQualifiedReplicaName());
+    plan.setReplicationMode(tableReplication.getReplicationMode().name());
+
+    Source source = sourceFactory.newReadOnlyInstance(tableReplication);
+    Table sourceTable = source.getTableAndStatistics(tableReplication).getTable();
+    boolean copiesData = (tableReplication.getReplicationMode() == FULL
+        || tableReplication.getReplicationMode() == FULL_OVERWRITE) && !MetaStoreUtils.isView(sourceTable);
+    Map<String, Object> mergedCopierOptions = tableReplication
+        .getMergedCopierOptions(copierOptions.getCopierOptions());
+
+    if (sourceTable.getPartitionKeysSize() > 0) {
+      planPartitioned(plan, tableReplication, source, sourceTable, copiesData, mergedCopierOptions);
+    } else {
+      plan.setEstimatedMetastoreReads(TABLE_READS + 1);
+      plan.setEstimatedMetastoreWrites(TABLE_WRITES);
+      if (copiesData) {
+        SourceLocationManager sourceLocationManager = source.getLocationManager(sourceTable, EVENT_ID);
+        planCopy(plan, tableReplication, source.getHiveConf(), sourceLocationManager.getTableLocation(),
+            Collections.singletonList(sourceLocationManager.getTableLocation()), mergedCopierOptions);
+      }
+    }
+    LOG
+        .info("Planned replication of {}: {} partitions, {} files, {} bytes", plan.getSourceTable(),
+            plan.getPartitionCount(), plan.getFileCount(), plan.getTotalBytes());
+    return plan;
+  }
+
+  private void planPartitioned(
+      TablePlan plan,
+      TableReplication tableReplication,
+      Source source,
+      Table sourceTable,
+      boolean copiesData,
+      Map<String, Object> mergedCopierOptions)
+    throws TException, IOException {
+    PartitionPredicate partitionPredicate = partitionPredicateFactory.newInstance(tableReplication);
+    String partitionFilter = partitionPredicate.getPartitionPredicate();
+    int pageSize = tableReplication.getPartitionIteratorBatchSize();
+    List<Partition> partitions = source
+        .listPartitions(sourceTable, partitionPredicate.getPartitionSelection(),
+            partitionPredicate.getPartitionPredicateLimit(), pageSize);
+    plan.setPartitioned(true);
+    plan.setPartitionFilter(partitionFilter);
+    plan.setPartitionCount(partitions.size());
+
+    long pages = batches(partitions.size(), pageSize);
+    long writeBatches = batches(partitions.size(), tableReplication.getPartitionWriteBatchSize());
+    // source: partitions listed by filter, or names listed and partitions fetched by name, and their statistics
+    // replica: table and existing partitions
+    long sourcePartitionReads = partitionFilter == null || partitionFilter.isEmpty() ? 1 + pages : 1;
+    plan.setEstimatedMetastoreReads(TABLE_READS + sourcePartitionReads + pages + 1 + pages);
+    // partitions added or altered and their statistics
+    plan.setEstimatedMetastoreWrites(TABLE_WRITES + 2 * writeBatches);
+
+    if (copiesData && !partitions.isEmpty()) {
+      SourceLocationManager sourceLocationManager = source
+          .getLocationManager(sourceTable, partitions, EVENT_ID, mergedCopierOptions);
+      planCopy(plan, tableReplication, source.getHiveConf(), sourceLocationManager.getTableLocation(),
+          sourceLocationManager.getPartitionLocations(), mergedCopierOptions);
+    }
+  }
+
+  private void planCopy(
+      TablePlan plan,
+      TableReplication tableReplication,
+      Configuration conf,
+      Path sourceBaseLocation,
+      List<Path> sourceLocations,
+      Map<String, Object> mergedCopierOptions)
+    throws IOException {
+    for (Path location : sourceLocations) {
+      try {
+        ContentSummary contentSummary = location.getFileSystem(conf).getContentSummary(location);
+        plan.setFileCount(plan.getFileCount() + contentSummary.getFileCount());
+        plan.setTotalBytes(plan.getTotalBytes() + contentSummary.getLength());
+      } catch (FileNotFoundException e) {
+        LOG.warn("Source location {} does not exist", location);
+        plan.setMissingLocationCount(plan.getMissingLocationCount() + 1);
+      }
+    }
+    plan.setLocationCount(sourceLocations.size());
+    Path replicaLocation = new Path(tableReplication.getReplicaTable().getTableLocation());
+    CopierFactory copierFactory = copierFactoryManager
+        .getCopierFactory(sourceBaseLocation, replicaLocation, mergedCopierOptions);
+    plan.setCopierFactory(copierFactory.getClass().getName());
+  }
+
+  private static long batches(long count, int batchSize) {
+    long size = Math.max(1, batchSize);
+    return (count + size - 1) / size;
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.plan;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * What replicating one table would involve. Metastore calls are estimated from the partition count and the configured
+ * page and batch sizes, they do not account for retries or smaller batches.
+ */
+@JsonInclude(Include.NON_NULL)
+public class TablePlan {
+
+  private String sourceTable;
+  private String replicaTable;
+  private String replicationMode;
+  private boolean partitioned;
+  private String partitionFilter;
+  private long partitionCount;
+  private long locationCount;
+  private long missingLocationCount;
+  private long fileCount;
+  private long totalBytes;
+  private String copierFactory;
+  private long estimatedMetastoreReads;
+  private long estimatedMetastoreWrites;
+  private String error;
+
+  public String getSourceTable() {
+    return sourceTable;
+  }
+
+  public void setSourceTable(String sourceTable) {
+    this.sourceTable = sourceTable;
+  }
+
+  public String getReplicaTable() {
+    return replicaTable;
+  }
+
+  public void setReplicaTable(String replicaTable) {
+    this.replicaTable = replicaTable;
+  }
+
+  public String getReplicationMode() {
+    return replicationMode;
+  }
+
+  public void setReplicationMode(String replicationMode) {
+    this.replicationMode = replicationMode;
+  }
+
+  public boolean isPartitioned() {
+    return partitioned;
+  }
+
+  public void setPartitioned(boolean partitioned) {
+    this.partitioned = partitioned;
+  }
+
+  /**
+   * @return the filter the partitions to replicate are selected with, {@code null} if all partitions are selected
+   */
+  public String getPartitionFilter() {
+    return partitionFilter;
+  }
+
+  public void setPartitionFilter(String partitionFilter) {
+    this.partitionFilter = partitionFilter;
+  }
+
+  public long getPartitionCount() {
+    return partitionCount;
+  }
+
+  public void setPartitionCount(long partitionCount) {
+    this.partitionCount = partitionCount;
+  }
+
+  /**
+   * @return the number of source locations, the table location or one per partition, whose data would be copied
+   */
+  public long getLocationCount() {
+    return locationCount;
+  }
+
+  public void setLocationCount(long locationCount) {
+    this.locationCount = locationCount;
+  }
+
+  public long getMissingLocationCount() {
+    return missingLocationCount;
+  }
+
+  public void setMissingLocationCount(long missingLocationCount) {
+    this.missingLocationCount = missingLocationCount;
+  }
+
+  public long getFileCount() {
+    return fileCount;
+  }
+
+  public void setFileCount(long fileCount) {
+    this.fileCount = fileCount;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  public void setTotalBytes(long totalBytes) {
+    this.totalBytes = totalBytes;
+  }
+
+  /**
+   * @return the class name of the {@code CopierFactory} that would copy the data, {@code null} if no data would be
+   *         copied
+   */
+  public String getCopierFactory() {
+    return copierFactory;
+  }
+
+  public void setCopierFactory(String copierFactory) {
+    this.copierFactory = copierFactory;
+  }
+
+  public long getEstimatedMetastoreReads() {
+    return estimatedMetastoreReads;
+  }
+
+  public void setEstimatedMetastoreReads(long estimatedMetastoreReads) {
+    this.estimatedMetastoreReads = estimatedMetastoreReads;
+  }
+
+  public long getEstimatedMetastoreWrites() {
+    return estimatedMetastoreWrites;
+  }
+
+  public void setEstimatedMetastoreWrites(long estimatedMetastoreWrites) {
+    this.estimatedMetastoreWrites = estimatedMetastoreWrites;
+  }
+
+  /**
+   * @return why the table could not be planned, {@code null} if it was planned
+   */
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+}
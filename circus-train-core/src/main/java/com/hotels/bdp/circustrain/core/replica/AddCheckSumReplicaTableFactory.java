@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,10 +52,14 @@ public class AddCheckSumReplicaTableFactory extends ReplicaTableFactory {
       String replicaDatabaseName,
       String replicaTableName,
       Path replicaPartitionLocation,
-      ReplicationMode replicationMode) {
+      ReplicationMode replicationMode,
+      String sourcePartitionChecksum) {
     Partition replica = super.newReplicaPartition(eventId, sourceTable, sourcePartition, replicaDatabaseName,
-        replicaTableName, replicaPartitionLocation, replicationMode);
-    String checksum = checksumFunction.apply(locationAsPath(sourcePartition));
+        replicaTableName, replicaPartitionLocation, replicationMode, sourcePartitionChecksum);
+    String checksum = sourcePartitionChecksum;
+    if (checksum == null) {
+      checksum = checksumFunction.apply(locationAsPath(sourcePartition));
+    }
     replica.putToParameters(PARTITION_CHECKSUM.parameterName(), checksum);
     return replica;
   }
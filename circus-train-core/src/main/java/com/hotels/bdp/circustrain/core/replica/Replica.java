@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,9 +27,11 @@ import static com.hotels.hcommon.hive.metastore.util.LocationUtils.locationAsPat
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.fs.Path;
@@ -37,16 +39,17 @@ import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
 import org.apache.hadoop.hive.metastore.api.Partition;
-import org.apache.hadoop.hive.metastore.api.SetPartitionsStatsRequest;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Enums;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
@@ -61,8 +64,10 @@ import com.hotels.bdp.circustrain.api.listener.HousekeepingListener;
 import com.hotels.bdp.circustrain.core.HiveEndpoint;
 import com.hotels.bdp.circustrain.core.PartitionsAndStatistics;
 import com.hotels.bdp.circustrain.core.TableAndStatistics;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
 import com.hotels.bdp.circustrain.core.event.EventUtils;
 import com.hotels.bdp.circustrain.core.replica.hive.AlterTableService;
+import com.hotels.bdp.circustrain.core.replica.hive.BatchedPartitionWriter;
 import com.hotels.bdp.circustrain.core.replica.hive.DropTableService;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
@@ -72,13 +77,15 @@ public class Replica extends HiveEndpoint {
 
   private static final Logger LOG = LoggerFactory.getLogger(Replica.class);
 
+  private static final int EXISTING_PARTITIONS_PAGE_SIZE = 1000;
+
   private final ReplicaTableFactory tableFactory;
   private final HousekeepingListener housekeepingListener;
   private final ReplicaCatalogListener replicaCatalogListener;
   private final ReplicationMode replicationMode;
   private final TableReplication tableReplication;
   private final AlterTableService alterTableService;
-  private int partitionBatchSize = 1000;
+  private final BatchedPartitionWriter partitionWriter;
 
   /**
    * Use {@link ReplicaFactory}
@@ -91,14 +98,17 @@ public class Replica extends HiveEndpoint {
       HousekeepingListener housekeepingListener,
       ReplicaCatalogListener replicaCatalogListener,
       TableReplication tableReplication,
-      AlterTableService alterTableService) {
-    super(replicaCatalog.getName(), replicaHiveConf, replicaMetaStoreClientSupplier);
+      AlterTableService alterTableService,
+      BatchedPartitionWriter partitionWriter,
+      TableMetadataCache tableMetadataCache) {
+    super(replicaCatalog.getName(), replicaHiveConf, replicaMetaStoreClientSupplier, tableMetadataCache);
     this.replicaCatalogListener = replicaCatalogListener;
     tableFactory = replicaTableFactory;
     this.housekeepingListener = housekeepingListener;
     replicationMode = tableReplication.getReplicationMode();
     this.tableReplication = tableReplication;
     this.alterTableService = alterTableService;
+    this.partitionWriter = partitionWriter;
   }
 
   /**
@@ -115,14 +125,10 @@ public class Replica extends HiveEndpoint {
       TableReplication tableReplication,
       AlterTableService alterTableService,
       int partitionBatchSize) {
-    super(replicaCatalog.getName(), replicaHiveConf, replicaMetaStoreClientSupplier);
-    this.replicaCatalogListener = replicaCatalogListener;
-    tableFactory = replicaTableFactory;
-    this.housekeepingListener = housekeepingListener;
-    replicationMode = tableReplication.getReplicationMode();
-    this.tableReplication = tableReplication;
-    this.partitionBatchSize = partitionBatchSize;
-    this.alterTableService = alterTableService;
+    this(replicaCatalog, replicaHiveConf, replicaMetaStoreClientSupplier, replicaTableFactory, housekeepingListener,
+        replicaCatalogListener, tableReplication, alterTableService,
+        new BatchedPartitionWriter(replicaMetaStoreClientSupplier, partitionBatchSize, 1, 0L, new MetricRegistry()),
+        new TableMetadataCache(replicaMetaStoreClientSupplier));
   }
 
   public void updateMetadata(
@@ -156,116 +162,163 @@ public class Replica extends HiveEndpoint {
       String replicaDatabaseName,
       String replicaTableName,
       ReplicaLocationManager locationManager) {
-    try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
+    updateMetadata(eventId, sourceTableAndStatistics, Iterators.singletonIterator(sourcePartitionsAndStatistics),
+        replicaDatabaseName, replicaTableName, locationManager);
+  }
+
+  /**
+   * Updates the replica table and then its partitions one page of source partitions at a time, so only the current page
+   * of partitions and statistics needs to be held in memory. Listeners are notified once per page.
+   */
+  public void updateMetadata(
+      String eventId,
+      TableAndStatistics sourceTableAndStatistics,
+      Iterator<PartitionsAndStatistics> sourcePartitionsAndStatisticsPages,
+      String replicaDatabaseName,
+      String replicaTableName,
+      ReplicaLocationManager locationManager) {
+    AtomicReference<CloseableMetaStoreClient> client = new AtomicReference<>(getMetaStoreClientSupplier().get());
+    try {
 
-      updateTableMetadata(client, eventId, sourceTableAndStatistics, replicaDatabaseName, replicaTableName,
+      updateTableMetadata(client.get(), eventId, sourceTableAndStatistics, replicaDatabaseName, replicaTableName,
           locationManager.getTableLocation(), replicationMode);
 
-      List<Partition> oldPartitions = getOldPartitions(sourcePartitionsAndStatistics, replicaDatabaseName,
-          replicaTableName, client);
-      LOG.debug("Found {} existing partitions that may match.", oldPartitions.size());
-
-      replicaCatalogListener
-          .existingReplicaPartitions(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), oldPartitions));
-
-      Map<List<String>, Partition> oldPartitionsByKey = mapPartitionsByKey(oldPartitions);
-
-      List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
-      List<Partition> partitionsToCreate = new ArrayList<>(sourcePartitions.size());
-      List<Partition> partitionsToAlter = new ArrayList<>(sourcePartitions.size());
-      List<ColumnStatistics> statisticsToSet = new ArrayList<>(sourcePartitions.size());
-      for (Partition sourcePartition : sourcePartitions) {
-        Path replicaPartitionLocation = locationManager.getPartitionLocation(sourcePartition);
-        LOG.debug("Generated replica partition path: {}", replicaPartitionLocation);
-
-        Partition replicaPartition = tableFactory
-            .newReplicaPartition(eventId, sourceTableAndStatistics.getTable(), sourcePartition, replicaDatabaseName,
-                replicaTableName, replicaPartitionLocation, replicationMode);
-        Partition oldPartition = oldPartitionsByKey.get(sourcePartition.getValues());
-        if (oldPartition == null) {
-          partitionsToCreate.add(replicaPartition);
-        } else {
-          partitionsToAlter.add(replicaPartition);
-          if (LocationUtils.hasLocation(oldPartition)) {
-            Path oldLocation = locationAsPath(oldPartition);
-            String oldEventId = oldPartition.getParameters().get(REPLICATION_EVENT.parameterName());
-            locationManager.addCleanUpLocation(oldEventId, oldLocation);
-          }
-        }
+      while (sourcePartitionsAndStatisticsPages.hasNext()) {
+        updatePartitionMetadata(client, eventId, sourceTableAndStatistics, sourcePartitionsAndStatisticsPages.next(),
+            replicaDatabaseName, replicaTableName, locationManager);
+      }
+    } finally {
+      client.get().close();
+    }
+  }
 
-        ColumnStatistics sourcePartitionStatistics = sourcePartitionsAndStatistics
-            .getStatisticsForPartition(sourcePartition);
-        if (sourcePartitionStatistics != null) {
-          statisticsToSet
-              .add(tableFactory
-                  .newReplicaPartitionStatistics(sourceTableAndStatistics.getTable(), replicaPartition,
-                      sourcePartitionStatistics));
-        }
+  /**
+   * Creates or alters the given replica partitions only, the replica table must have been updated beforehand. Used to
+   * commit partitions while the data of other partitions is still being copied.
+   */
+  public void updatePartitionMetadata(
+      String eventId,
+      TableAndStatistics sourceTableAndStatistics,
+      Iterator<PartitionsAndStatistics> sourcePartitionsAndStatisticsPages,
+      String replicaDatabaseName,
+      String replicaTableName,
+      ReplicaLocationManager locationManager) {
+    AtomicReference<CloseableMetaStoreClient> client = new AtomicReference<>(getMetaStoreClientSupplier().get());
+    try {
+      while (sourcePartitionsAndStatisticsPages.hasNext()) {
+        updatePartitionMetadata(client, eventId, sourceTableAndStatistics, sourcePartitionsAndStatisticsPages.next(),
+            replicaDatabaseName, replicaTableName, locationManager);
       }
-      replicaCatalogListener
-          .partitionsToAlter(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToAlter));
-      replicaCatalogListener
-          .partitionsToCreate(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToCreate));
-
-      if (!partitionsToCreate.isEmpty()) {
-        LOG.info("Creating {} new partitions.", partitionsToCreate.size());
-        try {
-          int counter = 0;
-          for (List<Partition> sublist : Lists.partition(partitionsToCreate, partitionBatchSize)) {
-            int start = counter * partitionBatchSize;
-            LOG.info("Creating partitions {} through {}", start, start + sublist.size() - 1);
-            client.add_partitions(sublist);
-            counter++;
-          }
-        } catch (TException e) {
-          throw new MetaStoreClientException("Unable to add partitions '"
-              + partitionsToCreate
-              + "' to replica table '"
-              + replicaDatabaseName
-              + "."
-              + replicaTableName
-              + "'", e);
+    } finally {
+      client.get().close();
+    }
+  }
+
+  /**
+   * The partition writer replaces the client when it loses its connection, the caller closes whichever client it holds
+   * in the end.
+   */
+  private void updatePartitionMetadata(
+      AtomicReference<CloseableMetaStoreClient> client,
+      String eventId,
+      TableAndStatistics sourceTableAndStatistics,
+      PartitionsAndStatistics sourcePartitionsAndStatistics,
+      String replicaDatabaseName,
+      String replicaTableName,
+      ReplicaLocationManager locationManager) {
+    List<Partition> oldPartitions = getOldPartitions(sourcePartitionsAndStatistics, replicaDatabaseName,
+        replicaTableName, client.get());
+    LOG.debug("Found {} existing partitions that may match.", oldPartitions.size());
+
+    replicaCatalogListener
+        .existingReplicaPartitions(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), oldPartitions));
+
+    Map<List<String>, Partition> oldPartitionsByKey = mapPartitionsByKey(oldPartitions);
+
+    List<Partition> sourcePartitions = sourcePartitionsAndStatistics.getPartitions();
+    List<Partition> partitionsToCreate = new ArrayList<>(sourcePartitions.size());
+    List<Partition> partitionsToAlter = new ArrayList<>(sourcePartitions.size());
+    List<ColumnStatistics> statisticsToSet = new ArrayList<>(sourcePartitions.size());
+    for (Partition sourcePartition : sourcePartitions) {
+      Path replicaPartitionLocation = locationManager.getPartitionLocation(sourcePartition);
+      LOG.debug("Generated replica partition path: {}", replicaPartitionLocation);
+
+      Partition replicaPartition = tableFactory
+          .newReplicaPartition(eventId, sourceTableAndStatistics.getTable(), sourcePartition, replicaDatabaseName,
+              replicaTableName, replicaPartitionLocation, replicationMode,
+              sourcePartitionsAndStatistics.getChecksumForPartition(sourcePartition));
+      Partition oldPartition = oldPartitionsByKey.get(sourcePartition.getValues());
+      if (oldPartition == null) {
+        partitionsToCreate.add(replicaPartition);
+      } else {
+        partitionsToAlter.add(replicaPartition);
+        if (LocationUtils.hasLocation(oldPartition)) {
+          Path oldLocation = locationAsPath(oldPartition);
+          String oldEventId = oldPartition.getParameters().get(REPLICATION_EVENT.parameterName());
+          locationManager.addCleanUpLocation(oldEventId, oldLocation);
         }
       }
-      if (!partitionsToAlter.isEmpty()) {
-        LOG.info("Altering {} existing partitions.", partitionsToAlter.size());
-        try {
-          int counter = 0;
-          for (List<Partition> sublist : Lists.partition(partitionsToAlter, partitionBatchSize)) {
-            int start = counter * partitionBatchSize;
-            LOG.info("Altering partitions {} through {}", start, start + sublist.size() - 1);
-            client.alter_partitions(replicaDatabaseName, replicaTableName, sublist);
-            counter++;
-          }
-        } catch (TException e) {
-          throw new MetaStoreClientException("Unable to alter partitions '"
-              + partitionsToAlter
-              + "' of replica table '"
-              + replicaDatabaseName
-              + "."
-              + replicaTableName
-              + "'", e);
-        }
+
+      ColumnStatistics sourcePartitionStatistics = sourcePartitionsAndStatistics
+          .getStatisticsForPartition(sourcePartition);
+      if (sourcePartitionStatistics != null) {
+        statisticsToSet
+            .add(tableFactory
+                .newReplicaPartitionStatistics(sourceTableAndStatistics.getTable(), replicaPartition,
+                    sourcePartitionStatistics));
       }
-      if (!statisticsToSet.isEmpty()) {
-        LOG.info("Setting column statistics for {} partitions.", statisticsToSet.size());
-        try {
-          int counter = 0;
-          for (List<ColumnStatistics> sublist : Lists.partition(statisticsToSet, partitionBatchSize)) {
-            int start = counter * partitionBatchSize;
-            LOG.info("Setting column statistics for partitions {} through {}", start, start + sublist.size() - 1);
-            client.setPartitionColumnStatistics(new SetPartitionsStatsRequest(sublist));
-            counter++;
-          }
-        } catch (TException e) {
-          throw new MetaStoreClientException(
-              "Unable to set column statistics of replica table '" + replicaDatabaseName + "." + replicaTableName + "'",
-              e);
-        }
-      } else {
-        LOG.debug("No partition column stats to set.");
+    }
+    replicaCatalogListener
+        .partitionsToAlter(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToAlter));
+    replicaCatalogListener
+        .partitionsToCreate(EventUtils.toEventPartitions(sourceTableAndStatistics.getTable(), partitionsToCreate));
+
+    if (!partitionsToCreate.isEmpty()) {
+      LOG.info("Creating {} new partitions.", partitionsToCreate.size());
+      try {
+        client
+            .set(partitionWriter
+                .addPartitions(client.get(), replicaDatabaseName, replicaTableName, partitionsToCreate));
+      } catch (TException e) {
+        throw new MetaStoreClientException("Unable to add partitions '"
+            + partitionsToCreate
+            + "' to replica table '"
+            + replicaDatabaseName
+            + "."
+            + replicaTableName
+            + "'", e);
+      }
+    }
+    if (!partitionsToAlter.isEmpty()) {
+      LOG.info("Altering {} existing partitions.", partitionsToAlter.size());
+      try {
+        client
+            .set(partitionWriter
+                .alterPartitions(client.get(), replicaDatabaseName, replicaTableName, partitionsToAlter));
+      } catch (TException e) {
+        throw new MetaStoreClientException("Unable to alter partitions '"
+            + partitionsToAlter
+            + "' of replica table '"
+            + replicaDatabaseName
+            + "."
+            + replicaTableName
+            + "'", e);
       }
     }
+    if (!statisticsToSet.isEmpty()) {
+      LOG.info("Setting column statistics for {} partitions.", statisticsToSet.size());
+      try {
+        client
+            .set(partitionWriter
+                .setPartitionColumnStatistics(client.get(), replicaDatabaseName, replicaTableName, statisticsToSet));
+      } catch (TException e) {
+        throw new MetaStoreClientException(
+            "Unable to set column statistics of replica table '" + replicaDatabaseName + "." + replicaTableName + "'",
+            e);
+      }
+    } else {
+      LOG.debug("No partition column stats to set.");
+    }
   }
 
   private List<Partition> getOldPartitions(
@@ -308,6 +361,7 @@ public class Replica extends HiveEndpoint {
         .newReplicaTable(eventId, sourceTable, replicaDatabaseName, replicaTableName, tableLocation, replicationMode);
 
     Optional<Table> oldReplicaTable = getTable(client, replicaDatabaseName, replicaTableName);
+    invalidateTable(replicaDatabaseName, replicaTableName);
     if (!oldReplicaTable.isPresent()) {
       LOG.debug("No existing replica table found, creating.");
       try {
@@ -341,6 +395,47 @@ public class Replica extends HiveEndpoint {
     }
   }
 
+  /**
+   * @return the data location of the replica table if it already exists
+   */
+  public Optional<Path> getExistingTableLocation(String replicaDatabaseName, String replicaTableName) {
+    try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
+      Optional<Table> table = getTable(client, replicaDatabaseName, replicaTableName);
+      if (!table.isPresent() || !LocationUtils.hasLocation(table.get())) {
+        return Optional.absent();
+      }
+      return Optional.of(locationAsPath(table.get()));
+    }
+  }
+
+  /**
+   * @return the data locations of the replica partitions that already exist amongst {@code partitionNames}, keyed by
+   *         partition values
+   */
+  public Map<List<String>, Path> getExistingPartitionLocations(
+      String replicaDatabaseName,
+      String replicaTableName,
+      List<String> partitionNames) {
+    Map<List<String>, Path> locations = new HashMap<>();
+    try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
+      if (partitionNames.isEmpty() || !getTable(client, replicaDatabaseName, replicaTableName).isPresent()) {
+        return locations;
+      }
+      for (List<String> page : Lists.partition(partitionNames, EXISTING_PARTITIONS_PAGE_SIZE)) {
+        for (Partition partition : client.getPartitionsByNames(replicaDatabaseName, replicaTableName, page)) {
+          if (LocationUtils.hasLocation(partition)) {
+            locations.put(partition.getValues(), locationAsPath(partition));
+          }
+        }
+      }
+    } catch (TException e) {
+      throw new MetaStoreClientException(
+          "Unable to list current partitions of replica table '" + replicaDatabaseName + "." + replicaTableName + "'",
+          e);
+    }
+    return locations;
+  }
+
   /**
    * Checks if there is a replica table and validates the replication modes.
    *
@@ -444,6 +539,7 @@ public class Replica extends HiveEndpoint {
     throws Exception {
     if (replicationMode == FULL_OVERWRITE) {
       LOG.debug("Replication mode: FULL_OVERWRITE. Checking for existing replica table.");
+      invalidateTable(replicaDatabaseName, replicaTableName);
       try (CloseableMetaStoreClient client = getMetaStoreClientSupplier().get()) {
         DropTableService dropTableService = new DropTableService();
         dropTableService.dropTableAndData(client, replicaDatabaseName, replicaTableName, dataManipulator);
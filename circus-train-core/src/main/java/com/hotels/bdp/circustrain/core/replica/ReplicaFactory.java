@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,13 @@
 package com.hotels.bdp.circustrain.core.replica;
 
 import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.Modules;
@@ -29,7 +31,9 @@ import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.event.ReplicaCatalogListener;
 import com.hotels.bdp.circustrain.api.listener.HousekeepingListener;
 import com.hotels.bdp.circustrain.core.HiveEndpointFactory;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
 import com.hotels.bdp.circustrain.core.replica.hive.AlterTableService;
+import com.hotels.bdp.circustrain.core.replica.hive.BatchedPartitionWriter;
 import com.hotels.bdp.circustrain.core.replica.hive.CopyPartitionsOperation;
 import com.hotels.bdp.circustrain.core.replica.hive.DropTableService;
 import com.hotels.bdp.circustrain.core.replica.hive.RenameTableOperation;
@@ -45,6 +49,8 @@ public class ReplicaFactory implements HiveEndpointFactory<Replica> {
   private final HousekeepingListener housekeepingListener;
   private final ReplicaCatalogListener replicaCatalogListener;
   private final ReplicaTableFactoryProvider replicaTableFactoryPicker;
+  private final MetricRegistry runningMetricRegistry;
+  private final TableMetadataCache replicaTableMetadataCache;
 
   @Autowired
   public ReplicaFactory(
@@ -53,13 +59,17 @@ public class ReplicaFactory implements HiveEndpointFactory<Replica> {
       Supplier<CloseableMetaStoreClient> replicaMetaStoreClientSupplier,
       HousekeepingListener housekeepingListener,
       ReplicaCatalogListener replicaCatalogListener,
-      ReplicaTableFactoryProvider replicaTableFactoryProvider) {
+      ReplicaTableFactoryProvider replicaTableFactoryProvider,
+      MetricRegistry runningMetricRegistry,
+      @Value("#{replicaTableMetadataCache}") TableMetadataCache replicaTableMetadataCache) {
     this.replicaCatalog = replicaCatalog;
     this.replicaHiveConf = replicaHiveConf;
     this.replicaMetaStoreClientSupplier = replicaMetaStoreClientSupplier;
     this.housekeepingListener = housekeepingListener;
     this.replicaCatalogListener = replicaCatalogListener;
     this.replicaTableFactoryPicker = replicaTableFactoryProvider;
+    this.runningMetricRegistry = runningMetricRegistry;
+    this.replicaTableMetadataCache = replicaTableMetadataCache;
   }
 
   @Override
@@ -68,7 +78,13 @@ public class ReplicaFactory implements HiveEndpointFactory<Replica> {
     DropTableService dropTableService = new DropTableService();
     AlterTableService alterTableService = new AlterTableService(dropTableService, new CopyPartitionsOperation(),
         new RenameTableOperation(dropTableService));
+    // Leave half of the metastore's maximum Thrift message size as headroom for the size estimate
+    long maxMessageBytes = replicaHiveConf.getLongVar(ConfVars.METASTORESERVERMAXMESSAGESIZE) / 2;
+    BatchedPartitionWriter partitionWriter = new BatchedPartitionWriter(replicaMetaStoreClientSupplier,
+        tableReplication.getPartitionWriteBatchSize(), tableReplication.getPartitionWriteConcurrency(),
+        maxMessageBytes, runningMetricRegistry);
     return new Replica(replicaCatalog, replicaHiveConf, replicaMetaStoreClientSupplier, replicaTableFactory,
-        housekeepingListener, replicaCatalogListener, tableReplication, alterTableService);
+        housekeepingListener, replicaCatalogListener, tableReplication, alterTableService, partitionWriter,
+        replicaTableMetadataCache);
   }
 }
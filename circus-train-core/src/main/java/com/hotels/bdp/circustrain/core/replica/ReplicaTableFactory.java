@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -158,6 +158,23 @@ public class ReplicaTableFactory {
       String replicaTableName,
       Path replicaPartitionLocation,
       ReplicationMode replicationMode) {
+    return newReplicaPartition(eventId, sourceTable, sourcePartition, replicaDatabaseName, replicaTableName,
+        replicaPartitionLocation, replicationMode, null);
+  }
+
+  /**
+   * @param sourcePartitionChecksum the checksum of the source partition data if it is already known, {@code null}
+   *          otherwise
+   */
+  Partition newReplicaPartition(
+      String eventId,
+      Table sourceTable,
+      Partition sourcePartition,
+      String replicaDatabaseName,
+      String replicaTableName,
+      Path replicaPartitionLocation,
+      ReplicationMode replicationMode,
+      String sourcePartitionChecksum) {
     Partition replica = partitionTransformation.transform(new Partition(sourcePartition));
     replica.setDbName(replicaDatabaseName);
     replica.setTableName(replicaTableName);
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,8 @@
  */
 package com.hotels.bdp.circustrain.core.replica;
 
+import static com.hotels.bdp.circustrain.api.conf.PartitionChangeDetection.FILE_LISTING;
+
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,7 @@ import org.springframework.stereotype.Component;
 import com.google.common.base.Function;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.SourceTable;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.metadata.ColumnStatisticsTransformation;
 import com.hotels.bdp.circustrain.api.metadata.PartitionTransformation;
@@ -36,6 +39,7 @@ public class ReplicaTableFactoryProvider {
 
   private final HiveConf sourceHiveConf;
   private final Function<Path, String> checksumFunction;
+  private final Function<Path, String> listingChecksumFunction;
   private final TableTransformation tableTransformation;
   private final PartitionTransformation partitionTransformation;
   private final ColumnStatisticsTransformation columnStatisticsTransformation;
@@ -44,20 +48,26 @@ public class ReplicaTableFactoryProvider {
   public ReplicaTableFactoryProvider(
       @Value("#{sourceHiveConf}") HiveConf sourceHiveConf,
       @Value("#{checksumFunction}") Function<Path, String> checksumFunction,
+      @Value("#{listingChecksumFunction}") Function<Path, String> listingChecksumFunction,
       TableTransformation tableTransformation,
       PartitionTransformation partitionTransformation,
       ColumnStatisticsTransformation columnStatisticsTransformation) {
     this.sourceHiveConf = sourceHiveConf;
     this.checksumFunction = checksumFunction;
+    this.listingChecksumFunction = listingChecksumFunction;
     this.tableTransformation = tableTransformation;
     this.partitionTransformation = partitionTransformation;
     this.columnStatisticsTransformation = columnStatisticsTransformation;
   }
 
   public ReplicaTableFactory newInstance(TableReplication tableReplication) {
-    if (tableReplication.getSourceTable().isGeneratePartitionFilter()) {
-      return new AddCheckSumReplicaTableFactory(sourceHiveConf, checksumFunction, tableTransformation,
-          partitionTransformation, columnStatisticsTransformation);
+    SourceTable sourceTable = tableReplication.getSourceTable();
+    if (sourceTable.isGeneratePartitionFilter()) {
+      Function<Path, String> function = sourceTable.getPartitionChangeDetection() == FILE_LISTING
+          ? listingChecksumFunction
+          : checksumFunction;
+      return new AddCheckSumReplicaTableFactory(sourceHiveConf, function, tableTransformation, partitionTransformation,
+          columnStatisticsTransformation);
     }
     return new ReplicaTableFactory(sourceHiveConf, tableTransformation, partitionTransformation,
         columnStatisticsTransformation);
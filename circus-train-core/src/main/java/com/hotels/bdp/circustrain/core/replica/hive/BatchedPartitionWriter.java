@@ -0,0 +1,435 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.replica.hive;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.SetPartitionsStatsRequest;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
+
+/**
+ * Writes partitions and partition statistics to the replica metastore in batches. Batches can be sent concurrently,
+ * each one on its own metastore client. The batch size starts at the configured maximum, capped so that a batch fits
+ * in a Thrift message, then adapts to the observed latency: it is halved when a batch is slow or when the metastore
+ * times out, in which case the batch is retried after a backoff, and grows back when batches are fast again.
+ */
+public class BatchedPartitionWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchedPartitionWriter.class);
+
+  static final long TARGET_BATCH_NANOS = TimeUnit.SECONDS.toNanos(30);
+  static final int MAX_ATTEMPTS = 3;
+  private static final long INITIAL_BACKOFF_MILLIS = 1000L;
+
+  enum Operation {
+    ADD_PARTITIONS("replica_partitions_added", "Creating partitions", "Created"),
+    ALTER_PARTITIONS("replica_partitions_altered", "Altering partitions", "Altered"),
+    SET_PARTITION_STATISTICS(
+        "replica_partition_statistics_set",
+        "Setting column statistics for partitions",
+        "Set column statistics for");
+
+    private final String metricName;
+    private final String batchDescription;
+    private final String summaryDescription;
+
+    private Operation(String metricName, String batchDescription, String summaryDescription) {
+      this.metricName = metricName;
+      this.batchDescription = batchDescription;
+      this.summaryDescription = summaryDescription;
+    }
+
+    String getMetricName() {
+      return metricName;
+    }
+  }
+
+  private final Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private final int maxBatchSize;
+  private final int concurrency;
+  private final long maxMessageBytes;
+  private final MetricRegistry registry;
+  private final Ticker ticker;
+  private final long initialBackoffMillis;
+
+  /**
+   * @param maxBatchSize the largest number of partitions sent in one call
+   * @param concurrency the number of batches that can be sent at the same time
+   * @param maxMessageBytes the size a batch must fit in once serialised, {@code 0} or less for no limit
+   * @param registry where the throughput of each operation is exposed
+   */
+  public BatchedPartitionWriter(
+      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      int maxBatchSize,
+      int concurrency,
+      long maxMessageBytes,
+      MetricRegistry registry) {
+    this(metaStoreClientSupplier, maxBatchSize, concurrency, maxMessageBytes, registry, Ticker.systemTicker(),
+        INITIAL_BACKOFF_MILLIS);
+  }
+
+  @VisibleForTesting
+  BatchedPartitionWriter(
+      Supplier<CloseableMetaStoreClient> metaStoreClientSupplier,
+      int maxBatchSize,
+      int concurrency,
+      long maxMessageBytes,
+      MetricRegistry registry,
+      Ticker ticker,
+      long initialBackoffMillis) {
+    this.metaStoreClientSupplier = metaStoreClientSupplier;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.concurrency = Math.max(1, concurrency);
+    this.maxMessageBytes = maxMessageBytes;
+    this.registry = registry;
+    this.ticker = ticker;
+    this.initialBackoffMillis = initialBackoffMillis;
+  }
+
+  /**
+   * @return the client to use for later calls: {@code client} or, if {@code client} lost its connection and has been
+   *         closed, the client that replaced it, which the caller must then close instead
+   */
+  public CloseableMetaStoreClient addPartitions(
+      CloseableMetaStoreClient client,
+      String databaseName,
+      String tableName,
+      List<Partition> partitions)
+    throws TException {
+    return write(Operation.ADD_PARTITIONS, client, databaseName, tableName, partitions);
+  }
+
+  /**
+   * @return the client to use for later calls, see {@link #addPartitions}
+   */
+  public CloseableMetaStoreClient alterPartitions(
+      CloseableMetaStoreClient client,
+      String databaseName,
+      String tableName,
+      List<Partition> partitions)
+    throws TException {
+    return write(Operation.ALTER_PARTITIONS, client, databaseName, tableName, partitions);
+  }
+
+  /**
+   * @return the client to use for later calls, see {@link #addPartitions}
+   */
+  public CloseableMetaStoreClient setPartitionColumnStatistics(
+      CloseableMetaStoreClient client,
+      String databaseName,
+      String tableName,
+      List<ColumnStatistics> statistics)
+    throws TException {
+    return write(Operation.SET_PARTITION_STATISTICS, client, databaseName, tableName, statistics);
+  }
+
+  private <T extends TBase<?, ?>> CloseableMetaStoreClient write(
+      Operation operation,
+      CloseableMetaStoreClient client,
+      String databaseName,
+      String tableName,
+      List<T> items)
+    throws TException {
+    if (items.isEmpty()) {
+      return client;
+    }
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(initialBatchSize(items.get(0)));
+    long start = ticker.read();
+    CloseableMetaStoreClient clientForLaterCalls = client;
+    if (concurrency == 1) {
+      clientForLaterCalls = new BatchTask<>(operation, client, databaseName, tableName, items, 0, batchSize).call();
+    } else {
+      writeConcurrently(operation, databaseName, tableName, items, batchSize);
+    }
+    long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(ticker.read() - start));
+    registry.meter(metricName(operation, databaseName, tableName)).mark(items.size());
+    LOG
+        .info("{} {} partitions of {}.{} in {}ms ({} partitions/s)", operation.summaryDescription, items.size(),
+            databaseName, tableName, elapsedMillis, items.size() * 1000L / elapsedMillis);
+    return clientForLaterCalls;
+  }
+
+  /**
+   * Tables may be replicated concurrently so each one gets its own meters.
+   */
+  @VisibleForTesting
+  static String metricName(Operation operation, String databaseName, String tableName) {
+    return MetricRegistry.name(databaseName, tableName, operation.getMetricName());
+  }
+
+  private <T extends TBase<?, ?>> void writeConcurrently(
+      Operation operation,
+      String databaseName,
+      String tableName,
+      List<T> items,
+      AdaptiveBatchSize batchSize)
+    throws TException {
+    ExecutorService executor = Executors
+        .newFixedThreadPool(concurrency,
+            new ThreadFactoryBuilder().setNameFormat("partition-writer-%d").setDaemon(true).build());
+    final Semaphore slots = new Semaphore(concurrency);
+    final AtomicBoolean failed = new AtomicBoolean(false);
+    List<Future<Void>> futures = new ArrayList<>();
+    try {
+      int offset = 0;
+      while (offset < items.size() && !failed.get()) {
+        slots.acquire();
+        int size = Math.min(batchSize.get(), items.size() - offset);
+        final BatchTask<T> task = new BatchTask<>(operation, null, databaseName, tableName,
+            items.subList(offset, offset + size), offset, batchSize);
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            try {
+              task.call();
+              return null;
+            } catch (Exception e) {
+              failed.set(true);
+              throw e;
+            } finally {
+              slots.release();
+            }
+          }
+        }));
+        offset += size;
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MetaStoreClientException("Interrupted while writing partitions of " + databaseName + "." + tableName,
+          e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof TException) {
+        throw (TException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new MetaStoreClientException("Unable to write partitions of " + databaseName + "." + tableName, cause);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private int initialBatchSize(TBase<?, ?> sample) throws TException {
+    if (maxMessageBytes <= 0) {
+      return maxBatchSize;
+    }
+    int sampleBytes = new TSerializer(new TBinaryProtocol.Factory()).serialize(sample).length;
+    long fittingInMessage = Math.max(1L, maxMessageBytes / Math.max(1, sampleBytes));
+    return (int) Math.min(maxBatchSize, fittingInMessage);
+  }
+
+  /**
+   * Timeouts and dropped connections are the metastore pushing back under load: the batch is retried, smaller, on a new
+   * connection. Any other failure is returned to the caller straight away.
+   */
+  private static boolean isPushback(Throwable t) {
+    for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+      if (cause instanceof TTransportException || cause instanceof SocketTimeoutException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sends the items in batches on one client. A task given the caller's client leaves it open when it loses its
+   * connection and carries on with a new one; if the task then succeeds the caller's client is closed and the new one
+   * is handed back to the caller, otherwise the new one is closed and the caller closes its own as usual.
+   */
+  private class BatchTask<T extends TBase<?, ?>> implements Callable<CloseableMetaStoreClient> {
+
+    private final Operation operation;
+    private final String databaseName;
+    private final String tableName;
+    private final List<T> items;
+    private final int firstIndex;
+    private final AdaptiveBatchSize batchSize;
+    private final CloseableMetaStoreClient callerClient;
+    private CloseableMetaStoreClient client;
+    private boolean ownsClient;
+
+    private BatchTask(
+        Operation operation,
+        CloseableMetaStoreClient client,
+        String databaseName,
+        String tableName,
+        List<T> items,
+        int firstIndex,
+        AdaptiveBatchSize batchSize) {
+      this.operation = operation;
+      callerClient = client;
+      this.client = client;
+      this.databaseName = databaseName;
+      this.tableName = tableName;
+      this.items = items;
+      this.firstIndex = firstIndex;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public CloseableMetaStoreClient call() throws TException {
+      boolean succeeded = false;
+      try {
+        if (client == null) {
+          reconnect();
+        }
+        int offset = 0;
+        int attempt = 1;
+        while (offset < items.size()) {
+          int size = Math.min(batchSize.get(), items.size() - offset);
+          List<T> batch = items.subList(offset, offset + size);
+          int start = firstIndex + offset;
+          LOG.info("{} {} through {}", operation.batchDescription, start, start + size - 1);
+          long batchStart = ticker.read();
+          try {
+            send(batch, attempt > 1);
+          } catch (TException e) {
+            if (!isPushback(e) || attempt >= MAX_ATTEMPTS) {
+              throw e;
+            }
+            batchSize.decrease();
+            long backoff = initialBackoffMillis << (attempt - 1);
+            LOG
+                .warn("{} {} through {} failed on attempt {}, retrying in {}ms with batches of {}: {}",
+                    operation.batchDescription, start, start + size - 1, attempt, backoff, batchSize.get(),
+                    e.toString());
+            sleep(backoff);
+            reconnect();
+            attempt++;
+            continue;
+          }
+          batchSize.update(ticker.read() - batchStart);
+          offset += size;
+          attempt = 1;
+        }
+        succeeded = true;
+        return client;
+      } finally {
+        if (ownsClient) {
+          if (succeeded && callerClient != null) {
+            callerClient.close();
+          } else {
+            client.close();
+          }
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void send(List<T> batch, boolean retry) throws TException {
+      switch (operation) {
+      case ADD_PARTITIONS:
+        if (retry) {
+          // The previous attempt may have been applied before the connection was lost
+          client.add_partitions((List<Partition>) batch, true, false);
+        } else {
+          client.add_partitions((List<Partition>) batch);
+        }
+        break;
+      case ALTER_PARTITIONS:
+        client.alter_partitions(databaseName, tableName, (List<Partition>) batch);
+        break;
+      case SET_PARTITION_STATISTICS:
+        client.setPartitionColumnStatistics(new SetPartitionsStatsRequest((List<ColumnStatistics>) batch));
+        break;
+      default:
+        throw new IllegalStateException("Unknown operation " + operation);
+      }
+    }
+
+    private void reconnect() {
+      if (ownsClient) {
+        client.close();
+      }
+      client = metaStoreClientSupplier.get();
+      ownsClient = true;
+    }
+
+    private void sleep(long millis) {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MetaStoreClientException("Interrupted while writing partitions of " + databaseName + "." + tableName,
+            e);
+      }
+    }
+  }
+
+  /**
+   * Halves the batch size when a batch takes longer than {@link #TARGET_BATCH_NANOS} or is pushed back and grows it
+   * additively, up to its initial value, when batches take less than half of that.
+   */
+  private static class AdaptiveBatchSize {
+
+    private final int max;
+    private int current;
+
+    private AdaptiveBatchSize(int max) {
+      this.max = max;
+      current = max;
+    }
+
+    synchronized int get() {
+      return current;
+    }
+
+    synchronized void update(long elapsedNanos) {
+      if (elapsedNanos > TARGET_BATCH_NANOS) {
+        decrease();
+      } else if (elapsedNanos < TARGET_BATCH_NANOS / 2 && current < max) {
+        current = Math.min(max, current + Math.max(1, max / 10));
+      }
+    }
+
+    synchronized void decrease() {
+      current = Math.max(1, current / 2);
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -195,9 +195,16 @@ public class HdfsSnapshotLocationManager implements SourceLocationManager {
       if (snapshotsDisabled) {
         LOG.info("Path {} can be snapshot, but feature has been disabled.", sourceDataPath);
       } else {
-        LOG.debug("Creating source data snapshot: {}, {}", sourceDataPath, eventId);
-        // fileSystem.createSnapshot does not return a fully qualified URI.
-        resolvedLocation = fileSystem.makeQualified(fileSystem.createSnapshot(sourceDataPath, eventId));
+        Path existingSnapshotPath = new Path(snapshotMetaDataPath, eventId);
+        if (fileSystem.exists(existingSnapshotPath)) {
+          // A resumed replication keeps copying from the snapshot its previous run was using
+          LOG.info("Reusing source data snapshot: {}, {}", sourceDataPath, eventId);
+          resolvedLocation = fileSystem.makeQualified(existingSnapshotPath);
+        } else {
+          LOG.debug("Creating source data snapshot: {}, {}", sourceDataPath, eventId);
+          // fileSystem.createSnapshot does not return a fully qualified URI.
+          resolvedLocation = fileSystem.makeQualified(fileSystem.createSnapshot(sourceDataPath, eventId));
+        }
         snapshotPath = resolvedLocation;
       }
     } else {
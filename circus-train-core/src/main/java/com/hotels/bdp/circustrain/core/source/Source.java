@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package com.hotels.bdp.circustrain.core.source;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -27,7 +28,9 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Iterators;
 
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
@@ -36,8 +39,10 @@ import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.event.SourceCatalogListener;
 import com.hotels.bdp.circustrain.core.HiveEndpoint;
+import com.hotels.bdp.circustrain.core.PartitionSelection;
 import com.hotels.bdp.circustrain.core.PartitionsAndStatistics;
 import com.hotels.bdp.circustrain.core.TableAndStatistics;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
 import com.hotels.bdp.circustrain.core.event.EventUtils;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
@@ -50,6 +55,7 @@ public class Source extends HiveEndpoint {
   /**
    * Use {@link SourceFactory}
    */
+  @VisibleForTesting
   Source(
       SourceCatalog sourceCatalog,
       HiveConf sourceHiveConf,
@@ -57,7 +63,22 @@ public class Source extends HiveEndpoint {
       SourceCatalogListener sourceCatalogListener,
       boolean snapshotsDisabled,
       String sourceTableLocation) {
-    super(sourceCatalog.getName(), sourceHiveConf, sourceMetaStoreClientSupplier);
+    this(sourceCatalog, sourceHiveConf, sourceMetaStoreClientSupplier, sourceCatalogListener, snapshotsDisabled,
+        sourceTableLocation, new TableMetadataCache(sourceMetaStoreClientSupplier));
+  }
+
+  /**
+   * Use {@link SourceFactory}
+   */
+  Source(
+      SourceCatalog sourceCatalog,
+      HiveConf sourceHiveConf,
+      Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier,
+      SourceCatalogListener sourceCatalogListener,
+      boolean snapshotsDisabled,
+      String sourceTableLocation,
+      TableMetadataCache tableMetadataCache) {
+    super(sourceCatalog.getName(), sourceHiveConf, sourceMetaStoreClientSupplier, tableMetadataCache);
     this.sourceTableLocation = sourceTableLocation;
     this.sourceCatalogListener = sourceCatalogListener;
     this.snapshotsDisabled = snapshotsDisabled;
@@ -79,6 +100,31 @@ public class Source extends HiveEndpoint {
     return sourcePartitions;
   }
 
+  @Override
+  public List<Partition> listPartitions(Table sourceTable, String partitionPredicate, int maxPartitions, int pageSize)
+    throws TException {
+    List<Partition> sourcePartitions = super.listPartitions(sourceTable, partitionPredicate, maxPartitions, pageSize);
+    sourceCatalogListener.resolvedSourcePartitions(EventUtils.toEventPartitions(sourceTable, sourcePartitions));
+    return sourcePartitions;
+  }
+
+  @Override
+  public Iterator<List<Partition>> listPartitionPages(
+      final Table sourceTable,
+      PartitionSelection selection,
+      int maxPartitions,
+      int pageSize)
+    throws TException {
+    Iterator<List<Partition>> pages = super.listPartitionPages(sourceTable, selection, maxPartitions, pageSize);
+    return Iterators.transform(pages, new Function<List<Partition>, List<Partition>>() {
+      @Override
+      public List<Partition> apply(List<Partition> page) {
+        sourceCatalogListener.resolvedSourcePartitions(EventUtils.toEventPartitions(sourceTable, page));
+        return page;
+      }
+    });
+  }
+
   public SourceLocationManager getLocationManager(Table table, String eventId) throws IOException {
     if (MetaStoreUtils.isView(table)) {
       return new ViewLocationManager();
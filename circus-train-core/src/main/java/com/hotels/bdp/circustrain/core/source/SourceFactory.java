@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.event.SourceCatalogListener;
 import com.hotels.bdp.circustrain.core.HiveEndpointFactory;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
 @Profile({ Modules.REPLICATION })
@@ -39,17 +40,20 @@ public class SourceFactory implements HiveEndpointFactory<Source> {
   private final HiveConf sourceHiveConf;
   private final Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier;
   private final SourceCatalogListener sourceCatalogListener;
+  private final TableMetadataCache sourceTableMetadataCache;
 
   @Autowired
   public SourceFactory(
       SourceCatalog sourceCatalog,
       @Value("#{sourceHiveConf}") HiveConf sourceHiveConf,
       @Value("#{sourceMetaStoreClientSupplier}") Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier,
-      SourceCatalogListener sourceCatalogListener) {
+      SourceCatalogListener sourceCatalogListener,
+      @Value("#{sourceTableMetadataCache}") TableMetadataCache sourceTableMetadataCache) {
     this.sourceCatalog = sourceCatalog;
     this.sourceHiveConf = sourceHiveConf;
     this.sourceMetaStoreClientSupplier = sourceMetaStoreClientSupplier;
     this.sourceCatalogListener = sourceCatalogListener;
+    this.sourceTableMetadataCache = sourceTableMetadataCache;
   }
 
   @Override
@@ -59,8 +63,19 @@ public class SourceFactory implements HiveEndpointFactory<Source> {
     if (tableReplication.getReplicationMode() == ReplicationMode.FULL) {
       snapshotsDisabled = sourceCatalog.isDisableSnapshots();
     }
+    return newInstance(tableReplication, snapshotsDisabled);
+  }
+
+  /**
+   * @return a source that never creates HDFS snapshots, for callers that only read the source
+   */
+  public Source newReadOnlyInstance(TableReplication tableReplication) {
+    return newInstance(tableReplication, true);
+  }
+
+  private Source newInstance(TableReplication tableReplication, boolean snapshotsDisabled) {
     return new Source(sourceCatalog, sourceHiveConf, sourceMetaStoreClientSupplier, sourceCatalogListener,
-        snapshotsDisabled, tableReplication.getSourceTable().getTableLocation());
+        snapshotsDisabled, tableReplication.getSourceTable().getTableLocation(), sourceTableMetadataCache);
   }
 
 }
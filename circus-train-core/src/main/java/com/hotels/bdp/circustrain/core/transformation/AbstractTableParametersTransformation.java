@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,7 +28,8 @@ import com.hotels.bdp.circustrain.api.event.TableReplicationListener;
 public abstract class AbstractTableParametersTransformation implements TableReplicationListener {
 
   private final Map<String, String> tableParameters = new HashMap<>();
-  private Map<String, String> tableParametersOverride;
+  /* Table parameters override of the table being replicated by the current thread. */
+  private final ThreadLocal<Map<String, String>> tableParametersOverride = new ThreadLocal<>();
 
   protected AbstractTableParametersTransformation(TransformOptions transformOptions) {
     if (transformOptions.getTransformOptions() == null) {
@@ -41,6 +42,7 @@ public abstract class AbstractTableParametersTransformation implements TableRepl
   }
 
   protected Map<String, String> getTableParameters() {
+    Map<String, String> tableParametersOverride = this.tableParametersOverride.get();
     if (tableParametersOverride != null && !tableParametersOverride.isEmpty()) {
       return tableParametersOverride;
     }
@@ -50,14 +52,14 @@ public abstract class AbstractTableParametersTransformation implements TableRepl
   @SuppressWarnings("unchecked")
   @Override
   public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {
-    tableParametersOverride = Collections.emptyMap();
+    this.tableParametersOverride.set(Collections.<String, String> emptyMap());
     Map<String, Object> transformOptions = tableReplication.getTransformOptions();
     if (transformOptions == null) {
       return;
     }
     Object tableParametersOverride = transformOptions.get(TABLE_PROPERTIES);
     if (tableParametersOverride instanceof Map) {
-      this.tableParametersOverride = (Map<String, String>) tableParametersOverride;
+      this.tableParametersOverride.set((Map<String, String>) tableParametersOverride);
     }
   }
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -89,6 +89,7 @@ public class DiffGeneratedPartitionPredicateTest {
     when(tableReplication.getSourceTable()).thenReturn(sourceTable);
     when(tableReplication.getPartitionIteratorBatchSize()).thenReturn((short) 100);
     when(tableReplication.getPartitionFetcherBufferSize()).thenReturn((short) 100);
+    when(tableReplication.getPartitionChecksumConcurrency()).thenReturn(1);
     // HiveConf hiveConf = new HiveConf(catalog.conf(), HiveMetaStoreClient.class);
     HiveConf hiveConf = new HiveConf();
     supplier = new HiveMetaStoreClientSupplier(factory, hiveConf, "name");
@@ -124,6 +125,18 @@ public class DiffGeneratedPartitionPredicateTest {
         is("(p1='value11' AND p2='value22') OR (p1='value1' AND p2='value2')"));
   }
 
+  @Test
+  public void partitionsAreSelectedByName() throws Exception {
+    when(replica.getTableAndStatistics(tableReplication)).thenReturn(replicaTableAndStats);
+    when(replicaTableAndStats.getTable()).thenReturn(table2);
+    when(sourceTable.getPartitionLimit()).thenReturn((short) 10);
+
+    predicate = new DiffGeneratedPartitionPredicate(source, replica, tableReplication, checksumFunction);
+
+    assertThat(predicate.getPartitionSelection(),
+        is(PartitionSelection.byNames(Arrays.asList("p1=value11/p2=value22", "p1=value1/p2=value2"))));
+  }
+
   @Test
   public void partitionPredicateLimit() throws Exception {
     when(replica.getTableAndStatistics(tableReplication)).thenReturn(replicaTableAndStats);
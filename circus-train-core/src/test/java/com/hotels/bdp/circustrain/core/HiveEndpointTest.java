@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,16 @@ package com.hotels.bdp.circustrain.core;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -194,7 +199,7 @@ public class HiveEndpointTest {
   public void getPartitionsWithoutFilter() throws Exception {
     when(metaStoreClient.listPartitions(DATABASE, TABLE, (short) MAX_PARTITIONS)).thenReturn(partitions);
 
-    PartitionsAndStatistics partitionsAndStatistics = hiveEndpoint.getPartitions(table, null, MAX_PARTITIONS);
+    PartitionsAndStatistics partitionsAndStatistics = hiveEndpoint.getPartitions(table, (String) null, MAX_PARTITIONS);
     assertThat(partitionsAndStatistics.getPartitions(), is(partitions));
   }
 
@@ -212,4 +217,127 @@ public class HiveEndpointTest {
     assertThat(partitionsAndStatistics.getStatisticsForPartition(partitionOneTwo), is(nullValue()));
   }
 
+  @Test
+  public void getPartitionsWithLimitLargerThanShort() throws Exception {
+    when(metaStoreClient.listPartitions(DATABASE, TABLE, (short) -1)).thenReturn(partitions);
+
+    PartitionsAndStatistics partitionsAndStatistics = hiveEndpoint.getPartitions(table, (String) null, Short.MAX_VALUE + 1);
+    assertThat(partitionsAndStatistics.getPartitions(), is(partitions));
+  }
+
+  @Test
+  public void listPartitions() throws Exception {
+    List<Partition> filteredPartitions = Arrays.asList(partitionOneTwo);
+    when(metaStoreClient.listPartitionsByFilter(DATABASE, TABLE, PARTITION_PREDICATE, (short) MAX_PARTITIONS))
+        .thenReturn(filteredPartitions);
+
+    List<Partition> result = hiveEndpoint.listPartitions(table, PARTITION_PREDICATE, MAX_PARTITIONS, 1);
+    assertThat(result, is(filteredPartitions));
+  }
+
+  @Test
+  public void listPartitionsWithoutFilterFetchesPartitionsByNameInPages() throws Exception {
+    when(metaStoreClient.listPartitionNames(DATABASE, TABLE, (short) -1))
+        .thenReturn(Arrays.asList(PARTITION_ONE_TWO, PARTITION_THREE_FOUR));
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_ONE_TWO)))
+        .thenReturn(Arrays.asList(partitionOneTwo));
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR)))
+        .thenReturn(Arrays.asList(partitionThreeFour));
+
+    List<Partition> result = hiveEndpoint.listPartitions(table, (String) null, -1, 1);
+    assertThat(result, is(Arrays.asList(partitionOneTwo, partitionThreeFour)));
+  }
+
+  @Test
+  public void listPartitionsWithoutFilterIsLimited() throws Exception {
+    when(metaStoreClient.listPartitionNames(DATABASE, TABLE, (short) MAX_PARTITIONS))
+        .thenReturn(Arrays.asList(PARTITION_ONE_TWO, PARTITION_THREE_FOUR));
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, PARTITION_NAMES))
+        .thenReturn(Arrays.asList(partitionOneTwo));
+
+    List<Partition> result = hiveEndpoint.listPartitions(table, (String) null, MAX_PARTITIONS, 10);
+    assertThat(result, is(Arrays.asList(partitionOneTwo)));
+  }
+
+  @Test
+  public void listPartitionsByNameFetchesPartitionsInPages() throws Exception {
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_ONE_TWO)))
+        .thenReturn(Arrays.asList(partitionOneTwo));
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR)))
+        .thenReturn(Arrays.asList(partitionThreeFour));
+
+    List<Partition> result = hiveEndpoint.listPartitions(table,
+        PartitionSelection.byNames(Arrays.asList(PARTITION_ONE_TWO, PARTITION_THREE_FOUR)), -1, 1);
+    assertThat(result, is(Arrays.asList(partitionOneTwo, partitionThreeFour)));
+    verify(metaStoreClient, never()).listPartitionNames(DATABASE, TABLE, (short) -1);
+  }
+
+  @Test
+  public void getPartitionsByName() throws Exception {
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, PARTITION_NAMES))
+        .thenReturn(Arrays.asList(partitionOneTwo));
+    when(metaStoreClient.getPartitionColumnStatistics(DATABASE, TABLE, PARTITION_NAMES, COLUMN_NAMES))
+        .thenReturn(partitionStatsMap);
+
+    PartitionsAndStatistics partitionsAndStatistics = hiveEndpoint.getPartitions(table,
+        PartitionSelection.byNames(PARTITION_NAMES), MAX_PARTITIONS);
+    assertThat(partitionsAndStatistics.getPartitions(), is(Arrays.asList(partitionOneTwo)));
+    assertThat(partitionsAndStatistics.getStatisticsForPartition(partitionOneTwo), is(partitionColumnStatistics));
+  }
+
+  @Test
+  public void listPartitionPagesFetchesEachPageWhenItIsIterated() throws Exception {
+    when(metaStoreClient.listPartitionNames(DATABASE, TABLE, (short) -1))
+        .thenReturn(Arrays.asList(PARTITION_ONE_TWO, PARTITION_THREE_FOUR));
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_ONE_TWO)))
+        .thenReturn(Arrays.asList(partitionOneTwo));
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR)))
+        .thenReturn(Arrays.asList(partitionThreeFour));
+
+    Iterator<List<Partition>> pages = hiveEndpoint.listPartitionPages(table, PartitionSelection.byFilter(null), -1, 1);
+    verify(metaStoreClient, never()).getPartitionsByNames(anyString(), anyString(), anyListOf(String.class));
+
+    assertThat(pages.next(), is(Arrays.asList(partitionOneTwo)));
+    verify(metaStoreClient, never()).getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR));
+    assertThat(pages.next(), is(Arrays.asList(partitionThreeFour)));
+    assertThat(pages.hasNext(), is(false));
+  }
+
+  @Test
+  public void getPartitionsAndStatisticsKeepsListedLocations() throws Exception {
+    Partition listedPartition = new Partition(partitionOneTwo);
+    listedPartition.getSd().setLocation("listed/location");
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, PARTITION_NAMES))
+        .thenReturn(Arrays.asList(new Partition(partitionOneTwo)));
+
+    Iterator<PartitionsAndStatistics> pages = hiveEndpoint
+        .getPartitionsAndStatistics(table, Arrays.asList(listedPartition), 1);
+
+    assertThat(pages.next().getPartitions(), is(Arrays.asList(listedPartition)));
+  }
+
+  @Test
+  public void getPartitionsAndStatisticsFetchesStatisticsPerPage() throws Exception {
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, PARTITION_NAMES))
+        .thenReturn(Arrays.asList(partitionOneTwo));
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR)))
+        .thenReturn(Arrays.asList(partitionThreeFour));
+    when(metaStoreClient.getPartitionColumnStatistics(DATABASE, TABLE, PARTITION_NAMES, COLUMN_NAMES))
+        .thenReturn(partitionStatsMap);
+    when(metaStoreClient
+        .getPartitionColumnStatistics(DATABASE, TABLE, Arrays.asList(PARTITION_THREE_FOUR), COLUMN_NAMES))
+            .thenReturn(Collections.<String, List<ColumnStatisticsObj>> emptyMap());
+
+    Iterator<PartitionsAndStatistics> pages = hiveEndpoint
+        .getPartitionsAndStatistics(table, Arrays.asList(partitionOneTwo, partitionThreeFour), 1);
+
+    PartitionsAndStatistics page = pages.next();
+    assertThat(page.getPartitions(), is(Arrays.asList(partitionOneTwo)));
+    assertThat(page.getStatisticsForPartition(partitionOneTwo), is(partitionColumnStatistics));
+    page = pages.next();
+    assertThat(page.getPartitions(), is(Arrays.asList(partitionThreeFour)));
+    assertThat(page.getStatisticsForPartition(partitionThreeFour), is(nullValue()));
+    assertThat(pages.hasNext(), is(false));
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,21 +17,34 @@ package com.hotels.bdp.circustrain.core;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.springframework.boot.ApplicationArguments;
 
 import com.hotels.bdp.circustrain.api.CompletionCode;
 import com.hotels.bdp.circustrain.api.Replication;
+import com.hotels.bdp.circustrain.api.conf.Daemon;
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
 import com.hotels.bdp.circustrain.api.conf.Security;
@@ -45,6 +58,7 @@ import com.hotels.bdp.circustrain.api.event.EventTableReplication;
 import com.hotels.bdp.circustrain.api.event.LocomotiveListener;
 import com.hotels.bdp.circustrain.api.event.TableReplicationListener;
 import com.hotels.bdp.circustrain.api.metrics.MetricSender;
+import com.hotels.bdp.circustrain.core.daemon.TableReplicationsReloader;
 
 @RunWith(MockitoJUnitRunner.class)
 public class LocomotiveTest {
@@ -61,11 +75,17 @@ public class LocomotiveTest {
   private @Mock Replication replication1;
   private @Mock Replication replication2;
   private @Mock ApplicationArguments applicationArguments;
+  private @Mock TableReplicationsReloader tableReplicationsReloader;
+  private @Mock TableMetadataPrefetcher tableMetadataPrefetcher;
 
   private Locomotive locomotive;
 
   @Before
   public void buildConfig() {
+    locomotive = newLocomotive();
+  }
+
+  private Locomotive newLocomotive() {
     when(sourceCatalog.getName()).thenReturn("source-catalog");
     when(replicaCatalog.getName()).thenReturn("replica-catalog");
     when(sourceTable.getQualifiedName()).thenReturn("source-database.source-table");
@@ -80,7 +100,7 @@ public class LocomotiveTest {
     when(replicationFactory.newInstance(tableReplication1)).thenReturn(replication1);
     when(replicationFactory.newInstance(tableReplication2)).thenReturn(replication2);
 
-    locomotive = new Locomotive(sourceCatalog, replicaCatalog, security, tableReplications, replicationFactory,
+    return new Locomotive(sourceCatalog, replicaCatalog, security, tableReplications, replicationFactory,
         MetricSender.DEFAULT_LOG_ONLY, new LocomotiveListener() {
 
           @Override
@@ -134,4 +154,218 @@ public class LocomotiveTest {
     assertThat(locomotive.getExitCode(), is(-2));
   }
 
+  @Test
+  public void exitCodeIsMinusTwoWhenOneConcurrentReplicationFails() {
+    when(tableReplications.getTableReplicationConcurrency()).thenReturn(2);
+    locomotive = newLocomotive();
+    doThrow(new RuntimeException()).when(replication1).replicate();
+    locomotive.run(applicationArguments);
+    assertThat(locomotive.getExitCode(), is(-2));
+  }
+
+  @Test
+  public void exitCodeIsMinusOneWhenAllConcurrentReplicationsFail() {
+    when(tableReplications.getTableReplicationConcurrency()).thenReturn(2);
+    locomotive = newLocomotive();
+    doThrow(new RuntimeException()).when(replication1).replicate();
+    doThrow(new RuntimeException()).when(replication2).replicate();
+    locomotive.run(applicationArguments);
+    assertThat(locomotive.getExitCode(), is(-1));
+  }
+
+  @Test
+  public void tablesAreReplicatedConcurrently() {
+    when(tableReplications.getTableReplicationConcurrency()).thenReturn(2);
+    locomotive = newLocomotive();
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    Answer<Void> awaitOther = new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        bothStarted.countDown();
+        if (!bothStarted.await(10, TimeUnit.SECONDS)) {
+          throw new IllegalStateException("Replications did not run concurrently");
+        }
+        return null;
+      }
+    };
+    doAnswer(awaitOther).when(replication1).replicate();
+    doAnswer(awaitOther).when(replication2).replicate();
+    locomotive.run(applicationArguments);
+    assertThat(locomotive.getExitCode(), is(0));
+  }
+
+  @Test
+  public void daemonRunsUntilStopped() {
+    when(tableReplicationsReloader.reload(tableReplications)).thenReturn(tableReplications);
+    doThrow(new RuntimeException()).when(replication2).replicate();
+    Daemon daemon = new Daemon();
+    daemon.setFixedDelay(1L);
+    StoppingListener listener = new StoppingListener(3);
+    Locomotive daemonLocomotive = newDaemon(daemon, listener);
+    listener.locomotive = daemonLocomotive;
+
+    daemonLocomotive.run(applicationArguments);
+
+    assertThat(listener.runs.get(), is(3));
+    verify(replication1, times(3)).replicate();
+    verify(replication2, times(3)).replicate();
+    assertThat(daemonLocomotive.getExitCode(), is(-2));
+  }
+
+  @Test
+  public void daemonReloadsTableReplications() {
+    TableReplications reloaded = new TableReplications();
+    reloaded.setTableReplications(Collections.singletonList(tableReplication1));
+    when(tableReplicationsReloader.reload(tableReplications)).thenReturn(reloaded);
+    when(tableReplicationsReloader.reload(reloaded)).thenReturn(reloaded);
+    Daemon daemon = new Daemon();
+    daemon.setFixedDelay(1L);
+    StoppingListener listener = new StoppingListener(2);
+    Locomotive daemonLocomotive = newDaemon(daemon, listener);
+    listener.locomotive = daemonLocomotive;
+
+    daemonLocomotive.run(applicationArguments);
+
+    verify(replication1, times(2)).replicate();
+    verify(replication2, times(0)).replicate();
+    assertThat(daemonLocomotive.getExitCode(), is(0));
+  }
+
+  @Test
+  public void daemonStoppedWhileWaitingForNextRun() {
+    Daemon daemon = new Daemon();
+    daemon.setCron("0 0 0 1 1 *");
+    daemon.setReloadConfiguration(false);
+    StoppingListener listener = new StoppingListener(1);
+    Locomotive daemonLocomotive = newDaemon(daemon, listener);
+    listener.locomotive = daemonLocomotive;
+
+    daemonLocomotive.run(applicationArguments);
+
+    assertThat(listener.runs.get(), is(1));
+    assertThat(daemonLocomotive.getExitCode(), is(0));
+  }
+
+  @Test
+  public void tableMetadataIsPrefetchedForEachRun() {
+    StoppingListener listener = new StoppingListener(1);
+    Locomotive prefetchingLocomotive = newDaemon(new Daemon(), listener);
+    listener.locomotive = prefetchingLocomotive;
+
+    prefetchingLocomotive.run(applicationArguments);
+
+    InOrder inOrder = inOrder(tableMetadataPrefetcher, replication1, replication2);
+    inOrder.verify(tableMetadataPrefetcher).prefetch(Arrays.asList(tableReplication1, tableReplication2));
+    inOrder.verify(replication1).replicate();
+    inOrder.verify(replication2).replicate();
+    inOrder.verify(tableMetadataPrefetcher).clear();
+  }
+
+  @Test(timeout = 10000L)
+  public void destroyWaitsForTheCurrentDaemonRun() throws Exception {
+    Daemon daemon = new Daemon();
+    daemon.setFixedDelay(1L);
+    daemon.setReloadConfiguration(false);
+    final CountDownLatch runStarted = new CountDownLatch(1);
+    final AtomicBoolean runFinished = new AtomicBoolean(false);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Exception {
+        runStarted.countDown();
+        Thread.sleep(200L);
+        runFinished.set(true);
+        return null;
+      }
+    }).when(replication1).replicate();
+    Locomotive daemonLocomotive = newDaemon(daemon, new StoppingListener(Integer.MAX_VALUE));
+    Thread daemonThread = runInBackground(daemonLocomotive);
+
+    assertThat(runStarted.await(5, TimeUnit.SECONDS), is(true));
+    daemonLocomotive.destroy();
+
+    assertThat(runFinished.get(), is(true));
+    daemonThread.join();
+    verify(replication1, times(1)).replicate();
+  }
+
+  @Test(timeout = 10000L)
+  public void destroyGivesUpWaitingAfterTheShutdownTimeout() throws Exception {
+    Daemon daemon = new Daemon();
+    daemon.setFixedDelay(1L);
+    daemon.setReloadConfiguration(false);
+    daemon.setShutdownTimeout(100L);
+    final CountDownLatch runStarted = new CountDownLatch(1);
+    final CountDownLatch releaseRun = new CountDownLatch(1);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Exception {
+        runStarted.countDown();
+        releaseRun.await();
+        return null;
+      }
+    }).when(replication1).replicate();
+    Locomotive daemonLocomotive = newDaemon(daemon, new StoppingListener(Integer.MAX_VALUE));
+    Thread daemonThread = runInBackground(daemonLocomotive);
+
+    assertThat(runStarted.await(5, TimeUnit.SECONDS), is(true));
+    daemonLocomotive.destroy();
+
+    assertThat(daemonThread.isAlive(), is(true));
+    releaseRun.countDown();
+    daemonThread.join();
+  }
+
+  private Thread runInBackground(final Locomotive daemonLocomotive) {
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        daemonLocomotive.run(applicationArguments);
+      }
+    });
+    thread.start();
+    return thread;
+  }
+
+  private Locomotive newDaemon(Daemon daemon, LocomotiveListener listener) {
+    return new Locomotive(sourceCatalog, replicaCatalog, security, tableReplications, replicationFactory,
+        MetricSender.DEFAULT_LOG_ONLY, listener, new TableReplicationListener() {
+
+          @Override
+          public void tableReplicationSuccess(EventTableReplication eventTableReplication, String eventId) {}
+
+          @Override
+          public void tableReplicationStart(EventTableReplication tableReplication, String eventId) {}
+
+          @Override
+          public void tableReplicationFailure(
+              EventTableReplication eventTableReplication,
+              String eventId,
+              Throwable t) {}
+        }, daemon, tableReplicationsReloader, tableMetadataPrefetcher);
+  }
+
+  private static class StoppingListener implements LocomotiveListener {
+
+    private final int stopAfterRuns;
+    private final AtomicInteger runs = new AtomicInteger();
+    private Locomotive locomotive;
+
+    private StoppingListener(int stopAfterRuns) {
+      this.stopAfterRuns = stopAfterRuns;
+    }
+
+    @Override
+    public void circusTrainStartUp(
+        String[] args,
+        EventSourceCatalog sourceCatalog,
+        EventReplicaCatalog replicaCatalog) {}
+
+    @Override
+    public void circusTrainShutDown(CompletionCode completionCode, Map<String, Long> metrics) {
+      if (runs.incrementAndGet() == stopAfterRuns) {
+        locomotive.stop();
+      }
+    }
+  }
+
 }
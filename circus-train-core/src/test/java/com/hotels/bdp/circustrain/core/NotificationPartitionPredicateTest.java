@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import static com.hotels.bdp.circustrain.api.CircusTrainTableParameter.SOURCE_NOTIFICATION_EVENT;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.base.Supplier;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
+import com.hotels.bdp.circustrain.api.conf.ReplicationStrategy;
+import com.hotels.bdp.circustrain.api.conf.SourceTable;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.core.notification.NotificationEventReader;
+import com.hotels.bdp.circustrain.core.notification.TableChanges;
+import com.hotels.bdp.circustrain.core.replica.Replica;
+import com.hotels.bdp.circustrain.core.source.Source;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationPartitionPredicateTest {
+
+  private static final long CURRENT_EVENT_ID = 20L;
+
+  private @Mock Source source;
+  private @Mock Replica replica;
+  private @Mock CloseableMetaStoreClient sourceClient;
+  private @Mock TableAndStatistics sourceTableAndStatistics;
+  private @Mock TableAndStatistics replicaTableAndStatistics;
+  private @Mock PartitionPredicate configuredPredicate;
+  private @Mock PartitionPredicate fullReplicationPredicate;
+  private @Mock NotificationEventReader notificationEventReader;
+  private @Mock TableChanges changes;
+
+  private final TableReplication tableReplication = new TableReplication();
+  private final Table sourceTable = new Table();
+  private final Table replicaTable = new Table();
+  private NotificationPartitionPredicate predicate;
+
+  @Before
+  public void init() throws Exception {
+    SourceTable sourceTableConfig = new SourceTable();
+    sourceTableConfig.setDatabaseName("db");
+    sourceTableConfig.setTableName("tbl");
+    tableReplication.setSourceTable(sourceTableConfig);
+    tableReplication.setReplicaTable(new ReplicaTable());
+    sourceTable.setDbName("db");
+    sourceTable.setTableName("tbl");
+    sourceTable.setSd(new StorageDescriptor());
+    sourceTable.setPartitionKeys(
+        Arrays.asList(new FieldSchema("year", "string", null), new FieldSchema("month", "int", null)));
+    replicaTable.setParameters(new HashMap<String, String>());
+
+    when(source.getMetaStoreClientSupplier()).thenReturn(new Supplier<CloseableMetaStoreClient>() {
+      @Override
+      public CloseableMetaStoreClient get() {
+        return sourceClient;
+      }
+    });
+    when(source.getHiveConf()).thenReturn(new HiveConf());
+    when(source.getTableAndStatistics(tableReplication)).thenReturn(sourceTableAndStatistics);
+    when(sourceTableAndStatistics.getTable()).thenReturn(sourceTable);
+    when(replica.getTableAndStatistics(tableReplication)).thenReturn(replicaTableAndStatistics);
+    when(replicaTableAndStatistics.getTable()).thenReturn(replicaTable);
+    when(sourceClient.getCurrentNotificationEventId()).thenReturn(new CurrentNotificationEventId(CURRENT_EVENT_ID));
+    when(fullReplicationPredicate.getPartitionPredicate()).thenReturn("full");
+    when(fullReplicationPredicate.getPartitionPredicateLimit()).thenReturn((short) -1);
+    when(configuredPredicate.getPartitionPredicateLimit()).thenReturn((short) 5);
+
+    predicate = new NotificationPartitionPredicate(source, replica, tableReplication, configuredPredicate,
+        fullReplicationPredicate, notificationEventReader);
+  }
+
+  private void recordLastEventId(long eventId) {
+    replicaTable.getParameters().put(SOURCE_NOTIFICATION_EVENT.parameterName(), Long.toString(eventId));
+  }
+
+  private static Map<String, String> replicaTableParameters(long eventId) {
+    return Collections.singletonMap(SOURCE_NOTIFICATION_EVENT.parameterName(), Long.toString(eventId));
+  }
+
+  @Test
+  public void firstReplicationReplicatesEverything() throws Exception {
+    assertThat(predicate.getPartitionPredicate(), is("full"));
+    assertThat(predicate.getPartitionPredicateLimit(), is((short) -1));
+    assertThat(predicate.getReplicaTableParameters(), is(replicaTableParameters(CURRENT_EVENT_ID)));
+    verifyZeroInteractions(notificationEventReader);
+  }
+
+  @Test
+  public void missingReplicaReplicatesEverything() throws Exception {
+    when(replica.getTableAndStatistics(tableReplication)).thenThrow(new CircusTrainException("no replica"));
+
+    assertThat(predicate.getPartitionPredicate(), is("full"));
+    assertThat(predicate.getReplicaTableParameters(), is(replicaTableParameters(CURRENT_EVENT_ID)));
+  }
+
+  @Test
+  public void changedPartitionsOnly() throws Exception {
+    recordLastEventId(10L);
+    when(notificationEventReader.read(sourceClient, sourceTable, 10L, CURRENT_EVENT_ID)).thenReturn(changes);
+    when(changes.getChangedPartitions())
+        .thenReturn(new LinkedHashSet<>(Arrays.asList(Arrays.asList("2016", "1"), Arrays.asList("2017", "2"))));
+    when(configuredPredicate.getPartitionPredicate()).thenReturn("year > '2015'");
+
+    assertThat(predicate.getPartitionPredicate(),
+        is("(year > '2015') AND ((year='2016' AND month=1) OR (year='2017' AND month=2))"));
+    assertThat(predicate.getPartitionPredicateLimit(), is((short) 5));
+    assertThat(predicate.getReplicaTableParameters(), is(replicaTableParameters(CURRENT_EVENT_ID)));
+  }
+
+  @Test
+  public void changedPartitionsAreSelectedByNameWithoutConfiguredFilter() throws Exception {
+    recordLastEventId(10L);
+    when(notificationEventReader.read(sourceClient, sourceTable, 10L, CURRENT_EVENT_ID)).thenReturn(changes);
+    when(changes.getChangedPartitions())
+        .thenReturn(new LinkedHashSet<>(Arrays.asList(Arrays.asList("2016", "1"), Arrays.asList("2017", "2"))));
+
+    assertThat(predicate.getPartitionSelection(),
+        is(PartitionSelection.byNames(Arrays.asList("year=2016/month=1", "year=2017/month=2"))));
+  }
+
+  @Test
+  public void changedPartitionsAreSelectedByFilterWithConfiguredFilter() throws Exception {
+    recordLastEventId(10L);
+    when(notificationEventReader.read(sourceClient, sourceTable, 10L, CURRENT_EVENT_ID)).thenReturn(changes);
+    when(changes.getChangedPartitions()).thenReturn(new LinkedHashSet<>(Arrays.asList(Arrays.asList("2016", "1"))));
+    when(configuredPredicate.getPartitionPredicate()).thenReturn("year > '2015'");
+
+    assertThat(predicate.getPartitionSelection(),
+        is(PartitionSelection.byFilter("(year > '2015') AND ((year='2016' AND month=1))")));
+  }
+
+  @Test
+  public void droppedPartitionsAreRejectedWhenTheyCannotBePropagated() throws Exception {
+    recordLastEventId(10L);
+    when(notificationEventReader.read(sourceClient, sourceTable, 10L, CURRENT_EVENT_ID)).thenReturn(changes);
+    when(changes.getDroppedPartitions()).thenReturn(new LinkedHashSet<>(Arrays.asList(Arrays.asList("2016", "1"))));
+
+    try {
+      predicate.getPartitionPredicate();
+      fail("Dropped partitions should not be ignored");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage().contains("[[2016, 1]]"), is(true));
+      assertThat(e.getMessage().contains(ReplicationStrategy.PROPAGATE_DELETES.name()), is(true));
+    }
+  }
+
+  @Test
+  public void droppedPartitionsAreLeftToPropagateDeletes() throws Exception {
+    tableReplication.setReplicationStrategy(ReplicationStrategy.PROPAGATE_DELETES);
+    recordLastEventId(10L);
+    when(notificationEventReader.read(sourceClient, sourceTable, 10L, CURRENT_EVENT_ID)).thenReturn(changes);
+    when(changes.getChangedPartitions()).thenReturn(new LinkedHashSet<>(Arrays.asList(Arrays.asList("2017", "1"))));
+    when(changes.getDroppedPartitions()).thenReturn(new LinkedHashSet<>(Arrays.asList(Arrays.asList("2016", "1"))));
+
+    assertThat(predicate.getPartitionSelection(),
+        is(PartitionSelection.byNames(Arrays.asList("year=2017/month=1"))));
+    assertThat(predicate.getReplicaTableParameters(), is(replicaTableParameters(CURRENT_EVENT_ID)));
+  }
+
+  @Test
+  public void nothingChanged() throws Exception {
+    recordLastEventId(CURRENT_EVENT_ID);
+    when(notificationEventReader.read(sourceClient, sourceTable, CURRENT_EVENT_ID, CURRENT_EVENT_ID))
+        .thenReturn(changes);
+
+    assertThat(predicate.getPartitionPredicate(), is(""));
+    assertThat(predicate.getPartitionPredicateLimit(), is((short) 0));
+  }
+
+  @Test
+  public void changesThatCannotBeWorkedOutReplicateEverything() throws Exception {
+    recordLastEventId(10L);
+    when(notificationEventReader.read(sourceClient, sourceTable, 10L, CURRENT_EVENT_ID)).thenReturn(changes);
+    when(changes.isFullReplicationRequired()).thenReturn(true);
+
+    assertThat(predicate.getPartitionPredicate(), is("full"));
+    assertThat(predicate.getReplicaTableParameters(), is(replicaTableParameters(CURRENT_EVENT_ID)));
+  }
+
+  @Test
+  public void notificationsDisabled() throws Exception {
+    when(sourceClient.getCurrentNotificationEventId()).thenReturn(new CurrentNotificationEventId(0L));
+
+    assertThat(predicate.getPartitionPredicate(), is("full"));
+    assertThat(predicate.getReplicaTableParameters().isEmpty(), is(true));
+  }
+
+}
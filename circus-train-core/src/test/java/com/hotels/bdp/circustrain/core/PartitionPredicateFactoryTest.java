@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -72,4 +72,14 @@ public class PartitionPredicateFactoryTest {
     PartitionPredicate predicate = partitionPredicateFactory.newInstance(tableReplication);
     assertThat(predicate, instanceOf(DiffGeneratedPartitionPredicate.class));
   }
+
+  @Test
+  public void newInstanceNotificationPartitionPredicate() throws Exception {
+    when(sourceTable.isGeneratePartitionFilter()).thenReturn(false);
+    when(sourceTable.isGeneratePartitionFilterFromNotifications()).thenReturn(true);
+    when(sourceFactory.newInstance(tableReplication)).thenReturn(source);
+    when(replicaFactory.newInstance(tableReplication)).thenReturn(replica);
+    PartitionPredicate predicate = partitionPredicateFactory.newInstance(tableReplication);
+    assertThat(predicate, instanceOf(NotificationPartitionPredicate.class));
+  }
 }
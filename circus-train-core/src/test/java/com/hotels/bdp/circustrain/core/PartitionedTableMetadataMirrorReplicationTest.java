@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,7 @@ public class PartitionedTableMetadataMirrorReplicationTest {
 
   private static final short MAX_PARTITIONS = 1;
   private static final String PARTITION_PREDICATE = "partitionPredicate";
+  private static final PartitionSelection PARTITION_SELECTION = PartitionSelection.byFilter(PARTITION_PREDICATE);
   private static final String EVENT_ID = "event_id";
   private static final String TABLE = "table";
   private static final String DATABASE = "database";
@@ -73,13 +74,13 @@ public class PartitionedTableMetadataMirrorReplicationTest {
     when(source.getLocationManager(sourceTable, sourcePartitions, EVENT_ID, copierOptions))
         .thenReturn(sourceLocationManager);
     when(partitionsAndStatistics.getPartitions()).thenReturn(sourcePartitions);
-    when(partitionPredicate.getPartitionPredicate()).thenReturn(PARTITION_PREDICATE);
+    when(partitionPredicate.getPartitionSelection()).thenReturn(PARTITION_SELECTION);
     when(partitionPredicate.getPartitionPredicateLimit()).thenReturn(MAX_PARTITIONS);
   }
 
   @Test
   public void typical() throws Exception {
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.getPartitions(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
 
     PartitionedTableMetadataMirrorReplication replication = new PartitionedTableMetadataMirrorReplication(DATABASE,
         TABLE, partitionPredicate, source, replica, eventIdFactory, DATABASE, TABLE);
@@ -98,7 +99,7 @@ public class PartitionedTableMetadataMirrorReplicationTest {
   public void noMatchingPartitions() throws Exception {
     PartitionsAndStatistics emptyPartitionsAndStats = new PartitionsAndStatistics(sourceTable.getPartitionKeys(),
         Collections.<Partition>emptyList(), Collections.<String, List<ColumnStatisticsObj>>emptyMap());
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(emptyPartitionsAndStats);
+    when(source.getPartitions(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS)).thenReturn(emptyPartitionsAndStats);
     when(source.getLocationManager(sourceTable, Collections.<Partition>emptyList(), EVENT_ID, copierOptions))
         .thenReturn(sourceLocationManager);
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -69,6 +69,7 @@ public class PartitionedTableMetadataUpdateReplicationTest {
 
   private static final short MAX_PARTITIONS = 1;
   private static final String PARTITION_PREDICATE = "partitionPredicate";
+  private static final PartitionSelection PARTITION_SELECTION = PartitionSelection.byFilter(PARTITION_PREDICATE);
   private static final String EVENT_ID = "event_id";
   private static final String TABLE = "table";
   private static final String DATABASE = "database";
@@ -99,7 +100,7 @@ public class PartitionedTableMetadataUpdateReplicationTest {
     when(source.getTableAndStatistics(DATABASE, TABLE)).thenReturn(sourceTableAndStatistics);
     when(sourceTableAndStatistics.getTable()).thenReturn(sourceTable);
     when(partitionsAndStatistics.getPartitions()).thenReturn(sourcePartitions);
-    when(partitionPredicate.getPartitionPredicate()).thenReturn(PARTITION_PREDICATE);
+    when(partitionPredicate.getPartitionSelection()).thenReturn(PARTITION_SELECTION);
     when(partitionPredicate.getPartitionPredicateLimit()).thenReturn(MAX_PARTITIONS);
     when(replica.getMetaStoreClientSupplier()).thenReturn(metastoreClientSupplier);
     when(metastoreClientSupplier.get()).thenReturn(replicaClient);
@@ -107,7 +108,7 @@ public class PartitionedTableMetadataUpdateReplicationTest {
 
   @Test
   public void typical() throws Exception {
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.getPartitions(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
     when(replica.getTable(replicaClient, DATABASE, TABLE)).thenReturn(Optional.of(previousReplicaTable));
 
     when(previousReplicaTable.getSd()).thenReturn(sd);
@@ -127,7 +128,7 @@ public class PartitionedTableMetadataUpdateReplicationTest {
 
   @Test
   public void nonExistingPartitionsAreFiltered() throws Exception {
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.getPartitions(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
     when(replica.getTable(replicaClient, DATABASE, TABLE)).thenReturn(Optional.of(previousReplicaTable));
     when(previousReplicaTable.getSd()).thenReturn(sd);
     when(sd.getLocation()).thenReturn(tableLocation);
@@ -156,7 +157,7 @@ public class PartitionedTableMetadataUpdateReplicationTest {
   public void noMatchingPartitions() throws Exception {
     PartitionsAndStatistics emptyPartitionsAndStats = new PartitionsAndStatistics(sourceTable.getPartitionKeys(),
         Collections.<Partition>emptyList(), Collections.<String, List<ColumnStatisticsObj>>emptyMap());
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(emptyPartitionsAndStats);
+    when(source.getPartitions(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS)).thenReturn(emptyPartitionsAndStats);
 
     PartitionedTableMetadataUpdateReplication replication = new PartitionedTableMetadataUpdateReplication(DATABASE,
         TABLE, partitionPredicate, source, replica, eventIdFactory, replicaLocation, DATABASE, TABLE);
@@ -173,7 +174,7 @@ public class PartitionedTableMetadataUpdateReplicationTest {
     expectedException.expect(CircusTrainException.class);
     expectedException.expectCause(isA(InvalidReplicationModeException.class));
 
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.getPartitions(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
     when(replica.getTable(replicaClient, DATABASE, TABLE)).thenReturn(Optional.<Table>absent());
 
     PartitionedTableMetadataUpdateReplication replication = new PartitionedTableMetadataUpdateReplication(DATABASE,
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,43 +15,64 @@
  */
 package com.hotels.bdp.circustrain.core;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.conf.Checkpoints;
+import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierContext;
 import com.hotels.bdp.circustrain.api.copier.CopierFactory;
 import com.hotels.bdp.circustrain.api.copier.CopierFactoryManager;
+import com.hotels.bdp.circustrain.api.copier.CopierProgressListener;
 import com.hotels.bdp.circustrain.api.data.DataManipulator;
 import com.hotels.bdp.circustrain.api.data.DataManipulatorFactory;
 import com.hotels.bdp.circustrain.api.data.DataManipulatorFactoryManager;
 import com.hotels.bdp.circustrain.api.event.CopierListener;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournal;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournalFactory;
 import com.hotels.bdp.circustrain.core.replica.Replica;
 import com.hotels.bdp.circustrain.core.replica.TableType;
 import com.hotels.bdp.circustrain.core.source.Source;
@@ -60,17 +81,21 @@ import com.hotels.bdp.circustrain.core.source.Source;
 public class PartitionedTableReplicationTest {
 
   private static final short MAX_PARTITIONS = 1;
+  private static final int PAGE_SIZE = 1000;
   private static final String PARTITION_PREDICATE = "partitionPredicate";
+  private static final PartitionSelection PARTITION_SELECTION = PartitionSelection.byFilter(PARTITION_PREDICATE);
   private static final String EVENT_ID = "event_id";
   private static final String TABLE = "table";
   private static final String DATABASE = "database";
   private static final String MAPPED_TABLE = "mapped_table";
   private static final String MAPPED_DATABASE = "mapped_database";
 
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private @Mock Source source;
   private @Mock TableAndStatistics sourceTableAndStatistics;
   private @Mock Table sourceTable;
-  private @Mock PartitionsAndStatistics partitionsAndStatistics;
+  private @Mock Iterator<PartitionsAndStatistics> partitionsAndStatistics;
   private @Mock Replica replica;
   private @Mock CopierFactoryManager copierFactoryManager;
   private @Mock CopierFactory copierFactory;
@@ -85,6 +110,7 @@ public class PartitionedTableReplicationTest {
   private @Mock DataManipulatorFactory dataManipulatorFactory;
   private @Mock DataManipulator dataManipulator;
   private @Mock Metrics metrics;
+  private @Mock CheckpointJournal checkpointJournal;
 
   private final Path sourceTableLocation = new Path("sourceTableLocation");
   private final Path replicaTableLocation = new Path("replicaTableLocation");
@@ -107,8 +133,7 @@ public class PartitionedTableReplicationTest {
     when(copierFactoryManager.getCopierFactory(sourceTableLocation, replicaTableLocation, copierOptions))
         .thenReturn(copierFactory);
     when(copierFactory.newInstance(any(CopierContext.class))).thenReturn(copier);
-    when(partitionsAndStatistics.getPartitions()).thenReturn(sourcePartitions);
-    when(partitionPredicate.getPartitionPredicate()).thenReturn(PARTITION_PREDICATE);
+    when(partitionPredicate.getPartitionSelection()).thenReturn(PARTITION_SELECTION);
     when(partitionPredicate.getPartitionPredicateLimit()).thenReturn(MAX_PARTITIONS);
     when(dataManipulatorFactoryManager.getFactory(sourceTableLocation, replicaTableLocation, copierOptions))
         .thenReturn(dataManipulatorFactory);
@@ -120,9 +145,8 @@ public class PartitionedTableReplicationTest {
   public void noMatchingPartitions() throws Exception {
     when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
         .thenReturn(replicaLocationManager);
-    PartitionsAndStatistics emptyPartitionsAndStats = new PartitionsAndStatistics(sourceTable.getPartitionKeys(),
-        Collections.<Partition>emptyList(), Collections.<String, List<ColumnStatisticsObj>>emptyMap());
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(emptyPartitionsAndStats);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(Collections.<Partition> emptyList()));
     when(source.getLocationManager(sourceTable, Collections.<Partition>emptyList(), EVENT_ID, copierOptions))
         .thenReturn(sourceLocationManager);
 
@@ -143,7 +167,10 @@ public class PartitionedTableReplicationTest {
   public void typical() throws Exception {
     when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
         .thenReturn(replicaLocationManager);
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, sourcePartitions, PAGE_SIZE))
+        .thenReturn(partitionsAndStatistics);
 
     TableReplication tableReplication = createTypicalTableReplication();
     PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
@@ -168,6 +195,271 @@ public class PartitionedTableReplicationTest {
     replicationOrder.verify(replicaLocationManager).cleanUpLocations();
   }
 
+  @Test
+  public void onlyValuesAndLocationsOfSourcePartitionsAreKept() throws Exception {
+    Partition sourcePartition = new Partition();
+    sourcePartition.setValues(Arrays.asList("1"));
+    sourcePartition.setParameters(Collections.singletonMap("key", "value"));
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setLocation("partition1");
+    sd.setCols(Arrays.asList(new FieldSchema("column", "string", null)));
+    sourcePartition.setSd(sd);
+    Partition reference = new Partition();
+    reference.setValues(Arrays.asList("1"));
+    reference.setSd(new StorageDescriptor());
+    reference.getSd().setLocation("partition1");
+    List<Partition> references = Arrays.asList(reference);
+    when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
+        .thenReturn(replicaLocationManager);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(Arrays.asList(sourcePartition)));
+    when(source.getLocationManager(sourceTable, references, EVENT_ID, copierOptions))
+        .thenReturn(sourceLocationManager);
+    when(source.getPartitionsAndStatistics(sourceTable, references, PAGE_SIZE)).thenReturn(partitionsAndStatistics);
+
+    TableReplication tableReplication = createTypicalTableReplication();
+    PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager);
+    replication.replicate();
+
+    ArgumentCaptor<CopierContext> copierContextCaptor = ArgumentCaptor.forClass(CopierContext.class);
+    verify(copierFactory).newInstance(copierContextCaptor.capture());
+    assertThat(copierContextCaptor.getValue().getSourcePartitions(), is(references));
+    verify(replica)
+        .updateMetadata(EVENT_ID, sourceTableAndStatistics, partitionsAndStatistics, DATABASE, TABLE,
+            replicaLocationManager);
+  }
+
+  @Test
+  public void pipelinedCommit() throws Exception {
+    when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
+        .thenReturn(replicaLocationManager);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, sourcePartitions, PAGE_SIZE))
+        .thenReturn(partitionsAndStatistics);
+    when(copier.copy(any(CopierProgressListener.class))).thenReturn(metrics);
+
+    TableReplication tableReplication = createTypicalTableReplication();
+    tableReplication.setPipelinedCommit(true);
+    PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager);
+    replication.replicate();
+
+    InOrder replicationOrder = inOrder(copier, sourceLocationManager, replica, replicaLocationManager, listener);
+    replicationOrder.verify(replica).validateReplicaTable(DATABASE, TABLE);
+    replicationOrder
+        .verify(replica)
+        .updateMetadata(EVENT_ID, sourceTableAndStatistics, DATABASE, TABLE, replicaLocationManager);
+    replicationOrder.verify(listener).copierStart(anyString());
+    replicationOrder.verify(copier).copy(any(CopierProgressListener.class));
+    replicationOrder
+        .verify(replica)
+        .updatePartitionMetadata(EVENT_ID, sourceTableAndStatistics, partitionsAndStatistics, DATABASE, TABLE,
+            replicaLocationManager);
+    replicationOrder.verify(listener).copierEnd(metrics);
+    replicationOrder.verify(sourceLocationManager).cleanUpLocations();
+    replicationOrder.verify(replicaLocationManager).cleanUpLocations();
+  }
+
+  @Test
+  public void resumedReplicationSkipsCheckpointedWork() throws Exception {
+    partition1.setValues(Arrays.asList("1"));
+    partition2.setValues(Arrays.asList("2"));
+    when(checkpointJournal.getEventId()).thenReturn(EVENT_ID);
+    when(checkpointJournal.isCopied(new Path("partition1"))).thenReturn(true);
+    when(checkpointJournal.isCommitted(partition1)).thenReturn(true);
+    when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
+        .thenReturn(replicaLocationManager);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, Arrays.asList(partition2), PAGE_SIZE))
+        .thenReturn(partitionsAndStatistics);
+    when(copier.copy(checkpointJournal)).thenReturn(metrics);
+
+    TableReplication tableReplication = createTypicalTableReplication();
+    PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager,
+        checkpointJournal);
+    replication.replicate();
+
+    assertThat(replication.getEventId(), is(EVENT_ID));
+    ArgumentCaptor<CopierContext> copierContext = ArgumentCaptor.forClass(CopierContext.class);
+    verify(copierFactory).newInstance(copierContext.capture());
+    List<Path> uncopiedSubLocations = Arrays.asList(new Path("partition2"));
+    assertThat(copierContext.getValue().getSourceSubLocations(), is(uncopiedSubLocations));
+    InOrder replicationOrder = inOrder(checkpointJournal, copier, replica);
+    replicationOrder.verify(checkpointJournal).started(EVENT_ID);
+    replicationOrder.verify(copier).copy(checkpointJournal);
+    replicationOrder
+        .verify(replica)
+        .updateMetadata(eq(EVENT_ID), eq(sourceTableAndStatistics),
+            any(CheckpointingPartitionsAndStatisticsIterator.class), eq(DATABASE), eq(TABLE),
+            any(CheckpointingReplicaLocationManager.class));
+    replicationOrder.verify(checkpointJournal).completed();
+  }
+
+  @Test
+  public void resumedFullOverwriteKeepsPartitionsCommittedByPreviousRun() throws Exception {
+    partition1.setValues(Arrays.asList("1"));
+    partition2.setValues(Arrays.asList("2"));
+    when(checkpointJournal.getEventId()).thenReturn(EVENT_ID);
+    when(checkpointJournal.isCopied(new Path("partition1"))).thenReturn(true);
+    when(checkpointJournal.isCommitted(partition1)).thenReturn(true);
+    when(checkpointJournal.hasCommittedPartitions()).thenReturn(true);
+    when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
+        .thenReturn(replicaLocationManager);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, Arrays.asList(partition2), PAGE_SIZE))
+        .thenReturn(partitionsAndStatistics);
+    when(copier.copy(checkpointJournal)).thenReturn(metrics);
+
+    TableReplication tableReplication = createTypicalTableReplication();
+    tableReplication.setReplicationMode(ReplicationMode.FULL_OVERWRITE);
+    PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager,
+        checkpointJournal);
+    replication.replicate();
+
+    verify(replica, never()).cleanupReplicaTableIfRequired(DATABASE, TABLE, dataManipulator);
+    verify(replica)
+        .updateMetadata(eq(EVENT_ID), eq(sourceTableAndStatistics),
+            any(CheckpointingPartitionsAndStatisticsIterator.class), eq(DATABASE), eq(TABLE),
+            any(CheckpointingReplicaLocationManager.class));
+    verify(checkpointJournal).completed();
+  }
+
+  @Test
+  public void resumedReplicationCleansUpLocationsReplacedByPreviousRun() throws Exception {
+    partition1.setValues(Arrays.asList("1"));
+    partition2.setValues(Arrays.asList("2"));
+    final PartitionsAndStatistics page1 = newPage(partition1);
+    final PartitionsAndStatistics page2 = newPage(partition2);
+    when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
+        .thenReturn(replicaLocationManager);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions), pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, sourcePartitions, PAGE_SIZE))
+        .thenReturn(Arrays.asList(page1, page2).iterator());
+    when(source.getPartitionsAndStatistics(sourceTable, Arrays.asList(partition2), PAGE_SIZE))
+        .thenReturn(Arrays.asList(page2).iterator());
+    when(copier.copy(any(CopierProgressListener.class))).thenReturn(metrics);
+    final AtomicBoolean interrupted = new AtomicBoolean(false);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        Iterator<PartitionsAndStatistics> pages = invocation.getArgument(2);
+        ReplicaLocationManager locationManager = invocation.getArgument(5);
+        while (pages.hasNext()) {
+          String value = pages.next().getPartitions().get(0).getValues().get(0);
+          locationManager.addCleanUpLocation("old-event", new Path("old/" + value));
+          if (value.equals("2") && interrupted.compareAndSet(false, true)) {
+            throw new CircusTrainException("interrupted");
+          }
+        }
+        return null;
+      }
+    })
+        .when(replica)
+        .updateMetadata(eq(EVENT_ID), eq(sourceTableAndStatistics), any(Iterator.class), eq(DATABASE), eq(TABLE),
+            any(ReplicaLocationManager.class));
+    Checkpoints checkpoints = new Checkpoints();
+    checkpoints.setDirectory(temporaryFolder.getRoot().getAbsolutePath());
+    CheckpointJournalFactory checkpointJournalFactory = new CheckpointJournalFactory(checkpoints);
+    TableReplication tableReplication = createTypicalTableReplication();
+
+    try {
+      new PartitionedTableReplication(tableReplication, partitionPredicate, source, replica, copierFactoryManager,
+          eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager,
+          checkpointJournalFactory.newInstance(tableReplication)).replicate();
+      fail("First run should be interrupted");
+    } catch (CircusTrainException e) {
+      verify(replicaLocationManager, never()).cleanUpLocations();
+    }
+    new PartitionedTableReplication(tableReplication, partitionPredicate, source, replica, copierFactoryManager,
+        eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager,
+        checkpointJournalFactory.newInstance(tableReplication)).replicate();
+
+    // Added by the interrupted run and handed back to the location manager by the resumed one
+    verify(replicaLocationManager, times(2)).addCleanUpLocation("old-event", new Path("old/1"));
+    verify(replicaLocationManager, times(2)).addCleanUpLocation("old-event", new Path("old/2"));
+    verify(replicaLocationManager).cleanUpLocations();
+  }
+
+  private static Iterator<List<Partition>> pages(List<Partition> partitions) {
+    return Collections.singletonList(partitions).iterator();
+  }
+
+  private static PartitionsAndStatistics newPage(Partition partition) {
+    return new PartitionsAndStatistics(Collections.singletonList(new FieldSchema("key", "string", null)),
+        Collections.<Partition, ColumnStatistics> singletonMap(partition, null));
+  }
+
+  @Test
+  public void replicaTableParametersOfPartitionPredicateAreRecorded() throws Exception {
+    when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
+        .thenReturn(replicaLocationManager);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, sourcePartitions, PAGE_SIZE))
+        .thenReturn(partitionsAndStatistics);
+    when(partitionPredicate.getReplicaTableParameters()).thenReturn(Collections.singletonMap("key", "value"));
+
+    TableReplication tableReplication = createTypicalTableReplication();
+    PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager);
+    replication.replicate();
+
+    ArgumentCaptor<TableAndStatistics> replicatedTable = ArgumentCaptor.forClass(TableAndStatistics.class);
+    InOrder replicationOrder = inOrder(replica);
+    replicationOrder
+        .verify(replica)
+        .updateMetadata(EVENT_ID, sourceTableAndStatistics, partitionsAndStatistics, DATABASE, TABLE,
+            replicaLocationManager);
+    replicationOrder
+        .verify(replica)
+        .updateMetadata(eq(EVENT_ID), replicatedTable.capture(), eq(DATABASE), eq(TABLE), eq(replicaLocationManager));
+    assertThat(replicatedTable.getValue().getTable().getParameters().get("key"), is("value"));
+  }
+
+  @Test
+  public void replicaTableParametersOfPartitionPredicateAreNotRecordedWhenPartitionsFail() throws Exception {
+    when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
+        .thenReturn(replicaLocationManager);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, sourcePartitions, PAGE_SIZE))
+        .thenReturn(partitionsAndStatistics);
+    when(partitionPredicate.getReplicaTableParameters()).thenReturn(Collections.singletonMap("key", "value"));
+    // The first page of partitions is committed and the second one fails
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        Iterator<PartitionsAndStatistics> pages = invocation.getArgument(2);
+        pages.next();
+        throw new CircusTrainException("page failed");
+      }
+    })
+        .when(replica)
+        .updateMetadata(EVENT_ID, sourceTableAndStatistics, partitionsAndStatistics, DATABASE, TABLE,
+            replicaLocationManager);
+
+    TableReplication tableReplication = createTypicalTableReplication();
+    PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
+        source, replica, copierFactoryManager, eventIdFactory, copierOptions, listener, dataManipulatorFactoryManager);
+    try {
+      replication.replicate();
+      fail("Partition exception should be caught and rethrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getCause().getMessage(), is("page failed"));
+    }
+    verify(partitionsAndStatistics).next();
+    verify(replica, never())
+        .updateMetadata(anyString(), any(TableAndStatistics.class), anyString(), anyString(),
+            any(ReplicaLocationManager.class));
+  }
+
   private TableReplication createTypicalTableReplication() {
     return TableReplicationUtils.createTableReplication(DATABASE, TABLE, DATABASE, TABLE, targetTableLocation);
   }
@@ -176,7 +468,10 @@ public class PartitionedTableReplicationTest {
   public void mappedNames() throws Exception {
     when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
         .thenReturn(replicaLocationManager);
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
+    when(source.getPartitionsAndStatistics(sourceTable, sourcePartitions, PAGE_SIZE))
+        .thenReturn(partitionsAndStatistics);
 
     TableReplication tableReplication = TableReplicationUtils
         .createTableReplication(DATABASE, TABLE, MAPPED_DATABASE, MAPPED_TABLE, targetTableLocation);
@@ -205,7 +500,8 @@ public class PartitionedTableReplicationTest {
     when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
         .thenReturn(replicaLocationManager);
     when(copier.copy()).thenThrow(new CircusTrainException("copy failed"));
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
 
     TableReplication tableReplication = createTypicalTableReplication();
     PartitionedTableReplication replication = new PartitionedTableReplication(tableReplication, partitionPredicate,
@@ -226,7 +522,8 @@ public class PartitionedTableReplicationTest {
   public void replicationFailsOnDeleteTableException() throws Exception {
     when(replica.getLocationManager(TableType.PARTITIONED, targetTableLocation, EVENT_ID, sourceLocationManager))
         .thenReturn(replicaLocationManager);
-    when(source.getPartitions(sourceTable, PARTITION_PREDICATE, MAX_PARTITIONS)).thenReturn(partitionsAndStatistics);
+    when(source.listPartitionPages(sourceTable, PARTITION_SELECTION, MAX_PARTITIONS, PAGE_SIZE))
+        .thenReturn(pages(sourcePartitions));
     doThrow(new Exception()).when(replica).cleanupReplicaTableIfRequired(DATABASE, TABLE, dataManipulator);
 
     TableReplication tableReplication = createTypicalTableReplication();
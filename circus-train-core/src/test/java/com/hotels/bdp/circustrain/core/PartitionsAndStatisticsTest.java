@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import static com.hotels.bdp.circustrain.core.metastore.HiveEntityFactory.newTab
 import java.io.File;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -40,6 +41,7 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 
 public class PartitionsAndStatisticsTest {
@@ -120,4 +122,24 @@ public class PartitionsAndStatisticsTest {
 
     assertNull(partitionsAndStatistics.getStatisticsForPartition(partitions.get(0)));
   }
+
+  @Test
+  public void withPartitionChecksums() throws Exception {
+    List<FieldSchema> partitionKeys = Lists.newArrayList(newFieldSchema("a"));
+    Table table = newTable("t1", "db1", partitionKeys, newStorageDescriptor(new File("bla"), "col1"));
+    List<Partition> partitions = Lists.newArrayList(newPartition(table, "b"), newPartition(table, "c"));
+    PartitionsAndStatistics partitionsAndStatistics = new PartitionsAndStatistics(partitionKeys, partitions,
+        statisticsPerPartitionName);
+    assertNull(partitionsAndStatistics.getChecksumForPartition(partitions.get(0)));
+
+    Iterator<PartitionsAndStatistics> pages = PartitionsAndStatistics
+        .withPartitionChecksums(Iterators.singletonIterator(partitionsAndStatistics),
+            Collections.singletonMap("a=b", "checksum"));
+    PartitionsAndStatistics page = pages.next();
+
+    assertThat(page.getPartitions(), is(partitions));
+    assertThat(page.getChecksumForPartition(partitions.get(0)), is("checksum"));
+    assertNull(page.getChecksumForPartition(partitions.get(1)));
+    assertThat(pages.hasNext(), is(false));
+  }
 }
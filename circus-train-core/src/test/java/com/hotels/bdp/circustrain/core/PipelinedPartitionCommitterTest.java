@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.ReplicaLocationManager;
+import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.copier.Copier;
+import com.hotels.bdp.circustrain.api.copier.CopierProgressListener;
+import com.hotels.bdp.circustrain.api.metrics.Metrics;
+import com.hotels.bdp.circustrain.core.checkpoint.CheckpointJournal;
+import com.hotels.bdp.circustrain.core.replica.Replica;
+import com.hotels.bdp.circustrain.core.source.Source;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PipelinedPartitionCommitterTest {
+
+  private static final String EVENT_ID = "event_id";
+  private static final String DATABASE = "db";
+  private static final String TABLE = "tbl";
+  private static final int PAGE_SIZE = 10;
+
+  private @Mock Source source;
+  private @Mock Replica replica;
+  private @Mock Copier copier;
+  private @Mock TableAndStatistics tableAndStatistics;
+  private @Mock Table table;
+  private @Mock SourceLocationManager sourceLocationManager;
+  private @Mock ReplicaLocationManager replicaLocationManager;
+  private @Mock Metrics metrics;
+  private @Mock Iterator<PartitionsAndStatistics> firstPage;
+  private @Mock Iterator<PartitionsAndStatistics> secondPage;
+
+  private final Path sourceBaseLocation = new Path("s3://source/table");
+  private final Partition partition1 = newPartition("s3://source/table/year=2016");
+  private final Partition partition2 = newPartition("s3://source/table/year=2017");
+
+  @Before
+  public void init() {
+    when(tableAndStatistics.getTable()).thenReturn(table);
+    when(sourceLocationManager.getPartitionSubPath(new Path(partition1.getSd().getLocation())))
+        .thenReturn(new Path("year=2016"));
+    when(sourceLocationManager.getPartitionSubPath(new Path(partition2.getSd().getLocation())))
+        .thenReturn(new Path("year=2017"));
+  }
+
+  private static Partition newPartition(String location) {
+    Partition partition = new Partition();
+    partition.setValues(Arrays.asList(location.substring(location.lastIndexOf('=') + 1)));
+    partition.setSd(new StorageDescriptor());
+    partition.getSd().setLocation(location);
+    return partition;
+  }
+
+  private PipelinedPartitionCommitter newCommitter(int commitBatchSize) {
+    return new PipelinedPartitionCommitter(source, replica, EVENT_ID, tableAndStatistics,
+        Arrays.asList(partition1, partition2), sourceLocationManager, sourceBaseLocation, DATABASE, TABLE,
+        replicaLocationManager, commitBatchSize, PAGE_SIZE, Collections.<String, String> emptyMap(),
+        CheckpointJournal.NULL);
+  }
+
+  @Test
+  public void commitsPartitionsAsTheyAreCopied() throws Exception {
+    when(source.getPartitionsAndStatistics(table, Collections.singletonList(partition1), PAGE_SIZE))
+        .thenReturn(firstPage);
+    when(source.getPartitionsAndStatistics(table, Collections.singletonList(partition2), PAGE_SIZE))
+        .thenReturn(secondPage);
+    final CountDownLatch firstCommit = new CountDownLatch(1);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        firstCommit.countDown();
+        return null;
+      }
+    }).when(replica).updatePartitionMetadata(EVENT_ID, tableAndStatistics, firstPage, DATABASE, TABLE,
+        replicaLocationManager);
+    when(copier.copy(any(CopierProgressListener.class))).thenAnswer(new Answer<Metrics>() {
+      @Override
+      public Metrics answer(InvocationOnMock invocation) throws Exception {
+        CopierProgressListener listener = invocation.getArgument(0);
+        listener.subLocationCopied(new Path(sourceBaseLocation, "year=2016"));
+        // The first partition must be committed while the copy is still running
+        assertThat(firstCommit.await(10, TimeUnit.SECONDS), is(true));
+        return metrics;
+      }
+    });
+
+    PipelinedPartitionCommitter committer = newCommitter(1);
+    assertThat(committer.copyAndCommit(copier), is(metrics));
+
+    InOrder inOrder = inOrder(replica);
+    inOrder
+        .verify(replica)
+        .updatePartitionMetadata(EVENT_ID, tableAndStatistics, firstPage, DATABASE, TABLE, replicaLocationManager);
+    inOrder
+        .verify(replica)
+        .updatePartitionMetadata(EVENT_ID, tableAndStatistics, secondPage, DATABASE, TABLE, replicaLocationManager);
+    assertThat(committer.getCommittedPartitions(), is(2));
+  }
+
+  @Test
+  public void commitsAllPartitionsWhenCopierDoesNotReportProgress() throws Exception {
+    when(source.getPartitionsAndStatistics(table, Arrays.asList(partition1, partition2), PAGE_SIZE))
+        .thenReturn(firstPage);
+    when(copier.copy(any(CopierProgressListener.class))).thenReturn(metrics);
+
+    PipelinedPartitionCommitter committer = newCommitter(100);
+    assertThat(committer.copyAndCommit(copier), is(metrics));
+
+    InOrder inOrder = inOrder(replica);
+    inOrder
+        .verify(replica)
+        .updatePartitionMetadata(EVENT_ID, tableAndStatistics, firstPage, DATABASE, TABLE, replicaLocationManager);
+    inOrder.verifyNoMoreInteractions();
+    assertThat(committer.getCommittedPartitions(), is(2));
+  }
+
+  @Test
+  public void copierFailureIsRethrownWithoutCommittingRemainingPartitions() throws Exception {
+    when(copier.copy(any(CopierProgressListener.class))).thenThrow(new CircusTrainException("copy failed"));
+
+    PipelinedPartitionCommitter committer = newCommitter(100);
+    try {
+      committer.copyAndCommit(copier);
+      fail("Copier exception should be rethrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage(), is("copy failed"));
+    }
+    assertThat(committer.getCommittedPartitions(), is(0));
+  }
+
+  @Test(timeout = 10000L)
+  public void commitFailureStopsTheCopierBeforeBeingRethrown() throws Exception {
+    when(source.getPartitionsAndStatistics(table, Collections.singletonList(partition1), PAGE_SIZE))
+        .thenReturn(firstPage);
+    doThrow(new CircusTrainException("commit failed"))
+        .when(replica)
+        .updatePartitionMetadata(EVENT_ID, tableAndStatistics, firstPage, DATABASE, TABLE, replicaLocationManager);
+    final AtomicBoolean copierStopped = new AtomicBoolean(false);
+    when(copier.copy(any(CopierProgressListener.class))).thenAnswer(new Answer<Metrics>() {
+      @Override
+      public Metrics answer(InvocationOnMock invocation) throws Exception {
+        CopierProgressListener listener = invocation.getArgument(0);
+        listener.subLocationCopied(new Path(sourceBaseLocation, "year=2016"));
+        try {
+          new CountDownLatch(1).await();
+          return metrics;
+        } finally {
+          // Give the committer a chance to return before the copier has stopped
+          Thread.sleep(100L);
+          copierStopped.set(true);
+        }
+      }
+    });
+
+    PipelinedPartitionCommitter committer = newCommitter(1);
+    try {
+      committer.copyAndCommit(copier);
+      fail("Commit exception should be rethrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage(), is("commit failed"));
+    }
+    assertThat(copierStopped.get(), is(true));
+    assertThat(committer.getCommittedPartitions(), is(0));
+  }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsDesc;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.base.Supplier;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TableMetadataCacheTest {
+
+  private static final String DATABASE = "db";
+
+  private @Mock Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private @Mock CloseableMetaStoreClient client;
+
+  private final Table table1 = newTable("table1");
+  private final Table table2 = newTable("table2");
+  private TableMetadataCache cache;
+
+  @Before
+  public void init() throws Exception {
+    when(metaStoreClientSupplier.get()).thenReturn(client);
+    when(client.getTableObjectsByName(DATABASE, Arrays.asList("table1", "Table2", "missing")))
+        .thenReturn(Arrays.asList(table1, table2));
+    cache = new TableMetadataCache(metaStoreClientSupplier);
+  }
+
+  private static Table newTable(String name) {
+    Table table = new Table();
+    table.setDbName(DATABASE);
+    table.setTableName(name);
+    return table;
+  }
+
+  @Test
+  public void prefetchedTablesAreCopied() throws Exception {
+    cache.prefetch(DATABASE, Arrays.asList("table1", "Table2", "missing"));
+
+    Table cached = cache.getTable(DATABASE, "table1");
+    assertThat(cached, is(table1));
+    assertThat(cached, is(not(sameInstance(table1))));
+    assertThat(cache.getTable("DB", "TABLE2"), is(table2));
+    assertThat(cache.getTable(DATABASE, "missing"), is(nullValue()));
+    verify(client).close();
+  }
+
+  @Test
+  public void prefetchIsBatched() throws Exception {
+    List<String> tableNames = new ArrayList<>();
+    for (int i = 0; i < TableMetadataCache.PREFETCH_BATCH_SIZE + 1; i++) {
+      tableNames.add("table" + i);
+    }
+    when(client.getTableObjectsByName(DATABASE, tableNames.subList(0, TableMetadataCache.PREFETCH_BATCH_SIZE)))
+        .thenReturn(Collections.singletonList(table1));
+    when(client.getTableObjectsByName(DATABASE, Collections.singletonList("table500")))
+        .thenReturn(Collections.<Table> emptyList());
+
+    cache.prefetch(DATABASE, tableNames);
+
+    assertThat(cache.getTable(DATABASE, "table1"), is(table1));
+  }
+
+  @Test
+  public void onlyStatisticsOfPrefetchedTablesAreCached() throws Exception {
+    cache.prefetch(DATABASE, Arrays.asList("table1", "Table2", "missing"));
+    ColumnStatistics statistics = new ColumnStatistics(new ColumnStatisticsDesc(true, DATABASE, "table1"),
+        Collections.<ColumnStatisticsObj> emptyList());
+
+    cache.put(new TableAndStatistics(table1, statistics));
+    cache.put(new TableAndStatistics(newTable("other"), null));
+
+    TableAndStatistics cached = cache.getTableAndStatistics(DATABASE, "table1");
+    assertThat(cached.getTable(), is(table1));
+    assertThat(cached.getStatistics(), is(statistics));
+    assertThat(cached.getStatistics(), is(not(sameInstance(statistics))));
+    assertThat(cache.getTableAndStatistics(DATABASE, "table2"), is(nullValue()));
+    assertThat(cache.getTableAndStatistics(DATABASE, "other"), is(nullValue()));
+  }
+
+  @Test
+  public void invalidate() throws Exception {
+    cache.prefetch(DATABASE, Arrays.asList("table1", "Table2", "missing"));
+    cache.put(new TableAndStatistics(table1, null));
+
+    cache.invalidate(DATABASE, "table1");
+
+    assertThat(cache.getTable(DATABASE, "table1"), is(nullValue()));
+    assertThat(cache.getTableAndStatistics(DATABASE, "table1"), is(nullValue()));
+    cache.put(new TableAndStatistics(table1, null));
+    assertThat(cache.getTableAndStatistics(DATABASE, "table1"), is(nullValue()));
+    assertThat(cache.getTable(DATABASE, "table2"), is(table2));
+  }
+
+  @Test
+  public void clear() throws Exception {
+    cache.prefetch(DATABASE, Arrays.asList("table1", "Table2", "missing"));
+
+    cache.clear();
+
+    assertThat(cache.getTable(DATABASE, "table1"), is(nullValue()));
+    assertThat(cache.getTable(DATABASE, "table2"), is(nullValue()));
+  }
+
+}
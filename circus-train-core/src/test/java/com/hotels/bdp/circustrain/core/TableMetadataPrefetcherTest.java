@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.thrift.TException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
+import com.hotels.bdp.circustrain.api.conf.SourceTable;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TableMetadataPrefetcherTest {
+
+  private @Mock TableMetadataCache sourceTableMetadataCache;
+  private @Mock TableMetadataCache replicaTableMetadataCache;
+
+  private static TableReplication newTableReplication(String database, String table, String replicaDatabase) {
+    SourceTable sourceTable = new SourceTable();
+    sourceTable.setDatabaseName(database);
+    sourceTable.setTableName(table);
+    ReplicaTable replicaTable = new ReplicaTable();
+    replicaTable.setDatabaseName(replicaDatabase);
+    TableReplication tableReplication = new TableReplication();
+    tableReplication.setSourceTable(sourceTable);
+    tableReplication.setReplicaTable(replicaTable);
+    return tableReplication;
+  }
+
+  @Test
+  public void prefetchByDatabase() throws Exception {
+    TableMetadataPrefetcher prefetcher = new TableMetadataPrefetcher(sourceTableMetadataCache,
+        replicaTableMetadataCache);
+
+    prefetcher
+        .prefetch(Arrays.asList(newTableReplication("db1", "table1", "replica_db"),
+            newTableReplication("db2", "table2", "replica_db"), newTableReplication("db1", "table3", "replica_db")));
+
+    verify(sourceTableMetadataCache).prefetch("db1", Arrays.asList("table1", "table3"));
+    verify(sourceTableMetadataCache).prefetch("db2", Collections.singletonList("table2"));
+    verify(replicaTableMetadataCache).prefetch("replica_db", Arrays.asList("table1", "table2", "table3"));
+  }
+
+  @Test
+  public void prefetchFailureIsNotFatal() throws Exception {
+    doThrow(new TException()).when(sourceTableMetadataCache).prefetch("db1", Collections.singletonList("table1"));
+    TableMetadataPrefetcher prefetcher = new TableMetadataPrefetcher(sourceTableMetadataCache,
+        replicaTableMetadataCache);
+
+    prefetcher
+        .prefetch(Arrays.asList(newTableReplication("db1", "table1", "replica_db"),
+            newTableReplication("db2", "table2", "replica_db")));
+
+    verify(sourceTableMetadataCache).prefetch("db2", Collections.singletonList("table2"));
+    verify(replicaTableMetadataCache).prefetch("replica_db", Arrays.asList("table1", "table2"));
+  }
+
+  @Test
+  public void clear() {
+    new TableMetadataPrefetcher(sourceTableMetadataCache, replicaTableMetadataCache).clear();
+
+    verify(sourceTableMetadataCache).clear();
+    verify(replicaTableMetadataCache).clear();
+  }
+
+}
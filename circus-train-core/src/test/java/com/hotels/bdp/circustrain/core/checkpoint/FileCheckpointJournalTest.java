@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.checkpoint;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileCheckpointJournalTest {
+
+  private static final String EVENT_ID = "ctp-20160322t061345.487z-ytmhvotf";
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+
+  private final Path year2016 = new Path("hdfs://nameservice/table/year=2016");
+  private final Path year2017 = new Path("hdfs://nameservice/table/year=2017");
+  private final Partition partition2016 = newPartition("2016", "a/b\tc");
+  private final Partition partition2017 = newPartition("2017", "a/b\tc");
+
+  private File file;
+
+  @Before
+  public void init() {
+    file = new File(temp.getRoot(), "db.table-replica_db.table.journal");
+  }
+
+  private static Partition newPartition(String... values) {
+    Partition partition = new Partition();
+    partition.setValues(Arrays.asList(values));
+    return partition;
+  }
+
+  @Test
+  public void noJournal() {
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    assertThat(journal.getEventId(), is(nullValue()));
+    assertThat(journal.isCopied(year2016), is(false));
+    assertThat(journal.isCommitted(partition2016), is(false));
+    assertThat(journal.hasCommittedPartitions(), is(false));
+    assertThat(file.exists(), is(false));
+  }
+
+  @Test
+  public void progressIsReadBackByTheNextRun() {
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    journal.started(EVENT_ID);
+    journal.subLocationCopied(year2016);
+    journal.partitionsCommitted(Arrays.asList(partition2016));
+
+    FileCheckpointJournal resumed = new FileCheckpointJournal(file);
+    assertThat(resumed.getEventId(), is(EVENT_ID));
+    assertThat(resumed.isCopied(year2016), is(true));
+    assertThat(resumed.isCopied(year2017), is(false));
+    assertThat(resumed.isCommitted(partition2016), is(true));
+    assertThat(resumed.isCommitted(partition2017), is(false));
+    assertThat(resumed.hasCommittedPartitions(), is(true));
+  }
+
+  @Test
+  public void resumingWithSameEventIdKeepsProgress() {
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    journal.started(EVENT_ID);
+    journal.subLocationCopied(year2016);
+
+    FileCheckpointJournal resumed = new FileCheckpointJournal(file);
+    resumed.started(EVENT_ID);
+    resumed.subLocationCopied(year2017);
+
+    FileCheckpointJournal reread = new FileCheckpointJournal(file);
+    assertThat(reread.isCopied(year2016), is(true));
+    assertThat(reread.isCopied(year2017), is(true));
+  }
+
+  @Test
+  public void startingNewEventDiscardsProgress() {
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    journal.started(EVENT_ID);
+    journal.subLocationCopied(year2016);
+    journal.started("another-event-id");
+
+    FileCheckpointJournal reread = new FileCheckpointJournal(file);
+    assertThat(reread.getEventId(), is("another-event-id"));
+    assertThat(reread.isCopied(year2016), is(false));
+  }
+
+  @Test
+  public void incompleteRecordIsIgnored() throws Exception {
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    journal.started(EVENT_ID);
+    journal.subLocationCopied(year2016);
+    Files.write(file.toPath(), "copi".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+    FileCheckpointJournal resumed = new FileCheckpointJournal(file);
+    assertThat(resumed.getEventId(), is(EVENT_ID));
+    assertThat(resumed.isCopied(year2016), is(true));
+  }
+
+  @Test
+  public void cleanUpLocationsAreRecordedWithTheirCommittedPartitions() {
+    Path old2016 = new Path("s3://bucket/table/old-event/year=2016");
+    Path old2017 = new Path("s3://bucket/table/year=2017");
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    journal.started(EVENT_ID);
+    journal.cleanUpLocationAdded("old-event", old2016);
+    journal.partitionsCommitted(Arrays.asList(partition2016));
+    journal.cleanUpLocationAdded(null, old2017);
+
+    FileCheckpointJournal resumed = new FileCheckpointJournal(file);
+    Map<Path, String> expected = new LinkedHashMap<>();
+    expected.put(old2016, "old-event");
+    assertThat(resumed.getCleanUpLocations(), is(expected));
+
+    resumed.started(EVENT_ID);
+    resumed.cleanUpLocationAdded(null, old2017);
+    resumed.partitionsCommitted(Arrays.asList(partition2017));
+    expected.put(old2017, null);
+    assertThat(new FileCheckpointJournal(file).getCleanUpLocations(), is(expected));
+  }
+
+  @Test
+  public void recordWithoutLineTerminatorIsIgnored() throws Exception {
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    journal.started(EVENT_ID);
+    Files
+        .write(file.toPath(), "clean-up\told-event\ts3://bucket/tab".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+    FileCheckpointJournal resumed = new FileCheckpointJournal(file);
+    assertThat(resumed.getEventId(), is(EVENT_ID));
+    assertThat(resumed.getCleanUpLocations().isEmpty(), is(true));
+  }
+
+  @Test
+  public void completedDeletesJournal() {
+    FileCheckpointJournal journal = new FileCheckpointJournal(file);
+    journal.started(EVENT_ID);
+    journal.subLocationCopied(year2016);
+    journal.completed();
+
+    assertThat(file.exists(), is(false));
+    assertThat(new FileCheckpointJournal(file).getEventId(), is(nullValue()));
+  }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.daemon;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Calendar;
+
+import org.junit.Test;
+
+import com.hotels.bdp.circustrain.api.conf.Daemon;
+
+public class RunScheduleTest {
+
+  @Test
+  public void fixedDelay() {
+    Daemon daemon = new Daemon();
+    daemon.setFixedDelay(300000L);
+    assertThat(RunSchedule.forDaemon(daemon).nextRunStart(1000L, 5000L), is(305000L));
+  }
+
+  @Test
+  public void cron() {
+    Daemon daemon = new Daemon();
+    daemon.setCron("0 */5 * * * *");
+    Calendar calendar = Calendar.getInstance();
+    calendar.clear();
+    calendar.set(2026, Calendar.JANUARY, 1, 10, 0, 0);
+    long runStart = calendar.getTimeInMillis();
+    calendar.set(Calendar.MINUTE, 2);
+    long runEnd = calendar.getTimeInMillis();
+    calendar.set(Calendar.MINUTE, 5);
+    assertThat(RunSchedule.forDaemon(daemon).nextRunStart(runStart, runEnd), is(calendar.getTimeInMillis()));
+  }
+
+  @Test
+  public void cronSkipsSlotsOverrunByLastRun() {
+    Daemon daemon = new Daemon();
+    daemon.setCron("0 */5 * * * *");
+    Calendar calendar = Calendar.getInstance();
+    calendar.clear();
+    calendar.set(2026, Calendar.JANUARY, 1, 10, 0, 0);
+    long runStart = calendar.getTimeInMillis();
+    calendar.set(Calendar.MINUTE, 7);
+    long runEnd = calendar.getTimeInMillis();
+    calendar.set(Calendar.MINUTE, 10);
+    assertThat(RunSchedule.forDaemon(daemon).nextRunStart(runStart, runEnd), is(calendar.getTimeInMillis()));
+  }
+
+  @Test
+  public void cronTakesPrecedenceOverFixedDelay() {
+    Daemon daemon = new Daemon();
+    daemon.setCron("0 0 * * * *");
+    daemon.setFixedDelay(1L);
+    Calendar calendar = Calendar.getInstance();
+    calendar.clear();
+    calendar.set(2026, Calendar.JANUARY, 1, 10, 30, 0);
+    long runEnd = calendar.getTimeInMillis();
+    calendar.set(Calendar.HOUR_OF_DAY, 11);
+    calendar.set(Calendar.MINUTE, 0);
+    assertThat(RunSchedule.forDaemon(daemon).nextRunStart(runEnd, runEnd), is(calendar.getTimeInMillis()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidCron() {
+    Daemon daemon = new Daemon();
+    daemon.setCron("every five minutes");
+    RunSchedule.forDaemon(daemon);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void notADaemon() {
+    RunSchedule.forDaemon(new Daemon());
+  }
+
+}
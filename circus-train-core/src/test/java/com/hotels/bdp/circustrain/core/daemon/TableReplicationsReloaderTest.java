@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.daemon;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.env.StandardEnvironment;
+
+import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
+import com.hotels.bdp.circustrain.api.conf.TableReplications;
+
+public class TableReplicationsReloaderTest {
+
+  private static final String TABLE_REPLICATION = "table-replications:\n"
+      + "  - source-table:\n"
+      + "      database-name: db\n"
+      + "      table-name: %s\n"
+      + "    replica-table:\n"
+      + "      table-location: s3://bucket/%s\n"
+      + "    replication-mode: METADATA_MIRROR\n";
+
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final TableReplications current = new TableReplications();
+  private File configFile;
+  private TableReplicationsReloader reloader;
+
+  @Before
+  public void init() throws IOException {
+    configFile = temporaryFolder.newFile("circus-train.yml");
+    write(String.format(TABLE_REPLICATION, "table1", "table1"));
+    configFile.setLastModified(1000L);
+    reloader = new TableReplicationsReloader(new StandardEnvironment(), configFile.getAbsolutePath());
+  }
+
+  private void write(String config) throws IOException {
+    Files.write(configFile.toPath(), config.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void unchanged() {
+    assertThat(reloader.reload(current), is(sameInstance(current)));
+  }
+
+  @Test
+  public void changed() throws IOException {
+    write(String.format(TABLE_REPLICATION, "table2", "table2") + "table-replication-concurrency: 4\n");
+    configFile.setLastModified(2000L);
+
+    TableReplications reloaded = reloader.reload(current);
+
+    assertThat(reloaded.getTableReplications().size(), is(1));
+    assertThat(reloaded.getTableReplications().get(0).getSourceTable().getTableName(), is("table2"));
+    assertThat(reloaded.getTableReplications().get(0).getReplicationMode(), is(ReplicationMode.METADATA_MIRROR));
+    assertThat(reloaded.getTableReplicationConcurrency(), is(4));
+    assertThat(reloader.reload(reloaded), is(sameInstance(reloaded)));
+  }
+
+  @Test
+  public void invalidConfigurationKeepsCurrent() throws IOException {
+    write("table-replications: []\n");
+    configFile.setLastModified(2000L);
+
+    assertThat(reloader.reload(current), is(sameInstance(current)));
+  }
+
+  @Test
+  public void unreadableConfigurationKeepsCurrent() {
+    configFile.delete();
+
+    assertThat(reloader.reload(current), is(sameInstance(current)));
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -129,4 +130,35 @@ public class MetricsListenerTest {
     assertThat(metrics.get("target.bytes_replicated"), is(0L));
   }
 
+  @Test
+  public void concurrentReplicationsReportTheirOwnMetrics() throws Exception {
+    final EventTableReplication otherTableReplication = mock(EventTableReplication.class);
+    when(otherTableReplication.getQualifiedReplicaName()).thenReturn("other");
+    when(metrics.getMetrics()).thenReturn(ImmutableMap.<String, Long> of());
+    when(metrics.getBytesReplicated()).thenReturn(13L);
+
+    listener.tableReplicationStart(tableReplication, "eventId");
+    listener.copierStart("");
+    Thread other = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        listener.tableReplicationStart(otherTableReplication, "otherEventId");
+        listener.tableReplicationFailure(otherTableReplication, "otherEventId", new RuntimeException());
+      }
+    });
+    other.start();
+    other.join();
+    listener.copierEnd(metrics);
+    listener.tableReplicationSuccess(tableReplication, "eventId");
+
+    verify(scheduledReporterFactory).newInstance(TARGET);
+    verify(metricSender, times(2)).send(metricsCaptor.capture());
+    Map<String, Long> otherMetrics = metricsCaptor.getAllValues().get(0);
+    assertThat(otherMetrics.get("other.completion_code"), is(-1L));
+    assertThat(otherMetrics.get("other.bytes_replicated"), is(0L));
+    Map<String, Long> targetMetrics = metricsCaptor.getAllValues().get(1);
+    assertThat(targetMetrics.get("target.completion_code"), is(1L));
+    assertThat(targetMetrics.get("target.bytes_replicated"), is(13L));
+  }
+
 }
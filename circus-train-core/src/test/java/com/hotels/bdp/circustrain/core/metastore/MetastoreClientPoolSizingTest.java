@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.metastore;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hotels.bdp.circustrain.api.conf.MetastoreClientPool;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.api.conf.TableReplications;
+
+public class MetastoreClientPoolSizingTest {
+
+  private final MetastoreClientPool metastoreClientPool = new MetastoreClientPool();
+  private final TableReplications tableReplications = new TableReplications();
+
+  @Before
+  public void init() {
+    tableReplications
+        .setTableReplications(Arrays
+            .asList(tableReplication(1), tableReplication(4), tableReplication(1), tableReplication(2)));
+  }
+
+  @Test
+  public void oneClientOfEachMetastoreWhenTablesAreReplicatedOneAfterTheOther() {
+    tableReplications.setTableReplications(Arrays.asList(tableReplication(1), tableReplication(1)));
+
+    assertThat(MetastoreClientPoolSizing.sourceClientsRequired(tableReplications), is(1));
+    assertThat(MetastoreClientPoolSizing.replicaClientsRequired(tableReplications), is(1));
+  }
+
+  @Test
+  public void replicaClientsOfTheMostDemandingConcurrentReplications() {
+    tableReplications.setTableReplicationConcurrency(2);
+
+    assertThat(MetastoreClientPoolSizing.sourceClientsRequired(tableReplications), is(2));
+    assertThat(MetastoreClientPoolSizing.replicaClientsRequired(tableReplications), is(5 + 3));
+  }
+
+  @Test
+  public void concurrencyIsCappedByTheNumberOfTableReplications() {
+    tableReplications.setTableReplicationConcurrency(10);
+
+    assertThat(MetastoreClientPoolSizing.sourceClientsRequired(tableReplications), is(4));
+    assertThat(MetastoreClientPoolSizing.replicaClientsRequired(tableReplications), is(1 + 5 + 1 + 3));
+  }
+
+  @Test
+  public void poolLargeEnough() {
+    metastoreClientPool.setMaxTotal(8);
+
+    MetastoreClientPoolSizing.checkMaxTotal("replica", metastoreClientPool, 8);
+  }
+
+  @Test
+  public void poolTooSmall() {
+    metastoreClientPool.setMaxTotal(8);
+
+    try {
+      MetastoreClientPoolSizing.checkMaxTotal("replica", metastoreClientPool, 9);
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), containsString("metastore-client-pool.max-total to at least 9"));
+    }
+  }
+
+  @Test
+  public void disabledPoolIsNotChecked() {
+    metastoreClientPool.setEnabled(false);
+    metastoreClientPool.setMaxTotal(1);
+
+    MetastoreClientPoolSizing.checkMaxTotal("replica", metastoreClientPool, 9);
+  }
+
+  private static TableReplication tableReplication(int partitionWriteConcurrency) {
+    TableReplication tableReplication = new TableReplication();
+    tableReplication.setPartitionWriteConcurrency(partitionWriteConcurrency);
+    return tableReplication;
+  }
+
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.metastore;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+
+import com.hotels.bdp.circustrain.api.conf.MetastoreClientPool;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+import com.hotels.hcommon.hive.metastore.exception.MetaStoreClientException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PooledMetaStoreClientSupplierTest {
+
+  private static final String NAME = "name";
+  private static final long IDLE_TIMEOUT_MILLIS = 1000L;
+
+  private @Mock Supplier<CloseableMetaStoreClient> delegate;
+  private @Mock CloseableMetaStoreClient client1;
+  private @Mock CloseableMetaStoreClient client2;
+
+  private final MetastoreClientPool metastoreClientPool = new MetastoreClientPool();
+  private final FakeTicker ticker = new FakeTicker();
+
+  @Before
+  public void init() {
+    metastoreClientPool.setMinIdle(0);
+    metastoreClientPool.setMaxTotal(2);
+    metastoreClientPool.setMaxWaitMillis(0L);
+    metastoreClientPool.setIdleTimeoutMillis(IDLE_TIMEOUT_MILLIS);
+  }
+
+  private PooledMetaStoreClientSupplier newSupplier() {
+    return new PooledMetaStoreClientSupplier(NAME, delegate, metastoreClientPool, ticker, false);
+  }
+
+  @Test
+  public void closedClientIsReturnedToThePoolAndReused() throws Exception {
+    when(delegate.get()).thenReturn(client1);
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    try (CloseableMetaStoreClient client = supplier.get()) {
+      client.getAllTables("db");
+    }
+    try (CloseableMetaStoreClient client = supplier.get()) {
+      client.getAllTables("db");
+    }
+
+    verify(delegate).get();
+    verify(client1, times(2)).getAllTables("db");
+    verify(client1, never()).close();
+    assertThat(supplier.getIdleCount(), is(1));
+  }
+
+  @Test
+  public void unhealthyIdleClientIsDiscarded() throws Exception {
+    when(delegate.get()).thenReturn(client1, client2);
+    when(client1.getAllDatabases()).thenThrow(new TTransportException());
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    supplier.get().close();
+    supplier.get().close();
+
+    verify(client1).close();
+    verify(delegate, times(2)).get();
+    assertThat(supplier.getIdleCount(), is(1));
+  }
+
+  @Test
+  public void healthCheckCanBeDisabled() throws Exception {
+    metastoreClientPool.setTestOnBorrow(false);
+    when(delegate.get()).thenReturn(client1);
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    supplier.get().close();
+    supplier.get().close();
+
+    verify(client1, never()).getAllDatabases();
+    verify(delegate).get();
+  }
+
+  @Test
+  public void clientWithConnectionFailureIsNotReused() throws Exception {
+    when(delegate.get()).thenReturn(client1);
+    when(client1.getAllTables("db")).thenThrow(new TTransportException());
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    try (CloseableMetaStoreClient client = supplier.get()) {
+      client.getAllTables("db");
+      fail();
+    } catch (TTransportException e) {
+      // expected
+    }
+
+    verify(client1).close();
+    assertThat(supplier.getIdleCount(), is(0));
+  }
+
+  @Test
+  public void clientWithMetastoreExceptionIsReused() throws Exception {
+    when(delegate.get()).thenReturn(client1);
+    when(client1.getTable("db", "table")).thenThrow(new NoSuchObjectException());
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    try (CloseableMetaStoreClient client = supplier.get()) {
+      client.getTable("db", "table");
+      fail();
+    } catch (NoSuchObjectException e) {
+      // expected
+    }
+
+    verify(client1, never()).close();
+    assertThat(supplier.getIdleCount(), is(1));
+  }
+
+  @Test
+  public void clientCannotBeUsedOnceReturned() throws Exception {
+    when(delegate.get()).thenReturn(client1);
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    CloseableMetaStoreClient client = supplier.get();
+    client.close();
+    client.close();
+    try {
+      client.getAllTables("db");
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertThat(supplier.getIdleCount(), is(1));
+  }
+
+  @Test(expected = MetaStoreClientException.class)
+  public void timesOutWhenAllClientsAreBorrowed() {
+    when(delegate.get()).thenReturn(client1, client2);
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    supplier.get();
+    supplier.get();
+    supplier.get();
+  }
+
+  @Test
+  public void permitIsReleasedWhenClientCannotBeOpened() {
+    metastoreClientPool.setMaxTotal(1);
+    when(delegate.get()).thenThrow(new MetaStoreClientException("boom")).thenReturn(client1);
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    try {
+      supplier.get();
+      fail();
+    } catch (MetaStoreClientException e) {
+      // expected
+    }
+    supplier.get();
+  }
+
+  @Test
+  public void idleClientsAreEvictedDownToMinIdle() throws Exception {
+    metastoreClientPool.setMinIdle(1);
+    when(delegate.get()).thenReturn(client1, client2);
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    CloseableMetaStoreClient borrowed1 = supplier.get();
+    CloseableMetaStoreClient borrowed2 = supplier.get();
+    borrowed1.close();
+    borrowed2.close();
+
+    supplier.evictIdleClients();
+    assertThat(supplier.getIdleCount(), is(2));
+
+    ticker.advance(IDLE_TIMEOUT_MILLIS);
+    supplier.evictIdleClients();
+
+    assertThat(supplier.getIdleCount(), is(1));
+    verify(client1).close();
+    verify(client2, never()).close();
+  }
+
+  @Test
+  public void closeClosesIdleClientsAndClientsReturnedAfterwards() throws Exception {
+    when(delegate.get()).thenReturn(client1, client2);
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+
+    CloseableMetaStoreClient borrowed1 = supplier.get();
+    CloseableMetaStoreClient borrowed2 = supplier.get();
+    borrowed1.close();
+
+    supplier.close();
+    verify(client1).close();
+    verify(client2, never()).close();
+
+    borrowed2.close();
+    verify(client2).close();
+    assertThat(supplier.getIdleCount(), is(0));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void cannotGetClientFromClosedPool() {
+    PooledMetaStoreClientSupplier supplier = newSupplier();
+    supplier.close();
+    supplier.get();
+  }
+
+  private static class FakeTicker extends Ticker {
+    private long nanos = 0L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+
+}
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.notification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient.NotificationFilter;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.NotificationEvent;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.messaging.MessageFactory;
+import org.apache.hadoop.hive.metastore.messaging.PartitionFiles;
+import org.apache.hadoop.hive.metastore.messaging.json.JSONMessageFactory;
+import org.apache.thrift.TException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Plays back a notification log built with the JSON messages the metastore writes.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class NotificationEventReaderTest {
+
+  private static final String DATABASE = "db";
+  private static final String TABLE = "tbl";
+
+  private final JSONMessageFactory messageFactory = new JSONMessageFactory();
+  private final List<NotificationEvent> log = new ArrayList<>();
+  private final NotificationEventReader reader = new NotificationEventReader(2);
+
+  private @Mock IMetaStoreClient client;
+
+  private Table table;
+
+  @Before
+  public void init() throws TException {
+    table = new Table();
+    table.setDbName(DATABASE);
+    table.setTableName(TABLE);
+    table.setSd(new StorageDescriptor());
+    table.getSd().setLocation("hdfs://source/db/tbl");
+    table.setPartitionKeys(Arrays.asList(new FieldSchema("year", "string", null)));
+    when(client.getNextNotification(anyLong(), anyInt(), isNull(NotificationFilter.class)))
+        .thenAnswer(new Answer<NotificationEventResponse>() {
+          @Override
+          public NotificationEventResponse answer(InvocationOnMock invocation) {
+            long lastEventId = invocation.getArgument(0);
+            int maxEvents = invocation.getArgument(1);
+            List<NotificationEvent> events = new ArrayList<>();
+            for (NotificationEvent event : log) {
+              if (event.getEventId() > lastEventId && events.size() < maxEvents) {
+                events.add(event);
+              }
+            }
+            return new NotificationEventResponse(events);
+          }
+        });
+  }
+
+  private Partition newPartition(String year) {
+    Partition partition = new Partition();
+    partition.setDbName(DATABASE);
+    partition.setTableName(TABLE);
+    partition.setValues(Arrays.asList(year));
+    partition.setSd(new StorageDescriptor());
+    partition.getSd().setLocation("hdfs://source/db/tbl/year=" + year);
+    return partition;
+  }
+
+  private void append(String eventType, String database, String table, String message) {
+    NotificationEvent event = new NotificationEvent(log.size() + 1, 0, eventType, message);
+    event.setDbName(database);
+    event.setTableName(table);
+    event.setMessageFormat(messageFactory.getMessageFormat());
+    log.add(event);
+  }
+
+  private void addPartitions(Partition... partitions) {
+    append(MessageFactory.ADD_PARTITION_EVENT, DATABASE, TABLE, messageFactory
+        .buildAddPartitionMessage(table, Arrays.asList(partitions).iterator(),
+            Collections.<PartitionFiles> emptyIterator())
+        .toString());
+  }
+
+  private void alterPartition(Partition before, Partition after) {
+    append(MessageFactory.ALTER_PARTITION_EVENT, DATABASE, TABLE,
+        messageFactory.buildAlterPartitionMessage(table, before, after).toString());
+  }
+
+  private void dropPartitions(Partition... partitions) {
+    append(MessageFactory.DROP_PARTITION_EVENT, DATABASE, TABLE,
+        messageFactory.buildDropPartitionMessage(table, Arrays.asList(partitions).iterator()).toString());
+  }
+
+  private static Set<List<String>> partitions(String... years) {
+    Set<List<String>> partitions = new HashSet<>();
+    for (String year : years) {
+      partitions.add(Arrays.asList(year));
+    }
+    return partitions;
+  }
+
+  @Test
+  public void changedPartitions() throws Exception {
+    addPartitions(newPartition("2016"), newPartition("2017"));
+    alterPartition(newPartition("2015"), newPartition("2015"));
+    dropPartitions(newPartition("2014"));
+
+    TableChanges changes = reader.read(client, table, 0, 3);
+
+    assertThat(changes.isFullReplicationRequired(), is(false));
+    assertThat(changes.getChangedPartitions(), is(partitions("2015", "2016", "2017")));
+    assertThat(changes.getDroppedPartitions(), is(partitions("2014")));
+    assertThat(changes.getLastEventId(), is(3L));
+  }
+
+  @Test
+  public void onlyEventsAfterLastProcessedAndUpToCurrentAreRead() throws Exception {
+    addPartitions(newPartition("2016"));
+    addPartitions(newPartition("2017"));
+    addPartitions(newPartition("2018"));
+    addPartitions(newPartition("2019"));
+
+    TableChanges changes = reader.read(client, table, 1, 3);
+
+    assertThat(changes.getChangedPartitions(), is(partitions("2017", "2018")));
+    assertThat(changes.getLastEventId(), is(3L));
+  }
+
+  @Test
+  public void droppedThenAddedPartitionIsChanged() throws Exception {
+    dropPartitions(newPartition("2016"));
+    addPartitions(newPartition("2016"));
+    addPartitions(newPartition("2017"));
+    dropPartitions(newPartition("2017"));
+
+    TableChanges changes = reader.read(client, table, 0, 4);
+
+    assertThat(changes.getChangedPartitions(), is(partitions("2016")));
+    assertThat(changes.getDroppedPartitions(), is(partitions("2017")));
+  }
+
+  @Test
+  public void eventsOfOtherTablesAreIgnored() throws Exception {
+    Table other = new Table(table);
+    other.setTableName("other");
+    append(MessageFactory.ADD_PARTITION_EVENT, DATABASE, "other", messageFactory
+        .buildAddPartitionMessage(other, Arrays.asList(newPartition("2016")).iterator(),
+            Collections.<PartitionFiles> emptyIterator())
+        .toString());
+    append(MessageFactory.DROP_TABLE_EVENT, "other_db", TABLE, messageFactory.buildDropTableMessage(table).toString());
+    addPartitions(newPartition("2017"));
+
+    TableChanges changes = reader.read(client, table, 0, 3);
+
+    assertThat(changes.isFullReplicationRequired(), is(false));
+    assertThat(changes.getChangedPartitions(), is(partitions("2017")));
+  }
+
+  @Test
+  public void renamedPartition() throws Exception {
+    alterPartition(newPartition("2016"), newPartition("2017"));
+
+    TableChanges changes = reader.read(client, table, 0, 1);
+
+    assertThat(changes.getChangedPartitions(), is(partitions("2017")));
+    assertThat(changes.getDroppedPartitions(), is(partitions("2016")));
+  }
+
+  @Test
+  public void droppedPartition() throws Exception {
+    addPartitions(newPartition("2016"));
+    dropPartitions(newPartition("2016"), newPartition("2015"));
+
+    TableChanges changes = reader.read(client, table, 0, 2);
+
+    assertThat(changes.isFullReplicationRequired(), is(false));
+    assertThat(changes.getChangedPartitions().isEmpty(), is(true));
+    assertThat(changes.getDroppedPartitions(), is(partitions("2015", "2016")));
+  }
+
+  @Test
+  public void parameterOnlyTableAlterationIsIgnored() throws Exception {
+    Table after = new Table(table);
+    after.putToParameters("numRows", "10");
+    append(MessageFactory.ALTER_TABLE_EVENT, DATABASE, TABLE,
+        messageFactory.buildAlterTableMessage(table, after).toString());
+
+    TableChanges changes = reader.read(client, table, 0, 1);
+
+    assertThat(changes.isFullReplicationRequired(), is(false));
+  }
+
+  @Test
+  public void tableRecreationRequiresFullReplication() throws Exception {
+    addPartitions(newPartition("2016"));
+    append(MessageFactory.DROP_TABLE_EVENT, DATABASE, TABLE, messageFactory.buildDropTableMessage(table).toString());
+
+    TableChanges changes = reader.read(client, table, 0, 2);
+
+    assertThat(changes.isFullReplicationRequired(), is(true));
+  }
+
+  @Test
+  public void purgedEventsRequireFullReplication() throws Exception {
+    addPartitions(newPartition("2016"));
+    addPartitions(newPartition("2017"));
+    log.remove(0);
+
+    TableChanges changes = reader.read(client, table, 0, 2);
+
+    assertThat(changes.isFullReplicationRequired(), is(true));
+  }
+
+  @Test
+  public void noNewEvents() throws Exception {
+    addPartitions(newPartition("2016"));
+
+    TableChanges changes = reader.read(client, table, 1, 1);
+
+    assertThat(changes.isFullReplicationRequired(), is(false));
+    assertThat(changes.getChangedPartitions().isEmpty(), is(true));
+  }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.plan;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
+import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
+import com.hotels.bdp.circustrain.api.conf.SourceTable;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.api.conf.TableReplications;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PlanRunnerTest {
+
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private @Mock ReplicationPlanner replicationPlanner;
+
+  private final TableReplications tableReplications = new TableReplications();
+  private final TableReplication tableReplication1 = newTableReplication("table1");
+  private final TableReplication tableReplication2 = newTableReplication("table2");
+  private File planOutput;
+
+  private static TableReplication newTableReplication(String tableName) {
+    SourceTable sourceTable = new SourceTable();
+    sourceTable.setDatabaseName("db");
+    sourceTable.setTableName(tableName);
+    TableReplication tableReplication = new TableReplication();
+    tableReplication.setSourceTable(sourceTable);
+    tableReplication.setReplicaTable(new ReplicaTable());
+    tableReplication.setReplicationMode(ReplicationMode.FULL);
+    return tableReplication;
+  }
+
+  private static TablePlan newTablePlan(long partitions, long files, long bytes) {
+    TablePlan tablePlan = new TablePlan();
+    tablePlan.setPartitioned(true);
+    tablePlan.setPartitionCount(partitions);
+    tablePlan.setFileCount(files);
+    tablePlan.setTotalBytes(bytes);
+    tablePlan.setEstimatedMetastoreReads(4);
+    tablePlan.setEstimatedMetastoreWrites(2);
+    return tablePlan;
+  }
+
+  @Before
+  public void init() {
+    tableReplications.setTableReplications(Arrays.asList(tableReplication1, tableReplication2));
+    planOutput = new File(temporaryFolder.getRoot(), "plan.json");
+  }
+
+  @Test
+  public void planIsWrittenAsJson() throws Exception {
+    when(replicationPlanner.plan(tableReplication1)).thenReturn(newTablePlan(2, 10, 100));
+    when(replicationPlanner.plan(tableReplication2)).thenReturn(newTablePlan(3, 5, 50));
+    PlanRunner runner = new PlanRunner(tableReplications, replicationPlanner, planOutput.getAbsolutePath());
+
+    runner.run(null);
+
+    JsonNode plan = new ObjectMapper().readTree(planOutput);
+    assertThat(plan.get("tables").size(), is(2));
+    assertThat(plan.get("tables").get(0).get("partitionCount").asLong(), is(2L));
+    assertThat(plan.get("tables").get(0).has("error"), is(false));
+    assertThat(plan.get("partitionCount").asLong(), is(5L));
+    assertThat(plan.get("fileCount").asLong(), is(15L));
+    assertThat(plan.get("totalBytes").asLong(), is(150L));
+    assertThat(plan.get("estimatedMetastoreReads").asLong(), is(8L));
+    assertThat(plan.get("estimatedMetastoreWrites").asLong(), is(4L));
+    assertThat(plan.get("failures").asInt(), is(0));
+    assertThat(runner.getExitCode(), is(0));
+  }
+
+  @Test
+  public void failedTablesAreReported() throws Exception {
+    when(replicationPlanner.plan(tableReplication1)).thenReturn(newTablePlan(2, 10, 100));
+    when(replicationPlanner.plan(tableReplication2)).thenThrow(new CircusTrainException("Table 'db.table2' not found"));
+    PlanRunner runner = new PlanRunner(tableReplications, replicationPlanner, planOutput.getAbsolutePath());
+
+    runner.run(null);
+
+    JsonNode plan = new ObjectMapper().readTree(planOutput);
+    JsonNode failed = plan.get("tables").get(1);
+    assertThat(failed.get("sourceTable").asText(), is("db.table2"));
+    assertThat(failed.get("error").asText(), is("Table 'db.table2' not found"));
+    assertThat(plan.get("failures").asInt(), is(1));
+    assertThat(runner.getExitCode(), is(-2));
+  }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.plan;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.hotels.bdp.circustrain.api.SourceLocationManager;
+import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
+import com.hotels.bdp.circustrain.api.conf.ReplicationMode;
+import com.hotels.bdp.circustrain.api.conf.SourceTable;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.api.copier.CopierFactory;
+import com.hotels.bdp.circustrain.api.copier.CopierFactoryManager;
+import com.hotels.bdp.circustrain.api.copier.CopierOptions;
+import com.hotels.bdp.circustrain.core.PartitionPredicate;
+import com.hotels.bdp.circustrain.core.PartitionPredicateFactory;
+import com.hotels.bdp.circustrain.core.PartitionSelection;
+import com.hotels.bdp.circustrain.core.TableAndStatistics;
+import com.hotels.bdp.circustrain.core.source.Source;
+import com.hotels.bdp.circustrain.core.source.SourceFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReplicationPlannerTest {
+
+  private static final String REPLICA_LOCATION = "s3://bucket/replica";
+
+  public @Rule TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private @Mock SourceFactory sourceFactory;
+  private @Mock Source source;
+  private @Mock PartitionPredicateFactory partitionPredicateFactory;
+  private @Mock PartitionPredicate partitionPredicate;
+  private @Mock CopierFactoryManager copierFactoryManager;
+  private @Mock CopierFactory copierFactory;
+  private @Mock CopierOptions copierOptions;
+  private @Mock SourceLocationManager sourceLocationManager;
+
+  private final Table table = new Table();
+  private final TableReplication tableReplication = new TableReplication();
+  private ReplicationPlanner planner;
+
+  @Before
+  public void init() {
+    SourceTable sourceTable = new SourceTable();
+    sourceTable.setDatabaseName("db");
+    sourceTable.setTableName("table");
+    ReplicaTable replicaTable = new ReplicaTable();
+    replicaTable.setTableLocation(REPLICA_LOCATION);
+    tableReplication.setSourceTable(sourceTable);
+    tableReplication.setReplicaTable(replicaTable);
+    tableReplication.setReplicationMode(ReplicationMode.FULL);
+    tableReplication.setPartitionIteratorBatchSize((short) 2);
+    tableReplication.setPartitionWriteBatchSize(2);
+
+    when(sourceFactory.newReadOnlyInstance(tableReplication)).thenReturn(source);
+    when(source.getTableAndStatistics(tableReplication)).thenReturn(new TableAndStatistics(table, null));
+    when(source.getHiveConf()).thenReturn(new HiveConf());
+    when(copierFactoryManager.getCopierFactory(any(Path.class), eq(new Path(REPLICA_LOCATION)), any(Map.class)))
+        .thenReturn(copierFactory);
+    planner = new ReplicationPlanner(sourceFactory, partitionPredicateFactory, copierFactoryManager, copierOptions);
+  }
+
+  private Path newLocation(String name, int files) throws IOException {
+    File folder = temporaryFolder.newFolder(name);
+    for (int i = 0; i < files; i++) {
+      Files.write(new File(folder, "file" + i).toPath(), "data".getBytes(StandardCharsets.UTF_8));
+    }
+    return new Path(folder.toURI());
+  }
+
+  @Test
+  public void unpartitioned() throws Exception {
+    Path location = newLocation("table", 3);
+    when(source.getLocationManager(table, "plan")).thenReturn(sourceLocationManager);
+    when(sourceLocationManager.getTableLocation()).thenReturn(location);
+
+    TablePlan plan = planner.plan(tableReplication);
+
+    assertThat(plan.getSourceTable(), is("db.table"));
+    assertThat(plan.getReplicaTable(), is("db.table"));
+    assertThat(plan.getReplicationMode(), is("FULL"));
+    assertThat(plan.isPartitioned(), is(false));
+    assertThat(plan.getLocationCount(), is(1L));
+    assertThat(plan.getFileCount(), is(3L));
+    assertThat(plan.getTotalBytes(), is(12L));
+    assertThat(plan.getCopierFactory(), is(copierFactory.getClass().getName()));
+    assertThat(plan.getEstimatedMetastoreReads(), is(3L));
+    assertThat(plan.getEstimatedMetastoreWrites(), is(2L));
+  }
+
+  @Test
+  public void partitioned() throws Exception {
+    table.setPartitionKeys(Collections.singletonList(new FieldSchema("part", "string", null)));
+    List<Partition> partitions = Arrays.asList(new Partition(), new Partition(), new Partition());
+    when(partitionPredicateFactory.newInstance(tableReplication)).thenReturn(partitionPredicate);
+    when(partitionPredicate.getPartitionPredicate()).thenReturn("part > 'a'");
+    when(partitionPredicate.getPartitionPredicateLimit()).thenReturn((short) -1);
+    PartitionSelection partitionSelection = PartitionSelection.byFilter("part > 'a'");
+    when(partitionPredicate.getPartitionSelection()).thenReturn(partitionSelection);
+    when(source.listPartitions(table, partitionSelection, (short) -1, 2)).thenReturn(partitions);
+    when(source.getLocationManager(eq(table), eq(partitions), eq("plan"), any(Map.class)))
+        .thenReturn(sourceLocationManager);
+    Path tableLocation = new Path(temporaryFolder.getRoot().toURI());
+    when(sourceLocationManager.getTableLocation()).thenReturn(tableLocation);
+    when(sourceLocationManager.getPartitionLocations())
+        .thenReturn(Arrays.asList(newLocation("part=a", 1), newLocation("part=b", 2),
+            new Path(tableLocation, "part=c")));
+
+    TablePlan plan = planner.plan(tableReplication);
+
+    assertThat(plan.isPartitioned(), is(true));
+    assertThat(plan.getPartitionFilter(), is("part > 'a'"));
+    assertThat(plan.getPartitionCount(), is(3L));
+    assertThat(plan.getLocationCount(), is(3L));
+    assertThat(plan.getMissingLocationCount(), is(1L));
+    assertThat(plan.getFileCount(), is(3L));
+    assertThat(plan.getTotalBytes(), is(12L));
+    assertThat(plan.getCopierFactory(), is(copierFactory.getClass().getName()));
+    // 2 table reads, 1 filtered listing, 2 pages of statistics, 1 replica table read, 2 pages of replica partitions
+    assertThat(plan.getEstimatedMetastoreReads(), is(8L));
+    // 2 table writes, 2 batches of partitions and 2 of their statistics
+    assertThat(plan.getEstimatedMetastoreWrites(), is(6L));
+    verify(copierFactoryManager).getCopierFactory(eq(tableLocation), eq(new Path(REPLICA_LOCATION)), any(Map.class));
+  }
+
+  @Test
+  public void metadataMirrorDoesNotListData() throws Exception {
+    tableReplication.setReplicationMode(ReplicationMode.METADATA_MIRROR);
+
+    TablePlan plan = planner.plan(tableReplication);
+
+    assertThat(plan.getFileCount(), is(0L));
+    assertThat(plan.getCopierFactory(), is(nullValue()));
+    verifyZeroInteractions(copierFactoryManager);
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package com.hotels.bdp.circustrain.core.replica;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import static com.hotels.bdp.circustrain.api.CircusTrainTableParameter.PARTITION_CHECKSUM;
@@ -78,4 +79,12 @@ public class AddCheckSumReplicaTableFactoryTest {
         "replicaTable", replicaPartitionLocation, FULL);
     assertThat(partition.getParameters().get(PARTITION_CHECKSUM.parameterName()), is("checksum"));
   }
+
+  @Test
+  public void newReplicaPartitionWithKnownChecksum() throws Exception {
+    Partition partition = factory.newReplicaPartition("eventId", sourceTable, sourcePartition, "replicaDatabase",
+        "replicaTable", replicaPartitionLocation, FULL, "knownChecksum");
+    assertThat(partition.getParameters().get(PARTITION_CHECKSUM.parameterName()), is("knownChecksum"));
+    verifyZeroInteractions(checksumFunction);
+  }
 }
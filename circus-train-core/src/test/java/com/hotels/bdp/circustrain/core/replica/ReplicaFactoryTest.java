@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,12 +25,14 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Supplier;
 
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.event.ReplicaCatalogListener;
 import com.hotels.bdp.circustrain.api.listener.HousekeepingListener;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -43,13 +45,15 @@ public class ReplicaFactoryTest {
   private @Mock ReplicaCatalogListener replicaCatalogListener;
   private @Mock ReplicaTableFactoryProvider replicaTableFactoryPicker;
   private @Mock TableReplication tableReplication;
+  private @Mock TableMetadataCache replicaTableMetadataCache;
 
   private ReplicaFactory replicaFactory;
 
   @Before
   public void setUp() {
     replicaFactory = new ReplicaFactory(replicaCatalog, replicaHiveConf, replicaMetaStoreClientSupplier,
-        housekeepingListener, replicaCatalogListener, replicaTableFactoryPicker);
+        housekeepingListener, replicaCatalogListener, replicaTableFactoryPicker, new MetricRegistry(),
+        replicaTableMetadataCache);
   }
 
   @Test
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +41,7 @@ public class ReplicaTableFactoryProviderTest {
 
   private @Mock HiveConf sourceHiveConf;
   private @Mock Function<Path, String> checksumFunction;
+  private @Mock Function<Path, String> listingChecksumFunction;
   private @Mock TableReplication tableReplication;
   private @Mock SourceTable sourceTable;
   private @Mock TableTransformation tableTransformation;
@@ -51,8 +52,8 @@ public class ReplicaTableFactoryProviderTest {
 
   @Before
   public void setUp() {
-    picker = new ReplicaTableFactoryProvider(sourceHiveConf, checksumFunction, tableTransformation,
-        partitionTransformation, columnStatisticsTransformation);
+    picker = new ReplicaTableFactoryProvider(sourceHiveConf, checksumFunction, listingChecksumFunction,
+        tableTransformation, partitionTransformation, columnStatisticsTransformation);
     when(tableReplication.getSourceTable()).thenReturn(sourceTable);
   }
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
@@ -64,6 +65,7 @@ import org.apache.hadoop.hive.metastore.api.SetPartitionsStatsRequest;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -74,6 +76,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
 
@@ -120,6 +123,7 @@ public class ReplicaTest {
   private @Mock ReplicaCatalog replicaCatalog;
   private @Mock Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
   private @Mock CloseableMetaStoreClient mockMetaStoreClient;
+  private @Mock CloseableMetaStoreClient reconnectedClient;
   private @Mock ReplicaLocationManager mockReplicaLocationManager;
   private @Captor ArgumentCaptor<List<Partition>> alterPartitionCaptor;
   private @Captor ArgumentCaptor<List<Partition>> addPartitionCaptor;
@@ -731,6 +735,120 @@ public class ReplicaTest {
     verify(mockReplicaLocationManager, never()).addCleanUpLocation(anyString(), any(Path.class));
   }
 
+  @Test
+  public void alteringExistingPartitionedReplicaTableWithPagesOfPartitionsSucceeds() throws Exception {
+    Partition modifiedPartition = newPartition("one", "two");
+    Partition newPartition = newPartition("three", "four");
+    when(mockMetaStoreClient.getPartitionsByNames(DB_NAME, TABLE_NAME, Lists.newArrayList("c=one/d=two")))
+        .thenReturn(Arrays.asList(existingPartition));
+    when(mockMetaStoreClient.getPartitionsByNames(DB_NAME, TABLE_NAME, Lists.newArrayList("c=three/d=four")))
+        .thenReturn(Collections.<Partition> emptyList());
+    when(mockReplicaLocationManager.getPartitionLocation(modifiedPartition))
+        .thenReturn(new Path(tableLocation, "c=one/d=two"));
+    when(mockReplicaLocationManager.getPartitionLocation(newPartition))
+        .thenReturn(new Path(tableLocation, "c=three/d=four"));
+
+    Map<String, List<ColumnStatisticsObj>> modifiedPartitionStatsMap = new HashMap<>();
+    modifiedPartitionStatsMap.put("c=one/d=two", newPartitionStatistics("one", "two").getStatsObj());
+    Map<String, List<ColumnStatisticsObj>> newPartitionStatsMap = new HashMap<>();
+    newPartitionStatsMap.put("c=three/d=four", newPartitionStatistics("three", "four").getStatsObj());
+    List<PartitionsAndStatistics> pages = Arrays
+        .asList(new PartitionsAndStatistics(sourceTable.getPartitionKeys(), Arrays.asList(modifiedPartition),
+            modifiedPartitionStatsMap),
+            new PartitionsAndStatistics(sourceTable.getPartitionKeys(), Arrays.asList(newPartition),
+                newPartitionStatsMap));
+
+    existingReplicaTable.getParameters().put(REPLICATION_EVENT.parameterName(), "previousEventId");
+
+    replica
+        .updateMetadata(EVENT_ID, tableAndStatistics, pages.iterator(), DB_NAME, TABLE_NAME,
+            mockReplicaLocationManager);
+
+    verify(alterTableService).alterTable(eq(mockMetaStoreClient), eq(existingReplicaTable), any(Table.class));
+    verify(mockMetaStoreClient).updateTableColumnStatistics(columnStatistics);
+    verify(mockMetaStoreClient).alter_partitions(eq(DB_NAME), eq(TABLE_NAME), alterPartitionCaptor.capture());
+    verify(mockMetaStoreClient).add_partitions(addPartitionCaptor.capture());
+    verify(mockMetaStoreClient, times(2)).setPartitionColumnStatistics(setStatsRequestCaptor.capture());
+
+    assertThat(alterPartitionCaptor.getValue().size(), is(1));
+    assertThat(alterPartitionCaptor.getValue().get(0).getValues(), is(Arrays.asList("one", "two")));
+    assertThat(addPartitionCaptor.getValue().size(), is(1));
+    assertThat(addPartitionCaptor.getValue().get(0).getValues(), is(Arrays.asList("three", "four")));
+    List<SetPartitionsStatsRequest> statsRequests = setStatsRequestCaptor.getAllValues();
+    assertThat(statsRequests.get(0).getColStats().get(0).getStatsDesc().getPartName(), is("c=one/d=two"));
+    assertThat(statsRequests.get(1).getColStats().get(0).getStatsDesc().getPartName(), is("c=three/d=four"));
+  }
+
+  @Test
+  public void laterPartitionWritesUseTheClientThatReplacedABrokenOne() throws Exception {
+    when(metaStoreClientSupplier.get()).thenReturn(mockMetaStoreClient, reconnectedClient);
+    Partition newPartition = newPartition("three", "four");
+    Partition modifiedPartition = newPartition("one", "two");
+    when(mockMetaStoreClient.getPartitionsByNames(DB_NAME, TABLE_NAME, Lists.newArrayList("c=three/d=four")))
+        .thenReturn(Collections.<Partition> emptyList());
+    when(mockMetaStoreClient.add_partitions(anyList()))
+        .thenThrow(new TTransportException("timed out"));
+    when(reconnectedClient.getPartitionsByNames(DB_NAME, TABLE_NAME, Lists.newArrayList("c=one/d=two")))
+        .thenReturn(Arrays.asList(existingPartition));
+    when(mockReplicaLocationManager.getPartitionLocation(newPartition))
+        .thenReturn(new Path(tableLocation, "c=three/d=four"));
+    when(mockReplicaLocationManager.getPartitionLocation(modifiedPartition))
+        .thenReturn(new Path(tableLocation, "c=one/d=two"));
+    List<PartitionsAndStatistics> pages = Arrays
+        .asList(new PartitionsAndStatistics(sourceTable.getPartitionKeys(), Arrays.asList(newPartition),
+            Collections.<String, List<ColumnStatisticsObj>> emptyMap()),
+            new PartitionsAndStatistics(sourceTable.getPartitionKeys(), Arrays.asList(modifiedPartition),
+                Collections.<String, List<ColumnStatisticsObj>> emptyMap()));
+    existingReplicaTable.getParameters().put(REPLICATION_EVENT.parameterName(), "previousEventId");
+
+    replica
+        .updateMetadata(EVENT_ID, tableAndStatistics, pages.iterator(), DB_NAME, TABLE_NAME,
+            mockReplicaLocationManager);
+
+    verify(reconnectedClient).add_partitions(addPartitionCaptor.capture(), eq(true), eq(false));
+    assertThat(addPartitionCaptor.getValue().get(0).getValues(), is(Arrays.asList("three", "four")));
+    verify(reconnectedClient).alter_partitions(eq(DB_NAME), eq(TABLE_NAME), alterPartitionCaptor.capture());
+    assertThat(alterPartitionCaptor.getValue().get(0).getValues(), is(Arrays.asList("one", "two")));
+    verify(mockMetaStoreClient).close();
+    verify(reconnectedClient).close();
+  }
+
+  @Test
+  public void getExistingTableLocation() throws Exception {
+    Optional<Path> location = replica.getExistingTableLocation(DB_NAME, TABLE_NAME);
+    assertThat(location.get(), is(new Path(tableLocation)));
+  }
+
+  @Test
+  public void getExistingTableLocationWithoutReplicaTable() throws Exception {
+    when(mockMetaStoreClient.getTable(DB_NAME, TABLE_NAME)).thenReturn(null);
+    Optional<Path> location = replica.getExistingTableLocation(DB_NAME, TABLE_NAME);
+    assertThat(location.isPresent(), is(false));
+  }
+
+  @Test
+  public void getExistingPartitionLocations() throws Exception {
+    List<String> partitionNames = Arrays.asList(partitionName("one", "two"), partitionName("three", "four"));
+    when(mockMetaStoreClient.getPartitionsByNames(DB_NAME, TABLE_NAME, partitionNames))
+        .thenReturn(Arrays.asList(existingPartition));
+
+    Map<List<String>, Path> locations = replica.getExistingPartitionLocations(DB_NAME, TABLE_NAME, partitionNames);
+
+    assertThat(locations.size(), is(1));
+    assertThat(locations.get(Arrays.asList("one", "two")), is(new Path(tableLocation, partitionName("one", "two"))));
+  }
+
+  @Test
+  public void getExistingPartitionLocationsWithoutReplicaTable() throws Exception {
+    when(mockMetaStoreClient.getTable(DB_NAME, TABLE_NAME)).thenReturn(null);
+
+    Map<List<String>, Path> locations = replica
+        .getExistingPartitionLocations(DB_NAME, TABLE_NAME, Arrays.asList(partitionName("one", "two")));
+
+    assertThat(locations.isEmpty(), is(true));
+    verify(mockMetaStoreClient, never()).getPartitionsByNames(anyString(), anyString(), any(List.class));
+  }
+
   private Table newTable() {
     Table table = new Table();
     table.setDbName(DB_NAME);
@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.core.replica.hive;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsDesc;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.SetPartitionsStatsRequest;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Supplier;
+import com.google.common.base.Ticker;
+
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchedPartitionWriterTest {
+
+  private static final String DATABASE = "db";
+  private static final String TABLE = "table";
+
+  private @Mock Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private @Mock CloseableMetaStoreClient client;
+  private @Mock CloseableMetaStoreClient otherClient;
+  private @Captor ArgumentCaptor<List<Partition>> partitionsCaptor;
+
+  private final MetricRegistry registry = new MetricRegistry();
+  private final FakeTicker ticker = new FakeTicker();
+
+  private BatchedPartitionWriter newWriter(int maxBatchSize, int concurrency, long maxMessageBytes) {
+    return new BatchedPartitionWriter(metaStoreClientSupplier, maxBatchSize, concurrency, maxMessageBytes, registry,
+        ticker, 0L);
+  }
+
+  @Test
+  public void partitionsAreAddedInBatchesWithTheGivenClient() throws Exception {
+    List<Partition> partitions = newPartitions(5);
+
+    newWriter(2, 1, 0L).addPartitions(client, DATABASE, TABLE, partitions);
+
+    verify(client, times(3)).add_partitions(partitionsCaptor.capture());
+    assertThat(partitionsCaptor.getAllValues(),
+        is(Arrays.asList(partitions.subList(0, 2), partitions.subList(2, 4), partitions.subList(4, 5))));
+    verifyZeroInteractions(metaStoreClientSupplier);
+    assertThat(registry.meter(DATABASE + "." + TABLE + ".replica_partitions_added").getCount(), is(5L));
+  }
+
+  @Test
+  public void eachTableHasItsOwnMeters() throws Exception {
+    BatchedPartitionWriter writer = newWriter(2, 1, 0L);
+
+    writer.addPartitions(client, DATABASE, TABLE, newPartitions(2));
+    writer.addPartitions(client, DATABASE, "other_table", newPartitions(3));
+
+    assertThat(registry.meter(DATABASE + "." + TABLE + ".replica_partitions_added").getCount(), is(2L));
+    assertThat(registry.meter(DATABASE + ".other_table.replica_partitions_added").getCount(), is(3L));
+  }
+
+  @Test
+  public void batchSizeIsCappedByMessageSize() throws Exception {
+    List<Partition> partitions = newPartitions(4);
+    long partitionBytes = new TSerializer(new TBinaryProtocol.Factory()).serialize(partitions.get(0)).length;
+
+    newWriter(10, 1, partitionBytes * 2).alterPartitions(client, DATABASE, TABLE, partitions);
+
+    verify(client, times(2)).alter_partitions(eq(DATABASE), eq(TABLE), partitionsCaptor.capture());
+    assertThat(partitionsCaptor.getAllValues(), is(Arrays.asList(partitions.subList(0, 2), partitions.subList(2, 4))));
+  }
+
+  @Test
+  public void slowBatchesReduceBatchSize() throws Exception {
+    List<Partition> partitions = newPartitions(8);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        ticker.advance(2 * BatchedPartitionWriter.TARGET_BATCH_NANOS);
+        return null;
+      }
+    }).when(client).alter_partitions(eq(DATABASE), eq(TABLE), anyList());
+
+    newWriter(4, 1, 0L).alterPartitions(client, DATABASE, TABLE, partitions);
+
+    verify(client, times(4)).alter_partitions(eq(DATABASE), eq(TABLE), partitionsCaptor.capture());
+    List<Integer> batchSizes = new ArrayList<>();
+    for (List<Partition> batch : partitionsCaptor.getAllValues()) {
+      batchSizes.add(batch.size());
+    }
+    assertThat(batchSizes, is(Arrays.asList(4, 2, 1, 1)));
+  }
+
+  @Test
+  public void pushbackIsRetriedWithSmallerBatchesOnANewClientHandedBackToTheCaller() throws Exception {
+    List<Partition> partitions = newPartitions(4);
+    when(client.add_partitions(partitions)).thenThrow(new TTransportException("timed out"));
+    when(metaStoreClientSupplier.get()).thenReturn(otherClient);
+
+    CloseableMetaStoreClient clientForLaterCalls = newWriter(4, 1, 0L)
+        .addPartitions(client, DATABASE, TABLE, partitions);
+
+    verify(otherClient).add_partitions(partitions.subList(0, 2), true, false);
+    verify(otherClient).add_partitions(partitions.subList(2, 4));
+    assertThat(clientForLaterCalls, is(otherClient));
+    verify(client).close();
+    verify(otherClient, never()).close();
+  }
+
+  @Test
+  public void callerClientIsHandedBackWhenItDoesNotFail() throws Exception {
+    CloseableMetaStoreClient clientForLaterCalls = newWriter(4, 1, 0L)
+        .alterPartitions(client, DATABASE, TABLE, newPartitions(2));
+
+    assertThat(clientForLaterCalls, is(client));
+    verify(client, never()).close();
+  }
+
+  @Test
+  public void otherFailuresAreNotRetried() throws Exception {
+    List<Partition> partitions = newPartitions(2);
+    doThrow(new MetaException("invalid"))
+        .when(client)
+        .alter_partitions(eq(DATABASE), eq(TABLE), anyList());
+
+    try {
+      newWriter(4, 1, 0L).alterPartitions(client, DATABASE, TABLE, partitions);
+      fail();
+    } catch (MetaException e) {
+      // expected
+    }
+    verify(client).alter_partitions(eq(DATABASE), eq(TABLE), anyList());
+    verifyZeroInteractions(metaStoreClientSupplier);
+  }
+
+  @Test
+  public void pushbackIsRetriedAtMostMaxAttemptsTimes() throws Exception {
+    List<Partition> partitions = newPartitions(1);
+    doThrow(new TTransportException("timed out"))
+        .when(client)
+        .alter_partitions(eq(DATABASE), eq(TABLE), anyList());
+    doThrow(new TTransportException("timed out"))
+        .when(otherClient)
+        .alter_partitions(eq(DATABASE), eq(TABLE), anyList());
+    when(metaStoreClientSupplier.get()).thenReturn(otherClient);
+
+    try {
+      newWriter(4, 1, 0L).alterPartitions(client, DATABASE, TABLE, partitions);
+      fail();
+    } catch (TTransportException e) {
+      // expected
+    }
+    verify(otherClient, times(BatchedPartitionWriter.MAX_ATTEMPTS - 1))
+        .alter_partitions(eq(DATABASE), eq(TABLE), anyList());
+    verify(otherClient, times(BatchedPartitionWriter.MAX_ATTEMPTS - 1)).close();
+    verify(client, never()).close();
+  }
+
+  @Test
+  public void concurrentBatchesUseTheirOwnClients() throws Exception {
+    List<ColumnStatistics> statistics = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      ColumnStatisticsDesc statsDesc = new ColumnStatisticsDesc(false, DATABASE, TABLE);
+      statsDesc.setPartName("a=" + i);
+      statistics.add(new ColumnStatistics(statsDesc, new ArrayList<ColumnStatisticsObj>()));
+    }
+    when(metaStoreClientSupplier.get()).thenReturn(otherClient);
+
+    newWriter(1, 2, 0L).setPartitionColumnStatistics(client, DATABASE, TABLE, statistics);
+
+    verify(otherClient, times(4)).setPartitionColumnStatistics(any(SetPartitionsStatsRequest.class));
+    verify(otherClient, times(4)).close();
+    verifyZeroInteractions(client);
+    assertThat(registry.meter(DATABASE + "." + TABLE + ".replica_partition_statistics_set").getCount(), is(4L));
+  }
+
+  @Test
+  public void nothingToWrite() throws Exception {
+    newWriter(4, 2, 0L).addPartitions(client, DATABASE, TABLE, new ArrayList<Partition>());
+
+    verifyZeroInteractions(client, metaStoreClientSupplier);
+  }
+
+  private static List<Partition> newPartitions(int count) {
+    List<Partition> partitions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Partition partition = new Partition();
+      partition.setDbName(DATABASE);
+      partition.setTableName(TABLE);
+      partition.setValues(Arrays.asList(String.format("%04d", i)));
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+
+  private static class FakeTicker extends Ticker {
+    private long nanos = 0L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long nanos) {
+      this.nanos += nanos;
+    }
+  }
+
+}
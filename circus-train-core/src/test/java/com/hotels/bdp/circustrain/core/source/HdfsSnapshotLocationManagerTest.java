@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package com.hotels.bdp.circustrain.core.source;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -143,6 +145,19 @@ public class HdfsSnapshotLocationManagerTest {
     assertThat(tableLocation, is(new Path("snapshotPath")));
   }
 
+  @Test
+  public void getTableLocationReusesExistingSnapshot() throws Exception {
+    when(fileSystem.exists(new Path(TABLE_LOCATION + "/.snapshot"))).thenReturn(true);
+    when(fileSystem.exists(new Path(TABLE_LOCATION + "/.snapshot/" + EVENT_ID))).thenReturn(true);
+
+    HdfsSnapshotLocationManager manager = new HdfsSnapshotLocationManager(hiveConf, EVENT_ID, sourceTable,
+        Collections.<Partition> emptyList(), false, null, fileSystemFactory, sourceCatalogListener);
+
+    verify(fileSystem, never()).createSnapshot(any(Path.class), anyString());
+    Path tableLocation = manager.getTableLocation();
+    assertThat(tableLocation, is(new Path(TABLE_LOCATION + "/.snapshot/" + EVENT_ID)));
+  }
+
   @Test
   public void getTableLocationPartitionedTableSnapshotsEnabled() throws Exception {
     when(fileSystem.exists(new Path(TABLE_LOCATION + "/.snapshot"))).thenReturn(true);
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,7 @@ import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.api.conf.SourceTable;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.event.SourceCatalogListener;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -44,6 +45,7 @@ public class SourceFactoryTest {
   private @Mock HiveConf sourceHiveConf;
   private @Mock Supplier<CloseableMetaStoreClient> sourceMetaStoreClientSupplier;
   private @Mock SourceCatalogListener sourceCatalogListener;
+  private @Mock TableMetadataCache sourceTableMetadataCache;
   private @Mock TableReplication tableReplication;
   private @Mock SourceTable sourceTable;
 
@@ -57,7 +59,7 @@ public class SourceFactoryTest {
     when(tableReplication.getReplicationMode()).thenReturn(ReplicationMode.FULL);
     when(sourceCatalog.isDisableSnapshots()).thenReturn(false);
     SourceFactory sourceFactory = new SourceFactory(sourceCatalog, sourceHiveConf, sourceMetaStoreClientSupplier,
-        sourceCatalogListener);
+        sourceCatalogListener, sourceTableMetadataCache);
     Source source = sourceFactory.newInstance(tableReplication);
     assertFalse(source.isSnapshotsDisabled());
   }
@@ -66,7 +68,7 @@ public class SourceFactoryTest {
   public void newInstanceMetadataMirrorReplicationModeOverridesDisabledSnapshots() throws Exception {
     when(tableReplication.getReplicationMode()).thenReturn(ReplicationMode.METADATA_MIRROR);
     SourceFactory sourceFactory = new SourceFactory(sourceCatalog, sourceHiveConf, sourceMetaStoreClientSupplier,
-        sourceCatalogListener);
+        sourceCatalogListener, sourceTableMetadataCache);
     Source source = sourceFactory.newInstance(tableReplication);
     assertTrue(source.isSnapshotsDisabled());
     verify(sourceCatalog, never()).isDisableSnapshots();
@@ -76,9 +78,18 @@ public class SourceFactoryTest {
   public void newInstanceMetadataUpdateReplicationModeOverridesDisabledSnapshots() throws Exception {
     when(tableReplication.getReplicationMode()).thenReturn(ReplicationMode.METADATA_UPDATE);
     SourceFactory sourceFactory = new SourceFactory(sourceCatalog, sourceHiveConf, sourceMetaStoreClientSupplier,
-        sourceCatalogListener);
+        sourceCatalogListener, sourceTableMetadataCache);
     Source source = sourceFactory.newInstance(tableReplication);
     assertTrue(source.isSnapshotsDisabled());
     verify(sourceCatalog, never()).isDisableSnapshots();
   }
+
+  @Test
+  public void newReadOnlyInstanceFullReplicationModeDisablesSnapshots() throws Exception {
+    SourceFactory sourceFactory = new SourceFactory(sourceCatalog, sourceHiveConf, sourceMetaStoreClientSupplier,
+        sourceCatalogListener, sourceTableMetadataCache);
+    Source source = sourceFactory.newReadOnlyInstance(tableReplication);
+    assertTrue(source.isSnapshotsDisabled());
+    verify(sourceCatalog, never()).isDisableSnapshots();
+  }
 }
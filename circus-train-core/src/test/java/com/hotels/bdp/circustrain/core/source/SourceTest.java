@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,11 +19,16 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -44,6 +49,7 @@ import org.apache.hadoop.hive.metastore.api.Table;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -52,9 +58,12 @@ import com.google.common.base.Supplier;
 import com.hotels.bdp.circustrain.api.SourceLocationManager;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.api.copier.CopierOptions;
+import com.hotels.bdp.circustrain.api.event.EventPartitions;
 import com.hotels.bdp.circustrain.api.event.SourceCatalogListener;
+import com.hotels.bdp.circustrain.core.PartitionSelection;
 import com.hotels.bdp.circustrain.core.PartitionsAndStatistics;
 import com.hotels.bdp.circustrain.core.TableAndStatistics;
+import com.hotels.bdp.circustrain.core.TableMetadataCache;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -153,6 +162,28 @@ public class SourceTest {
     assertThat(sourceTable.getStatistics(), is(columnStatistics));
   }
 
+  @Test
+  public void getPrefetchedTable() throws Exception {
+    when(metaStoreClientSupplier.get()).thenReturn(metaStoreClient);
+    when(metaStoreClient.getTableObjectsByName(DATABASE, Collections.singletonList(TABLE)))
+        .thenReturn(Collections.singletonList(table));
+    when(metaStoreClient.getTableColumnStatistics(DATABASE, TABLE, COLUMN_NAMES)).thenReturn(columnStatisticsObjs);
+    TableMetadataCache tableMetadataCache = new TableMetadataCache(metaStoreClientSupplier);
+    tableMetadataCache.prefetch(DATABASE, Collections.singletonList(TABLE));
+    source = new Source(sourceCatalog, hiveConf, metaStoreClientSupplier, sourceCatalogListener, true, null,
+        tableMetadataCache);
+
+    TableAndStatistics sourceTable = source.getTableAndStatistics(DATABASE, TABLE);
+    TableAndStatistics sourceTableAgain = source.getTableAndStatistics(DATABASE, TABLE);
+
+    assertThat(sourceTable.getTable(), is(table));
+    assertThat(sourceTable.getStatistics(), is(columnStatistics));
+    assertThat(sourceTableAgain.getTable(), is(table));
+    assertThat(sourceTableAgain.getStatistics(), is(columnStatistics));
+    verify(metaStoreClient, never()).getTable(DATABASE, TABLE);
+    verify(metaStoreClient, times(1)).getTableColumnStatistics(DATABASE, TABLE, COLUMN_NAMES);
+  }
+
   @Test
   public void getTableNoStats() throws Exception {
     when(metaStoreClientSupplier.get()).thenReturn(metaStoreClient);
@@ -191,6 +222,22 @@ public class SourceTest {
     assertThat(partitionsAndStatistics.getStatisticsForPartition(partition), is(nullValue()));
   }
 
+  @Test
+  public void listPartitionPagesReportsEachPageWhenItIsFetched() throws Exception {
+    when(metaStoreClientSupplier.get()).thenReturn(metaStoreClient);
+    when(metaStoreClient.getPartitionsByNames(DATABASE, TABLE, PARTITION_NAMES)).thenReturn(partitions);
+
+    Iterator<List<Partition>> pages = source
+        .listPartitionPages(table, PartitionSelection.byNames(PARTITION_NAMES), MAX_PARTITIONS, 1);
+    verify(sourceCatalogListener, never()).resolvedSourcePartitions(any(EventPartitions.class));
+
+    assertThat(pages.next(), is(partitions));
+    ArgumentCaptor<EventPartitions> eventPartitionsCaptor = ArgumentCaptor.forClass(EventPartitions.class);
+    verify(sourceCatalogListener).resolvedSourcePartitions(eventPartitionsCaptor.capture());
+    assertThat(eventPartitionsCaptor.getValue().getEventPartitions().size(), is(1));
+    assertThat(eventPartitionsCaptor.getValue().getEventPartitions().get(0).getValues(), is(partition.getValues()));
+  }
+
   @Test
   public void getHiveConf() throws Exception {
     assertThat(source.getHiveConf(), is(hiveConf));
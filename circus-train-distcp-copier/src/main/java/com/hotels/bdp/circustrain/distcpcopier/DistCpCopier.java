@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,6 +37,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
+import com.hotels.bdp.circustrain.api.metrics.QualifiedRunningMetrics;
 import com.hotels.bdp.circustrain.metrics.JobCounterGauge;
 import com.hotels.bdp.circustrain.metrics.JobMetrics;
 
@@ -64,6 +65,7 @@ public class DistCpCopier implements Copier {
   private final DistCpExecutor executor;
 
   private final MetricRegistry registry;
+  private final String metricsQualifier;
 
   public DistCpCopier(
       Configuration conf,
@@ -72,8 +74,23 @@ public class DistCpCopier implements Copier {
       Path replicaDataLocation,
       Map<String, Object> copierOptions,
       MetricRegistry registry) {
+    this(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions, registry, null);
+  }
+
+  /**
+   * @param metricsQualifier qualifies the names of the running metrics of this copier, such as the qualified name of
+   *          the replica table, can be null
+   */
+  public DistCpCopier(
+      Configuration conf,
+      Path sourceDataBaseLocation,
+      List<Path> sourceDataLocations,
+      Path replicaDataLocation,
+      Map<String, Object> copierOptions,
+      MetricRegistry registry,
+      String metricsQualifier) {
     this(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions, DistCpExecutor.DEFAULT,
-        registry);
+        registry, metricsQualifier);
   }
 
   DistCpCopier(
@@ -83,9 +100,11 @@ public class DistCpCopier implements Copier {
       Path replicaDataLocation,
       Map<String, Object> copierOptions,
       DistCpExecutor executor,
-      MetricRegistry registry) {
+      MetricRegistry registry,
+      String metricsQualifier) {
     this.executor = executor;
     this.registry = registry;
+    this.metricsQualifier = metricsQualifier;
     this.conf = new Configuration(conf); // a copy as we'll be modifying it
     this.sourceDataBaseLocation = sourceDataBaseLocation;
     this.sourceDataLocations = sourceDataLocations;
@@ -135,10 +154,10 @@ public class DistCpCopier implements Copier {
   }
 
   private void registerRunningJobMetrics(final Job job, final String counter) {
-    registry.remove(RunningMetrics.DIST_CP_BYTES_REPLICATED.name());
-    registry
-        .register(RunningMetrics.DIST_CP_BYTES_REPLICATED.name(),
-            new JobCounterGauge(job, FileSystemCounter.class.getName(), counter));
+    String bytesReplicatedName = QualifiedRunningMetrics.name(metricsQualifier,
+        RunningMetrics.DIST_CP_BYTES_REPLICATED.name());
+    registry.remove(bytesReplicatedName);
+    registry.register(bytesReplicatedName, new JobCounterGauge(job, FileSystemCounter.class.getName(), counter));
   }
 
   private void cleanUpReplicaDataLocation() {
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,17 @@
  */
 package com.hotels.bdp.circustrain.hive.fetcher;
 
+import java.io.Closeable;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.Warehouse;
@@ -29,19 +36,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
-/** Fetches partitions ahead in batches and keeps them in cache until a non-cached partition is requested. */
-public class BufferedPartitionFetcher implements PartitionFetcher {
+/**
+ * Fetches partitions ahead in batches and keeps them in cache until a non-cached partition is requested.
+ * <p>
+ * Partition names are indexed by position so that lookups are constant time. Once a batch is fetched the following
+ * batch, in the direction in which partitions are being requested, is fetched in the background. All metastore calls
+ * are made from a single background thread as metastore clients are not thread-safe.
+ * </p>
+ */
+public class BufferedPartitionFetcher implements PartitionFetcher, Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(BufferedPartitionFetcher.class);
 
   private static final short NO_LIMIT = (short) -1;
 
   private final List<String> partitionNames;
+  private final Map<String, Integer> partitionPositions;
   private final IMetaStoreClient metastore;
   private final Table table;
   private final short bufferSize;
-  private Map<String, Partition> buffer;
+  private final ThreadPoolExecutor executor;
+  private Buffer buffer = new Buffer(0, 0, Collections.<String, Partition> emptyMap());
+  private Future<Buffer> nextBuffer;
 
   public BufferedPartitionFetcher(IMetaStoreClient metastore, Table table, short bufferSize) {
 
@@ -52,45 +70,129 @@ public class BufferedPartitionFetcher implements PartitionFetcher {
     } catch (TException e) {
       throw new RuntimeException("Unable to fetch partition names of table " + Warehouse.getQualifiedName(table), e);
     }
+    partitionPositions = new HashMap<>(partitionNames.size() * 4 / 3 + 1);
+    for (int i = 0; i < partitionNames.size(); i++) {
+      partitionPositions.put(partitionNames.get(i), i);
+    }
 
     this.table = table;
     this.metastore = metastore;
     this.bufferSize = bufferSize;
-    buffer = Collections.emptyMap();
+    executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactoryBuilder().setNameFormat("partition-fetcher-%d").setDaemon(true).build());
+    executor.allowCoreThreadTimeOut(true);
   }
 
   @Override
   public Partition fetch(String partitionName) {
-    int partitionPosition = partitionNames.indexOf(partitionName);
-    if (partitionPosition < 0) {
+    Integer partitionPosition = partitionPositions.get(partitionName);
+    if (partitionPosition == null) {
       throw new PartitionNotFoundException("Unknown partition " + partitionName);
     }
 
-    if (!buffer.containsKey(partitionName)) {
-      bufferPartitions(partitionPosition);
+    if (!buffer.contains(partitionPosition)) {
+      // Partitions are requested in descending order when the source is iterated in reverse
+      boolean descending = !buffer.isEmpty() && partitionPosition < buffer.first;
+      Buffer next = takeNextBuffer();
+      if (next == null || !next.contains(partitionPosition)) {
+        int firstPartition = descending ? Math.max(0, partitionPosition - bufferSize + 1) : partitionPosition;
+        next = get(submit(firstPartition));
+      }
+      buffer = next;
+      prefetch(descending);
     }
 
-    return buffer.get(partitionName);
+    return buffer.partitions.get(partitionName);
+  }
+
+  private Buffer takeNextBuffer() {
+    if (nextBuffer == null) {
+      return null;
+    }
+    Future<Buffer> future = nextBuffer;
+    nextBuffer = null;
+    return get(future);
+  }
+
+  private void prefetch(boolean descending) {
+    if (descending && buffer.first > 0) {
+      nextBuffer = submit(Math.max(0, buffer.first - bufferSize));
+    } else if (!descending && buffer.last < partitionNames.size()) {
+      nextBuffer = submit(buffer.last);
+    }
+  }
+
+  private Future<Buffer> submit(final int firstPartition) {
+    return executor.submit(new Callable<Buffer>() {
+      @Override
+      public Buffer call() {
+        return bufferPartitions(firstPartition);
+      }
+    });
+  }
+
+  private Buffer get(Future<Buffer> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while fetching partitions of table " + Warehouse.getQualifiedName(table),
+          e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Unable to fetch partitions of table " + Warehouse.getQualifiedName(table),
+          e.getCause());
+    }
   }
 
   @VisibleForTesting
-  void bufferPartitions(int firstPartition) {
+  Buffer bufferPartitions(int firstPartition) {
     int totalPartitionsToLoad = Math.min(partitionNames.size(), firstPartition + bufferSize);
     List<String> partitionsToLoad = partitionNames.subList(firstPartition, totalPartitionsToLoad);
 
     try {
-      LOG.debug("Fetching {} partitions.", totalPartitionsToLoad);
+      LOG.debug("Fetching {} partitions.", partitionsToLoad.size());
       List<Partition> partitions = metastore.getPartitionsByNames(table.getDbName(), table.getTableName(),
           partitionsToLoad);
       LOG.debug("Fetched {} partitions for table {}.", partitions.size(), Warehouse.getQualifiedName(table));
 
-      buffer = new HashMap<>(partitions.size());
+      Map<String, Partition> buffer = new HashMap<>(partitions.size() * 4 / 3 + 1);
       for (Partition partition : partitions) {
         buffer.put(Warehouse.makePartName(table.getPartitionKeys(), partition.getValues()), partition);
       }
+      return new Buffer(firstPartition, totalPartitionsToLoad, buffer);
     } catch (TException e) {
       throw new RuntimeException("Unable to fetch partitions of table " + Warehouse.getQualifiedName(table), e);
     }
   }
 
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** Partitions fetched for the positions {@code [first, last)}. */
+  @VisibleForTesting
+  static class Buffer {
+    private final int first;
+    private final int last;
+    private final Map<String, Partition> partitions;
+
+    private Buffer(int first, int last, Map<String, Partition> partitions) {
+      this.first = first;
+      this.last = last;
+      this.partitions = partitions;
+    }
+
+    private boolean isEmpty() {
+      return first == last;
+    }
+
+    private boolean contains(int position) {
+      return position >= first && position < last;
+    }
+  }
+
 }
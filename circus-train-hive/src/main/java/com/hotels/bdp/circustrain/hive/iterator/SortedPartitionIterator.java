@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.hive.iterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterates over the partitions of a table in partition name order, fetching them in batches. Unlike the metastore's
+ * own listings the order is guaranteed, which allows two tables to be merge-joined on partition name.
+ * <p>
+ * The metastore cannot list partition names in order or in pages, so all the names of the table are fetched and
+ * sorted up front: only the partitions themselves are held one batch at a time, the names take memory in proportion
+ * to the number of partitions.
+ * </p>
+ */
+public class SortedPartitionIterator implements Iterator<Partition> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SortedPartitionIterator.class);
+
+  private static final short NO_LIMIT = (short) -1;
+
+  private final IMetaStoreClient metastore;
+  private final Table table;
+  private final short batchSize;
+  private final List<String> partitionNames;
+  private int position = 0;
+  private Iterator<Partition> batch = Collections.emptyIterator();
+
+  /**
+   * @param descending whether partitions are returned in descending rather than ascending name order
+   */
+  public SortedPartitionIterator(IMetaStoreClient metastore, Table table, short batchSize, boolean descending) {
+    this.metastore = metastore;
+    this.table = table;
+    this.batchSize = batchSize;
+    try {
+      partitionNames = new ArrayList<>(metastore.listPartitionNames(table.getDbName(), table.getTableName(), NO_LIMIT));
+    } catch (TException e) {
+      throw new RuntimeException("Unable to fetch partition names of table " + Warehouse.getQualifiedName(table), e);
+    }
+    Collections.sort(partitionNames);
+    if (descending) {
+      Collections.reverse(partitionNames);
+    }
+    LOG.debug("Fetched {} partition names for table {}.", partitionNames.size(), Warehouse.getQualifiedName(table));
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!batch.hasNext() && position < partitionNames.size()) {
+      batch = nextBatch();
+    }
+    return batch.hasNext();
+  }
+
+  @Override
+  public Partition next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return batch.next();
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException("Cannot remove partitions");
+  }
+
+  private Iterator<Partition> nextBatch() {
+    List<String> names = partitionNames.subList(position, Math.min(partitionNames.size(), position + batchSize));
+    position += names.size();
+    try {
+      List<Partition> partitions = metastore.getPartitionsByNames(table.getDbName(), table.getTableName(), names);
+      Map<String, Partition> partitionsByName = new HashMap<>(partitions.size() * 4 / 3 + 1);
+      for (Partition partition : partitions) {
+        partitionsByName.put(Warehouse.makePartName(table.getPartitionKeys(), partition.getValues()), partition);
+      }
+      // The metastore does not guarantee the order of the partitions it returns, some may have been dropped since
+      List<Partition> sortedPartitions = new ArrayList<>(partitions.size());
+      for (String name : names) {
+        Partition partition = partitionsByName.get(name);
+        if (partition != null) {
+          sortedPartitions.add(partition);
+        }
+      }
+      return sortedPartitions.iterator();
+    } catch (TException e) {
+      throw new RuntimeException("Unable to fetch partitions of table " + Warehouse.getQualifiedName(table), e);
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,8 +15,12 @@
  */
 package com.hotels.bdp.circustrain.hive.fetcher;
 
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyListOf;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -109,4 +113,56 @@ public class BufferedPartitionFetcherTest {
     verify(fetcher, times(1)).bufferPartitions(2);
   }
 
+  @Test
+  public void descendingRequestsArePrefetched() throws Exception {
+    when(table.getDbName()).thenReturn(DATABASE_NAME);
+    when(table.getTableName()).thenReturn(TABLE_NAME);
+    when(table.getPartitionKeys()).thenReturn(Arrays.asList(new FieldSchema("a", "String", null)));
+    when(metastore.listPartitionNames(DATABASE_NAME, TABLE_NAME, (short) -1))
+        .thenReturn(Arrays.asList("a=01", "a=02", "a=03", "a=04", "a=05"));
+    Partition p1 = newPartition("01");
+    Partition p2 = newPartition("02");
+    Partition p3 = newPartition("03");
+    Partition p4 = newPartition("04");
+    Partition p5 = newPartition("05");
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=05")))
+        .thenReturn(Arrays.asList(p5));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03", "a=04")))
+        .thenReturn(Arrays.asList(p3, p4));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01", "a=02")))
+        .thenReturn(Arrays.asList(p1, p2));
+
+    try (BufferedPartitionFetcher fetcher = spy(new BufferedPartitionFetcher(metastore, table, (short) 2))) {
+      assertThat(fetcher.fetch("a=05"), is(p5));
+      assertThat(fetcher.fetch("a=04"), is(p4));
+      assertThat(fetcher.fetch("a=03"), is(p3));
+      assertThat(fetcher.fetch("a=02"), is(p2));
+      assertThat(fetcher.fetch("a=01"), is(p1));
+      verify(fetcher, times(1)).bufferPartitions(4);
+      verify(fetcher, times(1)).bufferPartitions(2);
+      verify(fetcher, times(1)).bufferPartitions(0);
+      verify(metastore, times(3)).getPartitionsByNames(anyString(), anyString(), anyListOf(String.class));
+    }
+  }
+
+  @Test
+  public void partitionMissingFromBuffer() throws Exception {
+    init();
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01", "a=02", "a=03")))
+        .thenReturn(Arrays.asList(p01, p03));
+
+    try (BufferedPartitionFetcher fetcher = spy(new BufferedPartitionFetcher(metastore, table, (short) 3))) {
+      assertThat(fetcher.fetch("a=01"), is(p01));
+      assertThat(fetcher.fetch("a=02"), is(nullValue()));
+      assertThat(fetcher.fetch("a=03"), is(p03));
+      verify(fetcher, times(1)).bufferPartitions(anyInt());
+    }
+  }
+
+  private static Partition newPartition(String value) {
+    Partition partition = new Partition();
+    partition.setValues(Arrays.asList(value));
+    return partition;
+  }
+
 }
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.hive.iterator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SortedPartitionIteratorTest {
+
+  private static final String TABLE_NAME = "table";
+  private static final String DATABASE_NAME = "database";
+
+  private @Mock IMetaStoreClient metastore;
+  private @Mock Table table;
+
+  private @Mock Partition p01;
+  private @Mock Partition p02;
+  private @Mock Partition p03;
+
+  @Before
+  public void init() throws Exception {
+    when(p01.getValues()).thenReturn(Arrays.asList("01"));
+    when(p02.getValues()).thenReturn(Arrays.asList("02"));
+    when(p03.getValues()).thenReturn(Arrays.asList("03"));
+
+    when(table.getDbName()).thenReturn(DATABASE_NAME);
+    when(table.getTableName()).thenReturn(TABLE_NAME);
+    when(table.getPartitionKeys()).thenReturn(Arrays.asList(new FieldSchema("a", "String", null)));
+
+    when(metastore.listPartitionNames(DATABASE_NAME, TABLE_NAME, (short) -1))
+        .thenReturn(Arrays.asList("a=02", "a=03", "a=01"));
+  }
+
+  @Test
+  public void ascending() throws Exception {
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01", "a=02")))
+        .thenReturn(Arrays.asList(p02, p01));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03")))
+        .thenReturn(Arrays.asList(p03));
+
+    List<Partition> partitions = toList(new SortedPartitionIterator(metastore, table, (short) 2, false));
+
+    assertThat(partitions, is(Arrays.asList(p01, p02, p03)));
+  }
+
+  @Test
+  public void descending() throws Exception {
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03", "a=02")))
+        .thenReturn(Arrays.asList(p02, p03));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01")))
+        .thenReturn(Arrays.asList(p01));
+
+    List<Partition> partitions = toList(new SortedPartitionIterator(metastore, table, (short) 2, true));
+
+    assertThat(partitions, is(Arrays.asList(p03, p02, p01)));
+  }
+
+  @Test
+  public void droppedPartitionsAreSkipped() throws Exception {
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=01")))
+        .thenReturn(Arrays.asList(p01));
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=02")))
+        .thenReturn(Collections.<Partition> emptyList());
+    when(metastore.getPartitionsByNames(DATABASE_NAME, TABLE_NAME, Arrays.asList("a=03")))
+        .thenReturn(Arrays.asList(p03));
+
+    List<Partition> partitions = toList(new SortedPartitionIterator(metastore, table, (short) 1, false));
+
+    assertThat(partitions, is(Arrays.asList(p01, p03)));
+  }
+
+  private static List<Partition> toList(SortedPartitionIterator iterator) {
+    List<Partition> partitions = new ArrayList<>();
+    while (iterator.hasNext()) {
+      partitions.add(iterator.next());
+    }
+    return partitions;
+  }
+
+}
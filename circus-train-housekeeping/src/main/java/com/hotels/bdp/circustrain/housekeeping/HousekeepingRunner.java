@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -32,6 +33,10 @@ import com.google.common.collect.ImmutableMap;
 
 import com.hotels.bdp.circustrain.api.CompletionCode;
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.Daemon;
+import com.hotels.bdp.circustrain.api.event.EventReplicaCatalog;
+import com.hotels.bdp.circustrain.api.event.EventSourceCatalog;
+import com.hotels.bdp.circustrain.api.event.LocomotiveListener;
 import com.hotels.bdp.circustrain.api.metrics.MetricSender;
 import com.hotels.housekeeping.conf.Housekeeping;
 import com.hotels.housekeeping.service.HousekeepingService;
@@ -39,22 +44,55 @@ import com.hotels.housekeeping.service.HousekeepingService;
 @Profile({ Modules.HOUSEKEEPING })
 @Component
 @Order(Ordered.LOWEST_PRECEDENCE)
-class HousekeepingRunner implements ApplicationRunner {
+@ConditionalOnProperty(name = "plan", havingValue = "false", matchIfMissing = true)
+class HousekeepingRunner implements ApplicationRunner, LocomotiveListener {
   private static final Logger LOG = LoggerFactory.getLogger(HousekeepingRunner.class);
 
   private final Housekeeping housekeeping;
   private final HousekeepingService housekeepingService;
   private final MetricSender metricSender;
+  private final Daemon daemon;
 
-  @Autowired
   HousekeepingRunner(Housekeeping housekeeping, HousekeepingService housekeepingService, MetricSender metricSender) {
+    this(housekeeping, housekeepingService, metricSender, new Daemon());
+  }
+
+  @Autowired
+  HousekeepingRunner(
+      Housekeeping housekeeping,
+      HousekeepingService housekeepingService,
+      MetricSender metricSender,
+      Daemon daemon) {
     this.housekeeping = housekeeping;
     this.housekeepingService = housekeepingService;
     this.metricSender = metricSender;
+    this.daemon = daemon;
   }
 
   @Override
   public void run(ApplicationArguments args) {
+    cleanUp();
+  }
+
+  @Override
+  public void circusTrainStartUp(String[] args, EventSourceCatalog sourceCatalog, EventReplicaCatalog replicaCatalog) {}
+
+  /**
+   * A daemon only returns from its application runner when it is stopped so housekeeping is also done at the end of
+   * each of its runs.
+   */
+  @Override
+  public void circusTrainShutDown(CompletionCode completionCode, Map<String, Long> metrics) {
+    if (daemon.isEnabled()) {
+      try {
+        cleanUp();
+      } catch (Exception e) {
+        // already logged, the next run will try again
+      }
+    }
+  }
+
+  private void cleanUp() {
     Instant deletionCutoff = new Instant().minus(housekeeping.getExpiredPathDuration());
     LOG.info("Housekeeping at instant {} has started", deletionCutoff);
     CompletionCode completionCode = CompletionCode.SUCCESS;
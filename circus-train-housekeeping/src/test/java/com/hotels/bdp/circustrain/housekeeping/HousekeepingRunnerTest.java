@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import org.joda.time.Duration;
@@ -32,6 +34,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.hotels.bdp.circustrain.api.CompletionCode;
+import com.hotels.bdp.circustrain.api.conf.Daemon;
 import com.hotels.bdp.circustrain.api.metrics.MetricSender;
 import com.hotels.housekeeping.conf.Housekeeping;
 import com.hotels.housekeeping.service.HousekeepingService;
@@ -68,4 +72,21 @@ public class HousekeepingRunnerTest {
     runner.run(null);
   }
 
+  @Test
+  public void noCleanUpAfterReplicationWhenNotADaemon() {
+    runner.circusTrainShutDown(CompletionCode.SUCCESS, null);
+    verifyZeroInteractions(cleanUpPathService);
+  }
+
+  @Test
+  public void cleanUpAfterEachDaemonRun() throws Exception {
+    Daemon daemon = new Daemon();
+    daemon.setFixedDelay(1L);
+    runner = new HousekeepingRunner(housekeeping, cleanUpPathService, metricSender, daemon);
+    doThrow(new IllegalStateException()).doNothing().when(cleanUpPathService).cleanUp(any(Instant.class));
+    runner.circusTrainShutDown(CompletionCode.SUCCESS, null);
+    runner.circusTrainShutDown(CompletionCode.SUCCESS, null);
+    verify(cleanUpPathService, times(2)).cleanUp(any(Instant.class));
+  }
+
 }
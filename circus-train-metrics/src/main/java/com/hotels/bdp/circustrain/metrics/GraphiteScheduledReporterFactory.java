@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,8 +22,8 @@ import com.codahale.metrics.ScheduledReporter;
 import com.codahale.metrics.graphite.Graphite;
 import com.codahale.metrics.graphite.GraphiteReporter;
 
+import com.hotels.bdp.circustrain.api.metrics.QualifiedRunningMetrics;
 import com.hotels.bdp.circustrain.api.metrics.ScheduledReporterFactory;
-import com.hotels.bdp.circustrain.api.util.DotJoiner;
 
 public class GraphiteScheduledReporterFactory implements ScheduledReporterFactory {
 
@@ -44,8 +44,12 @@ public class GraphiteScheduledReporterFactory implements ScheduledReporterFactor
   public ScheduledReporter newInstance(String qualifiedReplicaName) {
     InetSocketAddress address = new InetSocketAddressFactory().newInstance(graphiteHost);
     Graphite graphite = new Graphite(address);
-    String prefix = DotJoiner.join(graphitePrefix, qualifiedReplicaName);
-    return GraphiteReporter.forRegistry(runningMetricRegistry).prefixedWith(prefix).build(graphite);
+    // Running metric names are already qualified by the replica table
+    return GraphiteReporter
+        .forRegistry(runningMetricRegistry)
+        .prefixedWith(graphitePrefix)
+        .filter(QualifiedRunningMetrics.filter(qualifiedReplicaName))
+        .build(graphite);
   }
 
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package com.hotels.bdp.circustrain.s3mapreducecpcopier;
 
 public enum RunningMetrics {
 
-  S3_MAPREDUCE_CP_BYTES_REPLICATED;
+  S3_MAPREDUCE_CP_BYTES_REPLICATED,
+  S3_MAPREDUCE_CP_THROTTLED_REQUESTS;
 
 }
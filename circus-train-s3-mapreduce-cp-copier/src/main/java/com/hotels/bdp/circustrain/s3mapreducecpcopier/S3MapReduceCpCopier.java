@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,7 @@ import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierOptions;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
+import com.hotels.bdp.circustrain.api.metrics.QualifiedRunningMetrics;
 import com.hotels.bdp.circustrain.metrics.JobCounterGauge;
 import com.hotels.bdp.circustrain.metrics.JobMetrics;
 import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCp;
@@ -66,6 +67,7 @@ public class S3MapReduceCpCopier implements Copier {
   private final S3MapReduceCpExecutor executor;
 
   private final MetricRegistry registry;
+  private final String metricsQualifier;
 
   public S3MapReduceCpCopier(
       Configuration conf,
@@ -74,8 +76,23 @@ public class S3MapReduceCpCopier implements Copier {
       Path replicaDataLocation,
       Map<String, Object> copierOptions,
       MetricRegistry registry) {
+    this(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions, registry, null);
+  }
+
+  /**
+   * @param metricsQualifier qualifies the names of the running metrics of this copier, such as the qualified name of
+   *          the replica table, can be null
+   */
+  public S3MapReduceCpCopier(
+      Configuration conf,
+      Path sourceDataBaseLocation,
+      List<Path> sourceDataLocations,
+      Path replicaDataLocation,
+      Map<String, Object> copierOptions,
+      MetricRegistry registry,
+      String metricsQualifier) {
     this(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions,
-        S3MapReduceCpExecutor.DEFAULT, registry);
+        S3MapReduceCpExecutor.DEFAULT, registry, metricsQualifier);
   }
 
   S3MapReduceCpCopier(
@@ -86,8 +103,22 @@ public class S3MapReduceCpCopier implements Copier {
       Map<String, Object> copierOptions,
       S3MapReduceCpExecutor executor,
       MetricRegistry registry) {
+    this(conf, sourceDataBaseLocation, sourceDataLocations, replicaDataLocation, copierOptions, executor, registry,
+        null);
+  }
+
+  S3MapReduceCpCopier(
+      Configuration conf,
+      Path sourceDataBaseLocation,
+      List<Path> sourceDataLocations,
+      Path replicaDataLocation,
+      Map<String, Object> copierOptions,
+      S3MapReduceCpExecutor executor,
+      MetricRegistry registry,
+      String metricsQualifier) {
     this.executor = executor;
     this.registry = registry;
+    this.metricsQualifier = metricsQualifier;
     this.conf = new Configuration(conf); // a copy as we'll be modifying it
     this.sourceDataBaseLocation = sourceDataBaseLocation;
     this.sourceDataLocations = sourceDataLocations;
@@ -145,6 +176,11 @@ public class S3MapReduceCpCopier implements Copier {
       Enum<?> counter = Counter.BYTESCOPIED;
       Job job = executor.exec(conf, s3MapReduceCpOptions);
       registerRunningJobMetrics(job, counter);
+      if (s3MapReduceCpOptions.isAdaptiveConcurrency()) {
+        String throttledRequestsName = qualifiedMetricName(RunningMetrics.S3_MAPREDUCE_CP_THROTTLED_REQUESTS);
+        registry.remove(throttledRequestsName);
+        registry.register(throttledRequestsName, new JobCounterGauge(job, Counter.THROTTLED));
+      }
       if (!job.waitForCompletion(true)) {
         throw new IOException(
             "S3MapReduceCp failure: Job " + job.getJobID() + " has failed: " + job.getStatus().getFailureInfo());
@@ -158,9 +194,13 @@ public class S3MapReduceCpCopier implements Copier {
   }
 
   private void registerRunningJobMetrics(final Job job, final Enum<?> counter) {
-    registry.remove(RunningMetrics.S3_MAPREDUCE_CP_BYTES_REPLICATED.name());
-    registry.register(RunningMetrics.S3_MAPREDUCE_CP_BYTES_REPLICATED.name(), new JobCounterGauge(job, counter));
+    String bytesReplicatedName = qualifiedMetricName(RunningMetrics.S3_MAPREDUCE_CP_BYTES_REPLICATED);
+    registry.remove(bytesReplicatedName);
+    registry.register(bytesReplicatedName, new JobCounterGauge(job, counter));
+  }
 
+  private String qualifiedMetricName(RunningMetrics runningMetric) {
+    return QualifiedRunningMetrics.name(metricsQualifier, runningMetric.name());
   }
 
   private void cleanUpReplicaDataLocation() {
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,7 @@ public class S3MapReduceCpOptionsParser {
   public static final String LOG_PATH = "log-path";
   public static final String REGION = "region";
   public static final String IGNORE_FAILURES = "ignore-failures";
+  public static final String ADAPTIVE_CONCURRENCY = "adaptive-concurrency";
   public static final String S3_ENDPOINT_URI = "s3-endpoint-uri";
   public static final String UPLOAD_RETRY_COUNT = "upload-retry-count";
   public static final String UPLOAD_RETRY_DELAY_MS = "upload-retry-delay-ms";
@@ -122,6 +123,9 @@ public class S3MapReduceCpOptionsParser {
     optionsBuilder.ignoreFailures(MapUtils.getBoolean(copierOptions, IGNORE_FAILURES,
         ConfigurationVariable.IGNORE_FAILURES.defaultBooleanValue()));
 
+    optionsBuilder.adaptiveConcurrency(MapUtils.getBoolean(copierOptions, ADAPTIVE_CONCURRENCY,
+        ConfigurationVariable.ADAPTIVE_CONCURRENCY.defaultBooleanValue()));
+
     optionsBuilder.s3EndpointUri(
         MoreMapUtils.getUri(copierOptions, S3_ENDPOINT_URI, ConfigurationVariable.S3_ENDPOINT_URI.defaultURIValue()));
 
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -185,4 +185,16 @@ public class S3MapReduceCpCopierTest {
     assertThat(options.getCredentialsProvider(), is(credentialsProvider));
   }
 
+  @Test
+  public void runningMetricsAreQualifiedByTheReplicaTable() throws Exception {
+    MetricRegistry runningMetricRegistry = new MetricRegistry();
+    S3MapReduceCpCopier copier = new S3MapReduceCpCopier(conf, sourceDataBaseLocation, Collections.<Path>emptyList(),
+        replicaDataLocation, copierOptions, executor, runningMetricRegistry, "db.table");
+
+    copier.copy();
+
+    assertThat(runningMetricRegistry.getGauges().keySet(),
+        is(Collections.singleton("db.table." + RunningMetrics.S3_MAPREDUCE_CP_BYTES_REPLICATED.name())));
+  }
+
 }
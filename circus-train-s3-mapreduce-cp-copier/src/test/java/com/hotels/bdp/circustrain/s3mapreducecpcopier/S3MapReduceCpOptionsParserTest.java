@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.ADAPTIVE_CONCURRENCY;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.CANNED_ACL;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.COPY_STRATEGY;
 import static com.hotels.bdp.circustrain.s3mapreducecpcopier.S3MapReduceCpOptionsParser.CREDENTIAL_PROVIDER;
@@ -77,6 +78,7 @@ public class S3MapReduceCpOptionsParserTest {
     copierOptions.put(LOG_PATH, new Path("hdfs:///tmp/logs"));
     copierOptions.put(REGION, Regions.EU_WEST_1.getName());
     copierOptions.put(IGNORE_FAILURES, false);
+    copierOptions.put(ADAPTIVE_CONCURRENCY, true);
     copierOptions.put(S3_ENDPOINT_URI, "http://s3.endpoint/");
     copierOptions.put(UPLOAD_RETRY_COUNT, 5);
     copierOptions.put(UPLOAD_RETRY_DELAY_MS, 520);
@@ -98,6 +100,7 @@ public class S3MapReduceCpOptionsParserTest {
     assertThat(options.getLogPath(), is(new Path("hdfs:///tmp/logs")));
     assertThat(options.getRegion(), is(Regions.EU_WEST_1.getName()));
     assertThat(options.isIgnoreFailures(), is(false));
+    assertThat(options.isAdaptiveConcurrency(), is(true));
     assertThat(options.getS3EndpointUri(), is(URI.create("http://s3.endpoint/")));
     assertThat(options.getUploadRetryCount(), is(5));
     assertThat(options.getUploadRetryDelayMs(), is(520L));
@@ -329,6 +332,13 @@ public class S3MapReduceCpOptionsParserTest {
     assertThat(options.isIgnoreFailures(), is(ConfigurationVariable.IGNORE_FAILURES.defaultBooleanValue()));
   }
 
+  @Test
+  public void missingAdaptiveConcurrency() {
+    copierOptions.remove(ADAPTIVE_CONCURRENCY);
+    S3MapReduceCpOptions options = parser.parse(copierOptions);
+    assertThat(options.isAdaptiveConcurrency(), is(ConfigurationVariable.ADAPTIVE_CONCURRENCY.defaultBooleanValue()));
+  }
+
   @Test
   public void missingS3EnpointUri() {
     copierOptions.remove(S3_ENDPOINT_URI);
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -52,6 +52,7 @@ public enum ConfigurationVariable {
   MAX_MAPS("com.hotels.bdp.circustrain.s3mapreducecp.maxMaps", String.valueOf(S3MapReduceCpConstants.DEFAULT_MAPS)),
   COPY_STRATEGY("com.hotels.bdp.circustrain.s3mapreducecp.copyStrategy", S3MapReduceCpConstants.UNIFORMSIZE),
   IGNORE_FAILURES("com.hotels.bdp.circustrain.s3mapreducecp.ignoreFailures", Boolean.FALSE.toString()),
+  ADAPTIVE_CONCURRENCY("com.hotels.bdp.circustrain.s3mapreducecp.adaptiveConcurrency", Boolean.FALSE.toString()),
   S3_ENDPOINT_URI("com.hotels.bdp.circustrain.s3mapreducecp.s3EndpointUri", null),
   UPLOAD_RETRY_COUNT("com.hotels.bdp.circustrain.s3mapreducecp.uploadRetryCount",
       String.valueOf(S3MapReduceCpConstants.DEFAULT_UPLOAD_RETRIES)),
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -116,6 +116,11 @@ public class S3MapReduceCpOptions {
       return this;
     }
 
+    public Builder adaptiveConcurrency(boolean adaptiveConcurrency) {
+      options.setAdaptiveConcurrency(adaptiveConcurrency);
+      return this;
+    }
+
     public Builder s3EndpointUri(URI s3EndpointUri) {
       options.setS3EndpointUri(s3EndpointUri);
       return this;
@@ -203,6 +208,9 @@ public class S3MapReduceCpOptions {
   @Parameter(names = "--ignoreFailures", description = "Ignore read failures")
   private boolean ignoreFailures = ConfigurationVariable.IGNORE_FAILURES.defaultBooleanValue();
 
+  @Parameter(names = "--adaptiveConcurrency", description = "Adapt the number of concurrent S3 requests of each task to S3 throttling, up to the number of upload workers")
+  private boolean adaptiveConcurrency = ConfigurationVariable.ADAPTIVE_CONCURRENCY.defaultBooleanValue();
+
   @Parameter(names = "--s3EndpointUri", description = "URI of the S3 end-point to be used by S3 clients", converter = URIConverter.class)
   private URI s3EndpointUri = ConfigurationVariable.S3_ENDPOINT_URI.defaultURIValue();
 
@@ -240,6 +248,7 @@ public class S3MapReduceCpOptions {
     logPath = options.logPath;
     region = options.region;
     ignoreFailures = options.ignoreFailures;
+    adaptiveConcurrency = options.adaptiveConcurrency;
     s3EndpointUri = options.s3EndpointUri;
     uploadRetryCount = options.uploadRetryCount;
     uploadRetryDelayMs = options.uploadRetryDelayMs;
@@ -379,6 +388,14 @@ public class S3MapReduceCpOptions {
     this.ignoreFailures = ignoreFailures;
   }
 
+  public boolean isAdaptiveConcurrency() {
+    return adaptiveConcurrency;
+  }
+
+  void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+    this.adaptiveConcurrency = adaptiveConcurrency;
+  }
+
   public URI getS3EndpointUri() {
     return s3EndpointUri;
   }
@@ -440,6 +457,7 @@ public class S3MapReduceCpOptions {
         .put(ConfigurationVariable.MAX_MAPS.getName(), String.valueOf(maxMaps))
         .put(ConfigurationVariable.COPY_STRATEGY.getName(), copyStrategy)
         .put(ConfigurationVariable.IGNORE_FAILURES.getName(), String.valueOf(ignoreFailures))
+        .put(ConfigurationVariable.ADAPTIVE_CONCURRENCY.getName(), String.valueOf(adaptiveConcurrency))
         .put(ConfigurationVariable.UPLOAD_RETRY_COUNT.getName(), String.valueOf(uploadRetryCount))
         .put(ConfigurationVariable.UPLOAD_RETRY_DELAY_MS.getName(), String.valueOf(uploadRetryDelayMs))
         .put(ConfigurationVariable.UPLOAD_BUFFER_SIZE.getName(), String.valueOf(uploadBufferSize));
@@ -499,6 +517,8 @@ public class S3MapReduceCpOptions {
         + '\''
         + ", ignoreFailures="
         + ignoreFailures
+        + ", adaptiveConcurrency="
+        + adaptiveConcurrency
         + ", s3EndpointUri="
         + s3EndpointUri
         + ", uploadRetryCount="
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.services.s3.AmazonS3;
@@ -49,6 +50,15 @@ public class AwsS3ClientFactory {
   }
 
   public AmazonS3 newInstance(Configuration conf) {
+    return newInstance(conf, new RequestHandler2[0]);
+  }
+
+  /**
+   * @param conf Configuration of the client.
+   * @param requestHandlers Handlers to run for every request made by the client.
+   * @return a new instance of {@linkplain AmazonS3 AmazonS3}
+   */
+  public AmazonS3 newInstance(Configuration conf, RequestHandler2... requestHandlers) {
     int maxErrorRetry = conf.getInt(ConfigurationVariable.UPLOAD_RETRY_COUNT.getName(),
         ConfigurationVariable.UPLOAD_RETRY_COUNT.defaultIntValue());
     long errorRetryDelay = conf.getLong(ConfigurationVariable.UPLOAD_RETRY_DELAY_MS.getName(),
@@ -66,7 +76,8 @@ public class AwsS3ClientFactory {
     AmazonS3ClientBuilder builder = AmazonS3ClientBuilder
         .standard()
         .withCredentials(new HadoopAWSCredentialProviderChain(conf))
-        .withClientConfiguration(clientConfiguration);
+        .withClientConfiguration(clientConfiguration)
+        .withRequestHandlers(requestHandlers);
 
     EndpointConfiguration endpointConfiguration = getEndpointConfiguration(conf);
     if (endpointConfiguration != null) {
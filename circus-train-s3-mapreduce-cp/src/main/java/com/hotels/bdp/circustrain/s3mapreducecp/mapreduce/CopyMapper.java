@@ -36,10 +36,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 
+import com.hotels.bdp.circustrain.aws.AdaptiveConcurrencyLimit;
 import com.hotels.bdp.circustrain.s3mapreducecp.ConfigurationVariable;
 import com.hotels.bdp.circustrain.s3mapreducecp.CopyListingFileStatus;
 import com.hotels.bdp.circustrain.s3mapreducecp.S3MapReduceCpConfiguration;
@@ -58,6 +60,8 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
   private boolean ignoreFailures = false;
   private Path targetFinalPath;
   private TransferManager transferManager;
+  private AdaptiveConcurrencyLimit concurrencyLimit;
+  private long reportedThrottleCount = 0L;
 
   /**
    * Implementation of the Mapper::setup() method. This extracts the S3MapReduceCp options specified in the Job's
@@ -76,11 +80,20 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
     targetFinalPath = new Path(conf.get(S3MapReduceCpConstants.CONF_LABEL_TARGET_FINAL_PATH));
 
     AwsS3ClientFactory awsS3ClientFactory = new AwsS3ClientFactory();
+    AmazonS3 s3Client;
+    if (conf.getBoolean(ConfigurationVariable.ADAPTIVE_CONCURRENCY)) {
+      // Upload workers hold a permit for each S3 request they make so the requests in flight follow the limit
+      int numberOfUploadWorkers = Math.max(1, conf.getInt(ConfigurationVariable.NUMBER_OF_UPLOAD_WORKERS));
+      concurrencyLimit = new AdaptiveConcurrencyLimit(numberOfUploadWorkers / 2, 1, numberOfUploadWorkers);
+      s3Client = awsS3ClientFactory.newInstance(conf, concurrencyLimit.newRequestHandler());
+    } else {
+      s3Client = awsS3ClientFactory.newInstance(conf);
+    }
     transferManager = TransferManagerBuilder
         .standard()
         .withMinimumUploadPartSize(conf.getLong(ConfigurationVariable.MINIMUM_UPLOAD_PART_SIZE))
         .withMultipartUploadThreshold(conf.getLong(ConfigurationVariable.MULTIPART_UPLOAD_THRESHOLD))
-        .withS3Client(awsS3ClientFactory.newInstance(conf))
+        .withS3Client(s3Client)
         .withShutDownThreadPools(true)
         .withExecutorFactory(new ExecutorFactory() {
           @Override
@@ -100,6 +113,10 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
     if (transferManager != null) {
       transferManager.shutdownNow(true);
     }
+    if (concurrencyLimit != null) {
+      LOG.info("S3 concurrency limit at the end of the task: {}", concurrencyLimit.getLimit());
+      incrementThrottledCounter(context);
+    }
   }
 
   /**
@@ -146,9 +163,19 @@ public class CopyMapper extends Mapper<Text, CopyListingFileStatus, Text, Text>
 
     } catch (IOException exception) {
       handleFailures(exception, sourceFileStatus, targetPath, context);
+    } finally {
+      if (concurrencyLimit != null) {
+        incrementThrottledCounter(context);
+      }
     }
   }
 
+  private void incrementThrottledCounter(Context context) {
+    long throttleCount = concurrencyLimit.getThrottleCount();
+    incrementCounter(context, Counter.THROTTLED, throttleCount - reportedThrottleCount);
+    reportedThrottleCount = throttleCount;
+  }
+
   private S3UploadDescriptor describeUpload(FileStatus sourceFileStatus, Path targetPath) throws IOException {
     URI targetUri = targetPath.toUri();
     String bucketName = PathUtil.toBucketName(targetUri);
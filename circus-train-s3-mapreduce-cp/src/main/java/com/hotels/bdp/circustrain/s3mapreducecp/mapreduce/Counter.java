@@ -32,4 +32,5 @@ public enum Counter {
   BYTESEXPECTED, // Number of bytes expected to be copied.
   BYTESFAILED, // Number of bytes that failed to be copied.
   BYTESSKIPPED, // Number of bytes that were skipped from copy.
+  THROTTLED, // Number of S3 request attempts throttled by S3.
 }
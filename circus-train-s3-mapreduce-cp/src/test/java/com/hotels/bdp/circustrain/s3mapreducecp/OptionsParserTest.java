@@ -311,6 +311,14 @@ public class OptionsParserTest {
     assertThat(options.isIgnoreFailures(), is(true));
   }
 
+  @Test
+  public void adaptiveConcurrency() {
+    S3MapReduceCpOptions options = parser.parse("--src", "hdfs://localhost:8020/source/first", "--dest",
+        "hdfs://localhost:8020/target/", "--credentialsProvider",
+        "jceks://hdfs@localhost:8020/security/credentials.jceks", "--adaptiveConcurrency");
+    assertThat(options.isAdaptiveConcurrency(), is(true));
+  }
+
   @Test
   public void uploadRetryCount() {
     S3MapReduceCpOptions options = parser.parse("--src", "hdfs://localhost:8020/source/first", "--dest",
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -470,6 +470,13 @@ public class S3MapReduceCpOptionsTest {
     assertThat(options.getAssumeRole(), is(ConfigurationVariable.ASSUME_ROLE.defaultValue()));
   }
 
+  @Test
+  public void builderWithAdaptiveConcurrency() {
+    S3MapReduceCpOptions options = S3MapReduceCpOptions.builder(SOURCES, TARGET).adaptiveConcurrency(true).build();
+    assertThat(options.isAdaptiveConcurrency(), is(true));
+    assertThat(options.toMap().get(ConfigurationVariable.ADAPTIVE_CONCURRENCY.getName()), is("true"));
+  }
+
   @Test
   public void builderWithS3EndpointUri() {
     S3MapReduceCpOptions options = S3MapReduceCpOptions
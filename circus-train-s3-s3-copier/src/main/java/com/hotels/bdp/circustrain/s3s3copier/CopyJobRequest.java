@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,16 +15,48 @@
  */
 package com.hotels.bdp.circustrain.s3s3copier;
 
+import org.apache.hadoop.fs.Path;
+
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
 
 public class CopyJobRequest {
   private CopyObjectRequest copyObjectRequest;
   private TransferStateChangeListener transferStateChangeListener;
+  private Path sourceSubLocation;
+  private long sourceObjectSize;
+  private boolean copyFromReplica;
 
   public CopyJobRequest(CopyObjectRequest copyObjectRequest, TransferStateChangeListener transferStateChangeListener) {
+    this(copyObjectRequest, transferStateChangeListener, null);
+  }
+
+  public CopyJobRequest(
+      CopyObjectRequest copyObjectRequest,
+      TransferStateChangeListener transferStateChangeListener,
+      Path sourceSubLocation) {
+    this(copyObjectRequest, transferStateChangeListener, sourceSubLocation, 0L);
+  }
+
+  public CopyJobRequest(
+      CopyObjectRequest copyObjectRequest,
+      TransferStateChangeListener transferStateChangeListener,
+      Path sourceSubLocation,
+      long sourceObjectSize) {
+    this(copyObjectRequest, transferStateChangeListener, sourceSubLocation, sourceObjectSize, false);
+  }
+
+  public CopyJobRequest(
+      CopyObjectRequest copyObjectRequest,
+      TransferStateChangeListener transferStateChangeListener,
+      Path sourceSubLocation,
+      long sourceObjectSize,
+      boolean copyFromReplica) {
     this.copyObjectRequest = copyObjectRequest;
     this.transferStateChangeListener = transferStateChangeListener;
+    this.sourceSubLocation = sourceSubLocation;
+    this.sourceObjectSize = sourceObjectSize;
+    this.copyFromReplica = copyFromReplica;
   }
 
   public CopyObjectRequest getCopyObjectRequest() {
@@ -34,4 +66,25 @@ public class CopyJobRequest {
   public TransferStateChangeListener getTransferStateChangeListener() {
     return transferStateChangeListener;
   }
+
+  /**
+   * @return the source sub-location the object belongs to, or {@code null} when copying the whole base location.
+   */
+  public Path getSourceSubLocation() {
+    return sourceSubLocation;
+  }
+
+  /**
+   * @return the size in bytes of the source object as listed.
+   */
+  public long getSourceObjectSize() {
+    return sourceObjectSize;
+  }
+
+  /**
+   * @return whether the object is copied from an unchanged copy already in the replica rather than from the source.
+   */
+  public boolean isCopyFromReplica() {
+    return copyFromReplica;
+  }
 }
@@ -0,0 +1,322 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3s3copier;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.transfer.Transfer;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
+import com.google.common.annotations.VisibleForTesting;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.aws.AdaptiveConcurrencyLimit;
+
+/**
+ * Submits copy jobs and collects their outcomes as the copies complete, in whatever order that happens. A failed copy
+ * is resubmitted on its own after a jittered exponential backoff until the object has used up its copy attempts.
+ * <p>
+ * Completions are handed over by the transfer threads but copy jobs are only submitted, resubmitted and completed on
+ * the thread that calls {@link #submit(CopyJobRequest)} and {@link #awaitCompletions(long)}.
+ * </p>
+ * <p>
+ * With an {@link AdaptiveConcurrencyLimit} copies are only submitted while fewer than the current limit are in flight,
+ * the rest wait in submission order. Every completed copy is reported to the limit as a success, a throttling error or
+ * another failure.
+ * </p>
+ */
+class CopyJobScheduler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CopyJobScheduler.class);
+
+  private static final long POLL_INTERVAL_MILLIS = 1000L;
+
+  interface Callback {
+
+    void submit(CopyJobRequest copyJobRequest, TransferStateChangeListener stateChangeListener);
+
+    void copied(CopyJobRequest copyJobRequest, Transfer transfer);
+
+  }
+
+  private static class CopyAttempt {
+
+    private final CopyJobRequest copyJobRequest;
+    private final int attempt;
+    private final long dueMillis;
+
+    private CopyAttempt(CopyJobRequest copyJobRequest, int attempt, long dueMillis) {
+      this.copyJobRequest = copyJobRequest;
+      this.attempt = attempt;
+      this.dueMillis = dueMillis;
+    }
+  }
+
+  private static class CompletedCopyAttempt {
+
+    private final CopyAttempt copyAttempt;
+    private final Transfer transfer;
+
+    private CompletedCopyAttempt(CopyAttempt copyAttempt, Transfer transfer) {
+      this.copyAttempt = copyAttempt;
+      this.transfer = transfer;
+    }
+  }
+
+  private class CompletionListener implements TransferStateChangeListener {
+
+    private final CopyAttempt copyAttempt;
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+
+    private CompletionListener(CopyAttempt copyAttempt) {
+      this.copyAttempt = copyAttempt;
+    }
+
+    @Override
+    public void transferStateChanged(Transfer transfer, TransferState state) {
+      TransferStateChangeListener delegate = copyAttempt.copyJobRequest.getTransferStateChangeListener();
+      if (delegate != null) {
+        delegate.transferStateChanged(transfer, state);
+      }
+      if ((state == TransferState.Completed || state == TransferState.Failed || state == TransferState.Canceled)
+          && completed.compareAndSet(false, true)) {
+        completedCopyAttempts.add(new CompletedCopyAttempt(copyAttempt, transfer));
+      }
+    }
+  }
+
+  private final Callback callback;
+  private final int maxCopyAttempts;
+  private final long retryBaseDelayMs;
+  private final long retryMaxDelayMs;
+  private final Random random;
+  private final AdaptiveConcurrencyLimit concurrencyLimit;
+  private final Deque<CopyAttempt> pending = new ArrayDeque<>();
+  private final BlockingQueue<CompletedCopyAttempt> completedCopyAttempts = new LinkedBlockingQueue<>();
+  private final PriorityQueue<CopyAttempt> retries = new PriorityQueue<>(11, new Comparator<CopyAttempt>() {
+    @Override
+    public int compare(CopyAttempt a, CopyAttempt b) {
+      return Long.compare(a.dueMillis, b.dueMillis);
+    }
+  });
+  private int copyAttemptsInFlight = 0;
+  private int failedCopyJobs = 0;
+
+  CopyJobScheduler(Callback callback, int maxCopyAttempts, long retryBaseDelayMs, long retryMaxDelayMs) {
+    this(callback, maxCopyAttempts, retryBaseDelayMs, retryMaxDelayMs, null);
+  }
+
+  /**
+   * @param concurrencyLimit limit on the number of copies in flight, can be null
+   */
+  CopyJobScheduler(
+      Callback callback,
+      int maxCopyAttempts,
+      long retryBaseDelayMs,
+      long retryMaxDelayMs,
+      AdaptiveConcurrencyLimit concurrencyLimit) {
+    this(callback, maxCopyAttempts, retryBaseDelayMs, retryMaxDelayMs, concurrencyLimit, new Random());
+  }
+
+  @VisibleForTesting
+  CopyJobScheduler(
+      Callback callback,
+      int maxCopyAttempts,
+      long retryBaseDelayMs,
+      long retryMaxDelayMs,
+      AdaptiveConcurrencyLimit concurrencyLimit,
+      Random random) {
+    this.callback = callback;
+    this.maxCopyAttempts = maxCopyAttempts;
+    this.retryBaseDelayMs = retryBaseDelayMs;
+    this.retryMaxDelayMs = retryMaxDelayMs;
+    this.concurrencyLimit = concurrencyLimit;
+    this.random = random;
+  }
+
+  void submit(CopyJobRequest copyJobRequest) {
+    submit(new CopyAttempt(copyJobRequest, 1, 0L));
+  }
+
+  private void submit(CopyAttempt copyAttempt) {
+    if (concurrencyLimit != null && (!pending.isEmpty() || !concurrencyLimit.tryAcquire())) {
+      pending.add(copyAttempt);
+      return;
+    }
+    submitNow(copyAttempt);
+  }
+
+  private void submitNow(CopyAttempt copyAttempt) {
+    try {
+      callback.submit(copyAttempt.copyJobRequest, new CompletionListener(copyAttempt));
+    } catch (AmazonClientException e) {
+      // Some requests, such as reading the metadata of the source object, are made before the copy is handed over
+      reportFailure(e);
+      copyAttemptFailed(copyAttempt, e);
+      return;
+    } catch (RuntimeException e) {
+      if (concurrencyLimit != null) {
+        concurrencyLimit.release();
+      }
+      throw e;
+    }
+    copyAttemptsInFlight++;
+  }
+
+  /**
+   * @return the number of copy jobs that are being copied, wait for the concurrency limit or wait to be retried.
+   */
+  int getOutstandingCopyJobs() {
+    return copyAttemptsInFlight + pending.size() + retries.size();
+  }
+
+  /**
+   * Completes the copies that have finished and resubmits the failed copies that are due, waiting up to
+   * {@code maxWaitMillis} for a copy to finish if none has yet.
+   */
+  void awaitCompletions(long maxWaitMillis) throws InterruptedException {
+    submitPending();
+    submitDueRetries();
+    long waitMillis = maxWaitMillis;
+    CopyAttempt nextRetry = retries.peek();
+    if (nextRetry != null) {
+      waitMillis = Math.min(waitMillis, Math.max(0L, nextRetry.dueMillis - nowMillis()));
+    }
+    CompletedCopyAttempt completedCopyAttempt = completedCopyAttempts.poll(waitMillis, TimeUnit.MILLISECONDS);
+    while (completedCopyAttempt != null) {
+      copyAttemptCompleted(completedCopyAttempt);
+      completedCopyAttempt = completedCopyAttempts.poll();
+    }
+    submitPending();
+    submitDueRetries();
+  }
+
+  /**
+   * Waits for all submitted copy jobs, including their retries, to complete.
+   *
+   * @throws CircusTrainException if any copy job failed the maximum number of copy attempts
+   */
+  void awaitAll() throws InterruptedException {
+    while (getOutstandingCopyJobs() > 0) {
+      awaitCompletions(POLL_INTERVAL_MILLIS);
+    }
+    if (failedCopyJobs > 0) {
+      throw new CircusTrainException(
+          failedCopyJobs + " job(s) failed the maximum number of copy attempts, " + maxCopyAttempts);
+    }
+    LOG.info("Successfully gathered all copy jobs");
+  }
+
+  private void copyAttemptCompleted(CompletedCopyAttempt completedCopyAttempt) throws InterruptedException {
+    CopyAttempt copyAttempt = completedCopyAttempt.copyAttempt;
+    copyAttemptsInFlight--;
+    try {
+      completedCopyAttempt.transfer.waitForCompletion();
+    } catch (AmazonClientException e) {
+      reportFailure(e);
+      copyAttemptFailed(copyAttempt, e);
+      return;
+    } catch (CancellationException e) {
+      // A canceled transfer is failed like any other so that its slot is released and it is retried
+      AmazonClientException canceled = new AmazonClientException("Copy was canceled", e);
+      reportFailure(canceled);
+      copyAttemptFailed(copyAttempt, canceled);
+      return;
+    }
+    if (concurrencyLimit != null) {
+      concurrencyLimit.release();
+      concurrencyLimit.onSuccess();
+    }
+    callback.copied(copyAttempt.copyJobRequest, completedCopyAttempt.transfer);
+  }
+
+  private void reportFailure(AmazonClientException e) {
+    if (concurrencyLimit != null) {
+      concurrencyLimit.release();
+      if (AdaptiveConcurrencyLimit.isThrottlingException(e)) {
+        concurrencyLimit.onThrottled();
+      } else {
+        concurrencyLimit.onFailure();
+      }
+    }
+  }
+
+  private void copyAttemptFailed(CopyAttempt copyAttempt, AmazonClientException e) {
+    CopyObjectRequest copyObjectRequest = copyAttempt.copyJobRequest.getCopyObjectRequest();
+    if (copyAttempt.attempt >= maxCopyAttempts) {
+      LOG
+          .warn("Copying '{}/{}' failed the maximum number of copy attempts, {}", copyObjectRequest.getSourceBucketName(),
+              copyObjectRequest.getSourceKey(), maxCopyAttempts, e);
+      failedCopyJobs++;
+      return;
+    }
+    long delayMillis = retryDelayMillis(copyAttempt.attempt);
+    LOG
+        .info("Copying '{}/{}' failed on attempt {}/{}, retrying in {} ms", copyObjectRequest.getSourceBucketName(),
+            copyObjectRequest.getSourceKey(), copyAttempt.attempt, maxCopyAttempts, delayMillis);
+    LOG.warn("Copy failed with exception:", e);
+    retries.add(new CopyAttempt(copyAttempt.copyJobRequest, copyAttempt.attempt + 1, nowMillis() + delayMillis));
+  }
+
+  /**
+   * @return a random delay between zero and the base delay doubled for each failed attempt, capped at the maximum
+   *         delay.
+   */
+  @VisibleForTesting
+  long retryDelayMillis(int failedAttempts) {
+    int doublings = Math.min(failedAttempts - 1, 30);
+    long maxDelayMillis = retryBaseDelayMs > retryMaxDelayMs >> doublings ? retryMaxDelayMs
+        : retryBaseDelayMs << doublings;
+    return (long) (random.nextDouble() * maxDelayMillis);
+  }
+
+  private void submitPending() {
+    while (!pending.isEmpty() && concurrencyLimit.tryAcquire()) {
+      submitNow(pending.poll());
+    }
+  }
+
+  private void submitDueRetries() {
+    long now = nowMillis();
+    while (!retries.isEmpty() && retries.peek().dueMillis <= now) {
+      CopyAttempt retry = retries.poll();
+      CopyObjectRequest copyObjectRequest = retry.copyJobRequest.getCopyObjectRequest();
+      LOG
+          .info("Retrying copy of '{}/{}', attempt {}/{}", copyObjectRequest.getSourceBucketName(),
+              copyObjectRequest.getSourceKey(), retry.attempt, maxCopyAttempts);
+      submit(retry);
+    }
+  }
+
+  private static long nowMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+  }
+
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3s3copier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3URI;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.s3s3copier.aws.ListObjectsRequestFactory;
+
+/**
+ * Lists the objects under a number of S3 prefixes with ListObjectsV2, one task per prefix on a pool of threads. When
+ * a split depth is set each prefix is first listed with a {@code /} delimiter and every sub-prefix found becomes a
+ * task of its own, down to that depth, so that very large prefixes are listed concurrently too. With a single thread
+ * the prefixes are listed one after another on the calling thread with ListObjects, as they always have been, which
+ * S3 compatible stores that do not implement ListObjectsV2 support too.
+ */
+class S3PrefixLister {
+
+  private static final Logger LOG = LoggerFactory.getLogger(S3PrefixLister.class);
+
+  private static final String DELIMITER = "/";
+
+  /**
+   * Receives the listed objects. Calls are serialised, though they may come from different threads.
+   */
+  interface Listener<K> {
+
+    void objectsListed(K key, List<S3ObjectSummary> objectSummaries);
+
+    /**
+     * Called once all the objects under the prefix of {@code key} have been passed to
+     * {@link #objectsListed(Object, List)}.
+     */
+    void prefixListed(K key);
+
+  }
+
+  private final AmazonS3 client;
+  private final ListObjectsRequestFactory listObjectsRequestFactory;
+  private final int threads;
+  private final int splitDepth;
+
+  S3PrefixLister(AmazonS3 client, ListObjectsRequestFactory listObjectsRequestFactory, int threads, int splitDepth) {
+    this.client = client;
+    this.listObjectsRequestFactory = listObjectsRequestFactory;
+    this.threads = threads;
+    this.splitDepth = splitDepth;
+  }
+
+  /**
+   * Lists all the objects under the given prefixes and returns once they have all been passed to {@code listener}.
+   */
+  <K> void list(Map<K, AmazonS3URI> prefixes, Listener<K> listener) {
+    if (threads <= 1) {
+      for (Entry<K, AmazonS3URI> prefix : prefixes.entrySet()) {
+        listPrefix(prefix.getKey(), prefix.getValue().getBucket(), prefix.getValue().getKey(), listener);
+        listener.prefixListed(prefix.getKey());
+      }
+      return;
+    }
+    ExecutorService executor = Executors
+        .newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("s3s3-copier-prefix-listing-%d").setDaemon(true).build());
+    try {
+      ListingTasks tasks = new ListingTasks(executor);
+      LOG.info("Listing {} prefix(es) with {} threads", prefixes.size(), threads);
+      for (Entry<K, AmazonS3URI> prefix : prefixes.entrySet()) {
+        tasks
+            .submit(new ListingTask<>(prefix.getKey(), prefix.getValue().getBucket(), prefix.getValue().getKey(),
+                splitDepth, listener, tasks, new AtomicInteger(1)));
+      }
+      tasks.await();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private <K> void listPrefix(K key, String bucket, String prefix, Listener<K> listener) {
+    ListObjectsRequest request = listObjectsRequestFactory.newInstance().withBucketName(bucket).withPrefix(prefix);
+    ObjectListing listing = client.listObjects(request);
+    LOG.debug("Found objects to copy {}, for request {}/{}", listing.getObjectSummaries(), bucket, prefix);
+    listener.objectsListed(key, listing.getObjectSummaries());
+    while (listing.isTruncated()) {
+      listing = client.listNextBatchOfObjects(listing);
+      LOG.debug("Found objects to copy {}, for request {}/{}", listing.getObjectSummaries(), bucket, prefix);
+      listener.objectsListed(key, listing.getObjectSummaries());
+    }
+  }
+
+  private <K> void listPrefix(
+      K key,
+      String bucket,
+      String prefix,
+      int depth,
+      Listener<K> listener,
+      ListingTasks tasks,
+      AtomicInteger outstandingTasksForKey) {
+    ListObjectsV2Request request = listObjectsRequestFactory
+        .newV2Instance()
+        .withBucketName(bucket)
+        .withPrefix(prefix);
+    if (depth > 0) {
+      request.setDelimiter(DELIMITER);
+    }
+    ListObjectsV2Result result;
+    do {
+      result = client.listObjectsV2(request);
+      LOG.debug("Found objects to copy {}, for request {}/{}", result.getObjectSummaries(), bucket, prefix);
+      synchronized (listener) {
+        listener.objectsListed(key, result.getObjectSummaries());
+      }
+      if (depth > 0) {
+        for (String commonPrefix : result.getCommonPrefixes()) {
+          outstandingTasksForKey.incrementAndGet();
+          tasks
+              .submit(new ListingTask<>(key, bucket, commonPrefix, depth - 1, listener, tasks,
+                  outstandingTasksForKey));
+        }
+      }
+      request.setContinuationToken(result.getNextContinuationToken());
+    } while (result.isTruncated());
+  }
+
+  private class ListingTask<K> implements Runnable {
+
+    private final K key;
+    private final String bucket;
+    private final String prefix;
+    private final int depth;
+    private final Listener<K> listener;
+    private final ListingTasks tasks;
+    private final AtomicInteger outstandingTasksForKey;
+
+    private ListingTask(
+        K key,
+        String bucket,
+        String prefix,
+        int depth,
+        Listener<K> listener,
+        ListingTasks tasks,
+        AtomicInteger outstandingTasksForKey) {
+      this.key = key;
+      this.bucket = bucket;
+      this.prefix = prefix;
+      this.depth = depth;
+      this.listener = listener;
+      this.tasks = tasks;
+      this.outstandingTasksForKey = outstandingTasksForKey;
+    }
+
+    @Override
+    public void run() {
+      listPrefix(key, bucket, prefix, depth, listener, tasks, outstandingTasksForKey);
+      if (outstandingTasksForKey.decrementAndGet() == 0) {
+        synchronized (listener) {
+          listener.prefixListed(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Keeps count of the submitted tasks, including the ones submitted by other tasks, so that the caller can wait for
+   * all of them, and records the first failure.
+   */
+  private static class ListingTasks {
+
+    private final ExecutorService executor;
+    private int outstandingTasks = 0;
+    private RuntimeException failure;
+
+    private ListingTasks(ExecutorService executor) {
+      this.executor = executor;
+    }
+
+    void submit(final Runnable task) {
+      synchronized (this) {
+        outstandingTasks++;
+      }
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            task.run();
+          } catch (RuntimeException e) {
+            failed(e);
+          } finally {
+            completed();
+          }
+        }
+      });
+    }
+
+    private synchronized void failed(RuntimeException e) {
+      if (failure == null) {
+        failure = e;
+      }
+    }
+
+    private synchronized void completed() {
+      outstandingTasks--;
+      notifyAll();
+    }
+
+    synchronized void await() {
+      try {
+        while (outstandingTasks > 0 && failure == null) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CircusTrainException("Interrupted while listing objects to copy", e);
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+}
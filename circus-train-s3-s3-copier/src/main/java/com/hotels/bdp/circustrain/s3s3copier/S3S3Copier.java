@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,7 +18,18 @@ package com.hotels.bdp.circustrain.s3s3copier;
 import static com.hotels.bdp.circustrain.aws.AmazonS3URIs.toAmazonS3URI;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
@@ -30,11 +41,8 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3URI;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
-import com.amazonaws.services.s3.model.ListObjectsRequest;
-import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
-import com.amazonaws.services.s3.transfer.Copy;
 import com.amazonaws.services.s3.transfer.Transfer;
 import com.amazonaws.services.s3.transfer.Transfer.TransferState;
 import com.amazonaws.services.s3.transfer.TransferManager;
@@ -42,11 +50,18 @@ import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.copier.Copier;
+import com.hotels.bdp.circustrain.api.copier.CopierProgressListener;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
+import com.hotels.bdp.circustrain.api.metrics.QualifiedRunningMetrics;
+import com.hotels.bdp.circustrain.aws.AdaptiveConcurrencyLimit;
 import com.hotels.bdp.circustrain.s3s3copier.aws.AmazonS3ClientFactory;
 import com.hotels.bdp.circustrain.s3s3copier.aws.ListObjectsRequestFactory;
 import com.hotels.bdp.circustrain.s3s3copier.aws.TransferManagerFactory;
@@ -55,6 +70,8 @@ public class S3S3Copier implements Copier {
 
   private static final Logger LOG = LoggerFactory.getLogger(S3S3Copier.class);
 
+  private static final long POLL_INTERVAL_MILLIS = 1000L;
+
   private static class BytesTransferStateChangeListener implements TransferStateChangeListener {
 
     private final S3ObjectSummary s3ObjectSummary;
@@ -84,6 +101,55 @@ public class S3S3Copier implements Copier {
     }
   }
 
+  /**
+   * Receives the copy jobs of the source objects as they are listed.
+   */
+  private interface CopyJobListingListener {
+
+    void copyJobsListed(List<CopyJobRequest> copyJobRequests);
+
+    void subLocationListed(Path sourceSubLocation);
+
+  }
+
+  /**
+   * Hands a page of listed copy jobs, the end of the listing of a sub-location, the end of the whole listing or a
+   * listing failure over from the listing thread to the copying thread.
+   */
+  private static class ListingEvent {
+
+    private static final ListingEvent END = new ListingEvent(Collections.<CopyJobRequest> emptyList(), null, null);
+
+    private final List<CopyJobRequest> copyJobRequests;
+    private final Path listedSubLocation;
+    private final Throwable failure;
+
+    private ListingEvent(List<CopyJobRequest> copyJobRequests, Path listedSubLocation, Throwable failure) {
+      this.copyJobRequests = copyJobRequests;
+      this.listedSubLocation = listedSubLocation;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * A source location to list and the target location its objects are copied to.
+   */
+  private static class CopyLocation {
+
+    private final AmazonS3URI source;
+    private final AmazonS3URI target;
+    private final Path sourceSubLocation;
+    private final AmazonS3URI existingReplica;
+    private Map<String, S3ObjectSummary> existingReplicaObjects;
+
+    private CopyLocation(AmazonS3URI source, AmazonS3URI target, Path sourceSubLocation, AmazonS3URI existingReplica) {
+      this.source = source;
+      this.target = target;
+      this.sourceSubLocation = sourceSubLocation;
+      this.existingReplica = existingReplica;
+    }
+  }
+
   private static class AtomicLongGauge implements Gauge<Long> {
 
     private final AtomicLong value;
@@ -106,15 +172,25 @@ public class S3S3Copier implements Copier {
   private final AmazonS3ClientFactory s3ClientFactory;
   private final TransferManagerFactory transferManagerFactory;
   private final S3S3CopierOptions s3s3CopierOptions;
+  private final Supplier<Map<Path, Path>> existingReplicaLocations;
+  private final String metricsQualifier;
 
   private TransferManager transferManager;
   private final List<CopyJobRequest> copyJobRequests = new ArrayList<>();
+  private final Map<Path, Integer> outstandingCopyJobsBySubLocation = new LinkedHashMap<>();
+  private final Set<Path> listedSubLocations = new HashSet<>();
+  private CopierProgressListener progressListener = CopierProgressListener.NULL;
 
   private long totalBytesToReplicate = 0;
+  private boolean listingComplete = false;
   private AtomicLong bytesReplicated = new AtomicLong(0);
+  private final AtomicLong bytesCopiedFromReplica = new AtomicLong(0);
+  private final AtomicLong bytesSkipped = new AtomicLong(0);
   private AmazonS3 targetClient;
+  private AmazonS3 replicaClient;
 
   private AmazonS3 srcClient;
+  private AdaptiveConcurrencyLimit concurrencyLimit;
 
   public S3S3Copier(
       Path sourceBaseLocation,
@@ -125,6 +201,44 @@ public class S3S3Copier implements Copier {
       ListObjectsRequestFactory listObjectsRequestFactory,
       MetricRegistry registry,
       S3S3CopierOptions s3s3CopierOptions) {
+    this(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory, transferManagerFactory,
+        listObjectsRequestFactory, registry, s3s3CopierOptions,
+        Suppliers.ofInstance(Collections.<Path, Path> emptyMap()));
+  }
+
+  /**
+   * @param existingReplicaLocations the replica's current data locations keyed by the source location they were copied
+   *          from, only looked up when {@link S3S3CopierOptions#isIncrementalCopy()} is enabled
+   */
+  public S3S3Copier(
+      Path sourceBaseLocation,
+      List<Path> sourceSubLocations,
+      Path replicaLocation,
+      AmazonS3ClientFactory s3ClientFactory,
+      TransferManagerFactory transferManagerFactory,
+      ListObjectsRequestFactory listObjectsRequestFactory,
+      MetricRegistry registry,
+      S3S3CopierOptions s3s3CopierOptions,
+      Supplier<Map<Path, Path>> existingReplicaLocations) {
+    this(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory, transferManagerFactory,
+        listObjectsRequestFactory, registry, s3s3CopierOptions, existingReplicaLocations, null);
+  }
+
+  /**
+   * @param metricsQualifier qualifies the names of the running metrics that are specific to this copier, such as the
+   *          qualified name of the replica table, can be null
+   */
+  public S3S3Copier(
+      Path sourceBaseLocation,
+      List<Path> sourceSubLocations,
+      Path replicaLocation,
+      AmazonS3ClientFactory s3ClientFactory,
+      TransferManagerFactory transferManagerFactory,
+      ListObjectsRequestFactory listObjectsRequestFactory,
+      MetricRegistry registry,
+      S3S3CopierOptions s3s3CopierOptions,
+      Supplier<Map<Path, Path>> existingReplicaLocations,
+      String metricsQualifier) {
     this.sourceBaseLocation = sourceBaseLocation;
     this.sourceSubLocations = sourceSubLocations;
     this.replicaLocation = replicaLocation;
@@ -133,15 +247,28 @@ public class S3S3Copier implements Copier {
     this.listObjectsRequestFactory = listObjectsRequestFactory;
     this.registry = registry;
     this.s3s3CopierOptions = s3s3CopierOptions;
+    this.existingReplicaLocations = existingReplicaLocations;
+    this.metricsQualifier = metricsQualifier;
   }
 
   @Override
   public Metrics copy() throws CircusTrainException {
+    return copy(CopierProgressListener.NULL);
+  }
+
+  @Override
+  public Metrics copy(CopierProgressListener progressListener) throws CircusTrainException {
+    this.progressListener = progressListener;
     registerRunningMetrics(bytesReplicated);
+    concurrencyLimit = newConcurrencyLimit();
     try {
       try {
-        initialiseAllCopyRequests();
-        processAllCopyJobs();
+        if (s3s3CopierOptions.isStreamingCopy()) {
+          streamAllCopyJobs();
+        } else {
+          initialiseAllCopyRequests();
+          processAllCopyJobs();
+        }
         return gatherMetrics();
       } catch (AmazonClientException e) {
         throw new CircusTrainException("Error in S3S3Copier:", e);
@@ -159,25 +286,27 @@ public class S3S3Copier implements Copier {
 
     AmazonS3URI sourceBase = toAmazonS3URI(sourceBaseLocation.toUri());
     AmazonS3URI targetBase = toAmazonS3URI(replicaLocation.toUri());
-    srcClient = s3ClientFactory.newInstance(sourceBase, s3s3CopierOptions);
+    srcClient = newS3Client(sourceBase);
 
-    if (sourceSubLocations.isEmpty()) {
-      initialiseCopyJobs(sourceBase, targetBase);
-    } else {
-      for (Path path : sourceSubLocations) {
-        AmazonS3URI subLocation = toAmazonS3URI(path.toUri());
-        String partitionKey = StringUtils.removeStart(subLocation.getKey(), sourceBase.getKey());
-        partitionKey = StringUtils.removeStart(partitionKey, "/");
-        AmazonS3URI targetS3Uri = toAmazonS3URI(new Path(replicaLocation, partitionKey).toUri());
-        initialiseCopyJobs(subLocation, targetS3Uri);
+    listAllCopyJobs(new CopyJobListingListener() {
+      @Override
+      public void copyJobsListed(List<CopyJobRequest> listedCopyJobRequests) {
+        copyJobRequests.addAll(listedCopyJobRequests);
+        trackCopyJobs(listedCopyJobRequests);
       }
-    }
+
+      @Override
+      public void subLocationListed(Path sourceSubLocation) {
+        S3S3Copier.this.subLocationListed(sourceSubLocation);
+      }
+    });
+    listingComplete = true;
 
     int totalCopyJobs = copyJobRequests.size();
     LOG.info("Finished initialising {} copy job(s)", totalCopyJobs);
     s3s3CopierOptions
         .setMaxThreadPoolSize(determineThreadPoolSize(totalCopyJobs, s3s3CopierOptions.getMaxThreadPoolSize()));
-    targetClient = s3ClientFactory.newInstance(targetBase, s3s3CopierOptions);
+    targetClient = newS3Client(targetBase);
     transferManager = transferManagerFactory.newInstance(targetClient, s3s3CopierOptions);
   }
 
@@ -185,34 +314,75 @@ public class S3S3Copier implements Copier {
     return Math.min(totalCopyJobs, maxThreadPoolSize);
   }
 
-  private void initialiseCopyJobs(AmazonS3URI source, AmazonS3URI target) {
-    ListObjectsRequest request = listObjectsRequestFactory
-        .newInstance()
-        .withBucketName(source.getBucket())
-        .withPrefix(source.getKey());
-    ObjectListing listing = srcClient.listObjects(request);
-    initialiseCopyJobsFromListing(source, target, request, listing);
-    while (listing.isTruncated()) {
-      listing = srcClient.listNextBatchOfObjects(listing);
-      initialiseCopyJobsFromListing(source, target, request, listing);
+  private void listAllCopyJobs(final CopyJobListingListener listener) {
+    AmazonS3URI sourceBase = toAmazonS3URI(sourceBaseLocation.toUri());
+    AmazonS3URI targetBase = toAmazonS3URI(replicaLocation.toUri());
+    Map<Path, Path> replicaLocations = Collections.emptyMap();
+    if (s3s3CopierOptions.isIncrementalCopy()) {
+      replicaLocations = existingReplicaLocations.get();
+      replicaClient = s3ClientFactory.newInstance(targetBase, s3s3CopierOptions);
+      LOG.info("Comparing source objects with {} existing replica location(s)", replicaLocations.size());
+    }
+    Map<CopyLocation, AmazonS3URI> prefixes = new LinkedHashMap<>();
+    if (sourceSubLocations.isEmpty()) {
+      prefixes
+          .put(new CopyLocation(sourceBase, targetBase, null, existingReplica(replicaLocations, sourceBaseLocation)),
+              sourceBase);
+    } else {
+      for (Path path : sourceSubLocations) {
+        AmazonS3URI subLocation = toAmazonS3URI(path.toUri());
+        String partitionKey = StringUtils.removeStart(subLocation.getKey(), sourceBase.getKey());
+        partitionKey = StringUtils.removeStart(partitionKey, "/");
+        AmazonS3URI targetS3Uri = toAmazonS3URI(new Path(replicaLocation, partitionKey).toUri());
+        prefixes
+            .put(new CopyLocation(subLocation, targetS3Uri, path, existingReplica(replicaLocations, path)), subLocation);
+      }
     }
+    new S3PrefixLister(srcClient, listObjectsRequestFactory, s3s3CopierOptions.getListingThreadPoolSize(),
+        s3s3CopierOptions.getListingSplitDepth()).list(prefixes, new S3PrefixLister.Listener<CopyLocation>() {
+          @Override
+          public void objectsListed(CopyLocation copyLocation, List<S3ObjectSummary> objectSummaries) {
+            listener.copyJobsListed(newCopyJobRequests(copyLocation, objectSummaries));
+          }
+
+          @Override
+          public void prefixListed(CopyLocation copyLocation) {
+            if (copyLocation.sourceSubLocation != null) {
+              listener.subLocationListed(copyLocation.sourceSubLocation);
+            }
+          }
+        });
   }
 
-  private void initialiseCopyJobsFromListing(
-      AmazonS3URI sourceS3Uri,
-      final AmazonS3URI targetS3Uri,
-      ListObjectsRequest request,
-      ObjectListing listing) {
-    LOG
-        .debug("Found objects to copy {}, for request {}/{}", listing.getObjectSummaries(), request.getBucketName(),
-            request.getPrefix());
-    List<S3ObjectSummary> objectSummaries = listing.getObjectSummaries();
+  private static AmazonS3URI existingReplica(Map<Path, Path> replicaLocations, Path sourceLocation) {
+    Path existingReplicaLocation = replicaLocations.get(sourceLocation);
+    return existingReplicaLocation == null ? null : toAmazonS3URI(existingReplicaLocation.toUri());
+  }
+
+  private List<CopyJobRequest> newCopyJobRequests(CopyLocation copyLocation, List<S3ObjectSummary> objectSummaries) {
+    AmazonS3URI sourceS3Uri = copyLocation.source;
+    AmazonS3URI targetS3Uri = copyLocation.target;
+    List<CopyJobRequest> listedCopyJobRequests = new ArrayList<>(objectSummaries.size());
     for (final S3ObjectSummary s3ObjectSummary : objectSummaries) {
-      totalBytesToReplicate += s3ObjectSummary.getSize();
       String fileName = StringUtils.removeStart(s3ObjectSummary.getKey(), sourceS3Uri.getKey());
       final String targetKey = Strings.nullToEmpty(targetS3Uri.getKey()) + fileName;
-      CopyObjectRequest copyObjectRequest = new CopyObjectRequest(s3ObjectSummary.getBucketName(),
-          s3ObjectSummary.getKey(), targetS3Uri.getBucket(), targetKey);
+      S3ObjectSummary replicaObjectSummary = unchangedReplicaObject(copyLocation, fileName, s3ObjectSummary);
+      CopyObjectRequest copyObjectRequest;
+      if (replicaObjectSummary == null) {
+        copyObjectRequest = new CopyObjectRequest(s3ObjectSummary.getBucketName(), s3ObjectSummary.getKey(),
+            targetS3Uri.getBucket(), targetKey);
+      } else if (replicaObjectSummary.getBucketName().equals(targetS3Uri.getBucket())
+          && replicaObjectSummary.getKey().equals(targetKey)) {
+        LOG
+            .debug("Skipping unchanged object '{}/{}', already in the replica", s3ObjectSummary.getBucketName(),
+                s3ObjectSummary.getKey());
+        bytesSkipped.addAndGet(s3ObjectSummary.getSize());
+        continue;
+      } else {
+        copyObjectRequest = new CopyObjectRequest(replicaObjectSummary.getBucketName(), replicaObjectSummary.getKey(),
+            targetS3Uri.getBucket(), targetKey);
+        bytesCopiedFromReplica.addAndGet(s3ObjectSummary.getSize());
+      }
 
       if (s3s3CopierOptions.getCannedAcl() != null) {
         copyObjectRequest.withCannedAccessControlList(s3s3CopierOptions.getCannedAcl());
@@ -222,8 +392,158 @@ public class S3S3Copier implements Copier {
 
       TransferStateChangeListener stateChangeListener = new BytesTransferStateChangeListener(s3ObjectSummary,
           targetS3Uri, targetKey);
-      copyJobRequests.add(new CopyJobRequest(copyObjectRequest, stateChangeListener));
+      listedCopyJobRequests
+          .add(new CopyJobRequest(copyObjectRequest, stateChangeListener, copyLocation.sourceSubLocation,
+              s3ObjectSummary.getSize(), replicaObjectSummary != null));
     }
+    return listedCopyJobRequests;
+  }
+
+  /**
+   * @return the object at the same relative key in the existing replica location if it has the same size and ETag as
+   *         the source object, {@code null} otherwise. Objects copied with a multipart copy or encrypted with KMS have a
+   *         different ETag in the replica and are therefore always copied from the source.
+   */
+  private S3ObjectSummary unchangedReplicaObject(
+      CopyLocation copyLocation,
+      String fileName,
+      S3ObjectSummary s3ObjectSummary) {
+    if (copyLocation.existingReplica == null) {
+      return null;
+    }
+    if (copyLocation.existingReplicaObjects == null) {
+      copyLocation.existingReplicaObjects = listExistingReplicaObjects(copyLocation.existingReplica);
+    }
+    S3ObjectSummary replicaObjectSummary = copyLocation.existingReplicaObjects.get(fileName);
+    if (replicaObjectSummary == null
+        || replicaObjectSummary.getSize() != s3ObjectSummary.getSize()
+        || s3ObjectSummary.getETag() == null
+        || !s3ObjectSummary.getETag().equals(replicaObjectSummary.getETag())) {
+      return null;
+    }
+    return replicaObjectSummary;
+  }
+
+  private Map<String, S3ObjectSummary> listExistingReplicaObjects(final AmazonS3URI existingReplica) {
+    final Map<String, S3ObjectSummary> existingReplicaObjects = new HashMap<>();
+    new S3PrefixLister(replicaClient, listObjectsRequestFactory, 1, 0)
+        .list(Collections.singletonMap(existingReplica, existingReplica), new S3PrefixLister.Listener<AmazonS3URI>() {
+          @Override
+          public void objectsListed(AmazonS3URI prefix, List<S3ObjectSummary> objectSummaries) {
+            for (S3ObjectSummary objectSummary : objectSummaries) {
+              existingReplicaObjects
+                  .put(StringUtils.removeStart(objectSummary.getKey(), existingReplica.getKey()), objectSummary);
+            }
+          }
+
+          @Override
+          public void prefixListed(AmazonS3URI prefix) {}
+        });
+    LOG.debug("Listed {} existing object(s) under '{}'", existingReplicaObjects.size(), existingReplica);
+    return existingReplicaObjects;
+  }
+
+  /**
+   * Lists the source objects on a background thread and copies them as the pages of the listing arrive. At most
+   * {@link S3S3CopierOptions#getListingQueueSize()} pages wait to be copied and at most twice
+   * {@link S3S3CopierOptions#getMaxThreadPoolSize()} copies are in flight, so neither the listing nor the submitted
+   * copies are held in memory all at once.
+   */
+  private void streamAllCopyJobs() {
+    LOG.info("Listing and copying objects");
+
+    AmazonS3URI sourceBase = toAmazonS3URI(sourceBaseLocation.toUri());
+    AmazonS3URI targetBase = toAmazonS3URI(replicaLocation.toUri());
+    srcClient = newS3Client(sourceBase);
+    targetClient = newS3Client(targetBase);
+    transferManager = transferManagerFactory.newInstance(targetClient, s3s3CopierOptions);
+
+    final BlockingQueue<ListingEvent> listingEvents = new ArrayBlockingQueue<>(
+        s3s3CopierOptions.getListingQueueSize());
+    ExecutorService listingExecutor = Executors
+        .newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("s3s3-copier-listing-%d").setDaemon(true).build());
+    try {
+      listingExecutor.submit(new Runnable() {
+        @Override
+        public void run() {
+          produceListingEvents(listingEvents);
+        }
+      });
+      copyListedJobs(listingEvents);
+    } catch (InterruptedException e) {
+      throw new CircusTrainException(e);
+    } finally {
+      listingExecutor.shutdownNow();
+    }
+  }
+
+  private void produceListingEvents(final BlockingQueue<ListingEvent> listingEvents) {
+    try {
+      listAllCopyJobs(new CopyJobListingListener() {
+        @Override
+        public void copyJobsListed(List<CopyJobRequest> listedCopyJobRequests) {
+          putListingEvent(listingEvents, new ListingEvent(listedCopyJobRequests, null, null));
+        }
+
+        @Override
+        public void subLocationListed(Path sourceSubLocation) {
+          putListingEvent(listingEvents, new ListingEvent(Collections.<CopyJobRequest> emptyList(),
+              sourceSubLocation, null));
+        }
+      });
+      putListingEvent(listingEvents, ListingEvent.END);
+    } catch (Throwable e) {
+      // Errors too, otherwise the copying thread would wait for the end of the listing forever
+      if (!Thread.currentThread().isInterrupted()) {
+        putListingEvent(listingEvents, new ListingEvent(Collections.<CopyJobRequest> emptyList(), null, e));
+      }
+    }
+  }
+
+  private static void putListingEvent(BlockingQueue<ListingEvent> listingEvents, ListingEvent listingEvent) {
+    try {
+      listingEvents.put(listingEvent);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CircusTrainException("Interrupted while listing objects to copy", e);
+    }
+  }
+
+  /**
+   * Submits the copy jobs as they are listed and waits for all of them to complete.
+   */
+  private void copyListedJobs(BlockingQueue<ListingEvent> listingEvents) throws InterruptedException {
+    int maxCopyJobsInFlight = 2 * Math.max(1, s3s3CopierOptions.getMaxThreadPoolSize());
+    CopyJobScheduler copyJobScheduler = newCopyJobScheduler();
+    int totalCopyJobs = 0;
+    ListingEvent listingEvent;
+    while ((listingEvent = listingEvents.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) != ListingEvent.END) {
+      if (listingEvent == null) {
+        copyJobScheduler.awaitCompletions(0L);
+        continue;
+      }
+      if (listingEvent.failure != null) {
+        Throwables.throwIfUnchecked(listingEvent.failure);
+        throw new CircusTrainException("Unable to list objects to copy", listingEvent.failure);
+      }
+      if (listingEvent.listedSubLocation != null) {
+        subLocationListed(listingEvent.listedSubLocation);
+        continue;
+      }
+      trackCopyJobs(listingEvent.copyJobRequests);
+      totalCopyJobs += listingEvent.copyJobRequests.size();
+      for (CopyJobRequest copyJobRequest : listingEvent.copyJobRequests) {
+        while (copyJobScheduler.getOutstandingCopyJobs() >= maxCopyJobsInFlight) {
+          copyJobScheduler.awaitCompletions(POLL_INTERVAL_MILLIS);
+        }
+        copyJobScheduler.submit(copyJobRequest);
+      }
+      copyJobScheduler.awaitCompletions(0L);
+    }
+    listingComplete = true;
+    LOG.info("Finished listing {} copy job(s), {} bytes to replicate", totalCopyJobs, totalBytesToReplicate);
+    copyJobScheduler.awaitAll();
   }
 
   private void applyObjectMetadata(CopyObjectRequest copyObjectRequest) {
@@ -235,88 +555,164 @@ public class S3S3Copier implements Copier {
   }
 
   private void processAllCopyJobs() {
-    List<CopyJobRequest> copyJobsToSubmit = copyJobRequests;
-    int maxCopyAttempts = s3s3CopierOptions.getMaxCopyAttempts();
-    for (int copyAttempt = 1; copyAttempt <= maxCopyAttempts; copyAttempt++) {
-      LOG.info("Submitting {} copy job(s), attempt {}/{}", copyJobsToSubmit.size(), copyAttempt, maxCopyAttempts);
-      copyJobsToSubmit = submitAndGatherCopyJobs(copyJobsToSubmit);
-      if (copyJobsToSubmit.isEmpty()) {
-        LOG.info("Successfully gathered all copy jobs on attempt {}/{}", copyAttempt, maxCopyAttempts);
-        return;
-      }
-      if (copyAttempt == maxCopyAttempts) {
-        throw new CircusTrainException(
-            copyJobsToSubmit.size() + " job(s) failed the maximum number of copy attempts, " + maxCopyAttempts);
-      }
-      LOG
-          .info("Finished gathering jobs on attempt {}/{}. Retrying {} failed job(s).", copyAttempt, maxCopyAttempts,
-              copyJobsToSubmit.size());
+    CopyJobScheduler copyJobScheduler = newCopyJobScheduler();
+    LOG.info("Submitting {} copy job(s)", copyJobRequests.size());
+    for (CopyJobRequest copyJobRequest : copyJobRequests) {
+      copyJobScheduler.submit(copyJobRequest);
+    }
+    try {
+      copyJobScheduler.awaitAll();
+    } catch (InterruptedException e) {
+      throw new CircusTrainException(e);
     }
   }
 
-  private List<CopyJobRequest> submitAndGatherCopyJobs(List<CopyJobRequest> copyJobsToSubmit) {
-    List<CopyJob> submittedCopyJobs = new ArrayList<>();
-    for (CopyJobRequest copyJobRequest : copyJobsToSubmit) {
-      Copy copy = submitCopyJob(copyJobRequest);
-      CopyJob newCopyJob = new CopyJob(copy, copyJobRequest);
-      submittedCopyJobs.add(newCopyJob);
+  private AdaptiveConcurrencyLimit newConcurrencyLimit() {
+    if (!s3s3CopierOptions.isAdaptiveConcurrency()) {
+      return null;
     }
-    return gatherCopyJobs(submittedCopyJobs);
+    int maxConcurrency = Math.max(1, s3s3CopierOptions.getMaxThreadPoolSize());
+    AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(maxConcurrency / 2, 1, maxConcurrency);
+    registerConcurrencyMetrics(concurrencyLimit);
+    return concurrencyLimit;
   }
 
-  private Copy submitCopyJob(CopyJobRequest copyJob) {
+  /**
+   * With adaptive concurrency the clients report the throttled attempts of their requests, which the SDK retries on its
+   * own, to the limit. Copies hold their permit from the {@link CopyJobScheduler} so requests do not take permits.
+   */
+  private AmazonS3 newS3Client(AmazonS3URI uri) {
+    if (concurrencyLimit == null) {
+      return s3ClientFactory.newInstance(uri, s3s3CopierOptions);
+    }
+    return s3ClientFactory.newInstance(uri, s3s3CopierOptions, concurrencyLimit.newThrottlingRequestHandler());
+  }
+
+  private CopyJobScheduler newCopyJobScheduler() {
+    return new CopyJobScheduler(new CopyJobScheduler.Callback() {
+      @Override
+      public void submit(CopyJobRequest copyJobRequest, TransferStateChangeListener stateChangeListener) {
+        submitCopyJob(copyJobRequest, stateChangeListener);
+      }
+
+      @Override
+      public void copied(CopyJobRequest copyJobRequest, Transfer transfer) {
+        copyJobCopied(copyJobRequest, transfer);
+      }
+    }, s3s3CopierOptions.getMaxCopyAttempts(), s3s3CopierOptions.getRetryBaseDelayMs(),
+        s3s3CopierOptions.getRetryMaxDelayMs(), concurrencyLimit);
+  }
+
+  private void submitCopyJob(CopyJobRequest copyJob, TransferStateChangeListener stateChangeListener) {
     CopyObjectRequest copyObjectRequest = copyJob.getCopyObjectRequest();
     LOG
         .info("Copying object from '{}/{}' to '{}/{}'", copyObjectRequest.getSourceBucketName(),
             copyObjectRequest.getSourceKey(), copyObjectRequest.getDestinationBucketName(),
             copyObjectRequest.getDestinationKey());
-    return transferManager.copy(copyObjectRequest, srcClient, copyJob.getTransferStateChangeListener());
+    AmazonS3 copySourceClient = copyJob.isCopyFromReplica() ? replicaClient : srcClient;
+    transferManager.copy(copyObjectRequest, copySourceClient, stateChangeListener);
   }
 
   /**
-   * Waits for all running copy jobs to complete and updates overall progress.
-   * 
-   * @param copyJobs A list of copy jobs which have been submitted
-   * @return A list of failed copy job requests
+   * Updates overall progress once a copy job has completed.
    */
-  private List<CopyJobRequest> gatherCopyJobs(List<CopyJob> copyJobs) {
-    List<CopyJobRequest> failedCopyJobRequests = new ArrayList<>();
-    for (CopyJob copyJob : copyJobs) {
-      try {
-        Copy copy = copyJob.getCopy();
-        try {
-          copy.waitForCompletion();
-          long alreadyReplicated = bytesReplicated.addAndGet(copy.getProgress().getTotalBytesToTransfer());
-          if (totalBytesToReplicate > 0) {
-            LOG
-                .info("Replicating...': {}% complete",
-                    String.format("%.0f", (alreadyReplicated / (double) totalBytesToReplicate) * 100.0));
-          }
-        } catch (AmazonClientException e) {
-          CopyObjectRequest copyObjectRequest = copyJob.getCopyJobRequest().getCopyObjectRequest();
-          LOG
-              .info("Copying '{}/{}' failed, adding to retry list.", copyObjectRequest.getSourceBucketName(),
-                  copyObjectRequest.getSourceKey());
-          LOG.warn("Copy failed with exception:", e);
-          failedCopyJobRequests.add(copyJob.getCopyJobRequest());
-        }
-      } catch (InterruptedException e) {
-        throw new CircusTrainException(e);
+  private void copyJobCopied(CopyJobRequest copyJobRequest, Transfer transfer) {
+    long alreadyReplicated = bytesReplicated.addAndGet(transfer.getProgress().getTotalBytesToTransfer());
+    if (!listingComplete) {
+      LOG
+          .info("Replicating...': {} bytes of the {} bytes listed so far copied", alreadyReplicated,
+              totalBytesToReplicate);
+    } else if (totalBytesToReplicate > 0) {
+      LOG
+          .info("Replicating...': {}% complete",
+              String.format("%.0f", (alreadyReplicated / (double) totalBytesToReplicate) * 100.0));
+    }
+    copyJobCompleted(copyJobRequest);
+  }
+
+  private void trackCopyJobs(List<CopyJobRequest> listedCopyJobRequests) {
+    for (CopyJobRequest copyJobRequest : listedCopyJobRequests) {
+      totalBytesToReplicate += copyJobRequest.getSourceObjectSize();
+      Path sourceSubLocation = copyJobRequest.getSourceSubLocation();
+      if (sourceSubLocation != null) {
+        Integer outstandingCopyJobs = outstandingCopyJobsBySubLocation.get(sourceSubLocation);
+        outstandingCopyJobsBySubLocation
+            .put(sourceSubLocation, outstandingCopyJobs == null ? 1 : outstandingCopyJobs + 1);
       }
     }
-    return failedCopyJobRequests;
+  }
+
+  private void subLocationListed(Path sourceSubLocation) {
+    listedSubLocations.add(sourceSubLocation);
+    // Sub-locations without any objects, or whose objects have all been copied already, have nothing left to copy
+    if (!outstandingCopyJobsBySubLocation.containsKey(sourceSubLocation)) {
+      subLocationCopied(sourceSubLocation);
+    }
+  }
+
+  private void copyJobCompleted(CopyJobRequest copyJobRequest) {
+    Path sourceSubLocation = copyJobRequest.getSourceSubLocation();
+    if (sourceSubLocation == null) {
+      return;
+    }
+    Integer outstandingCopyJobs = outstandingCopyJobsBySubLocation.get(sourceSubLocation);
+    if (outstandingCopyJobs == null) {
+      return;
+    }
+    if (outstandingCopyJobs > 1) {
+      outstandingCopyJobsBySubLocation.put(sourceSubLocation, outstandingCopyJobs - 1);
+    } else {
+      outstandingCopyJobsBySubLocation.remove(sourceSubLocation);
+      if (listedSubLocations.contains(sourceSubLocation)) {
+        subLocationCopied(sourceSubLocation);
+      }
+    }
+  }
+
+  private void subLocationCopied(Path sourceSubLocation) {
+    LOG.debug("All objects under '{}' have been copied", sourceSubLocation);
+    progressListener.subLocationCopied(sourceSubLocation);
   }
 
   private Metrics gatherMetrics() {
     ImmutableMap<String, Long> metrics = ImmutableMap
-        .of(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name(), totalBytesToReplicate);
+        .of(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name(), totalBytesToReplicate,
+            S3S3CopierMetrics.Metrics.BYTES_COPIED_FROM_REPLICA.name(), bytesCopiedFromReplica.get(),
+            S3S3CopierMetrics.Metrics.BYTES_SKIPPED.name(), bytesSkipped.get());
     return new S3S3CopierMetrics(metrics, bytesReplicated.get());
   }
 
   private void registerRunningMetrics(final AtomicLong bytesReplicated) {
     Gauge<Long> gauge = new AtomicLongGauge(bytesReplicated);
-    registry.remove(RunningMetrics.S3S3_CP_BYTES_REPLICATED.name());
-    registry.register(RunningMetrics.S3S3_CP_BYTES_REPLICATED.name(), gauge);
+    String bytesReplicatedName = qualifiedMetricName(RunningMetrics.S3S3_CP_BYTES_REPLICATED);
+    registry.remove(bytesReplicatedName);
+    registry.register(bytesReplicatedName, gauge);
+  }
+
+  private void registerConcurrencyMetrics(final AdaptiveConcurrencyLimit concurrencyLimit) {
+    String concurrencyLimitName = qualifiedMetricName(RunningMetrics.S3S3_CP_CONCURRENCY_LIMIT);
+    registry.remove(concurrencyLimitName);
+    registry.register(concurrencyLimitName, new Gauge<Integer>() {
+      @Override
+      public Integer getValue() {
+        return concurrencyLimit.getLimit();
+      }
+    });
+    String throttledCopiesName = qualifiedMetricName(RunningMetrics.S3S3_CP_THROTTLED_COPIES);
+    registry.remove(throttledCopiesName);
+    registry.register(throttledCopiesName, new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return concurrencyLimit.getThrottleCount();
+      }
+    });
+  }
+
+  /**
+   * Tables may be replicated concurrently, each with its own copier.
+   */
+  private String qualifiedMetricName(RunningMetrics runningMetric) {
+    return QualifiedRunningMetrics.name(metricsQualifier, runningMetric.name());
   }
 
 }
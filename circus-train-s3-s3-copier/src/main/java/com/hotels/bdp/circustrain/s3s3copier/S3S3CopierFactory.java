@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import org.springframework.stereotype.Component;
 import com.codahale.metrics.MetricRegistry;
 
 import com.hotels.bdp.circustrain.api.Modules;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.copier.Copier;
 import com.hotels.bdp.circustrain.api.copier.CopierContext;
 import com.hotels.bdp.circustrain.api.copier.CopierFactory;
@@ -65,9 +66,12 @@ public class S3S3CopierFactory implements CopierFactory {
 
   @Override
   public Copier newInstance(CopierContext copierContext) {
+    TableReplication tableReplication = copierContext.getTableReplication();
+    String metricsQualifier = tableReplication != null ? tableReplication.getQualifiedReplicaName() : null;
     return new S3S3Copier(copierContext.getSourceBaseLocation(), copierContext.getSourceSubLocations(),
         copierContext.getReplicaLocation(), clientFactory, transferManagerFactory, listObjectsRequestFactory,
-        runningMetricsRegistry, new S3S3CopierOptions(copierContext.getCopierOptions()));
+        runningMetricsRegistry, new S3S3CopierOptions(copierContext.getCopierOptions()),
+        copierContext.getExistingReplicaLocations(), metricsQualifier);
   }
 
   @Override
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,7 +24,9 @@ import com.hotels.bdp.circustrain.api.metrics.Metrics;
 public class S3S3CopierMetrics implements Metrics {
 
   public static enum Metrics {
-    TOTAL_BYTES_TO_REPLICATE;
+    TOTAL_BYTES_TO_REPLICATE,
+    BYTES_COPIED_FROM_REPLICA,
+    BYTES_SKIPPED;
   }
 
   private final long bytesReplicated;
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -70,10 +70,53 @@ public class S3S3CopierOptions {
      * Number of copy attempts to allow when copying from S3 to S3. Default value is 3.
      */
     MAX_COPY_ATTEMPTS("s3s3-retry-max-copy-attempts"),
+    /**
+     * Base delay in milliseconds before a failed copy is retried. The delay doubles with every failed attempt of the same
+     * object, up to {@link #RETRY_MAX_DELAY_MS}, and a random delay between zero and that value is used. Default value
+     * is 200.
+     */
+    RETRY_BASE_DELAY_MS("s3s3-retry-base-delay-ms"),
+    /**
+     * Upper bound in milliseconds of the delay before a failed copy is retried. Default value is 20000.
+     */
+    RETRY_MAX_DELAY_MS("s3s3-retry-max-delay-ms"),
     /**
      * Max number of threads to use for the transferManager thread pool. Default value is 10.
      */
-    MAX_THREAD_POOL_SIZE("s3s3-max-thread-pool-size");
+    MAX_THREAD_POOL_SIZE("s3s3-max-thread-pool-size"),
+    /**
+     * Whether to start copying objects while the source locations are still being listed instead of listing all of
+     * them first. Default value is false.
+     */
+    STREAMING_COPY("s3s3-streaming-copy"),
+    /**
+     * Number of pages of listed objects that may be waiting to be copied when {@link #STREAMING_COPY} is enabled before
+     * listing pauses. Default value is 10.
+     */
+    LISTING_QUEUE_SIZE("s3s3-listing-queue-size"),
+    /**
+     * Number of threads used to list the source locations, one prefix per thread at a time. Default value is 1, i.e.
+     * the prefixes are listed one after another.
+     */
+    LISTING_THREAD_POOL_SIZE("s3s3-listing-thread-pool-size"),
+    /**
+     * Number of levels of {@code /} delimited sub-prefixes a source location is split into so that they are listed
+     * concurrently when {@link #LISTING_THREAD_POOL_SIZE} is greater than 1. Default value is 0, i.e. source locations
+     * are not split.
+     */
+    LISTING_SPLIT_DEPTH("s3s3-listing-split-depth"),
+    /**
+     * Whether to compare each source object with the object at the same relative key in the replica's current data
+     * location and, when their sizes and ETags match, copy it from the replica, or skip it when it is already at the
+     * target key, instead of reading it from the source. Default value is false.
+     */
+    INCREMENTAL_COPY("s3s3-incremental-copy"),
+    /**
+     * Whether to adapt the number of copies in flight to S3 throttling: starting from half of
+     * {@link #MAX_THREAD_POOL_SIZE}, the limit grows while copies succeed and halves when S3 throttles them. Default value
+     * is false.
+     */
+    ADAPTIVE_CONCURRENCY("s3s3-adaptive-concurrency");
 
     private final String keyName;
 
@@ -88,6 +131,9 @@ public class S3S3CopierOptions {
 
   private final Map<String, Object> copierOptions;
   private final int DEFAULT_MAX_THREAD_POOL_SIZE = 10;
+  private final int DEFAULT_LISTING_QUEUE_SIZE = 10;
+  private final long DEFAULT_RETRY_BASE_DELAY_MS = 200L;
+  private final long DEFAULT_RETRY_MAX_DELAY_MS = 20000L;
 
   public S3S3CopierOptions() {
     copierOptions = new HashMap<>();
@@ -159,4 +205,40 @@ public class S3S3CopierOptions {
     Integer maxCopyAttempts = MapUtils.getInteger(copierOptions, Keys.MAX_COPY_ATTEMPTS.keyName(), 3);
     return maxCopyAttempts < 1 ? 3 : maxCopyAttempts;
   }
+
+  public long getRetryBaseDelayMs() {
+    return Math.max(0L, MapUtils.getLongValue(copierOptions, Keys.RETRY_BASE_DELAY_MS.keyName(),
+        DEFAULT_RETRY_BASE_DELAY_MS));
+  }
+
+  public long getRetryMaxDelayMs() {
+    return Math.max(0L, MapUtils.getLongValue(copierOptions, Keys.RETRY_MAX_DELAY_MS.keyName(),
+        DEFAULT_RETRY_MAX_DELAY_MS));
+  }
+
+  public boolean isStreamingCopy() {
+    return MapUtils.getBooleanValue(copierOptions, Keys.STREAMING_COPY.keyName(), false);
+  }
+
+  public int getListingQueueSize() {
+    Integer listingQueueSize = MapUtils
+        .getInteger(copierOptions, Keys.LISTING_QUEUE_SIZE.keyName(), DEFAULT_LISTING_QUEUE_SIZE);
+    return listingQueueSize < 1 ? DEFAULT_LISTING_QUEUE_SIZE : listingQueueSize;
+  }
+
+  public int getListingThreadPoolSize() {
+    return Math.max(1, MapUtils.getIntValue(copierOptions, Keys.LISTING_THREAD_POOL_SIZE.keyName(), 1));
+  }
+
+  public int getListingSplitDepth() {
+    return Math.max(0, MapUtils.getIntValue(copierOptions, Keys.LISTING_SPLIT_DEPTH.keyName(), 0));
+  }
+
+  public boolean isIncrementalCopy() {
+    return MapUtils.getBooleanValue(copierOptions, Keys.INCREMENTAL_COPY.keyName(), false);
+  }
+
+  public boolean isAdaptiveConcurrency() {
+    return MapUtils.getBooleanValue(copierOptions, Keys.ADAPTIVE_CONCURRENCY.keyName(), false);
+  }
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,6 +15,7 @@
  */
 package com.hotels.bdp.circustrain.s3s3copier.aws;
 
+import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3URI;
 
@@ -30,4 +31,15 @@ public interface AmazonS3ClientFactory {
    */
   AmazonS3 newInstance(AmazonS3URI uri, S3S3CopierOptions s3s3CopierOptions);
 
+  /**
+   * As {@link #newInstance(AmazonS3URI, S3S3CopierOptions)}, with request handlers that see every request of the
+   * returned client. Factories that cannot install request handlers return a client without them.
+   */
+  default AmazonS3 newInstance(
+      AmazonS3URI uri,
+      S3S3CopierOptions s3s3CopierOptions,
+      RequestHandler2... requestHandlers) {
+    return newInstance(uri, s3s3CopierOptions);
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2020 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import org.springframework.stereotype.Component;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.AmazonS3URI;
@@ -56,17 +57,26 @@ public class JceksAmazonS3ClientFactory implements AmazonS3ClientFactory {
 
   @Override
   public AmazonS3 newInstance(AmazonS3URI uri, S3S3CopierOptions s3s3CopierOptions) {
+    return newInstance(uri, s3s3CopierOptions, new RequestHandler2[0]);
+  }
+
+  @Override
+  public AmazonS3 newInstance(
+      AmazonS3URI uri,
+      S3S3CopierOptions s3s3CopierOptions,
+      RequestHandler2... requestHandlers) {
     HadoopAWSCredentialProviderChain credentialProviderChain = getCredentialsProviderChain(
         s3s3CopierOptions.getAssumedRole(), s3s3CopierOptions.getAssumedRoleCredentialDuration());
-    return newS3Client(uri, s3s3CopierOptions, credentialProviderChain);
+    return newS3Client(uri, s3s3CopierOptions, credentialProviderChain, requestHandlers);
   }
 
   private AmazonS3 newS3Client(
       AmazonS3URI uri,
       S3S3CopierOptions s3s3CopierOptions,
-      HadoopAWSCredentialProviderChain credentialProviderChain) {
+      HadoopAWSCredentialProviderChain credentialProviderChain,
+      RequestHandler2... requestHandlers) {
     LOG.debug("trying to get a client for uri '{}'", uri);
-    AmazonS3 globalClient = newGlobalInstance(s3s3CopierOptions, credentialProviderChain);
+    AmazonS3 globalClient = newGlobalInstance(s3s3CopierOptions, credentialProviderChain, requestHandlers);
     try {
 
       /*
@@ -78,7 +88,7 @@ public class JceksAmazonS3ClientFactory implements AmazonS3ClientFactory {
 
       String bucketRegion = regionForUri(globalClient, uri);
       LOG.debug("Bucket region: {}", bucketRegion);
-      return newInstance(bucketRegion, s3s3CopierOptions, credentialProviderChain);
+      return newInstance(bucketRegion, s3s3CopierOptions, credentialProviderChain, requestHandlers);
     } catch (IllegalArgumentException e) {
       LOG.warn("Using global (non region specific) client", e);
       return globalClient;
@@ -104,21 +114,25 @@ public class JceksAmazonS3ClientFactory implements AmazonS3ClientFactory {
     return bucketRegion;
   }
 
-  private AmazonS3ClientBuilder applyClientConfigurations(AmazonS3ClientBuilder builder, S3S3CopierOptions s3s3CopierOptions) {
+  private AmazonS3ClientBuilder applyClientConfigurations(
+      AmazonS3ClientBuilder builder,
+      S3S3CopierOptions s3s3CopierOptions,
+      RequestHandler2... requestHandlers) {
     ClientConfiguration clientConfiguration = new ClientConfiguration();
     clientConfiguration.withMaxConnections(s3s3CopierOptions.getMaxThreadPoolSize());
-    return builder.withClientConfiguration(clientConfiguration);
+    return builder.withClientConfiguration(clientConfiguration).withRequestHandlers(requestHandlers);
   }
 
   private AmazonS3 newGlobalInstance(
       S3S3CopierOptions s3s3CopierOptions,
-      HadoopAWSCredentialProviderChain credentialsChain) {
+      HadoopAWSCredentialProviderChain credentialsChain,
+      RequestHandler2... requestHandlers) {
     AmazonS3ClientBuilder builder = AmazonS3ClientBuilder
         .standard()
         .withForceGlobalBucketAccessEnabled(Boolean.TRUE)
         .withCredentials(credentialsChain);
 
-    applyClientConfigurations(builder, s3s3CopierOptions);
+    applyClientConfigurations(builder, s3s3CopierOptions, requestHandlers);
 
     URI s3Endpoint = s3s3CopierOptions.getS3Endpoint();
     if (s3Endpoint != null) {
@@ -132,12 +146,13 @@ public class JceksAmazonS3ClientFactory implements AmazonS3ClientFactory {
   private AmazonS3 newInstance(
       String region,
       S3S3CopierOptions s3s3CopierOptions,
-      HadoopAWSCredentialProviderChain credentialsChain) {
+      HadoopAWSCredentialProviderChain credentialsChain,
+      RequestHandler2... requestHandlers) {
     AmazonS3ClientBuilder builder = AmazonS3ClientBuilder
         .standard()
         .withCredentials(credentialsChain);
 
-    applyClientConfigurations(builder, s3s3CopierOptions);
+    applyClientConfigurations(builder, s3s3CopierOptions, requestHandlers);
 
     URI s3Endpoint = s3s3CopierOptions.getS3Endpoint(region);
     if (s3Endpoint != null) {
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package com.hotels.bdp.circustrain.s3s3copier.aws;
 import org.springframework.stereotype.Component;
 
 import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
 
 @Component
 public class ListObjectsRequestFactory {
@@ -28,4 +29,8 @@ public class ListObjectsRequestFactory {
     return new ListObjectsRequest();
   }
 
+  public ListObjectsV2Request newV2Instance() {
+    return new ListObjectsV2Request();
+  }
+
 }
@@ -0,0 +1,298 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3s3copier;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.transfer.Transfer;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.aws.AdaptiveConcurrencyLimit;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CopyJobSchedulerTest {
+
+  private @Mock Transfer successfulTransfer;
+  private @Mock Transfer failedTransfer;
+  private @Mock Transfer canceledTransfer;
+
+  private final CopyJobRequest copyJobA = newCopyJobRequest("a");
+  private final CopyJobRequest copyJobB = newCopyJobRequest("b");
+  private final List<CopyJobRequest> submitted = new ArrayList<>();
+  private final List<TransferStateChangeListener> listeners = new ArrayList<>();
+  private final List<CopyJobRequest> copied = new ArrayList<>();
+  private final CopyJobScheduler.Callback callback = new CopyJobScheduler.Callback() {
+    @Override
+    public void submit(CopyJobRequest copyJobRequest, TransferStateChangeListener stateChangeListener) {
+      submitted.add(copyJobRequest);
+      listeners.add(stateChangeListener);
+    }
+
+    @Override
+    public void copied(CopyJobRequest copyJobRequest, Transfer transfer) {
+      copied.add(copyJobRequest);
+    }
+  };
+  private CopyJobScheduler scheduler;
+
+  @Before
+  public void setUp() throws Exception {
+    doThrow(new AmazonClientException("copy error")).when(failedTransfer).waitForCompletion();
+    scheduler = new CopyJobScheduler(callback, 3, 0L, 0L);
+  }
+
+  private static CopyJobRequest newCopyJobRequest(String key) {
+    return new CopyJobRequest(new CopyObjectRequest("source", key, "target", key), null);
+  }
+
+  @Test
+  public void completionsAreCollectedInCompletionOrder() throws Exception {
+    scheduler.submit(copyJobA);
+    scheduler.submit(copyJobB);
+    listeners.get(1).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitCompletions(0L);
+
+    assertThat(copied, is(Arrays.asList(copyJobB)));
+    assertThat(scheduler.getOutstandingCopyJobs(), is(1));
+
+    listeners.get(0).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitAll();
+
+    assertThat(copied, is(Arrays.asList(copyJobB, copyJobA)));
+  }
+
+  @Test
+  public void failedCopyIsRetriedWhileOtherCopiesAreInFlight() throws Exception {
+    scheduler.submit(copyJobA);
+    scheduler.submit(copyJobB);
+    listeners.get(0).transferStateChanged(failedTransfer, TransferState.Failed);
+    scheduler.awaitCompletions(0L);
+
+    assertThat(submitted, is(Arrays.asList(copyJobA, copyJobB, copyJobA)));
+    assertThat(scheduler.getOutstandingCopyJobs(), is(2));
+
+    listeners.get(2).transferStateChanged(successfulTransfer, TransferState.Completed);
+    listeners.get(1).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitAll();
+
+    assertThat(copied, is(Arrays.asList(copyJobA, copyJobB)));
+  }
+
+  @Test
+  public void ignoresNonTerminalStates() throws Exception {
+    scheduler.submit(copyJobA);
+    listeners.get(0).transferStateChanged(successfulTransfer, TransferState.InProgress);
+    scheduler.awaitCompletions(0L);
+
+    assertThat(copied.isEmpty(), is(true));
+    assertThat(scheduler.getOutstandingCopyJobs(), is(1));
+  }
+
+  @Test
+  public void copyJobFailsTheMaximumNumberOfAttempts() throws Exception {
+    scheduler.submit(copyJobA);
+    scheduler.submit(copyJobB);
+    listeners.get(1).transferStateChanged(successfulTransfer, TransferState.Completed);
+    listeners.get(0).transferStateChanged(failedTransfer, TransferState.Failed);
+    scheduler.awaitCompletions(0L);
+    listeners.get(2).transferStateChanged(failedTransfer, TransferState.Failed);
+    scheduler.awaitCompletions(0L);
+    listeners.get(3).transferStateChanged(failedTransfer, TransferState.Failed);
+    scheduler.awaitCompletions(0L);
+    try {
+      scheduler.awaitAll();
+      fail("exception should have been thrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage(), is("1 job(s) failed the maximum number of copy attempts, 3"));
+    }
+    assertThat(submitted, is(Arrays.asList(copyJobA, copyJobB, copyJobA, copyJobA)));
+    assertThat(copied, is(Arrays.asList(copyJobB)));
+  }
+
+  @Test
+  public void failedSubmissionIsRetried() throws Exception {
+    final List<CopyJobRequest> failedSubmissions = new ArrayList<>();
+    AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(2, 1, 2);
+    scheduler = new CopyJobScheduler(new CopyJobScheduler.Callback() {
+      @Override
+      public void submit(CopyJobRequest copyJobRequest, TransferStateChangeListener stateChangeListener) {
+        if (failedSubmissions.isEmpty()) {
+          failedSubmissions.add(copyJobRequest);
+          throw new AmazonServiceException("Service Unavailable");
+        }
+        callback.submit(copyJobRequest, stateChangeListener);
+      }
+
+      @Override
+      public void copied(CopyJobRequest copyJobRequest, Transfer transfer) {
+        callback.copied(copyJobRequest, transfer);
+      }
+    }, 3, 0L, 0L, concurrencyLimit);
+    scheduler.submit(copyJobA);
+
+    assertThat(failedSubmissions, is(Arrays.asList(copyJobA)));
+    assertThat(scheduler.getOutstandingCopyJobs(), is(1));
+    assertThat(concurrencyLimit.getInFlight(), is(0));
+
+    scheduler.awaitCompletions(0L);
+
+    assertThat(submitted, is(Arrays.asList(copyJobA)));
+
+    listeners.get(0).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitAll();
+
+    assertThat(copied, is(Arrays.asList(copyJobA)));
+  }
+
+  @Test
+  public void submissionFailsTheMaximumNumberOfAttempts() throws Exception {
+    scheduler = new CopyJobScheduler(new CopyJobScheduler.Callback() {
+      @Override
+      public void submit(CopyJobRequest copyJobRequest, TransferStateChangeListener stateChangeListener) {
+        submitted.add(copyJobRequest);
+        throw new AmazonServiceException("Service Unavailable");
+      }
+
+      @Override
+      public void copied(CopyJobRequest copyJobRequest, Transfer transfer) {
+        callback.copied(copyJobRequest, transfer);
+      }
+    }, 3, 0L, 0L);
+    scheduler.submit(copyJobA);
+    try {
+      scheduler.awaitAll();
+      fail("exception should have been thrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage(), is("1 job(s) failed the maximum number of copy attempts, 3"));
+    }
+    assertThat(submitted, is(Arrays.asList(copyJobA, copyJobA, copyJobA)));
+  }
+
+  @Test
+  public void copiesWaitForTheConcurrencyLimit() throws Exception {
+    AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(1, 1, 2);
+    scheduler = new CopyJobScheduler(callback, 3, 0L, 0L, concurrencyLimit);
+    scheduler.submit(copyJobA);
+    scheduler.submit(copyJobB);
+
+    assertThat(submitted, is(Arrays.asList(copyJobA)));
+    assertThat(scheduler.getOutstandingCopyJobs(), is(2));
+
+    listeners.get(0).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitCompletions(0L);
+
+    assertThat(submitted, is(Arrays.asList(copyJobA, copyJobB)));
+    assertThat(concurrencyLimit.getLimit(), is(2));
+
+    listeners.get(1).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitAll();
+
+    assertThat(copied, is(Arrays.asList(copyJobA, copyJobB)));
+    assertThat(concurrencyLimit.getInFlight(), is(0));
+  }
+
+  @Test
+  public void throttledCopyDecreasesTheConcurrencyLimit() throws Exception {
+    AmazonServiceException slowDown = new AmazonServiceException("Slow Down");
+    slowDown.setStatusCode(503);
+    slowDown.setErrorCode("SlowDown");
+    doThrow(slowDown).when(failedTransfer).waitForCompletion();
+    AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(2, 1, 2);
+    scheduler = new CopyJobScheduler(callback, 3, 0L, 0L, concurrencyLimit);
+    scheduler.submit(copyJobA);
+    scheduler.submit(copyJobB);
+    listeners.get(0).transferStateChanged(failedTransfer, TransferState.Failed);
+    scheduler.awaitCompletions(0L);
+
+    assertThat(concurrencyLimit.getLimit(), is(1));
+    assertThat(concurrencyLimit.getThrottleCount(), is(1L));
+    assertThat(submitted, is(Arrays.asList(copyJobA, copyJobB)));
+    assertThat(scheduler.getOutstandingCopyJobs(), is(2));
+
+    listeners.get(1).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitCompletions(0L);
+
+    assertThat(submitted, is(Arrays.asList(copyJobA, copyJobB, copyJobA)));
+
+    listeners.get(2).transferStateChanged(successfulTransfer, TransferState.Completed);
+    scheduler.awaitAll();
+
+    assertThat(copied, is(Arrays.asList(copyJobB, copyJobA)));
+  }
+
+  @Test
+  public void canceledCopyReleasesTheConcurrencyLimitAndIsRetried() throws Exception {
+    doThrow(new CancellationException()).when(canceledTransfer).waitForCompletion();
+    AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(1, 1, 2);
+    scheduler = new CopyJobScheduler(callback, 2, 0L, 0L, concurrencyLimit);
+    scheduler.submit(copyJobA);
+    listeners.get(0).transferStateChanged(canceledTransfer, TransferState.Canceled);
+    scheduler.awaitCompletions(0L);
+
+    assertThat(submitted, is(Arrays.asList(copyJobA, copyJobA)));
+    assertThat(concurrencyLimit.getInFlight(), is(1));
+    assertThat(copied.isEmpty(), is(true));
+
+    listeners.get(1).transferStateChanged(canceledTransfer, TransferState.Canceled);
+    try {
+      scheduler.awaitAll();
+      fail("exception should have been thrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getMessage(), is("1 job(s) failed the maximum number of copy attempts, 2"));
+    }
+    assertThat(concurrencyLimit.getInFlight(), is(0));
+    assertThat(copied.isEmpty(), is(true));
+  }
+
+  @Test
+  public void retryDelayIsJitteredAndGrowsExponentiallyUpToTheMaximum() {
+    Random random = new Random() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public double nextDouble() {
+        return 0.5;
+      }
+    };
+    CopyJobScheduler scheduler = new CopyJobScheduler(null, 3, 100L, 1000L, null, random);
+    assertThat(scheduler.retryDelayMillis(1), is(50L));
+    assertThat(scheduler.retryDelayMillis(2), is(100L));
+    assertThat(scheduler.retryDelayMillis(3), is(200L));
+    assertThat(scheduler.retryDelayMillis(5), is(500L));
+    assertThat(scheduler.retryDelayMillis(64), is(500L));
+  }
+
+}
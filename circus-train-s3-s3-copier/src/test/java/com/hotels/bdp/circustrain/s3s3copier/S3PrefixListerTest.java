@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.s3s3copier;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.fs.s3a.BasicAWSCredentialsProvider;
+import org.gaul.s3proxy.junit.S3ProxyRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.AmazonS3URI;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+
+import com.hotels.bdp.circustrain.s3s3copier.aws.ListObjectsRequestFactory;
+
+public class S3PrefixListerTest {
+
+  private static final String AWS_ACCESS_KEY = "access";
+  private static final String AWS_SECRET_KEY = "secret";
+
+  public @Rule TemporaryFolder temp = new TemporaryFolder();
+  public @Rule S3ProxyRule s3Proxy = S3ProxyRule.builder().withCredentials(AWS_ACCESS_KEY, AWS_SECRET_KEY).build();
+
+  private final ListObjectsRequestFactory listObjectsRequestFactory = new ListObjectsRequestFactory();
+  private final RecordingListener listener = new RecordingListener();
+  private AmazonS3 client;
+
+  @Before
+  public void setUp() throws Exception {
+    File inputData = temp.newFile("data");
+    Files.write("bar foo", inputData, Charsets.UTF_8);
+    final AmazonS3 s3ProxyClient = AmazonS3ClientBuilder
+        .standard()
+        .withCredentials(new BasicAWSCredentialsProvider(AWS_ACCESS_KEY, AWS_SECRET_KEY))
+        .withEndpointConfiguration(
+            new EndpointConfiguration(s3Proxy.getUri().toString(), Regions.DEFAULT_REGION.getName()))
+        .build();
+    s3ProxyClient.createBucket("source");
+    client = spy(s3ProxyClient);
+    // S3Proxy does not implement ListObjectsV2 so it is answered with the equivalent ListObjects call
+    doAnswer(new Answer<ListObjectsV2Result>() {
+      @Override
+      public ListObjectsV2Result answer(InvocationOnMock invocation) {
+        ListObjectsV2Request request = invocation.getArgument(0);
+        ObjectListing listing = s3ProxyClient
+            .listObjects(new ListObjectsRequest(request.getBucketName(), request.getPrefix(),
+                request.getContinuationToken(), request.getDelimiter(), request.getMaxKeys()));
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        result.getObjectSummaries().addAll(listing.getObjectSummaries());
+        result.setCommonPrefixes(listing.getCommonPrefixes());
+        result.setTruncated(listing.isTruncated());
+        result.setNextContinuationToken(listing.getNextMarker());
+        return result;
+      }
+    }).when(client).listObjectsV2(any(ListObjectsV2Request.class));
+    client.putObject("source", "table/year=2016/data", inputData);
+    client.putObject("source", "table/year=2017/month=01/data1", inputData);
+    client.putObject("source", "table/year=2017/month=01/data2", inputData);
+    client.putObject("source", "table/year=2017/month=02/data", inputData);
+    client.putObject("source", "table/year=2017/data", inputData);
+  }
+
+  private Map<String, AmazonS3URI> prefixes() {
+    Map<String, AmazonS3URI> prefixes = new LinkedHashMap<>();
+    prefixes.put("2016", new AmazonS3URI("s3://source/table/year=2016/"));
+    prefixes.put("2017", new AmazonS3URI("s3://source/table/year=2017/"));
+    prefixes.put("2018", new AmazonS3URI("s3://source/table/year=2018/"));
+    return prefixes;
+  }
+
+  private static Set<String> keys(String... keys) {
+    return Sets.newHashSet(keys);
+  }
+
+  @Test
+  public void singleThread() {
+    new S3PrefixLister(client, listObjectsRequestFactory, 1, 0).list(prefixes(), listener);
+
+    assertThat(listener.listedKeys.get("2016"), is(keys("table/year=2016/data")));
+    assertThat(listener.listedKeys.get("2017"),
+        is(keys("table/year=2017/month=01/data1", "table/year=2017/month=01/data2", "table/year=2017/month=02/data",
+            "table/year=2017/data")));
+    assertThat(listener.listedPrefixes, is((List<String>) Lists.newArrayList("2016", "2017", "2018")));
+    verify(client, never()).listObjectsV2(any(ListObjectsV2Request.class));
+  }
+
+  @Test
+  public void concurrentWithSplitPrefixes() {
+    new S3PrefixLister(client, listObjectsRequestFactory, 4, 2).list(prefixes(), listener);
+
+    assertThat(listener.listedKeys.get("2016"), is(keys("table/year=2016/data")));
+    assertThat(listener.listedKeys.get("2017"),
+        is(keys("table/year=2017/month=01/data1", "table/year=2017/month=01/data2", "table/year=2017/month=02/data",
+            "table/year=2017/data")));
+    assertThat(new HashSet<>(listener.listedPrefixes), is(keys("2016", "2017", "2018")));
+    assertThat(listener.listedPrefixes.size(), is(3));
+    assertThat(listener.objectsListedAfterPrefixListed, is(false));
+    // 3 prefixes, year=2017/month=01/ and year=2017/month=02/
+    verify(client, times(5)).listObjectsV2(any(ListObjectsV2Request.class));
+  }
+
+  @Test
+  public void concurrentListingFailure() {
+    Map<String, AmazonS3URI> prefixes = prefixes();
+    prefixes.put("missing", new AmazonS3URI("s3://missing-bucket/table/"));
+    try {
+      new S3PrefixLister(client, listObjectsRequestFactory, 4, 1).list(prefixes, listener);
+      fail("exception should have been thrown");
+    } catch (AmazonServiceException e) {
+      assertThat(listener.listedPrefixes.contains("missing"), is(false));
+    }
+  }
+
+  private static class RecordingListener implements S3PrefixLister.Listener<String> {
+
+    private final Map<String, Set<String>> listedKeys = new HashMap<>();
+    private final List<String> listedPrefixes = new ArrayList<>();
+    private boolean objectsListedAfterPrefixListed = false;
+
+    @Override
+    public void objectsListed(String key, List<S3ObjectSummary> objectSummaries) {
+      if (listedPrefixes.contains(key)) {
+        objectsListedAfterPrefixListed = true;
+      }
+      Set<String> keys = listedKeys.get(key);
+      if (keys == null) {
+        keys = new HashSet<>();
+        listedKeys.put(key, keys);
+      }
+      for (S3ObjectSummary objectSummary : objectSummaries) {
+        keys.add(objectSummary.getKey());
+      }
+    }
+
+    @Override
+    public void prefixListed(String key) {
+      listedPrefixes.add(key);
+    }
+  }
+
+}
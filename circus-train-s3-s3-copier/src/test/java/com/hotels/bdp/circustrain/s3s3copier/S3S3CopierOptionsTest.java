@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -129,4 +129,99 @@ public class S3S3CopierOptionsTest {
     assertNull(options.getAssumedRole());
   }
 
+  @Test
+  public void isStreamingCopy() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.STREAMING_COPY.keyName(), "true");
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isStreamingCopy(), is(true));
+  }
+
+  @Test
+  public void isStreamingCopyDefaultIsFalse() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isStreamingCopy(), is(false));
+  }
+
+  @Test
+  public void isIncrementalCopy() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.INCREMENTAL_COPY.keyName(), "true");
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isIncrementalCopy(), is(true));
+  }
+
+  @Test
+  public void isIncrementalCopyDefaultIsFalse() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isIncrementalCopy(), is(false));
+  }
+
+  @Test
+  public void isAdaptiveConcurrency() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.ADAPTIVE_CONCURRENCY.keyName(), "true");
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isAdaptiveConcurrency(), is(true));
+  }
+
+  @Test
+  public void isAdaptiveConcurrencyDefaultIsFalse() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.isAdaptiveConcurrency(), is(false));
+  }
+
+  @Test
+  public void getListingQueueSize() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.LISTING_QUEUE_SIZE.keyName(), 2);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingQueueSize(), is(2));
+  }
+
+  @Test
+  public void getListingQueueSizeDefaultIfLessThanOne() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.LISTING_QUEUE_SIZE.keyName(), 0);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingQueueSize(), is(10));
+  }
+
+  @Test
+  public void getListingThreadPoolSize() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.LISTING_THREAD_POOL_SIZE.keyName(), 8);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingThreadPoolSize(), is(8));
+  }
+
+  @Test
+  public void getListingThreadPoolSizeDefaultIsOne() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingThreadPoolSize(), is(1));
+  }
+
+  @Test
+  public void getListingSplitDepth() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.LISTING_SPLIT_DEPTH.keyName(), 2);
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingSplitDepth(), is(2));
+  }
+
+  @Test
+  public void getListingSplitDepthDefaultIsZero() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getListingSplitDepth(), is(0));
+  }
+
+  @Test
+  public void getRetryDelays() throws Exception {
+    copierOptions.put(S3S3CopierOptions.Keys.RETRY_BASE_DELAY_MS.keyName(), 50);
+    copierOptions.put(S3S3CopierOptions.Keys.RETRY_MAX_DELAY_MS.keyName(), "1000");
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getRetryBaseDelayMs(), is(50L));
+    assertThat(options.getRetryMaxDelayMs(), is(1000L));
+  }
+
+  @Test
+  public void getRetryDelaysDefaults() throws Exception {
+    S3S3CopierOptions options = new S3S3CopierOptions(copierOptions);
+    assertThat(options.getRetryBaseDelayMs(), is(200L));
+    assertThat(options.getRetryMaxDelayMs(), is(20000L));
+  }
+
 }
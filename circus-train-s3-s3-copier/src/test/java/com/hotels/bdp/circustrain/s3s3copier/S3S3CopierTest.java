@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2021 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,15 +23,20 @@ import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.s3a.BasicAWSCredentialsProvider;
@@ -44,11 +49,14 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
@@ -59,16 +67,20 @@ import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.transfer.Copy;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.TransferProgress;
 import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
 import com.amazonaws.util.IOUtils;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Charsets;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.io.Files;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.copier.CopierProgressListener;
 import com.hotels.bdp.circustrain.api.metrics.Metrics;
 import com.hotels.bdp.circustrain.s3s3copier.aws.AmazonS3ClientFactory;
 import com.hotels.bdp.circustrain.s3s3copier.aws.ListObjectsRequestFactory;
@@ -77,6 +89,31 @@ import com.hotels.bdp.circustrain.s3s3copier.aws.TransferManagerFactory;
 @RunWith(MockitoJUnitRunner.class)
 public class S3S3CopierTest {
 
+  /**
+   * Notifies the copy's state change listener, as the transfer manager does once a copy has finished.
+   */
+  private static class CompletedCopyAnswer implements Answer<Copy> {
+
+    private final Copy copy;
+    private final TransferState state;
+
+    private CompletedCopyAnswer(Copy copy) {
+      this(copy, TransferState.Completed);
+    }
+
+    private CompletedCopyAnswer(Copy copy, TransferState state) {
+      this.copy = copy;
+      this.state = state;
+    }
+
+    @Override
+    public Copy answer(InvocationOnMock invocation) throws Throwable {
+      TransferStateChangeListener stateChangeListener = invocation.getArgument(2);
+      stateChangeListener.transferStateChanged(copy, state);
+      return copy;
+    }
+  }
+
   private static final String AWS_ACCESS_KEY = "access";
   private static final String AWS_SECRET_KEY = "secret";
 
@@ -103,7 +140,9 @@ public class S3S3CopierTest {
     client.createBucket("source");
     client.createBucket("target");
 
-    when(s3ClientFactory.newInstance(any(AmazonS3URI.class), any(S3S3CopierOptions.class))).thenReturn(newClient());
+    lenient()
+        .when(s3ClientFactory.newInstance(any(AmazonS3URI.class), any(S3S3CopierOptions.class)))
+        .thenReturn(newClient());
   }
 
   private AmazonS3 newClient() {
@@ -185,6 +224,33 @@ public class S3S3CopierTest {
     assertThat(data, is("bar foo"));
   }
 
+  @Test
+  public void copyReportsCopiedSubLocations() throws Exception {
+    client.putObject("source", "year=2016/data1", inputData);
+    client.putObject("source", "year=2016/data2", inputData);
+    client.putObject("source", "year=2017/data", inputData);
+
+    Path sourceBaseLocation = new Path("s3://source/");
+    Path replicaLocation = new Path("s3://target/foo/");
+    Path year2016 = new Path(sourceBaseLocation, "year=2016");
+    Path year2017 = new Path(sourceBaseLocation, "year=2017");
+    Path year2018 = new Path(sourceBaseLocation, "year=2018");
+    List<Path> sourceSubLocations = Lists.newArrayList(year2016, year2017, year2018);
+    S3S3Copier s3s3Copier = newS3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation);
+    final List<Path> copiedSubLocations = new ArrayList<>();
+    Metrics metrics = s3s3Copier.copy(new CopierProgressListener() {
+      @Override
+      public void subLocationCopied(Path sourceSubLocation) {
+        copiedSubLocations.add(sourceSubLocation);
+      }
+    });
+    assertThat(metrics.getBytesReplicated(), is(21L));
+    assertThat(copiedSubLocations.size(), is(3));
+    // The empty sub-location is reported up front, the others as their copies complete, in any order
+    assertThat(copiedSubLocations.get(0), is(year2018));
+    assertThat(new HashSet<>(copiedSubLocations.subList(1, 3)), is((Set<Path>) Sets.newHashSet(year2016, year2017)));
+  }
+
   @Test
   public void copyOneObjectPartitionedSourceBaseNested() throws Exception {
     client.putObject("source", "nested/year=2016/data", inputData);
@@ -252,7 +318,7 @@ public class S3S3CopierTest {
     Copy copy = Mockito.mock(Copy.class);
     when(mockedTransferManager
         .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
-            .thenReturn(copy);
+            .thenAnswer(new CompletedCopyAnswer(copy));
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
     S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
@@ -299,7 +365,9 @@ public class S3S3CopierTest {
       fail("exception should have been thrown");
     } catch (CircusTrainException e) {
       verify(mockedTransferManager).shutdownNow();
-      assertThat(e.getCause().getMessage(), startsWith("MyCause"));
+      verify(mockedTransferManager, Mockito.times(3))
+          .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class));
+      assertThat(e.getMessage(), is("1 job(s) failed the maximum number of copy attempts, 3"));
     }
   }
 
@@ -317,7 +385,7 @@ public class S3S3CopierTest {
     Copy copy = Mockito.mock(Copy.class);
     when(mockedTransferManager
         .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
-            .thenReturn(copy);
+            .thenAnswer(new CompletedCopyAnswer(copy, TransferState.Failed));
     doThrow(new AmazonClientException("cause")).when(copy).waitForCompletion();
     S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
         mockedTransferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions);
@@ -346,7 +414,7 @@ public class S3S3CopierTest {
     Copy copy = Mockito.mock(Copy.class);
     when(mockedTransferManager
         .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
-            .thenReturn(copy);
+            .thenAnswer(new CompletedCopyAnswer(copy));
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
 
@@ -376,7 +444,7 @@ public class S3S3CopierTest {
     Copy copy = Mockito.mock(Copy.class);
     when(mockedTransferManager
         .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
-            .thenReturn(copy);
+            .thenAnswer(new CompletedCopyAnswer(copy));
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
 
@@ -408,7 +476,7 @@ public class S3S3CopierTest {
     Copy copy = Mockito.mock(Copy.class);
     when(mockedTransferManager
         .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
-            .thenReturn(copy);
+            .thenAnswer(new CompletedCopyAnswer(copy));
     TransferProgress transferProgress = new TransferProgress();
     when(copy.getProgress()).thenReturn(transferProgress);
 
@@ -442,8 +510,9 @@ public class S3S3CopierTest {
       fail("Exception should have been thrown");
     } catch (CircusTrainException e) {
       verify(mockedTransferManager).shutdownNow();
-      assertThat(e.getMessage(), is("Error in S3S3Copier:"));
-      assertThat(e.getCause().getMessage(), startsWith("S3 error"));
+      verify(mockedTransferManager, Mockito.times(3))
+          .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class));
+      assertThat(e.getMessage(), is("1 job(s) failed the maximum number of copy attempts, 3"));
     }
   }
 
@@ -464,7 +533,7 @@ public class S3S3CopierTest {
     Copy copy = Mockito.mock(Copy.class);
     when(mockedTransferManager
         .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
-            .thenReturn(copy);
+            .thenAnswer(new CompletedCopyAnswer(copy));
     TransferProgress transferProgress = new TransferProgress();
     transferProgress.setTotalBytesToTransfer(7);
     when(copy.getProgress()).thenReturn(transferProgress);
@@ -488,4 +557,262 @@ public class S3S3CopierTest {
       fail("Exception should not have been thrown");
     }
   }
+
+  @Test
+  public void streamingCopyMultipleObjects() throws Exception {
+    ListObjectsRequestFactory mockListObjectRequestFactory = Mockito.mock(ListObjectsRequestFactory.class);
+    when(mockListObjectRequestFactory.newInstance()).thenReturn(new ListObjectsRequest().withMaxKeys(1));
+    client.putObject("source", "bar/data1", inputData);
+    client.putObject("source", "bar/data2", inputData);
+    client.putObject("source", "bar/data3", inputData);
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.STREAMING_COPY.keyName(), "true");
+    copierOptions.put(S3S3CopierOptions.Keys.LISTING_QUEUE_SIZE.keyName(), 1);
+    copierOptions.put(S3S3CopierOptions.Keys.MAX_THREAD_POOL_SIZE.keyName(), 1);
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+
+    Path sourceBaseLocation = new Path("s3://source/bar/");
+    Path replicaLocation = new Path("s3://target/foo/");
+    List<Path> sourceSubLocations = new ArrayList<>();
+    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
+        transferManagerFactory, mockListObjectRequestFactory, registry, customOptions);
+    Metrics metrics = s3s3Copier.copy();
+    assertThat(metrics.getBytesReplicated(), is(21L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name()), is(21L));
+
+    for (String key : Arrays.asList("foo/data1", "foo/data2", "foo/data3")) {
+      S3Object object = client.getObject("target", key);
+      assertThat(IOUtils.toString(object.getObjectContent()), is("bar foo"));
+    }
+  }
+
+  @Test
+  public void copyWithAdaptiveConcurrency() throws Exception {
+    client.putObject("source", "bar/data1", inputData);
+    client.putObject("source", "bar/data2", inputData);
+    client.putObject("source", "bar/data3", inputData);
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.ADAPTIVE_CONCURRENCY.keyName(), "true");
+    copierOptions.put(S3S3CopierOptions.Keys.MAX_THREAD_POOL_SIZE.keyName(), 2);
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+    when(s3ClientFactory.newInstance(any(AmazonS3URI.class), eq(customOptions), any(RequestHandler2.class)))
+        .thenReturn(newClient(), newClient());
+
+    Path sourceBaseLocation = new Path("s3://source/bar/");
+    Path replicaLocation = new Path("s3://target/foo/");
+    List<Path> sourceSubLocations = new ArrayList<>();
+    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
+        transferManagerFactory, listObjectsRequestFactory, registry, customOptions);
+    Metrics metrics = s3s3Copier.copy();
+    assertThat(metrics.getBytesReplicated(), is(21L));
+
+    for (String key : Arrays.asList("foo/data1", "foo/data2", "foo/data3")) {
+      S3Object object = client.getObject("target", key);
+      assertThat(IOUtils.toString(object.getObjectContent()), is("bar foo"));
+    }
+    verify(s3ClientFactory, times(2))
+        .newInstance(any(AmazonS3URI.class), eq(customOptions), any(RequestHandler2.class));
+    assertThat(registry.getGauges().get(RunningMetrics.S3S3_CP_CONCURRENCY_LIMIT.name()).getValue(), is((Object) 2));
+    assertThat(registry.getGauges().get(RunningMetrics.S3S3_CP_THROTTLED_COPIES.name()).getValue(), is((Object) 0L));
+  }
+
+  @Test
+  public void adaptiveConcurrencyMetricsAreQualified() throws Exception {
+    client.putObject("source", "bar/data1", inputData);
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.ADAPTIVE_CONCURRENCY.keyName(), "true");
+    copierOptions.put(S3S3CopierOptions.Keys.MAX_THREAD_POOL_SIZE.keyName(), 2);
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+    when(s3ClientFactory.newInstance(any(AmazonS3URI.class), eq(customOptions), any(RequestHandler2.class)))
+        .thenReturn(newClient(), newClient());
+
+    Path sourceBaseLocation = new Path("s3://source/bar/");
+    Path replicaLocation = new Path("s3://target/foo/");
+    List<Path> sourceSubLocations = new ArrayList<>();
+    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
+        transferManagerFactory, listObjectsRequestFactory, registry, customOptions, null, "db.table");
+    s3s3Copier.copy();
+
+    assertThat(registry.getGauges().get("db.table." + RunningMetrics.S3S3_CP_CONCURRENCY_LIMIT.name()).getValue(),
+        is((Object) 2));
+    assertThat(registry.getGauges().get("db.table." + RunningMetrics.S3S3_CP_THROTTLED_COPIES.name()).getValue(),
+        is((Object) 0L));
+    assertNull(registry.getGauges().get(RunningMetrics.S3S3_CP_CONCURRENCY_LIMIT.name()));
+  }
+
+  @Test
+  public void streamingCopyReportsCopiedSubLocations() throws Exception {
+    client.putObject("source", "year=2016/data1", inputData);
+    client.putObject("source", "year=2016/data2", inputData);
+    client.putObject("source", "year=2017/data", inputData);
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.STREAMING_COPY.keyName(), "true");
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+
+    Path sourceBaseLocation = new Path("s3://source/");
+    Path replicaLocation = new Path("s3://target/foo/");
+    Path year2016 = new Path(sourceBaseLocation, "year=2016");
+    Path year2017 = new Path(sourceBaseLocation, "year=2017");
+    Path year2018 = new Path(sourceBaseLocation, "year=2018");
+    List<Path> sourceSubLocations = Lists.newArrayList(year2016, year2017, year2018);
+    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
+        transferManagerFactory, listObjectsRequestFactory, registry, customOptions);
+    final List<Path> copiedSubLocations = new ArrayList<>();
+    Metrics metrics = s3s3Copier.copy(new CopierProgressListener() {
+      @Override
+      public void subLocationCopied(Path sourceSubLocation) {
+        copiedSubLocations.add(sourceSubLocation);
+      }
+    });
+    assertThat(metrics.getBytesReplicated(), is(21L));
+    assertThat(copiedSubLocations.size(), is(3));
+    assertThat(new HashSet<>(copiedSubLocations), is((Set<Path>) Sets.newHashSet(year2016, year2017, year2018)));
+  }
+
+  @Test
+  public void streamingCopyRetriesOnlyFailedCopyJobs() throws Exception {
+    client.putObject("source", "bar/data1", inputData);
+    client.putObject("source", "bar/data2", inputData);
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.STREAMING_COPY.keyName(), "true");
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+    Path sourceBaseLocation = new Path("s3://source/bar/");
+    Path replicaLocation = new Path("s3://target/foo/");
+
+    TransferManagerFactory mockedTransferManagerFactory = Mockito.mock(TransferManagerFactory.class);
+    TransferManager mockedTransferManager = Mockito.mock(TransferManager.class);
+    when(mockedTransferManagerFactory.newInstance(any(AmazonS3.class), eq(customOptions)))
+        .thenReturn(mockedTransferManager);
+    Copy copy = Mockito.mock(Copy.class);
+    when(mockedTransferManager
+        .copy(any(CopyObjectRequest.class), any(AmazonS3.class), any(TransferStateChangeListener.class)))
+            .thenAnswer(new CompletedCopyAnswer(copy));
+    TransferProgress transferProgress = new TransferProgress();
+    transferProgress.setTotalBytesToTransfer(7);
+    when(copy.getProgress()).thenReturn(transferProgress);
+    doThrow(new AmazonClientException("cause")).doNothing().when(copy).waitForCompletion();
+    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, new ArrayList<Path>(), replicaLocation,
+        s3ClientFactory, mockedTransferManagerFactory, listObjectsRequestFactory, registry, customOptions);
+    Metrics metrics = s3s3Copier.copy();
+
+    ArgumentCaptor<CopyObjectRequest> captor = ArgumentCaptor.forClass(CopyObjectRequest.class);
+    verify(mockedTransferManager, Mockito.times(3))
+        .copy(captor.capture(), any(AmazonS3.class), any(TransferStateChangeListener.class));
+    List<CopyObjectRequest> capturedCopyRequests = captor.getAllValues();
+    assertThat(capturedCopyRequests.get(2).getSourceKey(), is("bar/data1"));
+    verify(mockedTransferManager).shutdownNow();
+    assertThat(metrics.getBytesReplicated(), is(14L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name()), is(14L));
+  }
+
+  @Test
+  public void streamingCopyListingFailure() throws Exception {
+    ListObjectsRequestFactory mockListObjectRequestFactory = Mockito.mock(ListObjectsRequestFactory.class);
+    when(mockListObjectRequestFactory.newInstance()).thenThrow(new AmazonClientException("listing error"));
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.STREAMING_COPY.keyName(), "true");
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(new Path("s3://source/"), new ArrayList<Path>(), new Path("s3://target/"),
+        s3ClientFactory, transferManagerFactory, mockListObjectRequestFactory, registry, customOptions);
+    try {
+      s3s3Copier.copy();
+      fail("exception should have been thrown");
+    } catch (CircusTrainException e) {
+      assertThat(e.getCause().getMessage(), startsWith("listing error"));
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void streamingCopyListingError() throws Exception {
+    ListObjectsRequestFactory mockListObjectRequestFactory = Mockito.mock(ListObjectsRequestFactory.class);
+    when(mockListObjectRequestFactory.newInstance()).thenThrow(new NoClassDefFoundError("listing error"));
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.STREAMING_COPY.keyName(), "true");
+    S3S3CopierOptions customOptions = new S3S3CopierOptions(copierOptions);
+    S3S3Copier s3s3Copier = new S3S3Copier(new Path("s3://source/"), new ArrayList<Path>(), new Path("s3://target/"),
+        s3ClientFactory, transferManagerFactory, mockListObjectRequestFactory, registry, customOptions);
+    try {
+      s3s3Copier.copy();
+      fail("error should have been thrown");
+    } catch (NoClassDefFoundError e) {
+      assertThat(e.getMessage(), is("listing error"));
+    }
+  }
+
+  @Test
+  public void incrementalCopyFromExistingReplica() throws Exception {
+    client.putObject("source", "year=2016/data", inputData);
+    client.putObject("source", "year=2017/data", inputData);
+    client.putObject("target", "old/year=2016/data", inputData);
+    client.putObject("target", "old/year=2017/data", "foo");
+
+    Path sourceBaseLocation = new Path("s3://source/");
+    Path replicaLocation = new Path("s3://target/new/");
+    Path sourceSubLocation2016 = new Path(sourceBaseLocation, "year=2016");
+    Path sourceSubLocation2017 = new Path(sourceBaseLocation, "year=2017");
+    Map<Path, Path> existingReplicaLocations = new HashMap<>();
+    existingReplicaLocations.put(sourceSubLocation2016, new Path("s3://target/old/year=2016"));
+    existingReplicaLocations.put(sourceSubLocation2017, new Path("s3://target/old/year=2017"));
+    S3S3Copier s3s3Copier = newIncrementalS3S3Copier(sourceBaseLocation,
+        Lists.newArrayList(sourceSubLocation2016, sourceSubLocation2017), replicaLocation, existingReplicaLocations);
+    Metrics metrics = s3s3Copier.copy();
+
+    assertThat(metrics.getBytesReplicated(), is(14L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name()), is(14L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.BYTES_COPIED_FROM_REPLICA.name()), is(7L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.BYTES_SKIPPED.name()), is(0L));
+    assertThat(IOUtils.toString(client.getObject("target", "new/year=2016/data").getObjectContent()), is("bar foo"));
+    assertThat(IOUtils.toString(client.getObject("target", "new/year=2017/data").getObjectContent()), is("bar foo"));
+  }
+
+  @Test
+  public void incrementalCopySkipsObjectsAlreadyInReplica() throws Exception {
+    client.putObject("source", "bar/data1", inputData);
+    client.putObject("source", "bar/data2", inputData);
+    client.putObject("target", "foo/data1", inputData);
+
+    Path sourceBaseLocation = new Path("s3://source/bar/");
+    Path replicaLocation = new Path("s3://target/foo/");
+    Map<Path, Path> existingReplicaLocations = new HashMap<>();
+    existingReplicaLocations.put(sourceBaseLocation, replicaLocation);
+    S3S3Copier s3s3Copier = newIncrementalS3S3Copier(sourceBaseLocation, new ArrayList<Path>(), replicaLocation,
+        existingReplicaLocations);
+    Metrics metrics = s3s3Copier.copy();
+
+    assertThat(metrics.getBytesReplicated(), is(7L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.TOTAL_BYTES_TO_REPLICATE.name()), is(7L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.BYTES_COPIED_FROM_REPLICA.name()), is(0L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.BYTES_SKIPPED.name()), is(7L));
+    assertThat(IOUtils.toString(client.getObject("target", "foo/data2").getObjectContent()), is("bar foo"));
+  }
+
+  @Test
+  public void incrementalCopyDisabledIgnoresExistingReplica() throws Exception {
+    client.putObject("source", "data", inputData);
+    client.putObject("target", "foo/data", inputData);
+
+    Path sourceBaseLocation = new Path("s3://source/");
+    Path replicaLocation = new Path("s3://target/foo/");
+    Map<Path, Path> existingReplicaLocations = new HashMap<>();
+    existingReplicaLocations.put(sourceBaseLocation, replicaLocation);
+    S3S3Copier s3s3Copier = new S3S3Copier(sourceBaseLocation, new ArrayList<Path>(), replicaLocation,
+        s3ClientFactory, transferManagerFactory, listObjectsRequestFactory, registry, s3S3CopierOptions,
+        Suppliers.ofInstance(existingReplicaLocations));
+    Metrics metrics = s3s3Copier.copy();
+
+    assertThat(metrics.getBytesReplicated(), is(7L));
+    assertThat(metrics.getMetrics().get(S3S3CopierMetrics.Metrics.BYTES_SKIPPED.name()), is(0L));
+  }
+
+  private S3S3Copier newIncrementalS3S3Copier(
+      Path sourceBaseLocation,
+      List<Path> sourceSubLocations,
+      Path replicaLocation,
+      Map<Path, Path> existingReplicaLocations) {
+    Map<String, Object> copierOptions = new HashMap<>();
+    copierOptions.put(S3S3CopierOptions.Keys.INCREMENTAL_COPY.keyName(), "true");
+    return new S3S3Copier(sourceBaseLocation, sourceSubLocations, replicaLocation, s3ClientFactory,
+        transferManagerFactory, listObjectsRequestFactory, registry, new S3S3CopierOptions(copierOptions),
+        Suppliers.ofInstance(existingReplicaLocations));
+  }
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,47 +15,149 @@
  */
 package com.hotels.bdp.circustrain.tool.comparison;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.api.conf.TableReplications;
 
+/**
+ * Compares up to {@code tableConcurrency} tables at the same time, logging the overall throughput every
+ * {@value #PROGRESS_INTERVAL_SECONDS} seconds and appending a summary line per table to the summary file as soon as
+ * the table is compared.
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 class ComparisonApplication implements ApplicationRunner {
 
   private static final Logger LOG = LoggerFactory.getLogger(ComparisonApplication.class);
 
+  private static final long PROGRESS_INTERVAL_SECONDS = 30L;
+
   private final List<TableReplication> tableReplications;
   private final TableComparatorFactory tableComparisonFactory;
+  private final TableReplicationResolver tableReplicationResolver;
+  private final ComparisonToolArgs comparisonToolArgs;
+  private final int tableConcurrency;
 
   @Autowired
-  ComparisonApplication(TableReplications tableReplications, TableComparatorFactory tableComparisonFactory) {
+  ComparisonApplication(
+      TableReplications tableReplications,
+      TableComparatorFactory tableComparisonFactory,
+      TableReplicationResolver tableReplicationResolver,
+      ComparisonToolArgs comparisonToolArgs,
+      @Value("${tableConcurrency:1}") int tableConcurrency) {
+    if (tableConcurrency < 1) {
+      throw new IllegalArgumentException("--" + ComparisonToolArgs.TABLE_CONCURRENCY + " must be at least 1");
+    }
     this.tableReplications = tableReplications.getTableReplications();
     this.tableComparisonFactory = tableComparisonFactory;
+    this.tableReplicationResolver = tableReplicationResolver;
+    this.comparisonToolArgs = comparisonToolArgs;
+    this.tableConcurrency = tableConcurrency;
   }
 
   @Override
   public void run(ApplicationArguments args) {
-    LOG.info("{} tables to compare.", tableReplications.size());
-    for (TableReplication tableReplication : tableReplications) {
-      try {
-        TableComparator tableComparison = tableComparisonFactory.newInstance(tableReplication);
-        tableComparison.run();
-      } catch (Throwable t) {
-        LOG.error("Failed.", t);
+    final List<TableReplication> tables = tableReplicationResolver.resolve(tableReplications);
+    LOG.info("{} tables to compare, {} at a time.", tables.size(), tableConcurrency);
+    final ComparisonProgress progress = new ComparisonProgress(tables.size());
+    ExecutorService executor = Executors
+        .newFixedThreadPool(Math.max(1, Math.min(tableConcurrency, tables.size())),
+            new ThreadFactoryBuilder().setNameFormat("table-comparison-%d").build());
+    ScheduledExecutorService progressReporter = Executors
+        .newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("comparison-progress").setDaemon(true).build());
+    progressReporter.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        LOG.info("Progress: {}", progress.report());
+      }
+    }, PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    try (final PrintStream summary = newSummary()) {
+      List<Future<?>> futures = new ArrayList<>(tables.size());
+      for (final TableReplication tableReplication : tables) {
+        futures.add(executor.submit(new Runnable() {
+          @Override
+          public void run() {
+            TableComparisonSummary tableSummary = compare(tableReplication, tables.size(), progress);
+            synchronized (summary) {
+              summary.println(tableSummary);
+              summary.flush();
+            }
+            LOG.info("Compared {}: {}", tableReplication.getSourceTable().getQualifiedName(), tableSummary);
+          }
+        }));
       }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.error("Interrupted.", e);
+    } catch (ExecutionException e) {
+      LOG.error("Failed.", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      progressReporter.shutdownNow();
+      LOG.info("Done: {}", progress.report());
+    }
+  }
+
+  private PrintStream newSummary() {
+    File summaryFile = comparisonToolArgs.getSummaryFile();
+    try {
+      PrintStream summary = new PrintStream(summaryFile, StandardCharsets.UTF_8.name());
+      summary.println(TableComparisonSummary.HEADER);
+      return summary;
+    } catch (IOException e) {
+      throw new CircusTrainException("Unable to create summary file " + summaryFile, e);
     }
+  }
 
+  private TableComparisonSummary compare(TableReplication tableReplication, int tables, ComparisonProgress progress) {
+    String sourceTableName = tableReplication.getSourceTable().getQualifiedName();
+    TableComparisonSummary tableSummary = new TableComparisonSummary(sourceTableName,
+        tableReplication.getQualifiedReplicaName(),
+        new FileOutputDiffListener(comparisonToolArgs.getOutputFile(sourceTableName, tables)));
+    Stopwatch stopwatch = Stopwatch.createStarted();
+    try {
+      TableComparator tableComparison = tableComparisonFactory.newInstance(tableReplication, tableSummary, progress);
+      tableComparison.run();
+      tableSummary
+          .completed(tableComparison.getPartitionsCompared(), tableComparison.getBytesChecksummed(),
+              stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    } catch (Throwable t) {
+      LOG.error("Failed to compare {}.", sourceTableName, t);
+      tableSummary.failed(t, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    } finally {
+      progress.tableCompared();
+    }
+    return tableSummary;
   }
 
 }
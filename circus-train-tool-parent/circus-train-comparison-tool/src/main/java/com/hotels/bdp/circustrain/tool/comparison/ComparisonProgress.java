@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.tool.comparison;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.hotels.bdp.circustrain.comparator.hive.functions.StreamingPathDigest;
+
+/**
+ * Progress of the comparison of all tables, shared by the tables compared concurrently.
+ */
+class ComparisonProgress {
+
+  private final int tables;
+  private final long startNanos = System.nanoTime();
+  private final AtomicInteger tablesCompared = new AtomicInteger();
+  private final AtomicLong partitionsCompared = new AtomicLong();
+  private final AtomicLong completedBytes = new AtomicLong();
+  private final Set<StreamingPathDigest> runningDigests = Collections
+      .newSetFromMap(new ConcurrentHashMap<StreamingPathDigest, Boolean>());
+
+  ComparisonProgress(int tables) {
+    this.tables = tables;
+  }
+
+  void checksumsStarted(StreamingPathDigest checksumFunction) {
+    runningDigests.add(checksumFunction);
+  }
+
+  void partitionCompared() {
+    partitionsCompared.incrementAndGet();
+  }
+
+  void checksumsCompleted(StreamingPathDigest checksumFunction) {
+    if (runningDigests.remove(checksumFunction)) {
+      completedBytes.addAndGet(checksumFunction.getBytesDigested());
+    }
+  }
+
+  void tableCompared() {
+    tablesCompared.incrementAndGet();
+  }
+
+  long getPartitionsCompared() {
+    return partitionsCompared.get();
+  }
+
+  long getBytesChecksummed() {
+    long bytes = completedBytes.get();
+    for (StreamingPathDigest checksumFunction : runningDigests) {
+      bytes += checksumFunction.getBytesDigested();
+    }
+    return bytes;
+  }
+
+  String report() {
+    double seconds = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)) / 1000.0;
+    long partitions = getPartitionsCompared();
+    long bytes = getBytesChecksummed();
+    return String
+        .format("%d/%d tables compared, %d partitions compared (%.1f partitions/sec), %d bytes checksummed "
+            + "(%.1f MB/sec)", tablesCompared.get(), tables, partitions, partitions / seconds, bytes,
+            bytes / seconds / (1024 * 1024));
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,7 +41,6 @@ import com.hotels.bdp.circustrain.api.Modules;
 import com.hotels.bdp.circustrain.api.conf.ReplicaCatalog;
 import com.hotels.bdp.circustrain.api.conf.SourceCatalog;
 import com.hotels.bdp.circustrain.comparator.ComparatorRegistry;
-import com.hotels.bdp.circustrain.comparator.api.DiffListener;
 import com.hotels.bdp.circustrain.core.HiveEndpoint;
 import com.hotels.bdp.circustrain.manifest.ManifestAttributes;
 import com.hotels.bdp.circustrain.tool.core.endpoint.ReplicaHiveEndpoint;
@@ -124,9 +123,4 @@ public class ComparisonTool {
   ComparisonToolArgs comparisonToolArgs(ApplicationArguments args) {
     return new ComparisonToolArgs(args);
   }
-
-  @Bean
-  DiffListener diffListener(ComparisonToolArgs comparisonToolArgs) {
-    return new FileOutputDiffListener(comparisonToolArgs.getOutputFile());
-  }
 }
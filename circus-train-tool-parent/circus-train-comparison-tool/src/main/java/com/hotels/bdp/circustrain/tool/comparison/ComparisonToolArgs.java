@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ public class ComparisonToolArgs {
   public final static String OUTPUT_FILE = "outputFile";
   public final static String SOURCE_PARTITION_BATCH_SIZE = "sourcePartitionBatchSize";
   public final static String REPLICA_PARTITION_BUFFER_SIZE = "replicaPartitionBufferSize";
+  public final static String TABLE_CONCURRENCY = "tableConcurrency";
   private File outputFile;
 
   public ComparisonToolArgs(ApplicationArguments args) {
@@ -45,4 +46,22 @@ public class ComparisonToolArgs {
     return outputFile;
   }
 
+  /**
+   * @return the file the differences of the given table are written to. The differences of a single table are written
+   *         to the output file itself, those of several tables to a file per table next to it.
+   */
+  public File getOutputFile(String qualifiedSourceTableName, int tables) {
+    if (tables == 1) {
+      return outputFile;
+    }
+    return new File(outputFile.getParentFile(), outputFile.getName() + "." + qualifiedSourceTableName);
+  }
+
+  /**
+   * @return the file a summary line is appended to as each table is compared
+   */
+  public File getSummaryFile() {
+    return new File(outputFile.getParentFile(), outputFile.getName() + ".summary");
+  }
+
 }
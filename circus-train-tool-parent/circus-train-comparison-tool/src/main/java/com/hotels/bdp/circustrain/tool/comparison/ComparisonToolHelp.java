@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -53,7 +53,9 @@ class ComparisonToolHelp {
             + ComparisonToolArgs.SOURCE_PARTITION_BATCH_SIZE
             + "=1000] [--"
             + ComparisonToolArgs.REPLICA_PARTITION_BUFFER_SIZE
-            + "=1000]")
+            + "=1000] [--"
+            + ComparisonToolArgs.TABLE_CONCURRENCY
+            + "=1]")
         .append(System.lineSeparator())
         .append("Errors found in the provided configuration file:")
         .append(System.lineSeparator())
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,22 +17,26 @@ package com.hotels.bdp.circustrain.tool.comparison;
 
 import static java.lang.System.out;
 
+import java.util.Iterator;
+
 import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ForwardingIterator;
 
 import com.hotels.bdp.circustrain.api.CircusTrainException;
 import com.hotels.bdp.circustrain.api.conf.TableReplication;
 import com.hotels.bdp.circustrain.comparator.ComparatorRegistry;
 import com.hotels.bdp.circustrain.comparator.api.DiffListener;
 import com.hotels.bdp.circustrain.comparator.hive.HiveDifferences;
+import com.hotels.bdp.circustrain.comparator.hive.functions.StreamingPathDigest;
 import com.hotels.bdp.circustrain.core.HiveEndpoint;
 import com.hotels.bdp.circustrain.hive.fetcher.BufferedPartitionFetcher;
-import com.hotels.bdp.circustrain.hive.fetcher.PartitionFetcher;
 import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
 import com.hotels.hcommon.hive.metastore.iterator.PartitionIterator;
 
@@ -51,6 +55,12 @@ class TableComparator {
 
   private final short replicaPartitionBufferSize;
 
+  private final ComparisonProgress progress;
+
+  private long partitionsCompared;
+
+  private long bytesChecksummed;
+
   TableComparator(
       HiveEndpoint source,
       HiveEndpoint replica,
@@ -58,7 +68,8 @@ class TableComparator {
       DiffListener diffListener,
       TableReplication tableReplication,
       short sourcePartitionBatchSize,
-      short replicaPartitionBufferSize) {
+      short replicaPartitionBufferSize,
+      ComparisonProgress progress) {
     this.source = source;
     this.replica = replica;
     this.comparatorRegistry = comparatorRegistry;
@@ -66,37 +77,76 @@ class TableComparator {
     this.tableReplication = tableReplication;
     this.sourcePartitionBatchSize = sourcePartitionBatchSize;
     this.replicaPartitionBufferSize = replicaPartitionBufferSize;
+    this.progress = progress;
   }
 
   public void run() throws CircusTrainException {
     Table sourceTable = source.getTableAndStatistics(tableReplication).getTable();
     Table replicaTable = replica.getTableAndStatistics(tableReplication).getTable();
-    out.println(String.format("Source catalog:         %s", source.getName()));
-    out.println(String.format("Source MetaStore URIs:  %s", source.getMetaStoreUris()));
-    out.println(String.format("Source table:           %s", Warehouse.getQualifiedName(sourceTable)));
-    out.println(String.format("Replica catalog:        %s", replica.getName()));
-    out.println(String.format("Replica MetaStore URIs: %s", replica.getMetaStoreUris()));
-    out.println(String.format("Replica table:          %s", Warehouse.getQualifiedName(replicaTable)));
-    out.println();
-    out.println();
+    // Printed at once so that the headers of tables compared concurrently are not interleaved
+    String newLine = System.lineSeparator();
+    out.print(new StringBuilder()
+        .append(String.format("Source catalog:         %s", source.getName()))
+        .append(newLine)
+        .append(String.format("Source MetaStore URIs:  %s", source.getMetaStoreUris()))
+        .append(newLine)
+        .append(String.format("Source table:           %s", Warehouse.getQualifiedName(sourceTable)))
+        .append(newLine)
+        .append(String.format("Replica catalog:        %s", replica.getName()))
+        .append(newLine)
+        .append(String.format("Replica MetaStore URIs: %s", replica.getMetaStoreUris()))
+        .append(newLine)
+        .append(String.format("Replica table:          %s", Warehouse.getQualifiedName(replicaTable)))
+        .append(newLine)
+        .append(newLine)
+        .append(newLine));
+    StreamingPathDigest checksumFunction = new StreamingPathDigest(source.getHiveConf());
+    progress.checksumsStarted(checksumFunction);
     try (CloseableMetaStoreClient sourceMetastore = source.getMetaStoreClientSupplier().get()) {
       try (CloseableMetaStoreClient replicaMetastore = replica.getMetaStoreClientSupplier().get()) {
-        LOG.info("Computing differences...");
-        PartitionIterator partitionIterator = new PartitionIterator(sourceMetastore, sourceTable,
+        LOG.info("Computing differences of table {}...", Warehouse.getQualifiedName(sourceTable));
+        final PartitionIterator partitionIterator = new PartitionIterator(sourceMetastore, sourceTable,
             sourcePartitionBatchSize);
-        PartitionFetcher replicaPartitionFetcher = new BufferedPartitionFetcher(replicaMetastore, replicaTable,
-            replicaPartitionBufferSize);
-        HiveDifferences diffs = HiveDifferences
-            .builder(diffListener)
-            .comparatorRegistry(comparatorRegistry)
-            .source(source.getHiveConf(), sourceTable, partitionIterator)
-            .replica(Optional.of(replicaTable), Optional.of(replicaPartitionFetcher))
-            .build();
-        diffs.run();
+        Iterator<Partition> countingPartitionIterator = new ForwardingIterator<Partition>() {
+          @Override
+          protected Iterator<Partition> delegate() {
+            return partitionIterator;
+          }
+
+          @Override
+          public Partition next() {
+            Partition partition = super.next();
+            partitionsCompared++;
+            progress.partitionCompared();
+            return partition;
+          }
+        };
+        try (BufferedPartitionFetcher replicaPartitionFetcher = new BufferedPartitionFetcher(replicaMetastore,
+            replicaTable, replicaPartitionBufferSize)) {
+          HiveDifferences diffs = HiveDifferences
+              .builder(diffListener)
+              .comparatorRegistry(comparatorRegistry)
+              .source(source.getHiveConf(), sourceTable, countingPartitionIterator)
+              .replica(Optional.of(replicaTable), Optional.of(replicaPartitionFetcher))
+              .checksumFunction(checksumFunction)
+              .build();
+          diffs.run();
+        }
       } catch (TException e) {
         throw new CircusTrainException("Could not fetch partitions", e);
       }
+    } finally {
+      bytesChecksummed = checksumFunction.getBytesDigested();
+      progress.checksumsCompleted(checksumFunction);
     }
   }
 
+  long getPartitionsCompared() {
+    return partitionsCompared;
+  }
+
+  long getBytesChecksummed() {
+    return bytesChecksummed;
+  }
+
 }
@@ -1,5 +1,5 @@
 /**
- * Copyright (C) 2016-2019 Expedia, Inc.
+ * Copyright (C) 2016-2026 Expedia, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -30,7 +30,6 @@ class TableComparatorFactory {
   private final HiveEndpoint source;
   private final HiveEndpoint replica;
   private final ComparatorRegistry comparatorRegistry;
-  private final DiffListener diffListener;
   private final short sourcePartitionBatchSize;
   private final short replicaPartitionBufferSize;
 
@@ -39,7 +38,6 @@ class TableComparatorFactory {
       HiveEndpoint source,
       HiveEndpoint replica,
       ComparatorRegistry comparatorRegistry,
-      DiffListener diffListener,
       @Value("${sourcePartitionBatchSize:1000}") short sourcePartitionBatchSize,
       @Value("${replicaPartitionBufferSize:1000}") short replicaPartitionBufferSize) {
     this.sourcePartitionBatchSize = sourcePartitionBatchSize;
@@ -47,12 +45,14 @@ class TableComparatorFactory {
     this.source = source;
     this.replica = replica;
     this.comparatorRegistry = comparatorRegistry;
-    this.diffListener = diffListener;
   }
 
-  public TableComparator newInstance(TableReplication tableReplication) {
+  public TableComparator newInstance(
+      TableReplication tableReplication,
+      DiffListener diffListener,
+      ComparisonProgress progress) {
     return new TableComparator(source, replica, comparatorRegistry, diffListener, tableReplication,
-        sourcePartitionBatchSize, replicaPartitionBufferSize);
+        sourcePartitionBatchSize, replicaPartitionBufferSize, progress);
   }
 
 }
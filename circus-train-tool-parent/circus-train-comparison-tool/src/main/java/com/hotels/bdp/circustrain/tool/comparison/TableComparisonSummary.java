@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.tool.comparison;
+
+import java.util.List;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+
+import com.hotels.bdp.circustrain.comparator.api.Diff;
+import com.hotels.bdp.circustrain.comparator.api.DiffListener;
+import com.hotels.bdp.circustrain.comparator.hive.wrappers.TableAndMetadata;
+
+/**
+ * Counts the differences of one table while forwarding them to the {@link DiffListener} that reports them in detail.
+ */
+class TableComparisonSummary implements DiffListener {
+
+  static final String HEADER = Joiner
+      .on('\t')
+      .join("source_table", "replica_table", "status", "table_changed", "partitions_compared", "new_partitions",
+          "changed_partitions", "data_changed_partitions", "bytes_checksummed", "duration_ms");
+
+  private final String sourceTable;
+  private final String replicaTable;
+  private final DiffListener delegate;
+  private boolean tableChanged;
+  private int newPartitions;
+  private int changedPartitions;
+  private int dataChangedPartitions;
+  private long partitionsCompared;
+  private long bytesChecksummed;
+  private long durationMillis;
+  private String error;
+
+  TableComparisonSummary(String sourceTable, String replicaTable, DiffListener delegate) {
+    this.sourceTable = sourceTable;
+    this.replicaTable = replicaTable;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void onDiffStart(TableAndMetadata source, Optional<TableAndMetadata> replica) {
+    delegate.onDiffStart(source, replica);
+  }
+
+  @Override
+  public void onChangedTable(List<Diff<Object, Object>> differences) {
+    tableChanged = true;
+    delegate.onChangedTable(differences);
+  }
+
+  @Override
+  public void onNewPartition(String partitionName, Partition partition) {
+    newPartitions++;
+    delegate.onNewPartition(partitionName, partition);
+  }
+
+  @Override
+  public void onChangedPartition(String partitionName, Partition partition, List<Diff<Object, Object>> differences) {
+    changedPartitions++;
+    delegate.onChangedPartition(partitionName, partition, differences);
+  }
+
+  @Override
+  public void onDataChanged(String partitionName, Partition partition) {
+    dataChangedPartitions++;
+    delegate.onDataChanged(partitionName, partition);
+  }
+
+  @Override
+  public void onDeletedPartition(String partitionName, Partition replicaPartition) {
+    delegate.onDeletedPartition(partitionName, replicaPartition);
+  }
+
+  @Override
+  public void onDiffEnd() {
+    delegate.onDiffEnd();
+  }
+
+  void completed(long partitionsCompared, long bytesChecksummed, long durationMillis) {
+    this.partitionsCompared = partitionsCompared;
+    this.bytesChecksummed = bytesChecksummed;
+    this.durationMillis = durationMillis;
+  }
+
+  void failed(Throwable t, long durationMillis) {
+    error = t.getClass().getSimpleName();
+    this.durationMillis = durationMillis;
+  }
+
+  boolean hasDifferences() {
+    return tableChanged || newPartitions > 0 || changedPartitions > 0 || dataChangedPartitions > 0;
+  }
+
+  /**
+   * @return the summary as a tab separated line matching {@link #HEADER}
+   */
+  @Override
+  public String toString() {
+    String status = error != null ? "FAILED(" + error + ")" : hasDifferences() ? "DIFFERENT" : "EQUAL";
+    return Joiner
+        .on('\t')
+        .join(sourceTable, replicaTable, status, tableChanged, partitionsCompared, newPartitions, changedPartitions,
+            dataChangedPartitions, bytesChecksummed, durationMillis);
+  }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.tool.comparison;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.hotels.bdp.circustrain.api.CircusTrainException;
+import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
+import com.hotels.bdp.circustrain.api.conf.SourceTable;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.core.HiveEndpoint;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+/**
+ * Expands table replications whose source table name is a metastore table pattern, e.g. {@code *} for every table of
+ * the database, into a table replication per matching source table. The replica tables of expanded replications have
+ * the same name as their source tables.
+ */
+@Component
+class TableReplicationResolver {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TableReplicationResolver.class);
+
+  private final HiveEndpoint source;
+
+  @Autowired
+  TableReplicationResolver(HiveEndpoint source) {
+    this.source = source;
+  }
+
+  static boolean isPattern(String tableName) {
+    return tableName.indexOf('*') >= 0 || tableName.indexOf('|') >= 0;
+  }
+
+  List<TableReplication> resolve(List<TableReplication> tableReplications) {
+    List<TableReplication> resolved = new ArrayList<>(tableReplications.size());
+    for (TableReplication tableReplication : tableReplications) {
+      if (isPattern(tableReplication.getSourceTable().getTableName())) {
+        resolved.addAll(expand(tableReplication));
+      } else {
+        resolved.add(tableReplication);
+      }
+    }
+    return resolved;
+  }
+
+  private List<TableReplication> expand(TableReplication tableReplication) {
+    SourceTable sourceTable = tableReplication.getSourceTable();
+    List<String> tableNames;
+    try (CloseableMetaStoreClient client = source.getMetaStoreClientSupplier().get()) {
+      tableNames = client.getTables(sourceTable.getDatabaseName(), sourceTable.getTableName());
+    } catch (TException e) {
+      throw new CircusTrainException("Unable to list the tables of " + sourceTable.getQualifiedName(), e);
+    }
+    LOG.info("{} source tables match {}", tableNames.size(), sourceTable.getQualifiedName());
+    List<TableReplication> expanded = new ArrayList<>(tableNames.size());
+    for (String tableName : tableNames) {
+      SourceTable matchingSourceTable = new SourceTable();
+      matchingSourceTable.setDatabaseName(sourceTable.getDatabaseName());
+      matchingSourceTable.setTableName(tableName);
+      matchingSourceTable.setPartitionFilter(sourceTable.getPartitionFilter());
+      matchingSourceTable.setPartitionLimit(sourceTable.getPartitionLimit());
+      ReplicaTable replicaTable = new ReplicaTable();
+      replicaTable.setDatabaseName(tableReplication.getReplicaTable().getDatabaseName());
+      TableReplication matchingTableReplication = new TableReplication();
+      matchingTableReplication.setSourceTable(matchingSourceTable);
+      matchingTableReplication.setReplicaTable(replicaTable);
+      expanded.add(matchingTableReplication);
+    }
+    return expanded;
+  }
+
+}
@@ -100,6 +100,10 @@ public class ComparisonToolIntegrationTest {
     String outputToUser = FileUtils.readFileToString(outputFile);
     assertThat(outputToUser, containsString("Partition differs"));
     assertThat(outputToUser, containsString("Table differences"));
+    String summary = FileUtils
+        .readFileToString(new File(outputFile.getParentFile(), outputFile.getName() + ".summary"));
+    assertThat(summary,
+        containsString(DATABASE + "." + SOURCE_TABLE + "\t" + DATABASE + "." + REPLICA_TABLE + "\tDIFFERENT"));
   }
 
   private void createSourceTable() throws Exception {
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2016-2026 Expedia, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hotels.bdp.circustrain.tool.comparison;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.base.Supplier;
+
+import com.hotels.bdp.circustrain.api.conf.ReplicaTable;
+import com.hotels.bdp.circustrain.api.conf.SourceTable;
+import com.hotels.bdp.circustrain.api.conf.TableReplication;
+import com.hotels.bdp.circustrain.core.HiveEndpoint;
+import com.hotels.hcommon.hive.metastore.client.api.CloseableMetaStoreClient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TableReplicationResolverTest {
+
+  private @Mock HiveEndpoint source;
+  private @Mock Supplier<CloseableMetaStoreClient> metaStoreClientSupplier;
+  private @Mock CloseableMetaStoreClient metaStoreClient;
+
+  private TableReplicationResolver resolver;
+
+  @Before
+  public void init() {
+    when(source.getMetaStoreClientSupplier()).thenReturn(metaStoreClientSupplier);
+    when(metaStoreClientSupplier.get()).thenReturn(metaStoreClient);
+    resolver = new TableReplicationResolver(source);
+  }
+
+  private static TableReplication newTableReplication(String databaseName, String tableName, String replicaDatabase) {
+    SourceTable sourceTable = new SourceTable();
+    sourceTable.setDatabaseName(databaseName);
+    sourceTable.setTableName(tableName);
+    ReplicaTable replicaTable = new ReplicaTable();
+    replicaTable.setDatabaseName(replicaDatabase);
+    TableReplication tableReplication = new TableReplication();
+    tableReplication.setSourceTable(sourceTable);
+    tableReplication.setReplicaTable(replicaTable);
+    return tableReplication;
+  }
+
+  @Test
+  public void patternIsExpanded() throws Exception {
+    when(metaStoreClient.getTables("db", "*")).thenReturn(Arrays.asList("table1", "table2"));
+    TableReplication table = newTableReplication("other_db", "table", null);
+
+    List<TableReplication> resolved = resolver
+        .resolve(Arrays.asList(newTableReplication("db", "*", "replica_db"), table));
+
+    assertThat(resolved.size(), is(3));
+    assertThat(resolved.get(0).getSourceTable().getQualifiedName(), is("db.table1"));
+    assertThat(resolved.get(0).getQualifiedReplicaName(), is("replica_db.table1"));
+    assertThat(resolved.get(1).getSourceTable().getQualifiedName(), is("db.table2"));
+    assertThat(resolved.get(1).getQualifiedReplicaName(), is("replica_db.table2"));
+    assertThat(resolved.get(2), is(sameInstance(table)));
+  }
+
+}